@@ -0,0 +1,84 @@
+package teammates.client.scripts;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+
+import teammates.client.remoteapi.RemoteApiClient;
+import teammates.common.datatransfer.FeedbackSessionAttributes;
+import teammates.common.datatransfer.FeedbackSessionType;
+import teammates.storage.api.FeedbackSessionsDb;
+import teammates.storage.datastore.Datastore;
+import teammates.storage.entity.FeedbackSession;
+
+/**
+ * Script to write the schedule entries of the sessions created before the entries were kept,
+ * so that the automated emails of the sessions are still sent.
+ * The entries of a session are written when the session is saved again.
+ * Once it has completed, set app.sessions.schedulestored in build.properties to true and deploy again,
+ * so that the sessions needing automated emails are found through their schedule entries.
+ */
+public class DataMigrationForFeedbackSessionScheduleEntries extends RemoteApiClient {
+
+    private static final FeedbackSessionsDb fsDb = new FeedbackSessionsDb();
+
+    private boolean isPreview = true;
+
+    public static void main(String[] args) throws IOException {
+        new DataMigrationForFeedbackSessionScheduleEntries().doOperationRemotely();
+    }
+
+    @Override
+    protected void doOperation() {
+        Datastore.initialize();
+
+        List<FeedbackSessionAttributes> sessions = getNonPrivateFeedbackSessions();
+        System.out.println("There are/is " + sessions.size() + " non-private session(s)");
+
+        for (FeedbackSessionAttributes session : sessions) {
+            writeScheduleEntries(session);
+        }
+    }
+
+    private void writeScheduleEntries(FeedbackSessionAttributes session) {
+        if (isPreview) {
+            System.out.println("Schedule entries for " + session.getSessionName()
+                               + " in course " + session.getCourseId() + " to be written");
+            return;
+        }
+
+        try {
+            fsDb.updateFeedbackSession(session);
+        } catch (Exception e) {
+            System.out.println("Failed to write schedule entries for session "
+                               + session.getSessionName() + " in course " + session.getCourseId() + ".");
+            e.printStackTrace();
+        }
+    }
+
+    private List<FeedbackSessionAttributes> getNonPrivateFeedbackSessions() {
+        List<FeedbackSessionAttributes> sessions = new ArrayList<FeedbackSessionAttributes>();
+        List<FeedbackSession> sessionEntities = getNonPrivateFeedbackSessionEntities();
+        for (FeedbackSession sessionEntity : sessionEntities) {
+            sessions.add(new FeedbackSessionAttributes(sessionEntity));
+        }
+        return sessions;
+    }
+
+    private PersistenceManager getPm() {
+        return Datastore.getPersistenceManager();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<FeedbackSession> getNonPrivateFeedbackSessionEntities() {
+        Query q = getPm().newQuery(FeedbackSession.class);
+        q.declareParameters("Enum private");
+        q.setFilter("feedbackSessionType != private");
+
+        return (List<FeedbackSession>) q.execute(FeedbackSessionType.PRIVATE);
+    }
+
+}
@@ -0,0 +1,91 @@
+package teammates.client.scripts;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+
+import org.datanucleus.store.appengine.query.JDOCursorHelper;
+
+import teammates.client.remoteapi.RemoteApiClient;
+import teammates.storage.datastore.Datastore;
+import teammates.storage.entity.FeedbackResponse;
+
+import com.google.appengine.api.datastore.Cursor;
+
+/**
+ * Script to populate the sections of the responses stored before the sections were kept,
+ * so that they are found by the queries for the responses in a section.
+ *
+ * The responses are read and updated page by page, so that the script can be stopped and resumed
+ * from the cursor of the last page printed.
+ * Once it has completed, set app.responses.sectionsstored in build.properties to true and deploy again,
+ * so that the responses in a section are found through their sections.
+ */
+public class DataMigrationForSectionsInResponses extends RemoteApiClient {
+
+    private static final boolean isPreview = true;
+
+    private static final int RESPONSES_PER_PAGE = 500;
+
+    // modify to resume from the cursor of the last page printed by a previous run
+    private static final String START_CURSOR = null;
+
+    public static void main(String[] args) throws IOException {
+        DataMigrationForSectionsInResponses migrator = new DataMigrationForSectionsInResponses();
+        migrator.doOperationRemotely();
+    }
+
+    @Override
+    protected void doOperation() {
+        Datastore.initialize();
+
+        String cursor = START_CURSOR;
+        int numberOfResponsesToUpdate = 0;
+        boolean hasMore = true;
+
+        while (hasMore) {
+            PersistenceManager pm = Datastore.getPersistenceManager();
+            List<FeedbackResponse> responses = getResponsesInPage(pm, cursor);
+
+            for (FeedbackResponse response : responses) {
+                if (response.getSections() == null) {
+                    numberOfResponsesToUpdate++;
+                    if (!isPreview) {
+                        // the update timestamp is kept, as the response itself is not changed
+                        response.keepUpdateTimestamp = true;
+                        response.updateSections();
+                    }
+                }
+            }
+
+            hasMore = responses.size() == RESPONSES_PER_PAGE;
+            cursor = hasMore ? JDOCursorHelper.getCursor(responses).toWebSafeString() : null;
+
+            // the updated responses are saved when the persistence manager is closed
+            pm.close();
+
+            System.out.println("Page done, " + numberOfResponsesToUpdate + " response(s) without sections so far"
+                               + (hasMore ? ", next cursor: " + cursor : ""));
+        }
+
+        System.out.println((isPreview ? "There are/is " : "Updated ") + numberOfResponsesToUpdate
+                           + " response(s) without sections");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<FeedbackResponse> getResponsesInPage(PersistenceManager pm, String cursor) {
+        Query q = pm.newQuery(FeedbackResponse.class);
+        if (cursor != null) {
+            Map<String, Object> extensionMap = new HashMap<String, Object>();
+            extensionMap.put(JDOCursorHelper.CURSOR_EXTENSION, Cursor.fromWebSafeString(cursor));
+            q.setExtensions(extensionMap);
+        }
+        q.setRange(0, RESPONSES_PER_PAGE);
+
+        return (List<FeedbackResponse>) q.execute();
+    }
+}
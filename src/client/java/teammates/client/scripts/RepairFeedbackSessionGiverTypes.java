@@ -0,0 +1,44 @@
+package teammates.client.scripts;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.Query;
+
+import teammates.client.remoteapi.RemoteApiClient;
+import teammates.storage.datastore.Datastore;
+import teammates.storage.entity.FeedbackSessionGiverTypes;
+
+/**
+ * Script to remove the giver types kept for feedback sessions, e.g. if they may have been
+ * kept wrongly for some sessions. The giver types of each session are found again from
+ * its questions the next time the submission statistics of the session are needed.
+ */
+public class RepairFeedbackSessionGiverTypes extends RemoteApiClient {
+
+    private static final boolean isPreview = true;
+
+    public static void main(String[] args) throws IOException {
+        RepairFeedbackSessionGiverTypes repairer = new RepairFeedbackSessionGiverTypes();
+        repairer.doOperationRemotely();
+    }
+
+    @Override
+    protected void doOperation() {
+        Datastore.initialize();
+        PersistenceManager pm = Datastore.getPersistenceManager();
+
+        Query q = pm.newQuery(FeedbackSessionGiverTypes.class);
+        @SuppressWarnings("unchecked")
+        List<FeedbackSessionGiverTypes> giverTypesList = (List<FeedbackSessionGiverTypes>) q.execute();
+
+        System.out.println("There are/is " + giverTypesList.size() + " session(s) with giver types kept");
+
+        if (!isPreview) {
+            pm.deletePersistentAll(giverTypesList);
+            System.out.println("Removed the giver types of " + giverTypesList.size() + " session(s)");
+        }
+        pm.close();
+    }
+}
@@ -1,7 +1,9 @@
 package teammates.common.datatransfer;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -9,23 +11,97 @@ import java.util.Map;
  * Contains a list of students and instructors in a course. Useful for caching
  * a copy of student and instructor details of a course instead of reading
  * them from the database multiple times.
+ * <br> Students and instructors are listed in the order they are given, also within teams and sections.
+ * The roster is not modified after construction and may be shared between requests,
+ * so the lists it returns are read-only and the attributes in them should not be modified.
  */
 public class CourseRoster {
     
-    Map<String, StudentAttributes> studentListByEmail = new HashMap<String, StudentAttributes>();
-    Map<String, InstructorAttributes> instructorListByEmail = new HashMap<String, InstructorAttributes>();
+    // students and instructors are kept in the order they are given, e.g. as read from the datastore
+    Map<String, StudentAttributes> studentListByEmail = new LinkedHashMap<String, StudentAttributes>();
+    Map<String, InstructorAttributes> instructorListByEmail = new LinkedHashMap<String, InstructorAttributes>();
+    
+    private final List<StudentAttributes> students;
+    private final List<InstructorAttributes> instructors;
+    private final List<String> sortedStudentEmails;
+    private final List<String> sortedTeamNames;
+    private final Map<String, List<StudentAttributes>> studentListByTeam =
+            new HashMap<String, List<StudentAttributes>>();
+    private final Map<String, List<StudentAttributes>> studentListBySection =
+            new HashMap<String, List<StudentAttributes>>();
     
     public CourseRoster(List<StudentAttributes> students, List<InstructorAttributes> instructors) {
         populateStuentListByEmail(students);
         populateInstructorListByEmail(instructors);
+        
+        this.students = Collections.unmodifiableList(
+                new ArrayList<StudentAttributes>(studentListByEmail.values()));
+        this.instructors = Collections.unmodifiableList(
+                new ArrayList<InstructorAttributes>(instructorListByEmail.values()));
+        
+        List<String> studentEmails = new ArrayList<String>(studentListByEmail.keySet());
+        Collections.sort(studentEmails);
+        this.sortedStudentEmails = Collections.unmodifiableList(studentEmails);
+        
+        populateStudentListByTeamAndSection();
+        
+        List<String> teamNames = new ArrayList<String>(studentListByTeam.keySet());
+        Collections.sort(teamNames);
+        this.sortedTeamNames = Collections.unmodifiableList(teamNames);
     }
     
+    /**
+     * Returns a read-only list of all students in the course.
+     */
     public List<StudentAttributes> getStudents() {
-        return new ArrayList<StudentAttributes>(studentListByEmail.values());
+        return students;
     }
     
+    /**
+     * Returns a read-only list of all instructors in the course.
+     */
     public List<InstructorAttributes> getInstructors() {
-        return new ArrayList<InstructorAttributes>(instructorListByEmail.values());
+        return instructors;
+    }
+    
+    /**
+     * Returns a read-only list of the emails of all students in the course, in alphabetical order.
+     */
+    public List<String> getSortedStudentEmails() {
+        return sortedStudentEmails;
+    }
+    
+    /**
+     * Returns a read-only list of the names of all teams in the course, in alphabetical order.
+     */
+    public List<String> getSortedTeamNames() {
+        return sortedTeamNames;
+    }
+    
+    /**
+     * Returns a read-only list of the students in {@code teamName}, or an empty list if there is no such team.
+     */
+    public List<StudentAttributes> getStudentsInTeam(String teamName) {
+        List<StudentAttributes> teamMembers = studentListByTeam.get(teamName);
+        return teamMembers == null ? Collections.<StudentAttributes>emptyList() : teamMembers;
+    }
+    
+    /**
+     * Returns a read-only list of the students in {@code sectionName},
+     * or an empty list if there is no such section.
+     */
+    public List<StudentAttributes> getStudentsInSection(String sectionName) {
+        List<StudentAttributes> sectionMembers = studentListBySection.get(sectionName);
+        return sectionMembers == null ? Collections.<StudentAttributes>emptyList() : sectionMembers;
+    }
+    
+    /**
+     * Returns the section of {@code teamName}, taken from its first student,
+     * or null if there is no such team.
+     */
+    public String getSectionForTeam(String teamName) {
+        List<StudentAttributes> teamMembers = studentListByTeam.get(teamName);
+        return teamMembers == null ? null : teamMembers.get(0).section;
     }
     
     /**
@@ -82,5 +158,29 @@ public class CourseRoster {
             instructorListByEmail.put(i.email, i);
         }
     }
+    
+    private void populateStudentListByTeamAndSection() {
+        for (StudentAttributes s : students) {
+            addToGroup(studentListByTeam, s.team, s);
+            addToGroup(studentListBySection, s.section, s);
+        }
+        
+        for (Map.Entry<String, List<StudentAttributes>> team : studentListByTeam.entrySet()) {
+            team.setValue(Collections.unmodifiableList(team.getValue()));
+        }
+        for (Map.Entry<String, List<StudentAttributes>> section : studentListBySection.entrySet()) {
+            section.setValue(Collections.unmodifiableList(section.getValue()));
+        }
+    }
+    
+    private static void addToGroup(Map<String, List<StudentAttributes>> groups, String groupName,
+                                   StudentAttributes student) {
+        List<StudentAttributes> group = groups.get(groupName);
+        if (group == null) {
+            group = new ArrayList<StudentAttributes>();
+            groups.put(groupName, group);
+        }
+        group.add(student);
+    }
 
 }
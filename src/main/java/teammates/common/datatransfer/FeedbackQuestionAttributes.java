@@ -39,6 +39,14 @@ public class FeedbackQuestionAttributes extends EntityAttributes implements Comp
     protected transient Date updatedAt;
     private String feedbackQuestionId;
 
+    /**
+     * Details last parsed from {@code questionMetaData}, together with the metadata and
+     * question type they were parsed from. Writes to either field make the cache stale.
+     */
+    private transient FeedbackQuestionDetails cachedQuestionDetails;
+    private transient Text cachedQuestionMetaData;
+    private transient FeedbackQuestionType cachedQuestionType;
+
     public FeedbackQuestionAttributes() {
         // attributes to be set after construction
     }
@@ -571,11 +579,23 @@ public class FeedbackQuestionAttributes extends EntityAttributes implements Comp
     }
 
     /** 
-     * This method retrieves the Feedback*QuestionDetails object for this question
+     * This method retrieves the Feedback*QuestionDetails object for this question.
+     * The details are parsed once and reused until the question metadata or type changes,
+     * so callers should not modify the returned object.
      * 
      * @return The Feedback*QuestionDetails object representing the question's details
      */
     public FeedbackQuestionDetails getQuestionDetails() {
+        if (cachedQuestionDetails == null || questionType != cachedQuestionType
+                || !questionMetaData.equals(cachedQuestionMetaData)) {
+            cachedQuestionDetails = parseQuestionDetails();
+            cachedQuestionMetaData = questionMetaData;
+            cachedQuestionType = questionType;
+        }
+        return cachedQuestionDetails;
+    }
+
+    private FeedbackQuestionDetails parseQuestionDetails() {
         final String questionMetaDataValue = questionMetaData.getValue();
         // For old Text questions, the questionText simply contains the question, not a JSON
         if (questionType == FeedbackQuestionType.TEXT && !isValidJsonString(questionMetaDataValue)) {
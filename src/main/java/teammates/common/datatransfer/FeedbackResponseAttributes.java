@@ -42,6 +42,14 @@ public class FeedbackResponseAttributes extends EntityAttributes {
     protected transient Date createdAt;
     protected transient Date updatedAt;
     private String feedbackResponseId;
+
+    /**
+     * Details last parsed from {@code responseMetaData}, together with the metadata and
+     * question type they were parsed from. Writes to either field make the cache stale.
+     */
+    private transient FeedbackResponseDetails cachedResponseDetails;
+    private transient Text cachedResponseMetaData;
+    private transient FeedbackQuestionType cachedQuestionType;
     
     public FeedbackResponseAttributes() {
         // attributes to be set after construction
@@ -193,7 +201,9 @@ public class FeedbackResponseAttributes extends EntityAttributes {
         }
     }
     
-    /** This method retrieves the Feedback*ResponseDetails object for this response
+    /** This method retrieves the Feedback*ResponseDetails object for this response.
+     * The details are parsed once and reused until the response metadata or question type changes,
+     * so callers should not modify the returned object.
      * @return The Feedback*ResponseDetails object representing the response's details
      */
     public FeedbackResponseDetails getResponseDetails() {
@@ -202,6 +212,16 @@ public class FeedbackResponseAttributes extends EntityAttributes {
             return null;
         }
         
+        if (cachedResponseDetails == null || feedbackQuestionType != cachedQuestionType
+                || !responseMetaData.equals(cachedResponseMetaData)) {
+            cachedResponseDetails = parseResponseDetails();
+            cachedResponseMetaData = responseMetaData;
+            cachedQuestionType = feedbackQuestionType;
+        }
+        return cachedResponseDetails;
+    }
+    
+    private FeedbackResponseDetails parseResponseDetails() {
         Class<? extends FeedbackResponseDetails> responseDetailsClass = getFeedbackResponseDetailsClass();
         
         if (responseDetailsClass == FeedbackTextResponseDetails.class) {
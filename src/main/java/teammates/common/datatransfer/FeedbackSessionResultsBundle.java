@@ -5,6 +5,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,12 +68,20 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
     */
     public Map<String, Set<String>> sectionTeamNameTable;
 
+    // Sort keys of the responses sorted so far, looked up by identity as
+    // responses and actualResponses hold copies with the same id.
+    // Responses are not modified after the bundle is constructed, so keys never go stale.
+    private final Map<FeedbackResponseAttributes, ResponseSortKey> responseSortKeys =
+            new IdentityHashMap<FeedbackResponseAttributes, ResponseSortKey>();
+
     // Sorts by giverName > recipientName > qnNumber
     // General questions and team questions at the bottom.
     public Comparator<FeedbackResponseAttributes> compareByGiverRecipientQuestion =
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String giverSection1 = o1.giverSection;
             String giverSection2 = o2.giverSection;
             int order = giverSection1.compareTo(giverSection2);
@@ -80,31 +89,31 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
             
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
             
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -118,28 +127,30 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             int order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -153,6 +164,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String giverSection1 = o1.giverSection;
             String giverSection2 = o2.giverSection;
             int order = giverSection1.compareTo(giverSection2);
@@ -160,40 +173,38 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             
-            String t1 = getTeamNameForEmail(o1.giver).isEmpty() ? getNameForEmail(o1.giver)
-                                                                : getTeamNameForEmail(o1.giver);
-            String t2 = getTeamNameForEmail(o2.giver).isEmpty() ? getNameForEmail(o2.giver)
-                                                                : getTeamNameForEmail(o2.giver);
+            String t1 = k1.giverTeam;
+            String t2 = k2.giverTeam;
             order = compareByNames(t1, t2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -207,6 +218,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String recipientSection1 = o1.recipientSection;
             String recipientSection2 = o2.recipientSection;
             int order = recipientSection1.compareTo(recipientSection2);
@@ -214,32 +227,32 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
             
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
             
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -253,6 +266,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String recipientSection1 = o1.recipientSection;
             String recipientSection2 = o2.recipientSection;
             int order = recipientSection1.compareTo(recipientSection2);
@@ -260,40 +275,38 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
             
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String t1 = getTeamNameForEmail(o1.recipient).isEmpty() ? getNameForEmail(o1.recipient)
-                                                                    : getTeamNameForEmail(o1.recipient);
-            String t2 = getTeamNameForEmail(o2.recipient).isEmpty() ? getNameForEmail(o2.recipient)
-                                                                    : getTeamNameForEmail(o2.recipient);
+            String t1 = k1.recipientTeam;
+            String t2 = k2.recipientTeam;
             order = compareByNames(t1, t2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
             
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -307,6 +320,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String giverSection1 = o1.giverSection;
             String giverSection2 = o2.giverSection;
             int order = giverSection1.compareTo(giverSection2);
@@ -314,41 +329,39 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
             
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String t1 = getTeamNameForEmail(o1.recipient).isEmpty() ? getNameForEmail(o1.recipient)
-                                                                    : getTeamNameForEmail(o1.recipient);
-            String t2 = getTeamNameForEmail(o2.recipient).isEmpty() ? getNameForEmail(o2.recipient)
-                                                                    : getTeamNameForEmail(o2.recipient);
+            String t1 = k1.recipientTeam;
+            String t2 = k2.recipientTeam;
             order = compareByNames(t1, t2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -362,6 +375,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String giverSection1 = o1.giverSection;
             String giverSection2 = o2.giverSection;
             int order = giverSection1.compareTo(giverSection2);
@@ -369,51 +384,47 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
 
 
-            String giverTeam1 = getTeamNameForEmail(o1.giver).isEmpty() ? getNameForEmail(o1.giver)
-                                                                        : getTeamNameForEmail(o1.giver);
-            String giverTeam2 = getTeamNameForEmail(o2.giver).isEmpty() ? getNameForEmail(o2.giver)
-                                                                        : getTeamNameForEmail(o2.giver);
+            String giverTeam1 = k1.giverTeam;
+            String giverTeam2 = k2.giverTeam;
             order = compareByNames(giverTeam1, giverTeam2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
             
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String receiverTeam1 = getTeamNameForEmail(o1.recipient).isEmpty() ? getNameForEmail(o1.recipient)
-                                                                               : getTeamNameForEmail(o1.recipient);
-            String receiverTeam2 = getTeamNameForEmail(o2.recipient).isEmpty() ? getNameForEmail(o2.recipient)
-                                                                               : getTeamNameForEmail(o2.recipient);
+            String receiverTeam1 = k1.recipientTeam;
+            String receiverTeam2 = k2.recipientTeam;
             order = compareByNames(receiverTeam1, receiverTeam2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -427,6 +438,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             String recipientSection1 = o1.recipientSection;
             String recipientSection2 = o2.recipientSection;
             int order = recipientSection1.compareTo(recipientSection2);
@@ -434,40 +447,38 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
 
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             
-            String t1 = getTeamNameForEmail(o1.giver).isEmpty() ? getNameForEmail(o1.giver)
-                                                                : getTeamNameForEmail(o1.giver);
-            String t2 = getTeamNameForEmail(o2.giver).isEmpty() ? getNameForEmail(o2.giver)
-                                                                : getTeamNameForEmail(o2.giver);
+            String t1 = k1.giverTeam;
+            String t2 = k2.giverTeam;
             order = compareByNames(t1, t2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -482,6 +493,8 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             
             String recipientSection1 = o1.recipientSection;
             String recipientSection2 = o2.recipientSection;
@@ -490,48 +503,44 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return order;
             }
 
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
-            String recipientTeam1 = getTeamNameForEmail(o1.recipient).isEmpty() ? getNameForEmail(o1.recipient)
-                                                                                : getTeamNameForEmail(o1.recipient);
-            String recipientTeam2 = getTeamNameForEmail(o2.recipient).isEmpty() ? getNameForEmail(o2.recipient)
-                                                                                : getTeamNameForEmail(o2.recipient);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
+            String recipientTeam1 = k1.recipientTeam;
+            String recipientTeam2 = k2.recipientTeam;
             order = compareByNames(recipientTeam1, recipientTeam2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
        
-            String giverTeam1 = getTeamNameForEmail(o1.giver).isEmpty() ? getNameForEmail(o1.giver)
-                                                                        : getTeamNameForEmail(o1.giver);
-            String giverTeam2 = getTeamNameForEmail(o2.giver).isEmpty() ? getNameForEmail(o2.giver)
-                                                                        : getTeamNameForEmail(o2.giver);
+            String giverTeam1 = k1.giverTeam;
+            String giverTeam2 = k2.giverTeam;
             order = compareByNames(giverTeam1, giverTeam2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -545,48 +554,46 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
-            String recipientTeam1 = getTeamNameForEmail(o1.recipient).isEmpty() ? getNameForEmail(o1.recipient)
-                                                                                : getTeamNameForEmail(o1.recipient);
-            String recipientTeam2 = getTeamNameForEmail(o2.recipient).isEmpty() ? getNameForEmail(o2.recipient)
-                                                                                : getTeamNameForEmail(o2.recipient);
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
+            String recipientTeam1 = k1.recipientTeam;
+            String recipientTeam2 = k2.recipientTeam;
             int order = compareByNames(recipientTeam1, recipientTeam2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String giverTeam1 = getTeamNameForEmail(o1.giver).isEmpty() ? getNameForEmail(o1.giver)
-                                                                        : getTeamNameForEmail(o1.giver);
-            String giverTeam2 = getTeamNameForEmail(o2.giver).isEmpty() ? getNameForEmail(o2.giver)
-                                                                        : getTeamNameForEmail(o2.giver);
+            String giverTeam1 = k1.giverTeam;
+            String giverTeam2 = k2.giverTeam;
             order = compareByNames(giverTeam1, giverTeam2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
             
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -600,51 +607,49 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             
-            String giverTeam1 = getTeamNameForEmail(o1.giver).isEmpty() ? getNameForEmail(o1.giver)
-                                                                        : getTeamNameForEmail(o1.giver);
-            String giverTeam2 = getTeamNameForEmail(o2.giver).isEmpty() ? getNameForEmail(o2.giver)
-                                                                        : getTeamNameForEmail(o2.giver);
+            String giverTeam1 = k1.giverTeam;
+            String giverTeam2 = k2.giverTeam;
             int order = compareByNames(giverTeam1, giverTeam2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
 
-            order = compareByQuestionNumber(o1, o2);
+            order = compareByQuestionNumber(k1, k2);
             if (order != 0) {
                 return order;
             }
 
-            String giverName1 = emailNameTable.get(o1.giver);
-            String giverName2 = emailNameTable.get(o2.giver);
+            String giverName1 = k1.giverName;
+            String giverName2 = k2.giverName;
             order = compareByNames(giverName1, giverName2, isGiverVisible1, isGiverVisible2);
             if (order != 0) {
                 return order;
             }
             
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
 
-            String receiverTeam1 = getTeamNameForEmail(o1.recipient).isEmpty() ? getNameForEmail(o1.recipient)
-                                                                               : getTeamNameForEmail(o1.recipient);
-            String receiverTeam2 = getTeamNameForEmail(o2.recipient).isEmpty() ? getNameForEmail(o2.recipient)
-                                                                               : getTeamNameForEmail(o2.recipient);
+            String receiverTeam1 = k1.recipientTeam;
+            String receiverTeam2 = k2.recipientTeam;
             order = compareByNames(receiverTeam1, receiverTeam2, isRecipientVisible1, isRecipientVisible2);
             if (order != 0) {
                 return order;
             }
 
-            String recipientName1 = emailNameTable.get(o1.recipient);
-            String recipientName2 = emailNameTable.get(o2.recipient);
+            String recipientName1 = k1.recipientName;
+            String recipientName2 = k2.recipientName;
             order = compareByNames(recipientName1, recipientName2, isRecipientVisible1, isRecipientVisible2);
             
             if (order != 0) {
                 return order;
             }
             
-            order = compareByResponseString(o1, o2);
+            order = compareByResponseString(k1, k2);
             if (order != 0) {
                 return order;
             }
@@ -658,12 +663,14 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             new Comparator<FeedbackResponseAttributes>() {
         @Override
         public int compare(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
+            ResponseSortKey k1 = getSortKey(o1);
+            ResponseSortKey k2 = getSortKey(o2);
             
-            boolean isRecipientVisible1 = isRecipientVisible(o1);
-            boolean isRecipientVisible2 = isRecipientVisible(o2);
+            boolean isRecipientVisible1 = k1.isRecipientVisible;
+            boolean isRecipientVisible2 = k2.isRecipientVisible;
             // Compare by Recipient Name
-            int recipientNameCompareResult = compareByNames(getNameForEmail(o1.recipient),
-                                                            getNameForEmail(o2.recipient),
+            int recipientNameCompareResult = compareByNames(k1.recipientDisplayName,
+                                                            k2.recipientDisplayName,
                                                             isRecipientVisible1, isRecipientVisible2);
             if (recipientNameCompareResult != 0) {
                 return recipientNameCompareResult;
@@ -676,11 +683,11 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
                 return recipientEmailCompareResult;
             }
             
-            boolean isGiverVisible1 = isGiverVisible(o1);
-            boolean isGiverVisible2 = isGiverVisible(o2);
+            boolean isGiverVisible1 = k1.isGiverVisible;
+            boolean isGiverVisible2 = k2.isGiverVisible;
             // Compare by Giver Name
-            int giverNameCompareResult = compareByNames(getNameForEmail(o1.giver),
-                                                        getNameForEmail(o2.giver),
+            int giverNameCompareResult = compareByNames(k1.giverDisplayName,
+                                                        k2.giverDisplayName,
                                                         isGiverVisible1, isGiverVisible2);
             if (giverNameCompareResult != 0) {
                 return giverNameCompareResult;
@@ -694,7 +701,7 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
             }
             
             
-            int responseStringResult = compareByResponseString(o1, o2);
+            int responseStringResult = compareByResponseString(k1, k2);
             if (responseStringResult != 0) {
                 return responseStringResult;
             }
@@ -1491,7 +1498,7 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
      */
     private List<String> getSortedListOfStudentEmails() {
         List<String> emailList = new ArrayList<String>();
-        List<StudentAttributes> students = roster.getStudents();
+        List<StudentAttributes> students = new ArrayList<StudentAttributes>(roster.getStudents());
         StudentAttributes.sortBySectionName(students);
         for (StudentAttributes student : students) {
             emailList.add(student.email);
@@ -2137,10 +2144,9 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
         return sectionToTeam;
     }
 
-    private int compareByQuestionNumber(FeedbackResponseAttributes r1,
-                                        FeedbackResponseAttributes r2) {
-        FeedbackQuestionAttributes q1 = questions.get(r1.feedbackQuestionId);
-        FeedbackQuestionAttributes q2 = questions.get(r2.feedbackQuestionId);
+    private int compareByQuestionNumber(ResponseSortKey k1, ResponseSortKey k2) {
+        FeedbackQuestionAttributes q1 = k1.question;
+        FeedbackQuestionAttributes q2 = k2.question;
         if (q1 == null || q2 == null) {
             return 0;
         }
@@ -2186,14 +2192,70 @@ public class FeedbackSessionResultsBundle implements SessionResultsBundle {
         return order == 0 ? name1.compareTo(name2) : order;
     }
     
-    private int compareByResponseString(FeedbackResponseAttributes o1, FeedbackResponseAttributes o2) {
-        String responseAnswer1 = o1.getResponseDetails().getAnswerString();
+    private int compareByResponseString(ResponseSortKey k1, ResponseSortKey k2) {
+        String responseAnswer1 = k1.getAnswerString();
         
-        String responseAnswer2 = o2.getResponseDetails().getAnswerString();
+        String responseAnswer2 = k2.getAnswerString();
         
         return responseAnswer1.compareTo(responseAnswer2);
     }
 
+    /**
+     * Returns the sort key of {@code response}, computing it on first use.
+     */
+    private ResponseSortKey getSortKey(FeedbackResponseAttributes response) {
+        ResponseSortKey key = responseSortKeys.get(response);
+        if (key == null) {
+            key = new ResponseSortKey(response);
+            responseSortKeys.put(response, key);
+        }
+        return key;
+    }
+
+    /**
+     * Everything the response comparators look at, resolved once per response
+     * instead of once per comparison.
+     * The answer string is only parsed when a comparison falls through to it.
+     */
+    private class ResponseSortKey {
+        final FeedbackResponseAttributes response;
+        final FeedbackQuestionAttributes question;
+        final boolean isGiverVisible;
+        final boolean isRecipientVisible;
+        final String giverName;
+        final String recipientName;
+        final String giverDisplayName;
+        final String recipientDisplayName;
+        final String giverTeam;
+        final String recipientTeam;
+        private String answerString;
+
+        ResponseSortKey(FeedbackResponseAttributes response) {
+            this.response = response;
+            this.question = questions.get(response.feedbackQuestionId);
+            this.isGiverVisible = isGiverVisible(response);
+            this.isRecipientVisible = isRecipientVisible(response);
+            this.giverName = emailNameTable.get(response.giver);
+            this.recipientName = emailNameTable.get(response.recipient);
+            this.giverDisplayName = getNameForEmail(response.giver);
+            this.recipientDisplayName = getNameForEmail(response.recipient);
+            this.giverTeam = getTeamOrNameForEmail(response.giver);
+            this.recipientTeam = getTeamOrNameForEmail(response.recipient);
+        }
+
+        String getAnswerString() {
+            if (answerString == null) {
+                answerString = response.getResponseDetails().getAnswerString();
+            }
+            return answerString;
+        }
+
+        private String getTeamOrNameForEmail(String email) {
+            String teamName = getTeamNameForEmail(email);
+            return teamName.isEmpty() ? getNameForEmail(email) : teamName;
+        }
+    }
+
     public FeedbackSessionAttributes getFeedbackSession() {
         return feedbackSession;
     }
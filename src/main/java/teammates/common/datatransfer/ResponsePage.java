@@ -0,0 +1,22 @@
+package teammates.common.datatransfer;
+
+import java.util.List;
+
+/**
+ * Represents a page of feedback responses read from the datastore.
+ * <br> Contains:
+ * <br> * The responses in the page.
+ * <br> * The cursor to read the next page from, in its web-safe string form.
+ * <br> * Whether there may be more responses after the page.
+ */
+public class ResponsePage {
+    public List<FeedbackResponseAttributes> results;
+    public String cursor;
+    public boolean hasMore;
+
+    public ResponsePage(List<FeedbackResponseAttributes> results, String cursor, boolean hasMore) {
+        this.results = results;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+}
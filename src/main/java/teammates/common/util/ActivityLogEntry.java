@@ -67,6 +67,9 @@ public class ActivityLogEntry {
     private String url;
     private Long timeTaken;
     
+    // only known for the logs read from the activity log store
+    private String courseId;
+    
     // id can be in the form of <googleId>%<time> e.g. bamboo3250%20151103170618465
     // or <studentemail>%<courseId>%<time> (for unregistered students)
     //     e.g. bamboo@gmail.tmt%instructor.ema-demo%20151103170618465
@@ -105,13 +108,23 @@ public class ActivityLogEntry {
      * Used in AdminActivityLogServlet.
      */
     public ActivityLogEntry(AppLogLine appLog) {
-        time = appLog.getTimeUsec() / 1000;
+        this(appLog.getTimeUsec() / 1000, appLog.getLogMessage(), null);
+    }
+    
+    /**
+     * Constructor that creates an ActivityLog object from a log message written at {@code time}
+     * for an action carried out in the course {@code courseId}, which is null if not known.
+     * Used for the logs read from the activity log store.
+     */
+    public ActivityLogEntry(long time, String logMessage, String courseId) {
+        this.time = time;
+        this.courseId = courseId;
         
         try {
-            String[] tokens = appLog.getLogMessage().split("\\|\\|\\|", -1);
+            String[] tokens = logMessage.split("\\|\\|\\|", -1);
             initUsingAppLogMessage(tokens);
         } catch (ArrayIndexOutOfBoundsException e) {
-            initAsFailure(appLog, e);
+            initAsFailure(logMessage, e);
         }
         
         keyStringsToHighlight = null;
@@ -248,7 +261,7 @@ public class ActivityLogEntry {
         }
     }
 
-    private void initAsFailure(AppLogLine appLog, Exception e) {
+    private void initAsFailure(String logMessage, Exception e) {
         servletName = "Unknown";
         action = "Unknown";
         role = "Unknown";
@@ -257,7 +270,7 @@ public class ActivityLogEntry {
         email = "Unknown";
         toShow = true;
         message = "<span class=\"text-danger\">Error. Problem parsing log message from the server.</span><br>"
-                + "System Error: " + e.getMessage() + "<br>" + appLog.getLogMessage();
+                + "System Error: " + e.getMessage() + "<br>" + logMessage;
         url = "Unknown";
         id = "Unknown" + "%" + formatTimeForId(new Date(time));
         timeTaken = null;
@@ -484,6 +497,13 @@ public class ActivityLogEntry {
         return timeTaken;
     }
     
+    /**
+     * @return the course the action was carried out in, or null if it is not known.
+     */
+    public String getCourseId() {
+        return courseId;
+    }
+    
     /**
      * Generates the ID for the log. If the googleId is unknown or unregistered,
      * the email and course of the {@code student} will be used to construct the id.
@@ -0,0 +1,104 @@
+package teammates.common.util;
+
+/**
+ * A query to retrieve activity logs from the activity log store, most recent first.
+ * Filters which are not set are not applied. All filter values are matched case-insensitively.
+ */
+public class ActivityLogQuery {
+
+    private String person;
+    private String role;
+    private String action;
+    private String courseId;
+    private long startTime;
+    private long endTime;
+
+    /**
+     * The cursor to continue reading the logs from, or null to read from the most recent log.
+     */
+    private String cursor;
+
+    /**
+     * Sets the time period for the query.
+     * If startTime is null, it will be considered as 0.
+     * If endTime is null, it will be considered as the current time.
+     */
+    public ActivityLogQuery(Long startTime, Long endTime) {
+        this.startTime = startTime == null ? 0L : startTime;
+        this.endTime = endTime == null ? TimeHelper.now(0.0).getTimeInMillis() : endTime;
+    }
+
+    /**
+     * Gets start time of the query.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets end time of the query.
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Gets the Google ID, email or name of the person whose logs are retrieved.
+     */
+    public String getPerson() {
+        return person;
+    }
+
+    public void setPerson(String person) {
+        this.person = person;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public void setRole(String role) {
+        this.role = role;
+    }
+
+    /**
+     * Gets the name of the servlet action whose logs are retrieved.
+     */
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(String courseId) {
+        this.courseId = courseId;
+    }
+
+    /**
+     * Gets the cursor to continue reading the logs from, or null if the logs are read from the most recent one.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Sets the cursor to continue reading the logs from. Each read of the logs moves the cursor
+     * to after the last log read, or to null if there are no more logs.
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Checks if there may be more logs to read after the previous read.
+     */
+    public boolean hasMoreLogs() {
+        return cursor != null;
+    }
+}
@@ -0,0 +1,155 @@
+package teammates.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A template split once into literal text and <code>${...}</code> placeholders,
+ * so that it can be populated in a single pass over the template.
+ */
+public final class CompiledTemplate {
+
+    private static final String PLACEHOLDER_START = "${";
+    private static final char PLACEHOLDER_END = '}';
+
+    /** Buffers larger than this are not kept for reuse, so that one large result does not hold on to memory. */
+    private static final int MAX_REUSED_BUFFER_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> PER_THREAD_BUFFER = new ThreadLocal<StringBuilder>();
+
+    private final String template;
+    /** The text between placeholders; there is one more literal than placeholders. */
+    private final String[] literals;
+    /** The placeholders, including the enclosing <code>${</code> and <code>}</code>. */
+    private final String[] placeholders;
+    private final int literalsLength;
+
+    private CompiledTemplate(String template, List<String> literals, List<String> placeholders) {
+        this.template = template;
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.placeholders = placeholders.toArray(new String[placeholders.size()]);
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    public static CompiledTemplate compile(String template) {
+        List<String> literals = new ArrayList<String>();
+        List<String> placeholders = new ArrayList<String>();
+        int literalStart = 0;
+        int placeholderStart = template.indexOf(PLACEHOLDER_START);
+        while (placeholderStart != -1) {
+            int placeholderEnd = findPlaceholderEnd(template, placeholderStart);
+            if (placeholderEnd == -1) {
+                placeholderStart = template.indexOf(PLACEHOLDER_START, placeholderStart + 1);
+                continue;
+            }
+            literals.add(template.substring(literalStart, placeholderStart));
+            placeholders.add(template.substring(placeholderStart, placeholderEnd + 1));
+            literalStart = placeholderEnd + 1;
+            placeholderStart = template.indexOf(PLACEHOLDER_START, literalStart);
+        }
+        literals.add(template.substring(literalStart));
+        return new CompiledTemplate(template, literals, placeholders);
+    }
+
+    /**
+     * Returns true if {@code key} is a single placeholder, i.e. it would be found as one by {@link #compile(String)}.
+     */
+    private static boolean isPlaceholder(String key) {
+        return key.startsWith(PLACEHOLDER_START) && findPlaceholderEnd(key, 0) == key.length() - 1;
+    }
+
+    /**
+     * Returns the index of the <code>}</code> closing the placeholder starting at {@code placeholderStart},
+     * or -1 if the text there is not a placeholder.
+     */
+    private static int findPlaceholderEnd(String template, int placeholderStart) {
+        for (int i = placeholderStart + PLACEHOLDER_START.length(); i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == PLACEHOLDER_END) {
+                return i;
+            }
+            if (c == '$' || c == '{') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Populates the template with the given values. The result is the same as replacing each key
+     * with its value in turn: a key is replaced only by the first value given for it, and placeholders in a value
+     * are replaced by the values of the keys that come after it.
+     * <br> If any key is not a placeholder, e.g. when replacing plain text, the keys are replaced in turn.
+     * @param values Array of a variable, even number of key-value pairs:
+     *                   { "key1", "val1", "key2", "val2", ... }
+     */
+    public String populate(String... values) {
+        Assumption.assertTrue("The number of values passed in must be even", values.length % 2 == 0);
+        for (int i = 0; i < values.length; i += 2) {
+            if (!isPlaceholder(values[i])) {
+                return populateBySequentialReplacement(values);
+            }
+        }
+
+        StringBuilder buffer = PER_THREAD_BUFFER.get();
+        if (buffer == null) {
+            buffer = new StringBuilder(literalsLength * 2);
+            PER_THREAD_BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+
+        for (int i = 0; i < placeholders.length; i++) {
+            buffer.append(literals[i]);
+            int keyIndex = indexOfKey(placeholders[i], values);
+            if (keyIndex == -1) {
+                buffer.append(placeholders[i]);
+            } else {
+                buffer.append(getValue(keyIndex, values));
+            }
+        }
+        buffer.append(literals[placeholders.length]);
+
+        String result = buffer.toString();
+        if (buffer.capacity() > MAX_REUSED_BUFFER_CAPACITY) {
+            PER_THREAD_BUFFER.remove();
+        }
+        return result;
+    }
+
+    private String populateBySequentialReplacement(String... values) {
+        String populatedTemplate = template;
+        for (int i = 0; i < values.length; i += 2) {
+            populatedTemplate = populatedTemplate.replace(values[i], values[i + 1]);
+        }
+        return populatedTemplate;
+    }
+
+    private static int indexOfKey(String placeholder, String[] values) {
+        for (int i = 0; i < values.length; i += 2) {
+            if (placeholder.equals(values[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of the key at {@code keyIndex}, with the keys that come after it replaced.
+     */
+    private static String getValue(int keyIndex, String[] values) {
+        String value = values[keyIndex + 1];
+        if (!value.contains(PLACEHOLDER_START)) {
+            return value;
+        }
+        String populatedValue = value;
+        for (int i = keyIndex + 2; i < values.length; i += 2) {
+            populatedValue = populatedValue.replace(values[i], values[i + 1]);
+        }
+        return populatedValue;
+    }
+
+}
@@ -59,6 +59,12 @@ public final class Config {
     /** The value of the "app.mailjet.secretkey" in build.properties file */
     public static final String MAILJET_SECRETKEY;
     
+    /** The value of the "app.responses.sectionsstored" in build.properties file */
+    public static final boolean IS_RESPONSE_SECTIONS_STORED;
+    
+    /** The value of the "app.sessions.schedulestored" in build.properties file */
+    public static final boolean IS_SESSION_SCHEDULE_STORED;
+    
     static {
         Properties properties = new Properties();
         try {
@@ -82,6 +88,8 @@ public final class Config {
         MAILGUN_DOMAINNAME = properties.getProperty("app.mailgun.domainname");
         MAILJET_APIKEY = properties.getProperty("app.mailjet.apikey");
         MAILJET_SECRETKEY = properties.getProperty("app.mailjet.secretkey");
+        IS_RESPONSE_SECTIONS_STORED = Boolean.parseBoolean(properties.getProperty("app.responses.sectionsstored"));
+        IS_SESSION_SCHEDULE_STORED = Boolean.parseBoolean(properties.getProperty("app.sessions.schedulestored"));
     }
     
     private Config() {
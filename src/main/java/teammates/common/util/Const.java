@@ -156,6 +156,11 @@ public final class Const {
         public static final String FEEDBACK_REMIND_EMAIL_PARTICULAR_USERS_TASK_QUEUE =
                 "feedback-remind-email-particular-users-queue";
         public static final String SEND_EMAIL_TASK_QUEUE = "send-email-queue";
+        public static final String SEND_EMAIL_PULL_QUEUE = "send-email-pull-queue";
+        
+        public static final String SEARCH_DOCUMENT_TASK_QUEUE = "search-document";
+        
+        public static final String CASCADE_DELETION_TASK_QUEUE = "cascade-deletion-queue";
         
         public static final String QUEUE_XML_PATH = "src/main/webapp/WEB-INF/queue.xml";
         public static final String DEFAULT_PROFILE_PICTURE_PATH = "/images/profile_picture_default.png";
@@ -656,6 +661,8 @@ public final class Const {
         public static final String ADMIN_EMAIL_EMPTY_TRASH_BIN = "emptytrashbin";
         public static final String ADMIN_EMAIL_TRASH_ACTION_REDIRECT = "redirect";
         
+        public static final String ADMIN_GROUP_RECEIVER_LIST_OFFSET = "receiverlistoffset";
+        // only read to refuse the tasks paused by earlier versions, which resumed from these indexes
         public static final String ADMIN_GROUP_RECEIVER_EMAIL_LIST_INDEX = "emaillistindex";
         public static final String ADMIN_GROUP_RECEIVER_EMAIL_INDEX = "emailindex";
     
@@ -750,6 +757,7 @@ public final class Const {
         public static final String FEEDBACK_RESULTS_GROUPBYSECTION = "frgroupbysection";
         public static final String FEEDBACK_RESULTS_SHOWSTATS = "frshowstats";
         public static final String FEEDBACK_RESULTS_INDICATE_MISSING_RESPONSES = "frindicatemissingresponses";
+        public static final String FEEDBACK_RESULTS_STREAM_DOWNLOAD = "frstreamdownload";
         public static final String FEEDBACK_RESULTS_NEED_AJAX = "frneedajax";
         public static final String FEEDBACK_RESULTS_MAIN_INDEX = "frmainindex";
 
@@ -810,6 +818,7 @@ public final class Const {
         public static final String EMAIL_SENDERNAME = "sendername";
         public static final String EMAIL_SUBJECT = "subject";
         public static final String EMAIL_REPLY_TO_ADDRESS = "reply";
+        public static final String EMAIL_QUEUED_TIME = "queuedtime";
         
         public static final String COMMENT_EDITTYPE = "commentedittype";
         public static final String COMMENT_ID = "commentid";
@@ -823,6 +832,10 @@ public final class Const {
         public static final String SUBMISSION_REMIND_USERLIST = "usersToRemind";
         
         public static final String ENROLLMENT_DETAILS = "enrollmentdetails";
+        public static final String FEEDBACK_RESPONSES_CURSOR = "feedbackresponsescursor";
+        public static final String CASCADE_DELETION_STARTED_AT = "cascadedeletionstartedat";
+        public static final String CASCADE_DELETION_STAGE = "cascadedeletionstage";
+        public static final String CASCADE_DELETION_CURSOR = "cascadedeletioncursor";
         
         public static final String SEARCH_KEY = "searchkey";
         public static final String DISPLAY_ARCHIVE = "displayarchive";
@@ -1024,11 +1037,13 @@ public final class Const {
         public static final String FEEDBACK_REMIND_EMAIL_PARTICULAR_USERS_WORKER =
                                     "/feedbackRemindEmailParticularUsersWorker";
         public static final String SEND_EMAIL_WORKER = "/sendEmailWorker";
+        public static final String CASCADE_DELETION_WORKER = "/cascadeDeletionWorker";
     }
     
     public static class AutomatedActionNames {
         //real servlet names to be logged for automated actions, not for url pattern recognition
         public static final String AUTOMATED_LOG_COMPILATION = "logCompilation";
+        public static final String AUTOMATED_ACTIVITY_LOGS_CLEANUP = "activityLogsCleanup";
         public static final String AUTOMATED_FEEDBACKSESSION_CLOSING_MAIL_ACTION = "feedbackSessionClosingMailAction";
         public static final String AUTOMATED_FEEDBACKSESSION_CLOSED_MAIL_ACTION = "feedbackSessionClosedMailAction";
         public static final String AUTOMATED_FEEDBACKSESSION_OPENING_MAIL_ACTION = "feedbackSessionOpeningMailAction";
@@ -1224,8 +1239,8 @@ public final class Const {
                 "You are trying enroll more than 100 students in section \"%s\". "
                 + "To avoid performance problems, please do not enroll more than 100 students in a single section.<br>";
         public static final String QUOTA_PER_ENROLLMENT_EXCEED =
-                "You are trying to enroll more than 100 students. "
-                + "To avoid performance problems, please enroll no more than 100 students at a time.";
+                "You are trying to enroll more than 5000 students. "
+                + "To avoid performance problems, please enroll no more than 5000 students at a time.";
         
         public static final String COURSE_INSTRUCTOR_ADDED = "The instructor %s has been added successfully. "
                 + "An email containing how to 'join' this course will be sent to %s in a few minutes.";
@@ -0,0 +1,102 @@
+package teammates.common.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.appengine.api.blobstore.BlobKey;
+import com.google.appengine.api.blobstore.BlobstoreInputStream;
+
+/**
+ * Reads the email addresses in a group receiver list file in Google Cloud Storage,
+ * i.e. a txt file of email addresses separated by commas, as a stream starting from a byte offset.<br>
+ * Only the addresses being returned are kept in memory, and the offset after the addresses read
+ * can be used to continue reading the file later, e.g. in another request.
+ */
+public class GroupReceiverListReader implements Closeable {
+    
+    private static final char RECEIVER_SEPARATOR = ',';
+    
+    private final InputStream blobStream;
+    private long offset;
+    private boolean isEndOfFile;
+    
+    /**
+     * Opens the file with the specified {@link BlobKey} for reading from the byte {@code offset},
+     * which is 0 or an offset returned by {@link #getOffset()}.
+     */
+    public GroupReceiverListReader(BlobKey blobKey, long offset) throws IOException {
+        this(openBlob(blobKey, offset), offset);
+    }
+    
+    /**
+     * Reads the file from {@code fileStream}, which starts at the byte {@code offset} of the file.
+     */
+    public GroupReceiverListReader(InputStream fileStream, long offset) {
+        Assumption.assertNotNull(fileStream);
+        this.blobStream = new BufferedInputStream(fileStream);
+        this.offset = offset;
+    }
+    
+    private static InputStream openBlob(BlobKey blobKey, long offset) throws IOException {
+        Assumption.assertNotNull(blobKey);
+        return new BlobstoreInputStream(blobKey, offset);
+    }
+    
+    /**
+     * Reads the next {@code maxReceivers} email addresses, or the remaining addresses
+     * if there are fewer of them. Blank entries are skipped.
+     */
+    public List<String> readReceivers(int maxReceivers) throws IOException {
+        List<String> receivers = new ArrayList<String>();
+        ByteArrayOutputStream receiver = new ByteArrayOutputStream();
+        long position = offset;
+        
+        while (!isEndOfFile && receivers.size() < maxReceivers) {
+            int nextByte = blobStream.read();
+            if (nextByte == -1) {
+                isEndOfFile = true;
+            } else {
+                position++;
+                if (nextByte != RECEIVER_SEPARATOR) {
+                    receiver.write(nextByte);
+                    continue;
+                }
+            }
+            
+            // an address ends at a separator or at the end of the file
+            String address = new String(receiver.toByteArray(), Const.SystemParams.ENCODING).trim();
+            if (!address.isEmpty()) {
+                receivers.add(address);
+            }
+            receiver.reset();
+            offset = position;
+        }
+        
+        return receivers;
+    }
+    
+    /**
+     * Returns the byte offset in the file after the last address read.
+     */
+    public long getOffset() {
+        return offset;
+    }
+    
+    /**
+     * Returns true if the end of the file has not been reached yet.
+     */
+    public boolean hasMore() {
+        return !isEndOfFile;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        blobStream.close();
+    }
+    
+}
@@ -1,5 +1,6 @@
 package teammates.common.util;
 
+import java.security.GeneralSecurityException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -16,6 +17,13 @@ import javax.crypto.spec.SecretKeySpec;
  */
 public final class StringHelper {
     
+    // AES ciphers are not thread-safe and costly to look up, so each thread keeps
+    // one initialised cipher per mode and reuses it across calls
+    private static final ThreadLocal<Cipher> PER_THREAD_ENCRYPT_CIPHER = new ThreadLocal<Cipher>();
+    private static final ThreadLocal<Cipher> PER_THREAD_DECRYPT_CIPHER = new ThreadLocal<Cipher>();
+    
+    private static SecretKeySpec encryptionKey;
+    
     private StringHelper() {
         // utility class
     }
@@ -126,10 +134,8 @@ public final class StringHelper {
 
     public static String encrypt(String value) {
         try {
-            SecretKeySpec sks = new SecretKeySpec(hexStringToByteArray(Config.ENCRYPTION_KEY), "AES");
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.ENCRYPT_MODE, sks, cipher.getParameters());
-            byte[] encrypted = cipher.doFinal(value.getBytes());
+            Cipher cipher = getCipher(PER_THREAD_ENCRYPT_CIPHER, Cipher.ENCRYPT_MODE);
+            byte[] encrypted = doFinal(PER_THREAD_ENCRYPT_CIPHER, cipher, value.getBytes());
             return byteArrayToHexString(encrypted);
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -138,16 +144,48 @@ public final class StringHelper {
 
     public static String decrypt(String message) {
         try {
-            SecretKeySpec sks = new SecretKeySpec(hexStringToByteArray(Config.ENCRYPTION_KEY), "AES");
-            Cipher cipher = Cipher.getInstance("AES");
-            cipher.init(Cipher.DECRYPT_MODE, sks);
-            byte[] decrypted = cipher.doFinal(hexStringToByteArray(message));
+            Cipher cipher = getCipher(PER_THREAD_DECRYPT_CIPHER, Cipher.DECRYPT_MODE);
+            byte[] decrypted = doFinal(PER_THREAD_DECRYPT_CIPHER, cipher, hexStringToByteArray(message));
             return new String(decrypted);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
     
+    /**
+     * Returns this thread's cipher for {@code mode}, creating and initialising it on first use.
+     */
+    private static Cipher getCipher(ThreadLocal<Cipher> perThreadCipher, int mode) throws GeneralSecurityException {
+        Cipher cipher = perThreadCipher.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance("AES");
+            cipher.init(mode, getEncryptionKey(), cipher.getParameters());
+            perThreadCipher.set(cipher);
+        }
+        return cipher;
+    }
+    
+    /**
+     * Runs {@code cipher} over {@code input}. A successful run leaves the cipher ready for reuse;
+     * a failed one may not, so the cipher is dropped and the next call creates a fresh one.
+     */
+    private static byte[] doFinal(ThreadLocal<Cipher> perThreadCipher, Cipher cipher, byte[] input)
+            throws GeneralSecurityException {
+        try {
+            return cipher.doFinal(input);
+        } catch (GeneralSecurityException e) {
+            perThreadCipher.remove();
+            throw e;
+        }
+    }
+    
+    private static SecretKeySpec getEncryptionKey() {
+        if (encryptionKey == null) {
+            encryptionKey = new SecretKeySpec(hexStringToByteArray(Config.ENCRYPTION_KEY), "AES");
+        }
+        return encryptionKey;
+    }
+    
     /**
      * Converts and concatenates a list of objects to a single string, separated by line breaks.
      * The conversion is done by using the {@link String Java.lang.Object#toString()} method.
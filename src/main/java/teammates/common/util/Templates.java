@@ -1,9 +1,18 @@
 package teammates.common.util;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 public final class Templates {
     
     public static final String INSTRUCTOR_SAMPLE_DATA = FileHelper.readResourceFile("InstructorSampleData.json");
     
+    /** The templates defined in this class, compiled once and looked up by identity. */
+    private static final Map<String, CompiledTemplate> COMPILED_TEMPLATES = compileTemplates(
+            EmailTemplates.class, FeedbackQuestion.FormTemplates.class);
+    
     private Templates() {
         // utility class
     }
@@ -18,11 +27,30 @@ public final class Templates {
      */
     public static String populateTemplate(String template, String... values) {
         Assumption.assertTrue("The number of values passed in must be even", values.length % 2 == 0);
-        String populatedTemplate = template;
-        for (int i = 0; i < values.length; i += 2) {
-            populatedTemplate = populatedTemplate.replace(values[i], values[i + 1]);
+        CompiledTemplate compiledTemplate = COMPILED_TEMPLATES.get(template);
+        if (compiledTemplate == null) {
+            // templates built at runtime are usually populated only once, so they are not kept
+            compiledTemplate = CompiledTemplate.compile(template);
+        }
+        return compiledTemplate.populate(values);
+    }
+    
+    private static Map<String, CompiledTemplate> compileTemplates(Class<?>... templateClasses) {
+        Map<String, CompiledTemplate> compiledTemplates = new IdentityHashMap<String, CompiledTemplate>();
+        for (Class<?> templateClass : templateClasses) {
+            for (Field field : templateClass.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType() != String.class) {
+                    continue;
+                }
+                try {
+                    String template = (String) field.get(null);
+                    compiledTemplates.put(template, CompiledTemplate.compile(template));
+                } catch (IllegalAccessException e) {
+                    Assumption.fail("Template " + field.getName() + " cannot be read: " + e.getMessage());
+                }
+            }
         }
-        return populatedTemplate;
+        return compiledTemplates;
     }
     
     /**
@@ -10,6 +10,17 @@ import com.google.gson.GsonBuilder;
 
 public final class Utils {
 
+    /**
+     * Gson instances are immutable and thread-safe, and cache the type adapters they build,
+     * so a single instance is shared instead of configuring a new one on every call.
+     */
+    private static final Gson TEAMMATES_GSON = new GsonBuilder()
+            .setDateFormat(DateFormat.FULL)
+            .setDateFormat(SystemParams.DEFAULT_DATE_TIME_FORMAT)
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
     private Utils() {
         // utility class
     }
@@ -28,11 +39,6 @@ public final class Utils {
      * Json file and also reformat the Json string in pretty-print format.
      */
     public static Gson getTeammatesGson() {
-        return new GsonBuilder()
-                .setDateFormat(DateFormat.FULL)
-                .setDateFormat(SystemParams.DEFAULT_DATE_TIME_FORMAT)
-                .setPrettyPrinting()
-                .disableHtmlEscaping()
-                .create();
+        return TEAMMATES_GSON;
     }
 }
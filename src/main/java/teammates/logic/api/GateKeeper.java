@@ -12,7 +12,7 @@ import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.logic.core.AccountsLogic;
 import teammates.logic.core.InstructorsLogic;
-import teammates.logic.core.StudentsLogic;
+import teammates.storage.api.UserIdentityCache.UserIdentity;
 
 import com.google.appengine.api.users.User;
 import com.google.appengine.api.users.UserService;
@@ -47,17 +47,34 @@ public class GateKeeper {
             userType.isAdmin = true;
         }
         
-        if (isInstructor()) {
+        UserIdentity identity = AccountsLogic.inst().getUserIdentity(user.getNickname());
+        
+        if (identity.isInstructor()) {
             userType.isInstructor = true;
         }
         
-        if (isStudent()) {
+        if (identity.isStudent()) {
             userType.isStudent = true;
         }
 
         return userType;
     }
 
+    /**
+     * Returns the account of the logged-in user without the student profile, which is read together
+     * with the roles of the user in {@link #getCurrentUser()}.
+     * @return Null if the user is not logged in or has no account.
+     */
+    public AccountAttributes getCurrentUserAccount() {
+        User user = getCurrentGoogleUser();
+        
+        if (user == null) {
+            return null;
+        }
+        
+        return AccountsLogic.inst().getUserIdentity(user.getNickname()).getAccount();
+    }
+
     public String getLoginUrl(String redirectPage) {
         User user = userService.getCurrentUser();
 
@@ -323,19 +340,6 @@ public class GateKeeper {
         return userService.isUserAdmin();
     }
 
-    private boolean isInstructor() {
-        User user = userService.getCurrentUser();
-        Assumption.assertNotNull(user);
-        return AccountsLogic.inst().isAccountAnInstructor(user.getNickname());
-    }
-
-    private boolean isStudent() {
-        User user = userService.getCurrentUser();
-        Assumption.assertNotNull(user);
-
-        return StudentsLogic.inst().isStudentInAnyCourse(user.getNickname());
-    }
-
     public void verifyAccessibleForCurrentUserAsInstructor(AccountAttributes account, String courseId, String section) {
         InstructorAttributes instructor = InstructorsLogic.inst().getInstructorForGoogleId(courseId, account.googleId);
 
@@ -1,5 +1,8 @@
 package teammates.logic.api;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +31,7 @@ import teammates.common.datatransfer.FeedbackSessionResultsBundle;
 import teammates.common.datatransfer.InstructorAttributes;
 import teammates.common.datatransfer.InstructorPrivileges;
 import teammates.common.datatransfer.InstructorSearchResultBundle;
+import teammates.common.datatransfer.ResponsePage;
 import teammates.common.datatransfer.SectionDetailsBundle;
 import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.datatransfer.StudentProfileAttributes;
@@ -40,10 +44,13 @@ import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.ExceedingRangeException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.exception.JoinCourseException;
+import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
 import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.common.util.EmailWrapper;
 import teammates.logic.core.AccountsLogic;
+import teammates.logic.core.ActivityLogsLogic;
 import teammates.logic.core.AdminEmailsLogic;
 import teammates.logic.core.CommentsLogic;
 import teammates.logic.core.CoursesLogic;
@@ -87,6 +94,7 @@ public class Logic {
     protected static FeedbackResponseCommentsLogic feedbackResponseCommentsLogic = FeedbackResponseCommentsLogic.inst();
     protected static AdminEmailsLogic adminEmailsLogic = AdminEmailsLogic.inst();
     protected static ProfilesLogic profilesLogic = ProfilesLogic.inst();
+    protected static ActivityLogsLogic activityLogsLogic = ActivityLogsLogic.inst();
 
     /**
      * Produces the URL the user should use to login to the system
@@ -122,6 +130,14 @@ public class Logic {
         return gateKeeper.getCurrentUser();
     }
 
+    /**
+     * @return The account of the logged-in user without the student profile.
+     *   Returns null if the user is not logged in or has no account.
+     */
+    public AccountAttributes getCurrentUserAccount() {
+        return gateKeeper.getCurrentUserAccount();
+    }
+
 
     /**
      * Creates a new Account based on given values. If a profile is not given,
@@ -1549,6 +1565,28 @@ public class Logic {
                 feedbackSessionName, courseId, instructorEmail, section,
                 filterText, isMissingResponsesShown, isStatsShown);
     }
+
+    /**
+     * Writes summary results (without comments) in CSV format to {@code writer},
+     * one question at a time. There is no limit on the number of responses. <br>
+     * Preconditions: <br>
+     * * All parameters are non-null, except {@code section} which is null
+     * if the results of all sections are to be written. <br>
+     */
+    public void writeFeedbackSessionResultSummaryInSectionAsCsv(
+            String courseId, String feedbackSessionName, String instructorEmail,
+            String section, String filterText, boolean isMissingResponsesShown, boolean isStatsShown,
+            Writer writer)
+            throws EntityDoesNotExistException, IOException {
+        
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, courseId);
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, feedbackSessionName);
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, writer);
+
+        feedbackSessionsLogic.writeFeedbackSessionResultsSummaryInSectionAsCsv(
+                feedbackSessionName, courseId, instructorEmail, section,
+                filterText, isMissingResponsesShown, isStatsShown, writer);
+    }
     
     /**
      * Preconditions: <br>
@@ -2079,6 +2117,15 @@ public class Logic {
         return feedbackResponsesLogic.getFeedbackResponse(feedbackResponseId);
     }
     
+    /**
+     * Gets the responses with {@code feedbackResponseIds} with one batch read.
+     * Ids of responses that do not exist are ignored.
+     */
+    public List<FeedbackResponseAttributes> getFeedbackResponses(Collection<String> feedbackResponseIds) {
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, feedbackResponseIds);
+        return feedbackResponsesLogic.getFeedbackResponses(feedbackResponseIds);
+    }
+    
     public FeedbackResponseAttributes getFeedbackResponse(String feedbackQuestionId,
                                                           String giverEmail,
                                                           String recipient) {
@@ -2107,6 +2154,50 @@ public class Logic {
         return feedbackResponsesLogic.getFeedbackResponsesForQuestion(questionId);
     }
 
+    /**
+     * Gets a page of at most {@code pageSize} responses of the session, starting from {@code cursor}.
+     * Large sessions can be read over several requests by passing the cursor of each page
+     * to get the next one, as long as the page {@link ResponsePage#hasMore has more}. <br>
+     * Preconditions: <br>
+     * * All parameters except {@code cursor} are non-null. {@code cursor} is null to get the first page.
+     */
+    public ResponsePage getFeedbackResponsesForSessionInPage(String feedbackSessionName, String courseId,
+                                                             String cursor, int pageSize) {
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, feedbackSessionName);
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, courseId);
+        
+        return feedbackResponsesLogic.getFeedbackResponsesForSessionInPage(feedbackSessionName, courseId,
+                                                                           cursor, pageSize);
+    }
+    
+    /**
+     * Gets a page of the responses given by or to the section in the session.
+     * See {@link #getFeedbackResponsesForSessionInPage}. <br>
+     * Preconditions: <br>
+     * * All parameters except {@code cursor} are non-null. {@code cursor} is null to get the first page.
+     */
+    public ResponsePage getFeedbackResponsesForSessionInSectionInPage(String feedbackSessionName, String courseId,
+                                                                      String section, String cursor, int pageSize) {
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, feedbackSessionName);
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, courseId);
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, section);
+        
+        return feedbackResponsesLogic.getFeedbackResponsesForSessionInSectionInPage(feedbackSessionName, courseId,
+                                                                                    section, cursor, pageSize);
+    }
+    
+    /**
+     * Gets a page of the responses to the question.
+     * See {@link #getFeedbackResponsesForSessionInPage}. <br>
+     * Preconditions: <br>
+     * * All parameters except {@code cursor} are non-null. {@code cursor} is null to get the first page.
+     */
+    public ResponsePage getFeedbackResponsesForQuestionInPage(String questionId, String cursor, int pageSize) {
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, questionId);
+        
+        return feedbackResponsesLogic.getFeedbackResponsesForQuestionInPage(questionId, cursor, pageSize);
+    }
+    
     public boolean hasGiverRespondedForSession(String userEmail, String feedbackSessionName, String courseId) {
         Assumption.assertNotNull(ERROR_NULL_PARAMETER, userEmail);
         Assumption.assertNotNull(ERROR_NULL_PARAMETER, feedbackSessionName);
@@ -2129,7 +2220,24 @@ public class Logic {
         Assumption.assertNotNull(ERROR_NULL_PARAMETER, feedbackResponse);
         feedbackResponsesLogic.updateFeedbackResponse(feedbackResponse);
     }
-    
+
+    /**
+     * Creates or updates the responses in {@code responsesToSave} and deletes the responses in
+     * {@code responsesToDelete}, writing them in one batch.
+     * All the responses are validated before any of them is saved. <br>
+     * Preconditions: <br>
+     * * All parameters are non-null. <br>
+     * * The responses to delete have non-null ids.
+     */
+    public void saveFeedbackResponses(List<FeedbackResponseAttributes> responsesToSave,
+            List<FeedbackResponseAttributes> responsesToDelete)
+            throws InvalidParametersException, EntityDoesNotExistException, EntityAlreadyExistsException {
+
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, responsesToSave);
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, responsesToDelete);
+        feedbackResponsesLogic.saveFeedbackResponses(responsesToSave, responsesToDelete);
+    }
+
     /**
      * Preconditions: <br>
      * * All parameters are non-null.
@@ -2209,6 +2317,14 @@ public class Logic {
         feedbackResponseCommentsLogic.putDocument(comment);
     }
     
+    /**
+     * Create or update documents for the given FeedbackResponseComments
+     * @param comments to be put into documents
+     */
+    public void putDocuments(List<FeedbackResponseCommentAttributes> comments) {
+        feedbackResponseCommentsLogic.putDocuments(comments);
+    }
+    
     /**
      * Remove document for the given FeedbackResponseComment
      * @param comment to be removed from documents
@@ -2608,6 +2724,25 @@ public class Logic {
         adminEmailsLogic.deleteAdminEmailUploadedFile(key);
     }
 
+    /**
+     * Adds the activity log written to the application log as {@code logMessage} at {@code time}
+     * to the activity log store, which is searched by the admin activity log page.
+     * @param courseId the course the action was carried out in, or null if there is none.
+     */
+    public void createActivityLog(long time, String logMessage, String courseId) {
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, logMessage);
+        activityLogsLogic.createActivityLog(time, logMessage, courseId);
+    }
+    
+    /**
+     * Gets at most {@code limit} activity logs matching the {@code query}, most recent first,
+     * continuing from the cursor of the query. The cursor of the query is then moved to after the last log read.
+     */
+    public List<ActivityLogEntry> getActivityLogs(ActivityLogQuery query, int limit) {
+        Assumption.assertNotNull(ERROR_NULL_PARAMETER, query);
+        return activityLogsLogic.getActivityLogs(query, limit);
+    }
+
     /**
      * Generates and emails an error report based on the supplied {@link Throwable} {@code error}.
      */
@@ -0,0 +1,41 @@
+package teammates.logic.automated;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import teammates.common.util.Const;
+import teammates.logic.core.ActivityLogsLogic;
+
+import com.google.apphosting.api.ApiProxy;
+
+/**
+ * Deletes the activity logs older than the retention period of the activity log store,
+ * in batches until there are none left or the request nears its deadline.
+ */
+@SuppressWarnings("serial")
+public class ActivityLogsCleanupServlet extends AutomatedRemindersServlet {
+    
+    private static final int LOGS_PER_BATCH = 5000;
+    
+    @Override
+    public void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        servletName = Const.AutomatedActionNames.AUTOMATED_ACTIVITY_LOGS_CLEANUP;
+        action = "delete expired activity logs";
+        
+        int numDeleted = 0;
+        int numDeletedInBatch;
+        do {
+            numDeletedInBatch = ActivityLogsLogic.inst().deleteExpiredActivityLogs(LOGS_PER_BATCH);
+            numDeleted += numDeletedInBatch;
+        } while (numDeletedInBatch == LOGS_PER_BATCH && !isNearDeadline());
+        
+        String message = "Deleted " + numDeleted + " expired activity logs"
+                         + (numDeletedInBatch == LOGS_PER_BATCH ? ", more to be deleted in the next run" : "");
+        logMessage(req, message);
+    }
+    
+    private boolean isNearDeadline() {
+        long timeLeftInMillis = ApiProxy.getCurrentEnvironment().getRemainingMillis();
+        return timeLeftInMillis / 1000 < 60;
+    }
+}
@@ -14,12 +14,14 @@ import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.common.util.Const.ParamsNames;
 import teammates.common.util.Const.SystemParams;
-import teammates.common.util.GoogleCloudStorageHelper;
+import teammates.common.util.GroupReceiverListReader;
 import teammates.common.util.HttpRequestHelper;
 import teammates.logic.core.AdminEmailsLogic;
 import teammates.logic.core.TaskQueuesLogic;
 
 import com.google.appengine.api.blobstore.BlobKey;
+import com.google.appengine.api.taskqueue.TaskAlreadyExistsException;
+import com.google.appengine.api.taskqueue.TaskOptions;
 import com.google.apphosting.api.ApiProxy;
 
 /**
@@ -28,11 +30,16 @@ import com.google.apphosting.api.ApiProxy;
  * 
  * 1. Address Mode: receiver emails are retrieved from receiver list string
  * 2. Group Mode: receiver emails are retrieved from a txt file uploaded into Google Cloud Storage.
+ * The file is read as a stream in batches of receivers, and the byte offset reached in the file
+ * is passed on to a new task if the worker nears its deadline.<br>
+ * The tasks created only carry the email id and the receiver; the email itself is read by
+ * {@link AdminEmailWorkerServlet}. The tasks are named after the email, the time it was sent and
+ * the position of the receiver, so a retried run of this worker does not add them again.
  */
 @SuppressWarnings("serial")
 public class AdminEmailPrepareTaskQueueWorkerServlet extends WorkerServlet {
     
-    private List<List<String>> processedReceiverEmails = new ArrayList<List<String>>();
+    private static final int RECEIVERS_PER_BATCH = 500;
     
     //param needed for sending small number of emails
     private String addressReceiverListString;
@@ -81,18 +88,26 @@ public class AdminEmailPrepareTaskQueueWorkerServlet extends WorkerServlet {
                     HttpRequestHelper.getValueFromRequestParameterMap(
                             req, ParamsNames.ADMIN_GROUP_RECEIVER_EMAIL_INDEX);
             
-            int indexOfEmailListToResume = indexOfEmailListToResumeAsString == null
-                                           ? 0
-                                           : Integer.parseInt(indexOfEmailListToResumeAsString);
-            int indexOfEmailToResume = indexOfEmailToResumeAsString == null
-                                       ? 0
-                                       : Integer.parseInt(indexOfEmailToResumeAsString);
+            if (indexOfEmailListToResumeAsString != null || indexOfEmailToResumeAsString != null) {
+                // the indexes of tasks paused by an earlier version cannot be mapped to an offset in the file,
+                // as the lists they index were split at fixed byte lengths with broken addresses merged
+                log.severe("Refused to resume adding group mail tasks for mail with id " + emailId
+                           + " from list index: " + indexOfEmailListToResumeAsString
+                           + " email index: " + indexOfEmailToResumeAsString
+                           + ". The email has to be sent again to the receivers not reached yet.");
+                return;
+            }
+            
+            String offsetToResumeAsString =
+                    HttpRequestHelper.getValueFromRequestParameterMap(
+                            req, ParamsNames.ADMIN_GROUP_RECEIVER_LIST_OFFSET);
+            
+            long offsetToResume = offsetToResumeAsString == null
+                                  ? 0
+                                  : Long.parseLong(offsetToResumeAsString);
   
             try {
-                processedReceiverEmails =
-                        GoogleCloudStorageHelper.getGroupReceiverList(new BlobKey(groupReceiverListFileKey));
-                addAdminEmailToTaskQueue(emailId, indexOfEmailListToResume, indexOfEmailToResume);
-    
+                addAdminEmailToTaskQueue(emailId, offsetToResume);
             } catch (IOException e) {
                 log.severe("Unexpected error while adding admin email tasks" + e.getMessage());
             }
@@ -106,18 +121,23 @@ public class AdminEmailPrepareTaskQueueWorkerServlet extends WorkerServlet {
         return timeLeftInMillis / 1000 < 100;
     }
     
-    private void pauseAndCreateAnNewTask(int indexOfEmailList, int indexOfEmail) {
+    private void pauseAndCreateAnNewTask(AdminEmailAttributes adminEmail, long offset) {
         TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
         
         HashMap<String, String> paramMap = new HashMap<String, String>();
         paramMap.put(ParamsNames.ADMIN_EMAIL_ID, emailId);
         paramMap.put(ParamsNames.ADMIN_EMAIL_GROUP_RECEIVER_LIST_FILE_KEY, groupReceiverListFileKey);
-        paramMap.put(ParamsNames.ADMIN_GROUP_RECEIVER_EMAIL_LIST_INDEX, Integer.toString(indexOfEmailList));
-        paramMap.put(ParamsNames.ADMIN_GROUP_RECEIVER_EMAIL_INDEX, Integer.toString(indexOfEmail));
+        paramMap.put(ParamsNames.ADMIN_GROUP_RECEIVER_LIST_OFFSET, Long.toString(offset));
         paramMap.put(ParamsNames.ADMIN_EMAIL_TASK_QUEUE_MODE, Const.ADMIN_EMAIL_TASK_QUEUE_GROUP_MODE);
         
-        taskQueueLogic.createAndAddTask(SystemParams.ADMIN_PREPARE_EMAIL_TASK_QUEUE,
-                                        Const.ActionURIs.ADMIN_EMAIL_PREPARE_TASK_QUEUE_WORKER, paramMap);
+        TaskOptions task = taskQueueLogic.createTask(Const.ActionURIs.ADMIN_EMAIL_PREPARE_TASK_QUEUE_WORKER, paramMap)
+                                         .taskName(getTaskNamePrefix(adminEmail, "resume") + offset);
+        try {
+            taskQueueLogic.addTask(SystemParams.ADMIN_PREPARE_EMAIL_TASK_QUEUE, task);
+        } catch (TaskAlreadyExistsException e) {
+            log.info("Adding group mail tasks for mail with id " + emailId
+                     + " was already resumed from offset: " + offset);
+        }
                 
     }
     
@@ -125,7 +145,6 @@ public class AdminEmailPrepareTaskQueueWorkerServlet extends WorkerServlet {
         
         AdminEmailAttributes adminEmail = AdminEmailsLogic.inst().getAdminEmailById(emailId);
         Assumption.assertNotNull(adminEmail);
-        TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
         List<String> addressList = new ArrayList<String>();
         
         if (addressReceiverListString.contains(",")) {
@@ -134,82 +153,73 @@ public class AdminEmailPrepareTaskQueueWorkerServlet extends WorkerServlet {
             addressList.add(addressReceiverListString);
         }
         
-        for (String emailAddress : addressList) {
-            HashMap<String, String> paramMap = new HashMap<String, String>();
-            paramMap.put(ParamsNames.ADMIN_EMAIL_ID, emailId);
-            paramMap.put(ParamsNames.ADMIN_EMAIL_RECEIVER, emailAddress);
-            paramMap.put(ParamsNames.ADMIN_EMAIL_SUBJECT, adminEmail.getSubject());
-            paramMap.put(ParamsNames.ADMIN_EMAIL_CONTENT, adminEmail.getContent().getValue());
-            
-            try {
-                taskQueueLogic.createAndAddTask(SystemParams.ADMIN_EMAIL_TASK_QUEUE,
-                                                Const.ActionURIs.ADMIN_EMAIL_WORKER, paramMap);
-            } catch (IllegalArgumentException e) {
-                if (e.getMessage().toLowerCase().contains("task size too large")) {
-                    log.info("Email task size exceeds max limit. Switching to large email task mode.");
-                    paramMap.remove(ParamsNames.ADMIN_EMAIL_SUBJECT);
-                    paramMap.remove(ParamsNames.ADMIN_EMAIL_CONTENT);
-                    taskQueueLogic.createAndAddTask(SystemParams.ADMIN_EMAIL_TASK_QUEUE,
-                                                    Const.ActionURIs.ADMIN_EMAIL_WORKER, paramMap);
-                }
-            }
-               
-        }
-
+        addAdminEmailTasks(adminEmail, addressList, getTaskNamePrefix(adminEmail, "address"));
     }
     
-    private void addAdminEmailToTaskQueue(String emailId, int indexOfEmailListToResume, int indexOfEmailToResume) {
+    private void addAdminEmailToTaskQueue(String emailId, long offsetToResume) throws IOException {
         
         AdminEmailAttributes adminEmail = AdminEmailsLogic.inst().getAdminEmailById(emailId);
         Assumption.assertNotNull(adminEmail);
-        TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
-        
-        log.info("Resume Adding group mail tasks for mail with id " + emailId + "from list index: "
-                + indexOfEmailListToResume + " email index: " + indexOfEmailToResume);
         
-        int indexOfLastEmailList = 0;
-        int indexOfLastEmail = 0;
+        log.info("Resume Adding group mail tasks for mail with id " + emailId
+                + " from offset: " + offsetToResume);
         
-        for (int i = indexOfEmailListToResume; i < processedReceiverEmails.size(); i++) {
-            
-            List<String> currentEmailList = processedReceiverEmails.get(i);
-            
-            for (int j = indexOfEmailToResume; j < currentEmailList.size(); j++) {
-                String receiverEmail = currentEmailList.get(j);
-                
-                HashMap<String, String> paramMap = new HashMap<String, String>();
-                paramMap.put(ParamsNames.ADMIN_EMAIL_ID, emailId);
-                paramMap.put(ParamsNames.ADMIN_EMAIL_RECEIVER, receiverEmail);
-                paramMap.put(ParamsNames.ADMIN_EMAIL_SUBJECT, adminEmail.getSubject());
-                paramMap.put(ParamsNames.ADMIN_EMAIL_CONTENT, adminEmail.getContent().getValue());
-                
-                try {
-                    taskQueueLogic.createAndAddTask(SystemParams.ADMIN_EMAIL_TASK_QUEUE,
-                                                    Const.ActionURIs.ADMIN_EMAIL_WORKER, paramMap);
-                } catch (IllegalArgumentException e) {
-                    if (e.getMessage().toLowerCase().contains("task size too large")) {
-                        log.info("Email task size exceeds max limit. Switching to large email task mode.");
-                        paramMap.remove(ParamsNames.ADMIN_EMAIL_SUBJECT);
-                        paramMap.remove(ParamsNames.ADMIN_EMAIL_CONTENT);
-                        taskQueueLogic.createAndAddTask(SystemParams.ADMIN_EMAIL_TASK_QUEUE,
-                                                        Const.ActionURIs.ADMIN_EMAIL_WORKER, paramMap);
-                    }
-                }
+        GroupReceiverListReader reader =
+                new GroupReceiverListReader(new BlobKey(groupReceiverListFileKey), offsetToResume);
+        try {
+            while (reader.hasMore()) {
+                // the receivers of a batch are the same whenever it is read from the same offset
+                String taskNamePrefix = getTaskNamePrefix(adminEmail, "group") + reader.getOffset() + "-";
+                addAdminEmailTasks(adminEmail, reader.readReceivers(RECEIVERS_PER_BATCH), taskNamePrefix);
                 
-                if (isNearDeadline()) {
-                    pauseAndCreateAnNewTask(i, j);
+                if (reader.hasMore() && isNearDeadline()) {
+                    pauseAndCreateAnNewTask(adminEmail, reader.getOffset());
                     log.info("Adding group mail tasks for mail with id " + emailId
-                             + " have been paused with list index: " + i + " email index: " + j);
+                             + " have been paused with offset: " + reader.getOffset());
                     return;
                 }
-                
-                indexOfLastEmail = j;
             }
-            indexOfLastEmailList = i;
+        } finally {
+            reader.close();
         }
         
         log.info("Adding Group mail tasks for mail with id " + emailId
-                + "was complete. List index : " + indexOfLastEmailList
-                + " Email index: " + indexOfLastEmail);
+                + " was complete. Offset: " + reader.getOffset());
+    }
+    
+    /**
+     * Adds a task for each of the {@code receiverEmails}, named {@code taskNamePrefix} followed by
+     * the index of the receiver.
+     */
+    private void addAdminEmailTasks(AdminEmailAttributes adminEmail, List<String> receiverEmails,
+                                    String taskNamePrefix) {
+        TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
+        List<TaskOptions> tasks = new ArrayList<TaskOptions>();
+        
+        for (int i = 0; i < receiverEmails.size(); i++) {
+            HashMap<String, String> paramMap = new HashMap<String, String>();
+            paramMap.put(ParamsNames.ADMIN_EMAIL_ID, adminEmail.getEmailId());
+            paramMap.put(ParamsNames.ADMIN_EMAIL_RECEIVER, receiverEmails.get(i));
+            tasks.add(taskQueueLogic.createTask(Const.ActionURIs.ADMIN_EMAIL_WORKER, paramMap)
+                                    .taskName(taskNamePrefix + i));
+        }
+        
+        int numberOfTasksAdded = taskQueueLogic.addTasks(SystemParams.ADMIN_EMAIL_TASK_QUEUE, tasks);
+        if (numberOfTasksAdded < tasks.size()) {
+            log.severe("Only " + numberOfTasksAdded + " of " + tasks.size()
+                       + " admin email tasks were added for mail with id " + adminEmail.getEmailId());
+        }
+    }
+    
+    /**
+     * Returns the start of the names of the tasks added for sending {@code adminEmail}.
+     * The time the email was sent is included, as the names of tasks stay taken for a while after
+     * the tasks are done.
+     */
+    private static String getTaskNamePrefix(AdminEmailAttributes adminEmail, String mode) {
+        // task names may only contain letters, digits, '_' and '-'
+        String emailIdInTaskName = adminEmail.getEmailId().replaceAll("[^a-zA-Z0-9_-]", "_");
+        long sendTime = adminEmail.getSendDate() == null ? 0 : adminEmail.getSendDate().getTime();
+        return "adminemail-" + emailIdInTaskName + "-" + sendTime + "-" + mode + "-";
     }
 }
@@ -35,8 +35,8 @@ public class AdminEmailWorkerServlet extends WorkerServlet {
         String emailContent = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.ADMIN_EMAIL_CONTENT);
         String emailSubject = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.ADMIN_EMAIL_SUBJECT);
         
+        // tasks carry only the email id; the content and subject are in the tasks of older versions
         if (emailContent == null || emailSubject == null) {
-            log.info("Sending large email. Going to retrieve email content and subject from datastore.");
             AdminEmailAttributes adminEmail = AdminEmailsLogic.inst().getAdminEmailById(emailId);
             Assumption.assertNotNull(adminEmail);
 
@@ -7,8 +7,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.Const;
 import teammates.common.util.HttpRequestHelper;
 import teammates.common.util.Utils;
+import teammates.logic.core.ActivityLogsLogic;
 
 @SuppressWarnings("serial")
 public abstract class AutomatedRemindersServlet extends HttpServlet {
@@ -33,6 +35,10 @@ public abstract class AutomatedRemindersServlet extends HttpServlet {
     protected void logMessage(HttpServletRequest request, String message) {
         String url = HttpRequestHelper.getRequestedUrl(request);
         ActivityLogEntry activityLogEntry = new ActivityLogEntry(servletName, action, null, message, url);
-        log.info(activityLogEntry.generateLogMessage());
+        String logMessage = activityLogEntry.generateLogMessage();
+        log.info(logMessage);
+        
+        String courseId = HttpRequestHelper.getValueFromRequestParameterMap(request, Const.ParamsNames.COURSE_ID);
+        ActivityLogsLogic.inst().createActivityLog(System.currentTimeMillis(), logMessage, courseId);
     }
 }
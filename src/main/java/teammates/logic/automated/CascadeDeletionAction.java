@@ -0,0 +1,85 @@
+package teammates.logic.automated;
+
+import java.util.Date;
+import java.util.HashMap;
+
+import javax.servlet.http.HttpServletRequest;
+
+import teammates.common.util.Assumption;
+import teammates.common.util.Const.ParamsNames;
+import teammates.common.util.HttpRequestHelper;
+import teammates.logic.core.CascadeDeletionLogic;
+
+/**
+ * Continues the deletion of the feedback data of a course or a feedback session
+ * that could not be completed in an earlier request.
+ */
+public class CascadeDeletionAction extends TaskQueueWorkerAction {
+    
+    private String courseId;
+    private String sessionName;
+    private Date deletionStartedAt;
+    private CascadeDeletionLogic.Stage stage;
+    private String cursor;
+    
+    public CascadeDeletionAction(HttpServletRequest request) {
+        super(request);
+        
+        this.courseId = HttpRequestHelper
+                .getValueFromRequestParameterMap(request, ParamsNames.COURSE_ID);
+        Assumption.assertNotNull(courseId);
+        
+        // absent when the feedback data of the whole course is being deleted
+        this.sessionName = HttpRequestHelper
+                .getValueFromRequestParameterMap(request, ParamsNames.FEEDBACK_SESSION_NAME);
+        
+        String deletionStartedAtMillis = HttpRequestHelper
+                .getValueFromRequestParameterMap(request, ParamsNames.CASCADE_DELETION_STARTED_AT);
+        Assumption.assertNotNull(deletionStartedAtMillis);
+        this.deletionStartedAt = new Date(Long.parseLong(deletionStartedAtMillis));
+        
+        String stageName = HttpRequestHelper
+                .getValueFromRequestParameterMap(request, ParamsNames.CASCADE_DELETION_STAGE);
+        Assumption.assertNotNull(stageName);
+        this.stage = CascadeDeletionLogic.Stage.valueOf(stageName);
+        
+        this.cursor = HttpRequestHelper
+                .getValueFromRequestParameterMap(request, ParamsNames.CASCADE_DELETION_CURSOR);
+    }
+    
+    public CascadeDeletionAction(HashMap<String, String> paramMap) {
+        super(null);
+        
+        this.courseId = paramMap.get(ParamsNames.COURSE_ID);
+        Assumption.assertNotNull(courseId);
+        
+        this.sessionName = paramMap.get(ParamsNames.FEEDBACK_SESSION_NAME);
+        
+        String deletionStartedAtMillis = paramMap.get(ParamsNames.CASCADE_DELETION_STARTED_AT);
+        Assumption.assertNotNull(deletionStartedAtMillis);
+        this.deletionStartedAt = new Date(Long.parseLong(deletionStartedAtMillis));
+        
+        String stageName = paramMap.get(ParamsNames.CASCADE_DELETION_STAGE);
+        Assumption.assertNotNull(stageName);
+        this.stage = CascadeDeletionLogic.Stage.valueOf(stageName);
+        
+        this.cursor = paramMap.get(ParamsNames.CASCADE_DELETION_CURSOR);
+    }
+    
+    @Override
+    public boolean execute() {
+        log.info("Continuing deletion of feedback data in course : " + courseId
+                 + (sessionName == null ? "" : " for feedback session : " + sessionName)
+                 + " from stage : " + stage);
+        
+        try {
+            CascadeDeletionLogic.inst().continueDeletion(courseId, sessionName, deletionStartedAt, stage, cursor);
+        } catch (Exception e) {
+            log.severe("Error encountered while deleting feedback data in course : " + courseId
+                       + " : " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+    
+}
@@ -14,9 +14,11 @@ import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.exception.TeammatesException;
 import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.Const.ParamsNames;
 import teammates.common.util.EmailWrapper;
 import teammates.common.util.HttpRequestHelper;
 import teammates.common.util.Utils;
+import teammates.logic.core.ActivityLogsLogic;
 import teammates.logic.core.EmailSender;
 
 public abstract class EmailAction {
@@ -105,7 +107,7 @@ public abstract class EmailAction {
         }
         
         ActivityLogEntry activityLogEntry = new ActivityLogEntry(actionName, actionDescription, null, message, url);
-        log.info(activityLogEntry.generateLogMessage());
+        createActivityLog(req, activityLogEntry.generateLogMessage());
     }
 
     protected void logActivityFailure(HttpServletRequest req, Throwable e) {
@@ -116,9 +118,21 @@ public abstract class EmailAction {
                        + e.getMessage() + "</span>";
         ActivityLogEntry activityLogEntry = new ActivityLogEntry(actionName, actionDescription, null,
                                                                  message, url);
-        log.info(activityLogEntry.generateLogMessage());
+        createActivityLog(req, activityLogEntry.generateLogMessage());
         log.severe(e.getMessage());
     }
+    
+    /**
+     * Writes the activity log to the application log and adds it to the activity log store.
+     */
+    private void createActivityLog(HttpServletRequest req, String logMessage) {
+        log.info(logMessage);
+        
+        String courseId = req == null
+                          ? null
+                          : HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_COURSE);
+        ActivityLogsLogic.inst().createActivityLog(System.currentTimeMillis(), logMessage, courseId);
+    }
 
     private String generateLogMessage(List<EmailWrapper> emailsSent) {
         StringBuilder logMessage = new StringBuilder(100);
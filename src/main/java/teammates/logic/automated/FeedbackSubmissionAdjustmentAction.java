@@ -2,29 +2,37 @@ package teammates.logic.automated;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 
-import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.FeedbackSessionAttributes;
+import teammates.common.datatransfer.ResponsePage;
 import teammates.common.datatransfer.StudentEnrollDetails;
 import teammates.common.util.ActivityLogEntry;
 import teammates.common.util.Assumption;
+import teammates.common.util.Const;
 import teammates.common.util.Const.ParamsNames;
+import teammates.common.util.Const.SystemParams;
 import teammates.common.util.HttpRequestHelper;
 import teammates.common.util.Utils;
 import teammates.logic.core.FeedbackResponsesLogic;
 import teammates.logic.core.FeedbackSessionsLogic;
-import teammates.logic.core.StudentsLogic;
+import teammates.logic.core.TaskQueuesLogic;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
 public class FeedbackSubmissionAdjustmentAction extends TaskQueueWorkerAction {
+    
+    // responses are adjusted page by page, and a task continues in a new task after a number of pages
+    // so that adjusting the responses of a large session does not exceed the task deadline
+    private static final int RESPONSES_PER_PAGE = 500;
+    private static final int PAGES_PER_TASK = 10;
+    
     private String courseId;
     private String sessionName;
     private String enrollmentDetails;
+    private String responsesCursor;
     
     public FeedbackSubmissionAdjustmentAction(
             HttpServletRequest request) {
@@ -41,6 +49,9 @@ public class FeedbackSubmissionAdjustmentAction extends TaskQueueWorkerAction {
         this.enrollmentDetails = HttpRequestHelper
                 .getValueFromRequestParameterMap(request, ParamsNames.ENROLLMENT_DETAILS);
         Assumption.assertNotNull(enrollmentDetails);
+        
+        this.responsesCursor = HttpRequestHelper
+                .getValueFromRequestParameterMap(request, ParamsNames.FEEDBACK_RESPONSES_CURSOR);
     }
 
     public FeedbackSubmissionAdjustmentAction(HashMap<String, String> paramMap) {
@@ -54,6 +65,8 @@ public class FeedbackSubmissionAdjustmentAction extends TaskQueueWorkerAction {
         
         this.enrollmentDetails = paramMap.get(ParamsNames.ENROLLMENT_DETAILS);
         Assumption.assertNotNull(enrollmentDetails);
+        
+        this.responsesCursor = paramMap.get(ParamsNames.FEEDBACK_RESPONSES_CURSOR);
     }
     
     @Override
@@ -74,22 +87,39 @@ public class FeedbackSubmissionAdjustmentAction extends TaskQueueWorkerAction {
             return false;
         }
         
-        List<FeedbackResponseAttributes> allResponses =
-                                        FeedbackResponsesLogic.inst().getFeedbackResponsesForSession(
-                                                                        feedbackSession.getFeedbackSessionName(),
-                                                                        feedbackSession.getCourseId());
         Gson gsonParser = Utils.getTeammatesGson();
         ArrayList<StudentEnrollDetails> enrollmentList =
                 gsonParser.fromJson(enrollmentDetails, new TypeToken<ArrayList<StudentEnrollDetails>>(){}.getType());
-        for (FeedbackResponseAttributes response : allResponses) {
+        
+        FeedbackResponsesLogic frLogic = FeedbackResponsesLogic.inst();
+        String cursor = responsesCursor;
+        for (int i = 0; i < PAGES_PER_TASK; i++) {
+            ResponsePage page = frLogic.getFeedbackResponsesForSessionInPage(
+                    feedbackSession.getFeedbackSessionName(), feedbackSession.getCourseId(),
+                    cursor, RESPONSES_PER_PAGE);
             try {
-                StudentsLogic.inst().adjustFeedbackResponseForEnrollments(enrollmentList, response);
+                frLogic.adjustFeedbackResponsesForEnrollments(feedbackSession.getFeedbackSessionName(),
+                        feedbackSession.getCourseId(), enrollmentList, page.results);
             } catch (Exception e) {
                 log.severe(String.format(errorString, sessionName, courseId, e.getMessage(),
                                                 ActivityLogEntry.generateServletActionFailureLogMessage(request, e)));
                 return false;
             }
+            if (!page.hasMore) {
+                return true;
+            }
+            cursor = page.cursor;
         }
+        
+        log.info("Continuing adjustment of submissions for feedback session : " + sessionName
+                 + " in course : " + courseId + " in a new task");
+        HashMap<String, String> paramMap = new HashMap<String, String>();
+        paramMap.put(ParamsNames.COURSE_ID, courseId);
+        paramMap.put(ParamsNames.FEEDBACK_SESSION_NAME, sessionName);
+        paramMap.put(ParamsNames.ENROLLMENT_DETAILS, enrollmentDetails);
+        paramMap.put(ParamsNames.FEEDBACK_RESPONSES_CURSOR, cursor);
+        TaskQueuesLogic.inst().createAndAddTask(SystemParams.FEEDBACK_SUBMISSION_ADJUSTMENT_TASK_QUEUE,
+                Const.ActionURIs.FEEDBACK_SUBMISSION_ADJUSTMENT_WORKER, paramMap);
         return true;
            
     }
@@ -10,19 +10,52 @@ import teammates.common.util.EmailWrapper;
 import teammates.common.util.HttpRequestHelper;
 import teammates.logic.core.EmailSender;
 
+import com.google.apphosting.api.ApiProxy;
+
+/**
+ * Sends the emails in the send email pull queue. The emails are leased from the queue
+ * in groups so that each group is sent with as few requests to the email service as possible.<br>
+ * It is run by the tasks added to the send email queue when emails are queued, and by cron
+ * every few minutes for emails whose task failed. Emails which fail to send are left in the queue
+ * and are sent again when their lease expires.<br>
+ * Emails which were queued in the send email queue itself, before the pull queue was used,
+ * are sent one per task.
+ */
 @SuppressWarnings("serial")
 public class SendEmailWorkerServlet extends WorkerServlet {
     
+    private static final int EMAILS_PER_LEASE = 100;
+    
+    /** Long enough for the emails leased to be sent, after which emails which failed to send are leased again. */
+    private static final long LEASE_SECONDS = 5 * 60;
+    
     @Override
     public void doGet(HttpServletRequest req, HttpServletResponse resp) {
+        EmailSender emailSender = new EmailSender();
+        
+        String emailSubject = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_SUBJECT);
+        if (emailSubject != null) {
+            sendEmailInRequest(req, resp, emailSender);
+            return;
+        }
+        
+        int numberOfEmailsLeased;
+        do {
+            numberOfEmailsLeased = emailSender.sendQueuedEmails(EMAILS_PER_LEASE, LEASE_SECONDS);
+        } while (numberOfEmailsLeased == EMAILS_PER_LEASE && !isNearDeadline());
+    }
+    
+    /**
+     * Sends the email given by the parameters of a task queued before emails were queued in the pull queue.
+     */
+    private void sendEmailInRequest(HttpServletRequest req, HttpServletResponse resp, EmailSender emailSender) {
         String emailSubject = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_SUBJECT);
-        Assumption.assertNotNull(emailSubject);
         
         String emailContent = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_CONTENT);
         Assumption.assertNotNull(emailContent);
         
-        String emailSender = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_SENDER);
-        Assumption.assertNotNull(emailSender);
+        String emailSenderEmail = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_SENDER);
+        Assumption.assertNotNull(emailSenderEmail);
         
         String emailSenderName = HttpRequestHelper.getValueFromRequestParameterMap(req, ParamsNames.EMAIL_SENDERNAME);
         
@@ -34,7 +67,7 @@ public class SendEmailWorkerServlet extends WorkerServlet {
         
         EmailWrapper message = new EmailWrapper();
         message.setRecipient(emailReceiver);
-        message.setSenderEmail(emailSender);
+        message.setSenderEmail(emailSenderEmail);
         if (emailSenderName != null) {
             message.setSenderName(emailSenderName);
         }
@@ -43,7 +76,7 @@ public class SendEmailWorkerServlet extends WorkerServlet {
         message.setReplyTo(emailReply);
         
         try {
-            new EmailSender().sendEmail(message);
+            emailSender.sendEmail(message);
         } catch (Exception e) {
             log.severe("Error while sending email via servlet: " + TeammatesException.toStringWithStackTrace(e));
             
@@ -51,4 +84,9 @@ public class SendEmailWorkerServlet extends WorkerServlet {
             resp.setStatus(100);
         }
     }
+    
+    private boolean isNearDeadline() {
+        long timeLeftInMillis = ApiProxy.getCurrentEnvironment().getRemainingMillis();
+        return timeLeftInMillis / 1000 < 100;
+    }
 }
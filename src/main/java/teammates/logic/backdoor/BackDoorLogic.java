@@ -250,11 +250,13 @@ public class BackDoorLogic extends Logic {
         }
         
         Map<String, FeedbackResponseCommentAttributes> responseComments = dataBundle.feedbackResponseComments;
+        List<FeedbackResponseCommentAttributes> responseCommentsInDb = new ArrayList<FeedbackResponseCommentAttributes>();
         for (FeedbackResponseCommentAttributes responseComment : responseComments.values()) {
             FeedbackResponseCommentAttributes fcInDb = fcDb.getFeedbackResponseComment(
                     responseComment.courseId, responseComment.createdAt, responseComment.giverEmail);
-            fcDb.putDocument(fcInDb);
+            responseCommentsInDb.add(fcInDb);
         }
+        fcDb.putDocuments(responseCommentsInDb);
         
         Map<String, CommentAttributes> comments = dataBundle.comments;
         for (CommentAttributes comment : comments.values()) {
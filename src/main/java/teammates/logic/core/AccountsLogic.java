@@ -17,6 +17,8 @@ import teammates.common.util.Const;
 import teammates.common.util.StringHelper;
 import teammates.common.util.Utils;
 import teammates.storage.api.AccountsDb;
+import teammates.storage.api.UserIdentityCache;
+import teammates.storage.api.UserIdentityCache.UserIdentity;
 
 /**
  * Handles the logic related to accounts.
@@ -69,6 +71,14 @@ public class AccountsLogic {
         return a != null && a.isInstructor;
     }
 
+    /**
+     * Returns the account and roles of the user with {@code googleId}, which may be read from a cache
+     * that is updated whenever the account or a student with the Google ID changes.
+     */
+    public UserIdentity getUserIdentity(String googleId) {
+        return UserIdentityCache.getUserIdentity(googleId);
+    }
+
     public List<AccountAttributes> getInstructorAccounts() {
         return accountsDb.getInstructorAccounts();
     }
@@ -0,0 +1,66 @@
+package teammates.logic.core;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import teammates.common.exception.TeammatesException;
+import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
+import teammates.common.util.Assumption;
+import teammates.common.util.Utils;
+import teammates.storage.api.ActivityLogsDb;
+
+/**
+ * Handles the logic related to the activity logs shown in the admin activity log page.
+ */
+public class ActivityLogsLogic {
+    
+    private static final Logger log = Utils.getLogger();
+    
+    private static ActivityLogsLogic instance;
+    private static final ActivityLogsDb activityLogsDb = new ActivityLogsDb();
+    
+    public static ActivityLogsLogic inst() {
+        if (instance == null) {
+            instance = new ActivityLogsLogic();
+        }
+        return instance;
+    }
+    
+    /**
+     * Adds the activity log written to the application log as {@code logMessage} at {@code time}
+     * to the activity log store. The log is only kept in the application log if it cannot be added,
+     * so that the action which is logged does not fail. The log is written asynchronously, so a failure
+     * of the write itself is not reported.
+     * @param courseId the course the action was carried out in, or null if there is none.
+     */
+    public void createActivityLog(long time, String logMessage, String courseId) {
+        Assumption.assertNotNull(logMessage);
+        
+        try {
+            activityLogsDb.createActivityLog(time, logMessage, courseId);
+        } catch (Exception e) {
+            log.warning("Unable to add the activity log to the activity log store: "
+                        + TeammatesException.toStringWithStackTrace(e));
+        }
+    }
+    
+    /**
+     * Gets at most {@code limit} activity logs matching the {@code query}, most recent first,
+     * continuing from the cursor of the query. The cursor of the query is then moved to after the last log read.
+     */
+    public List<ActivityLogEntry> getActivityLogs(ActivityLogQuery query, int limit) {
+        Assumption.assertNotNull(query);
+        return activityLogsDb.getActivityLogs(query, limit);
+    }
+    
+    /**
+     * Deletes at most {@code maxLogs} of the activity logs older than the retention period of the store.
+     * @return the number of logs deleted, which is {@code maxLogs} if there may be more to delete.
+     */
+    public int deleteExpiredActivityLogs(int maxLogs) {
+        long retentionPeriodStart = System.currentTimeMillis() - ActivityLogsDb.RETENTION_DAYS * 24 * 60 * 60 * 1000L;
+        return activityLogsDb.deleteActivityLogsBefore(retentionPeriodStart, maxLogs);
+    }
+    
+}
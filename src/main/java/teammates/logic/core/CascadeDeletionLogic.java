@@ -0,0 +1,161 @@
+package teammates.logic.core;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.logging.Logger;
+
+import teammates.common.util.Const;
+import teammates.common.util.Const.ParamsNames;
+import teammates.common.util.Const.SystemParams;
+import teammates.common.util.Utils;
+import teammates.storage.api.FeedbackQuestionsDb;
+import teammates.storage.api.FeedbackResponseCommentsDb;
+import teammates.storage.api.FeedbackResponsesDb;
+
+/**
+ * Handles the deletion of the feedback questions, responses and response comments
+ * of a course or of a feedback session. <br>
+ * The entities are deleted by their keys in bounded chunks, without being loaded.
+ * As much as possible is deleted within the request that starts the deletion;
+ * if there is more, the rest is deleted by tasks that continue from where the previous one stopped.
+ * As the course or session may be created again with the same ID before the tasks are done,
+ * the tasks only delete the entities created before the deletion started.
+ */
+public class CascadeDeletionLogic {
+
+    /**
+     * The kinds of entities deleted, in the order they are deleted,
+     * so that no comment is left without its response and no response without its question.
+     */
+    public enum Stage {
+        FEEDBACK_RESPONSE_COMMENTS,
+        FEEDBACK_RESPONSES,
+        FEEDBACK_QUESTIONS
+    }
+
+    // the number of entities of each kind deleted before the deletion continues in a new task
+    private static final int MAX_ENTITIES_PER_STAGE_PER_TASK = 5000;
+
+    private static final Logger log = Utils.getLogger();
+
+    private static CascadeDeletionLogic instance;
+
+    private static final FeedbackResponseCommentsDb frcDb = new FeedbackResponseCommentsDb();
+    private static final FeedbackResponsesDb frDb = new FeedbackResponsesDb();
+    private static final FeedbackQuestionsDb fqDb = new FeedbackQuestionsDb();
+
+    public static CascadeDeletionLogic inst() {
+        if (instance == null) {
+            instance = new CascadeDeletionLogic();
+        }
+        return instance;
+    }
+
+    /**
+     * Deletes the feedback questions, responses and response comments of all sessions in the course.
+     * @return true if all of them are deleted, false if the rest are to be deleted in the background.
+     */
+    public boolean deleteFeedbackDataForCourse(String courseId) {
+        return startDeletion(courseId, null);
+    }
+
+    /**
+     * Deletes the feedback questions, responses and response comments of the session.
+     * @return true if all of them are deleted, false if the rest are to be deleted in the background.
+     */
+    public boolean deleteFeedbackDataForSession(String feedbackSessionName, String courseId) {
+        return startDeletion(courseId, feedbackSessionName);
+    }
+
+    private boolean startDeletion(String courseId, String feedbackSessionName) {
+        // the course or session is only deleted after its feedback data, so it cannot be created again
+        // while this request deletes the first chunks, which are thus deleted without being loaded
+        return deleteFrom(courseId, feedbackSessionName, new Date(), Stage.FEEDBACK_RESPONSE_COMMENTS, null, null);
+    }
+
+    /**
+     * Continues deleting the feedback data of the course, or of the session if {@code feedbackSessionName}
+     * is not null, from {@code stage} and {@code cursor}. If not everything can be deleted within
+     * the limit of this request, a task is added to continue the deletion.
+     * @param deletionStartedAt the time the deletion started. Entities created after it belong to
+     *                   a course or session created again with the same ID, and are kept.
+     * @param cursor the cursor returned by the previous chunk of the stage, or null to start the stage.
+     * @return true if all of the feedback data is deleted.
+     */
+    public boolean continueDeletion(String courseId, String feedbackSessionName, Date deletionStartedAt,
+                                    Stage stage, String cursor) {
+        return deleteFrom(courseId, feedbackSessionName, deletionStartedAt, stage, cursor, deletionStartedAt);
+    }
+
+    private boolean deleteFrom(String courseId, String feedbackSessionName, Date deletionStartedAt,
+                               Stage stage, String cursor, Date createdUntil) {
+        Stage currentStage = stage;
+        String nextCursor = cursor;
+
+        while (true) {
+            nextCursor = deleteInChunks(courseId, feedbackSessionName, currentStage, nextCursor, createdUntil);
+            if (nextCursor != null) {
+                log.info("Went through " + MAX_ENTITIES_PER_STAGE_PER_TASK + " entities at stage " + currentStage
+                         + " of the deletion of " + getDeletionTarget(courseId, feedbackSessionName)
+                         + ", continuing in a new task");
+                scheduleDeletion(courseId, feedbackSessionName, deletionStartedAt, currentStage, nextCursor);
+                return false;
+            }
+
+            log.info("Completed stage " + currentStage + " of the deletion of "
+                     + getDeletionTarget(courseId, feedbackSessionName));
+            if (currentStage.ordinal() == Stage.values().length - 1) {
+                return true;
+            }
+            currentStage = Stage.values()[currentStage.ordinal() + 1];
+        }
+    }
+
+    private String deleteInChunks(String courseId, String feedbackSessionName, Stage stage, String cursor,
+                                  Date createdUntil) {
+        boolean isForSession = feedbackSessionName != null;
+        switch (stage) {
+        case FEEDBACK_RESPONSE_COMMENTS:
+            return isForSession
+                   ? frcDb.deleteFeedbackResponseCommentsForSessionInChunks(
+                           feedbackSessionName, courseId, cursor, MAX_ENTITIES_PER_STAGE_PER_TASK, createdUntil)
+                   : frcDb.deleteFeedbackResponseCommentsForCourseInChunks(
+                           courseId, cursor, MAX_ENTITIES_PER_STAGE_PER_TASK, createdUntil);
+        case FEEDBACK_RESPONSES:
+            return isForSession
+                   ? frDb.deleteFeedbackResponsesForSessionInChunks(
+                           feedbackSessionName, courseId, cursor, MAX_ENTITIES_PER_STAGE_PER_TASK, createdUntil)
+                   : frDb.deleteFeedbackResponsesForCourseInChunks(
+                           courseId, cursor, MAX_ENTITIES_PER_STAGE_PER_TASK, createdUntil);
+        case FEEDBACK_QUESTIONS:
+            return isForSession
+                   ? fqDb.deleteFeedbackQuestionsForSessionInChunks(
+                           feedbackSessionName, courseId, cursor, MAX_ENTITIES_PER_STAGE_PER_TASK, createdUntil)
+                   : fqDb.deleteFeedbackQuestionsForCourseInChunks(
+                           courseId, cursor, MAX_ENTITIES_PER_STAGE_PER_TASK, createdUntil);
+        default:
+            return null;
+        }
+    }
+
+    private void scheduleDeletion(String courseId, String feedbackSessionName, Date deletionStartedAt,
+                                  Stage stage, String cursor) {
+        HashMap<String, String> paramMap = new HashMap<String, String>();
+        paramMap.put(ParamsNames.COURSE_ID, courseId);
+        if (feedbackSessionName != null) {
+            paramMap.put(ParamsNames.FEEDBACK_SESSION_NAME, feedbackSessionName);
+        }
+        paramMap.put(ParamsNames.CASCADE_DELETION_STARTED_AT, String.valueOf(deletionStartedAt.getTime()));
+        paramMap.put(ParamsNames.CASCADE_DELETION_STAGE, stage.name());
+        paramMap.put(ParamsNames.CASCADE_DELETION_CURSOR, cursor);
+
+        TaskQueuesLogic.inst().createAndAddTask(SystemParams.CASCADE_DELETION_TASK_QUEUE,
+                                                Const.ActionURIs.CASCADE_DELETION_WORKER, paramMap);
+    }
+
+    private String getDeletionTarget(String courseId, String feedbackSessionName) {
+        return feedbackSessionName == null
+               ? "course " + courseId
+               : "feedback session " + feedbackSessionName + " in course " + courseId;
+    }
+}
@@ -27,7 +27,9 @@ import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Const;
 import teammates.common.util.EmailType;
 import teammates.common.util.Sanitizer;
+import teammates.storage.api.CommentVisibilityIndex;
 import teammates.storage.api.CommentsDb;
+import teammates.storage.api.CourseRosterCache;
 import teammates.storage.api.InstructorsDb;
 import teammates.storage.api.StudentsDb;
 
@@ -323,161 +325,80 @@ public class CommentsLogic {
     public List<CommentAttributes> getCommentsForStudent(StudentAttributes student)
            throws EntityDoesNotExistException {
         verifyIsCoursePresent(student.course, "get");
-        List<StudentAttributes> teammates = studentsLogic.getStudentsForTeam(student.team, student.course);
-        List<StudentAttributes> studentsInTheSameSection = studentsLogic.getStudentsForSection(student.section,
-                                                                                               student.course);
-        List<String> teammatesEmails = getTeammatesEmails(teammates);
-        List<String> sectionStudentsEmails = getSectionStudentsEmails(studentsInTheSameSection);
-        List<String> teamsInThisSection = getTeamsForSection(studentsInTheSameSection);
-
-        List<CommentAttributes> comments = new ArrayList<CommentAttributes>();
-        HashSet<String> commentsVisitedSet = new HashSet<String>();
+        CourseRoster roster = CourseRosterCache.getCourseRoster(student.course);
+        String studentEmail = Sanitizer.sanitizeForHtml(student.email);
+        CommentVisibilityIndex index = CommentVisibilityIndex.getForStudent(student.course, studentEmail);
+        
+        // A comment is seen by the student through the closest relation to its recipients,
+        // and is visible only if it is shown to viewers of that relation.
+        Map<Long, CommentParticipantType> relations = new HashMap<Long, CommentParticipantType>();
+        List<CommentAttributes> commentsSeen = new ArrayList<CommentAttributes>();
         
         //Get comments sent to the given student
-        List<CommentAttributes> commentsForStudent = getCommentsForReceiver(student.course,
-                                                                            CommentParticipantType.PERSON,
-                                                                            student.email);
-        removeNonVisibleCommentsForStudent(commentsForStudent, commentsVisitedSet, comments);
-        
-        //Get comments visible to the given student's teammates
-        List<CommentAttributes> commentsForTeam = getCommentsForCommentViewer(student.course,
-                                                                              CommentParticipantType.TEAM);
-        removeNonVisibleCommentsForTeam(commentsForTeam, student, teammatesEmails, commentsVisitedSet, comments);
-        
-        //Get comments visible to the given student's section
-        List<CommentAttributes> commentsForSection = getCommentsForCommentViewer(student.course,
-                                                                                 CommentParticipantType.SECTION);
-        removeNonVisibleCommentsForSection(commentsForSection, student, teammatesEmails,
-                                           sectionStudentsEmails, teamsInThisSection,
-                                           commentsVisitedSet, comments);
+        addCommentsSeenAs(CommentParticipantType.PERSON, index.getCommentsForPerson(studentEmail),
+                          relations, commentsSeen);
+        
+        //Get comments sent to the given student's teammates or team
+        for (StudentAttributes teammate : roster.getStudentsInTeam(student.team)) {
+            addCommentsSeenAs(CommentParticipantType.TEAM, index.getCommentsForPerson(teammate.email),
+                              relations, commentsSeen);
+        }
+        addCommentsSeenAs(CommentParticipantType.TEAM,
+                          index.getCommentsForTeam(Sanitizer.sanitizeForHtml(student.team)),
+                          relations, commentsSeen);
+        
+        //Get comments sent to the students, teams or the given student's section
+        for (StudentAttributes studentInSection : roster.getStudentsInSection(student.section)) {
+            addCommentsSeenAs(CommentParticipantType.SECTION, index.getCommentsForPerson(studentInSection.email),
+                              relations, commentsSeen);
+            addCommentsSeenAs(CommentParticipantType.SECTION, index.getCommentsForTeam(studentInSection.team),
+                              relations, commentsSeen);
+        }
+        addCommentsSeenAs(CommentParticipantType.SECTION, index.getCommentsForSection(student.section),
+                          relations, commentsSeen);
         
         //Get comments visible to the whole course
-        List<CommentAttributes> commentsForCourse = getCommentsForCommentViewer(student.course,
-                                                                                CommentParticipantType.COURSE);
-        removeNonVisibleCommentsForCourse(commentsForCourse, student, teammatesEmails,
-                                          sectionStudentsEmails, teamsInThisSection,
-                                          commentsVisitedSet, comments);
+        addCommentsSeenAs(CommentParticipantType.COURSE, index.getCommentsShownToCourse(),
+                          relations, commentsSeen);
+        
+        List<CommentAttributes> comments = new ArrayList<CommentAttributes>();
+        for (CommentAttributes c : commentsSeen) {
+            CommentParticipantType relation = relations.get(c.getCommentId());
+            if (c.showCommentTo.contains(relation)) {
+                removeNamesByVisibilityOptions(c, relation);
+                comments.add(c);
+            }
+        }
         
         java.util.Collections.sort(comments);
         
         return comments;
     }
     
-    private List<String> getTeamsForSection(List<StudentAttributes> studentsInTheSameSection) {
-        List<String> teams = new ArrayList<String>();
-        for (StudentAttributes stu : studentsInTheSameSection) {
-            teams.add(stu.team);
-        }
-        return teams;
-    }
-
-    private List<String> getSectionStudentsEmails(List<StudentAttributes> studentsInTheSameSection) {
-        List<String> sectionStudentsEmails = new ArrayList<String>();
-        for (StudentAttributes stu : studentsInTheSameSection) {
-            sectionStudentsEmails.add(stu.email);
-        }
-        return sectionStudentsEmails;
-    }
-    
-    private List<String> getTeammatesEmails(List<StudentAttributes> teammates) {
-        List<String> teammatesEmails = new ArrayList<String>();
-        for (StudentAttributes teammate : teammates) {
-            teammatesEmails.add(teammate.email);
-        }
-        return teammatesEmails;
-    }
-
-    private void removeNonVisibleCommentsForCourse(List<CommentAttributes> commentsForCourse, StudentAttributes student,
-                                                   List<String> teammates, List<String> sectionStudentsEmails,
-                                                   List<String> teamsInThisSection, HashSet<String> commentsVisitedSet,
-                                                   List<CommentAttributes> comments) {
-        removeNonVisibleCommentsForSection(commentsForCourse, student, teammates,
-                                           sectionStudentsEmails, teamsInThisSection,
-                                           commentsVisitedSet, comments);
-        
-        for (CommentAttributes c : commentsForCourse) {
-            if (c.courseId.equals(student.course)) {
-                if (c.recipientType == CommentParticipantType.COURSE) {
-                    removeGiverNameByVisibilityOptions(c, CommentParticipantType.COURSE);
-                } else {
-                    removeGiverAndRecipientNameByVisibilityOptions(c, CommentParticipantType.COURSE);
-                }
-                appendComments(c, comments, commentsVisitedSet);
+    private void addCommentsSeenAs(CommentParticipantType relation, List<CommentAttributes> commentsToAdd,
+                                   Map<Long, CommentParticipantType> relations,
+                                   List<CommentAttributes> commentsSeen) {
+        for (CommentAttributes c : commentsToAdd) {
+            if (!relations.containsKey(c.getCommentId())) {
+                relations.put(c.getCommentId(), relation);
+                commentsSeen.add(c);
             }
         }
     }
     
-    private void removeNonVisibleCommentsForSection(List<CommentAttributes> commentsForSection,
-            StudentAttributes student, List<String> teammatesEmails, List<String> sectionStudentsEmails,
-            List<String> teamsInThisSection, HashSet<String> commentsVisitedSet, List<CommentAttributes> comments) {
-        removeNonVisibleCommentsForTeam(commentsForSection, student, teammatesEmails, commentsVisitedSet, comments);
-        
-        for (CommentAttributes c : commentsForSection) {
-            //for teammates
-            if (c.recipientType == CommentParticipantType.PERSON
-                    && isCommentRecipientsWithinGroup(sectionStudentsEmails, c)) {
-                if (c.showCommentTo.contains(CommentParticipantType.SECTION)) {
-                    removeGiverAndRecipientNameByVisibilityOptions(c, CommentParticipantType.SECTION);
-                    appendComments(c, comments, commentsVisitedSet);
-                } else {
-                    preventAppendingThisCommentAgain(commentsVisitedSet, c);
-                }
-            //for team
-            } else if (c.recipientType == CommentParticipantType.TEAM
-                       && isCommentRecipientsWithinGroup(teamsInThisSection, c)) {
-                if (c.showCommentTo.contains(CommentParticipantType.SECTION)) {
-                    removeGiverNameByVisibilityOptions(c, CommentParticipantType.SECTION);
-                    appendComments(c, comments, commentsVisitedSet);
-                } else {
-                    preventAppendingThisCommentAgain(commentsVisitedSet, c);
-                }
-            //for section
-            } else if (c.recipientType == CommentParticipantType.SECTION && c.recipients.contains(student.section)) {
-                if (c.showCommentTo.contains(CommentParticipantType.SECTION)) {
-                    removeGiverNameByVisibilityOptions(c, CommentParticipantType.SECTION);
-                    appendComments(c, comments, commentsVisitedSet);
-                } else {
-                    preventAppendingThisCommentAgain(commentsVisitedSet, c);
-                }
-            }
-        }
-    }
-    
-    private void removeNonVisibleCommentsForTeam(List<CommentAttributes> commentsForTeam, StudentAttributes student,
-                                                 List<String> teammates, HashSet<String> commentsVisitedSet,
-                                                 List<CommentAttributes> comments) {
-        for (CommentAttributes c : commentsForTeam) {
-            //for teammates
-            if (c.recipientType == CommentParticipantType.PERSON && isCommentRecipientsWithinGroup(teammates, c)) {
-                if (c.showCommentTo.contains(CommentParticipantType.TEAM)) {
-                    removeGiverAndRecipientNameByVisibilityOptions(c, CommentParticipantType.TEAM);
-                    appendComments(c, comments, commentsVisitedSet);
-                } else {
-                    preventAppendingThisCommentAgain(commentsVisitedSet, c);
-                }
-            //for team
-            } else if (c.recipientType == CommentParticipantType.TEAM
-                       && c.recipients.contains(Sanitizer.sanitizeForHtml(student.team))) {
-                if (c.showCommentTo.contains(CommentParticipantType.TEAM)) {
-                    removeGiverNameByVisibilityOptions(c, CommentParticipantType.TEAM);
-                    appendComments(c, comments, commentsVisitedSet);
-                } else {
-                    preventAppendingThisCommentAgain(commentsVisitedSet, c);
-                }
-            }
+    private void removeNamesByVisibilityOptions(CommentAttributes c, CommentParticipantType relation) {
+        boolean isRecipientNameHideable;
+        if (c.recipientType == CommentParticipantType.PERSON) {
+            isRecipientNameHideable = relation != CommentParticipantType.PERSON;
+        } else {
+            isRecipientNameHideable = relation == CommentParticipantType.COURSE
+                                      && c.recipientType != CommentParticipantType.COURSE;
         }
-    }
-
-    private void removeNonVisibleCommentsForStudent(List<CommentAttributes> commentsForStudent,
-                                                    HashSet<String> commentsVisitedSet,
-                                                    List<CommentAttributes> comments) {
-        for (CommentAttributes c : commentsForStudent) {
-            if (c.showCommentTo.contains(CommentParticipantType.PERSON)) {
-                removeGiverNameByVisibilityOptions(c, CommentParticipantType.PERSON);
-                appendComments(c, comments, commentsVisitedSet);
-            } else {
-                preventAppendingThisCommentAgain(commentsVisitedSet, c);
-            }
+        
+        if (isRecipientNameHideable) {
+            removeGiverAndRecipientNameByVisibilityOptions(c, relation);
+        } else {
+            removeGiverNameByVisibilityOptions(c, relation);
         }
     }
     
@@ -528,15 +449,6 @@ public class CommentsLogic {
     private void preventAppendingThisCommentAgain(HashSet<String> commentsVisitedSet, CommentAttributes c) {
         commentsVisitedSet.add(c.getCommentId().toString());
     }
-
-    private boolean isCommentRecipientsWithinGroup(List<String> group, CommentAttributes c) {
-        for (String recipient : c.recipients) {
-            if (group.contains(recipient)) {
-                return true;
-            }
-        }
-        return false;
-    }
     
     /************ Send Email For Pending Comments ************/
     
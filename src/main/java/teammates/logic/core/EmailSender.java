@@ -1,20 +1,26 @@
 package teammates.logic.core;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import teammates.common.exception.EmailSendingException;
 import teammates.common.exception.TeammatesException;
 import teammates.common.util.Config;
-import teammates.common.util.Const;
+import teammates.common.util.Const.ActionURIs;
 import teammates.common.util.Const.ParamsNames;
 import teammates.common.util.Const.SystemParams;
 import teammates.common.util.EmailLogEntry;
 import teammates.common.util.EmailWrapper;
 import teammates.common.util.Utils;
 
+import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.api.taskqueue.TaskOptions;
+
 /**
  * Handles operations related to sending emails.
  */
@@ -22,6 +28,18 @@ public class EmailSender {
     
     private static final Logger log = Utils.getLogger();
     
+    /**
+     * How long an email is kept in the send email queue. Emails which cannot be sent within this time,
+     * e.g. because the email service is down, are dropped.
+     */
+    private static final long EMAIL_AGE_LIMIT_MILLIS = 24 * 60 * 60 * 1000;
+    
+    /**
+     * The length of the periods for which the emails queued are sent together by one task,
+     * which runs at the end of the period.
+     */
+    private static final long SEND_TASK_PERIOD_MILLIS = 10 * 1000;
+    
     private final EmailSenderService service;
     
     public EmailSender() {
@@ -37,7 +55,16 @@ public class EmailSender {
     }
     
     /**
-     * Sends the given list of {@code messages}.
+     * Creates a sender which sends emails with the given {@code service}, e.g. one using a stub of its API.
+     */
+    public EmailSender(EmailSenderService service) {
+        this.service = service;
+    }
+    
+    /**
+     * Sends the given list of {@code messages}.<br>
+     * The messages are added to the send email queue, from which they are leased and sent in batches
+     * by tasks which run within a few seconds of the messages becoming due.
      */
     public void sendEmails(List<EmailWrapper> messages) {
         if (messages.isEmpty()) {
@@ -49,15 +76,54 @@ public class EmailSender {
         int oneHourInMillis = 60 * 60 * 1000;
         int emailIntervalMillis = Math.min(5000, oneHourInMillis / messages.size());
         
+        List<TaskOptions> tasks = new ArrayList<TaskOptions>();
         int numberOfEmailsSent = 0;
+        long emailDelayTimer = 0;
         for (EmailWrapper m : messages) {
-            long emailDelayTimer = numberOfEmailsSent * emailIntervalMillis;
-            addEmailToTaskQueue(m, emailDelayTimer);
+            emailDelayTimer = numberOfEmailsSent * emailIntervalMillis;
+            TaskOptions task = createEmailTask(m, emailDelayTimer);
+            if (task != null) {
+                tasks.add(task);
+            }
             numberOfEmailsSent++;
         }
+        
+        int numberOfTasksAdded = TaskQueuesLogic.inst().addTasks(SystemParams.SEND_EMAIL_PULL_QUEUE, tasks);
+        if (numberOfTasksAdded < messages.size()) {
+            log.severe((messages.size() - numberOfTasksAdded) + " of " + messages.size()
+                       + " emails could not be added to task queue");
+        }
+        
+        addSendQueuedEmailsTasks(emailDelayTimer);
     }
     
-    private void addEmailToTaskQueue(EmailWrapper message, long emailDelayTimer) {
+    /**
+     * Adds a task to send the queued emails at the end of each period in which emails queued now
+     * become due, up to {@code lastEmailDelayMillis} from now.<br>
+     * The tasks are named after their period, so emails queued in the same period share one task.
+     * Emails whose task could not be added are sent by the cron run of the worker instead.
+     */
+    private void addSendQueuedEmailsTasks(long lastEmailDelayMillis) {
+        long now = System.currentTimeMillis();
+        long firstPeriod = now / SEND_TASK_PERIOD_MILLIS;
+        long lastPeriod = (now + lastEmailDelayMillis) / SEND_TASK_PERIOD_MILLIS;
+        
+        TaskQueuesLogic taskQueuesLogic = TaskQueuesLogic.inst();
+        List<TaskOptions> tasks = new ArrayList<TaskOptions>();
+        for (long period = firstPeriod; period <= lastPeriod; period++) {
+            tasks.add(taskQueuesLogic.createTask(ActionURIs.SEND_EMAIL_WORKER, new HashMap<String, String>())
+                                     .taskName("send-queued-emails-" + period)
+                                     .etaMillis((period + 1) * SEND_TASK_PERIOD_MILLIS));
+        }
+        
+        int numberOfTasksAdded = taskQueuesLogic.addTasks(SystemParams.SEND_EMAIL_TASK_QUEUE, tasks);
+        if (numberOfTasksAdded < tasks.size()) {
+            log.warning((tasks.size() - numberOfTasksAdded) + " of " + tasks.size()
+                        + " tasks to send queued emails could not be added; the emails are sent by cron instead");
+        }
+    }
+    
+    private TaskOptions createEmailTask(EmailWrapper message, long emailDelayTimer) {
         String emailSubject = message.getSubject();
         String emailSenderName = message.getSenderName();
         String emailSender = message.getSenderEmail();
@@ -73,10 +139,10 @@ public class EmailSender {
             }
             paramMap.put(ParamsNames.EMAIL_RECEIVER, emailReceiver);
             paramMap.put(ParamsNames.EMAIL_REPLY_TO_ADDRESS, emailReplyToAddress);
+            paramMap.put(ParamsNames.EMAIL_QUEUED_TIME, Long.toString(System.currentTimeMillis()));
             
             TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
-            taskQueueLogic.createAndAddDeferredTask(SystemParams.SEND_EMAIL_TASK_QUEUE,
-                    Const.ActionURIs.SEND_EMAIL_WORKER, paramMap, emailDelayTimer);
+            return taskQueueLogic.createPullTask(paramMap, emailDelayTimer);
         } catch (Exception e) {
             log.severe("Error when adding email to task queue: " + e.getMessage() + "\n"
                        + "Email sender: " + emailSender + "\n"
@@ -84,6 +150,7 @@ public class EmailSender {
                        + "Email receiver: " + emailReceiver + "\n"
                        + "Email subject: " + emailSubject + "\n"
                        + "Email reply to address: " + emailReplyToAddress);
+            return null;
         }
     }
     
@@ -98,6 +165,113 @@ public class EmailSender {
         log.info(emailLogInfo);
     }
     
+    /**
+     * Sends the given {@code messages} with as few requests to the email service as possible
+     * and generates a log report for each message sent.
+     * @return the messages which failed to send
+     */
+    public List<EmailWrapper> sendEmailsInBatches(List<EmailWrapper> messages) {
+        List<EmailWrapper> failedMessages = service.sendEmails(messages);
+        
+        Set<EmailWrapper> failedMessagesSet = new HashSet<EmailWrapper>(failedMessages);
+        for (EmailWrapper message : messages) {
+            if (!failedMessagesSet.contains(message)) {
+                log.info(new EmailLogEntry(message).generateLogMessage());
+            }
+        }
+        return failedMessages;
+    }
+    
+    /**
+     * Leases up to {@code maxEmails} emails from the send email pull queue for {@code leaseSeconds}
+     * and sends them with as few requests to the email service as possible.<br>
+     * The tasks of emails which were sent or can never be sent are deleted. Emails which failed to send
+     * are left in the queue and are sent again when their lease expires.
+     * @return the number of emails leased
+     */
+    public int sendQueuedEmails(int maxEmails, long leaseSeconds) {
+        TaskQueuesLogic taskQueuesLogic = TaskQueuesLogic.inst();
+        List<TaskHandle> tasks = taskQueuesLogic.leaseTasks(SystemParams.SEND_EMAIL_PULL_QUEUE, leaseSeconds, maxEmails);
+        
+        List<EmailWrapper> messages = new ArrayList<EmailWrapper>();
+        Map<EmailWrapper, TaskHandle> taskOfMessage = new HashMap<EmailWrapper, TaskHandle>();
+        List<TaskHandle> tasksDone = new ArrayList<TaskHandle>();
+        
+        for (TaskHandle task : tasks) {
+            EmailWrapper message = extractMessage(task);
+            if (message == null) {
+                // the task can never be sent, so it is not left to be leased again
+                tasksDone.add(task);
+            } else {
+                messages.add(message);
+                taskOfMessage.put(message, task);
+            }
+        }
+        
+        Set<EmailWrapper> failedMessages = new HashSet<EmailWrapper>();
+        if (!messages.isEmpty()) {
+            failedMessages.addAll(sendEmailsInBatches(messages));
+        }
+        for (EmailWrapper message : messages) {
+            if (!failedMessages.contains(message)) {
+                tasksDone.add(taskOfMessage.get(message));
+            }
+        }
+        
+        taskQueuesLogic.deleteTasks(SystemParams.SEND_EMAIL_PULL_QUEUE, tasksDone);
+        
+        if (!failedMessages.isEmpty()) {
+            log.severe(failedMessages.size() + " of " + tasks.size()
+                       + " emails failed to send and will be sent again when their lease expires");
+        }
+        return tasks.size();
+    }
+    
+    private EmailWrapper extractMessage(TaskHandle task) {
+        Map<String, String> paramMap = new HashMap<String, String>();
+        try {
+            for (Map.Entry<String, String> param : task.extractParams()) {
+                paramMap.put(param.getKey(), param.getValue());
+            }
+        } catch (Exception e) {
+            log.severe("Unable to read email task " + task.getName() + ": " + TeammatesException.toStringWithStackTrace(e));
+            return null;
+        }
+        
+        String emailSubject = paramMap.get(ParamsNames.EMAIL_SUBJECT);
+        String emailContent = paramMap.get(ParamsNames.EMAIL_CONTENT);
+        String emailSender = paramMap.get(ParamsNames.EMAIL_SENDER);
+        String emailSenderName = paramMap.get(ParamsNames.EMAIL_SENDERNAME);
+        String emailReceiver = paramMap.get(ParamsNames.EMAIL_RECEIVER);
+        String emailReply = paramMap.get(ParamsNames.EMAIL_REPLY_TO_ADDRESS);
+        String emailQueuedTime = paramMap.get(ParamsNames.EMAIL_QUEUED_TIME);
+        
+        if (emailSubject == null || emailContent == null || emailSender == null
+                || emailReceiver == null || emailReply == null) {
+            log.severe("Email task " + task.getName() + " is missing parameters: " + paramMap.keySet());
+            return null;
+        }
+        
+        // pull queues do not drop tasks by age, so emails which could not be sent for long are dropped here
+        if (emailQueuedTime != null
+                && System.currentTimeMillis() - Long.parseLong(emailQueuedTime) > EMAIL_AGE_LIMIT_MILLIS) {
+            log.severe("Email task " + task.getName() + " to " + emailReceiver + " with subject " + emailSubject
+                       + " was dropped as it could not be sent within a day");
+            return null;
+        }
+        
+        EmailWrapper message = new EmailWrapper();
+        message.setRecipient(emailReceiver);
+        message.setSenderEmail(emailSender);
+        if (emailSenderName != null) {
+            message.setSenderName(emailSenderName);
+        }
+        message.setContent(emailContent);
+        message.setSubject(emailSubject);
+        message.setReplyTo(emailReply);
+        return message;
+    }
+    
     /**
      * Sends the given {@code message} with Javamail service regardless of configuration.
      */
@@ -1,8 +1,15 @@
 package teammates.logic.core;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import teammates.common.exception.EmailSendingException;
+import teammates.common.exception.TeammatesException;
 import teammates.common.util.EmailWrapper;
 import teammates.common.util.Utils;
 
@@ -11,8 +18,6 @@ import teammates.common.util.Utils;
  */
 public abstract class EmailSenderService {
     
-    protected static final int SUCCESS_CODE = 200;
-    
     protected static final Logger log = Utils.getLogger();
     
     /**
@@ -34,8 +39,85 @@ public abstract class EmailSenderService {
         }
     }
     
+    /**
+     * Sends the emails packaged as {@code wrappers}, with as many emails in each request to the service
+     * as the service allows.<br>
+     * Emails are sent in the same request only if they have the same sender and reply-to address,
+     * no bcc and different recipients.
+     * @return the emails which failed to send, e.g. because the request for them failed
+     */
+    public List<EmailWrapper> sendEmails(List<EmailWrapper> wrappers) {
+        List<EmailWrapper> failedEmails = new ArrayList<EmailWrapper>();
+        for (List<EmailWrapper> batch : groupIntoBatches(wrappers)) {
+            try {
+                sendEmailsWithService(batch);
+            } catch (Exception e) {
+                log.severe("Failed to send " + batch.size() + " email(s): "
+                           + TeammatesException.toStringWithStackTrace(e));
+                failedEmails.addAll(batch);
+            }
+        }
+        return failedEmails;
+    }
+    
+    /**
+     * Checks if the HTTP {@code statusCode} of a response from the service means the request succeeded.
+     */
+    protected static boolean isSuccessStatus(int statusCode) {
+        return statusCode / 100 == 2;
+    }
+    
+    /**
+     * Returns the maximum number of emails the service sends in one request.
+     * Services which cannot send several emails in one request send them one by one.
+     */
+    protected int getMaxEmailsPerRequest() {
+        return 1;
+    }
+    
+    private List<List<EmailWrapper>> groupIntoBatches(List<EmailWrapper> wrappers) {
+        List<List<EmailWrapper>> batches = new ArrayList<List<EmailWrapper>>();
+        Map<String, List<EmailWrapper>> openBatches = new LinkedHashMap<String, List<EmailWrapper>>();
+        Map<String, Set<String>> recipientsOfOpenBatches = new LinkedHashMap<String, Set<String>>();
+        
+        for (EmailWrapper wrapper : wrappers) {
+            if (wrapper.getBcc() != null && !wrapper.getBcc().isEmpty()) {
+                List<EmailWrapper> batch = new ArrayList<EmailWrapper>();
+                batch.add(wrapper);
+                batches.add(batch);
+                continue;
+            }
+            
+            String senderKey = wrapper.getSenderEmail() + "|" + wrapper.getSenderName() + "|" + wrapper.getReplyTo();
+            List<EmailWrapper> batch = openBatches.get(senderKey);
+            Set<String> recipients = recipientsOfOpenBatches.get(senderKey);
+            if (batch == null || batch.size() >= getMaxEmailsPerRequest() || recipients.contains(wrapper.getRecipient())) {
+                batch = new ArrayList<EmailWrapper>();
+                recipients = new HashSet<String>();
+                batches.add(batch);
+                openBatches.put(senderKey, batch);
+                recipientsOfOpenBatches.put(senderKey, recipients);
+            }
+            batch.add(wrapper);
+            recipients.add(wrapper.getRecipient());
+        }
+        return batches;
+    }
+    
     @SuppressWarnings("PMD.SignatureDeclareThrowsException")
     // accounts for the many different Exceptions from different email services
     protected abstract void sendEmailWithService(EmailWrapper wrapper) throws Exception;
     
+    /**
+     * Sends {@code wrappers}, which have the same sender and reply-to address, no bcc and different
+     * recipients, in one request if the service allows it.
+     */
+    @SuppressWarnings("PMD.SignatureDeclareThrowsException")
+    // accounts for the many different Exceptions from different email services
+    protected void sendEmailsWithService(List<EmailWrapper> wrappers) throws Exception {
+        for (EmailWrapper wrapper : wrappers) {
+            sendEmailWithService(wrapper);
+        }
+    }
+    
 }
@@ -11,6 +11,7 @@ import java.util.Set;
 import java.util.logging.Logger;
 
 import teammates.common.datatransfer.CourseAttributes;
+import teammates.common.datatransfer.CourseRoster;
 import teammates.common.datatransfer.FeedbackParticipantType;
 import teammates.common.datatransfer.FeedbackQuestionAttributes;
 import teammates.common.datatransfer.FeedbackQuestionDetails;
@@ -18,12 +19,12 @@ import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.FeedbackSessionAttributes;
 import teammates.common.datatransfer.InstructorAttributes;
 import teammates.common.datatransfer.StudentAttributes;
-import teammates.common.datatransfer.TeamDetailsBundle;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.common.util.Utils;
+import teammates.storage.api.CourseRosterCache;
 import teammates.storage.api.FeedbackQuestionsDb;
 
 public class FeedbackQuestionsLogic {
@@ -297,6 +298,14 @@ public class FeedbackQuestionsLogic {
 
     
     
+    /**
+     * Gets the giver types of the questions in the session, without reading the questions
+     * unless they have changed since the giver types were last found.
+     */
+    public Set<FeedbackParticipantType> getGiverTypesForSession(String feedbackSessionName, String courseId) {
+        return fqDb.getGiverTypesForSession(feedbackSessionName, courseId);
+    }
+    
     /**
      * Gets a {@code List} of all questions for the given session that
      * students can view/submit.
@@ -342,15 +351,29 @@ public class FeedbackQuestionsLogic {
     public Map<String, String> getRecipientsForQuestion(FeedbackQuestionAttributes question, String giver)
             throws EntityDoesNotExistException {
         
-        InstructorAttributes instructorGiver = instructorsLogic.getInstructorForEmail(question.courseId, giver);
-        StudentAttributes studentGiver = studentsLogic.getStudentForEmail(question.courseId, giver);
+        CourseRoster roster = CourseRosterCache.getCourseRoster(question.courseId);
+        return getRecipientsForQuestion(question, giver, roster);
+    }
+    
+    /**
+     * Gets the possible recipients of {@code question} for {@code giver}, using the details of
+     * the students, teams and instructors in {@code roster} instead of reading them from the datastore.
+     * The roster should be read once and reused for all questions of the same course.
+     */
+    public Map<String, String> getRecipientsForQuestion(FeedbackQuestionAttributes question, String giver,
+                                                        CourseRoster roster)
+            throws EntityDoesNotExistException {
+        
+        InstructorAttributes instructorGiver = roster.getInstructorForEmail(giver);
+        StudentAttributes studentGiver = roster.getStudentForEmail(giver);
         
-        return getRecipientsForQuestion(question, giver, instructorGiver, studentGiver);
+        return getRecipientsForQuestion(question, giver, instructorGiver, studentGiver, roster);
     }
-
+    
     public Map<String, String> getRecipientsForQuestion(
             FeedbackQuestionAttributes question, String giver,
-            InstructorAttributes instructorGiver, StudentAttributes studentGiver)
+            InstructorAttributes instructorGiver, StudentAttributes studentGiver,
+            CourseRoster roster)
                     throws EntityDoesNotExistException {
 
         Map<String, String> recipients = new HashMap<String, String>();
@@ -378,8 +401,7 @@ public class FeedbackQuestionsLogic {
             }
             break;
         case STUDENTS:
-            List<StudentAttributes> studentsInCourse = studentsLogic.getStudentsForCourse(question.courseId);
-            for (StudentAttributes student : studentsInCourse) {
+            for (StudentAttributes student : roster.getStudents()) {
                 // Ensure student does not evaluate himself
                 if (!giver.equals(student.email)) {
                     recipients.put(student.email, student.name);
@@ -387,8 +409,7 @@ public class FeedbackQuestionsLogic {
             }
             break;
         case INSTRUCTORS:
-            List<InstructorAttributes> instructorsInCourse = instructorsLogic.getInstructorsForCourse(question.courseId);
-            for (InstructorAttributes instr : instructorsInCourse) {
+            for (InstructorAttributes instr : roster.getInstructors()) {
                 // Ensure instructor does not evaluate himself
                 if (!giver.equals(instr.email)) {
                     recipients.put(instr.email, instr.name);
@@ -396,12 +417,14 @@ public class FeedbackQuestionsLogic {
             }
             break;
         case TEAMS:
-            List<TeamDetailsBundle> teams = coursesLogic.getTeamsForCourse(question.courseId);
-            for (TeamDetailsBundle team : teams) {
+            if (coursesLogic.getCourse(question.courseId) == null) {
+                throw new EntityDoesNotExistException("The course " + question.courseId + " does not exist");
+            }
+            for (String teamName : roster.getSortedTeamNames()) {
                 // Ensure student('s team) does not evaluate own team.
-                if (!giverTeam.equals(team.name)) {
+                if (!giverTeam.equals(teamName)) {
                     // recipientEmail doubles as team name in this case.
-                    recipients.put(team.name, team.name);
+                    recipients.put(teamName, teamName);
                 }
             }
             break;
@@ -409,16 +432,14 @@ public class FeedbackQuestionsLogic {
             recipients.put(giverTeam, giverTeam);
             break;
         case OWN_TEAM_MEMBERS:
-            List<StudentAttributes> students = studentsLogic.getStudentsForTeam(giverTeam, question.courseId);
-            for (StudentAttributes student : students) {
+            for (StudentAttributes student : roster.getStudentsInTeam(giverTeam)) {
                 if (!student.email.equals(giver)) {
                     recipients.put(student.email, student.name);
                 }
             }
             break;
         case OWN_TEAM_MEMBERS_INCLUDING_SELF:
-            List<StudentAttributes> teamMembers = studentsLogic.getStudentsForTeam(giverTeam, question.courseId);
-            for (StudentAttributes student : teamMembers) {
+            for (StudentAttributes student : roster.getStudentsInTeam(giverTeam)) {
                 // accepts self feedback too
                 recipients.put(student.email, student.name);
             }
@@ -439,6 +460,16 @@ public class FeedbackQuestionsLogic {
   
     public boolean isQuestionFullyAnsweredByUser(FeedbackQuestionAttributes question, String email)
             throws EntityDoesNotExistException {
+        return isQuestionFullyAnsweredByUser(question, email, CourseRosterCache.getCourseRoster(question.courseId));
+    }
+    
+    /**
+     * Checks if a question has been fully answered by a user,
+     * finding the recipients of the question from {@code roster} if needed.
+     */
+    public boolean isQuestionFullyAnsweredByUser(FeedbackQuestionAttributes question, String email,
+                                                 CourseRoster roster)
+            throws EntityDoesNotExistException {
         
         int numberOfResponsesGiven =
                 frLogic.getFeedbackResponsesFromGiverForQuestion(question.getId(), email).size();
@@ -446,7 +477,7 @@ public class FeedbackQuestionsLogic {
                 question.numberOfEntitiesToGiveFeedbackTo;
         
         if (numberOfResponsesNeeded == Const.MAX_POSSIBLE_RECIPIENTS) {
-            numberOfResponsesNeeded = getRecipientsForQuestion(question, email).size();
+            numberOfResponsesNeeded = getRecipientsForQuestion(question, email, roster).size();
         }
         
         return numberOfResponsesGiven >= numberOfResponsesNeeded ? true : false;
@@ -734,10 +765,15 @@ public class FeedbackQuestionsLogic {
             List<FeedbackQuestionAttributes> questions, String giver)
             throws EntityDoesNotExistException {
         List<FeedbackQuestionAttributes> questionsWithRecipients = new ArrayList<FeedbackQuestionAttributes>();
+        // the roster is read once, when the first question without a limit on its recipients is found
+        CourseRoster roster = null;
         for (FeedbackQuestionAttributes question : questions) {
             int numRecipients = question.numberOfEntitiesToGiveFeedbackTo;
             if (numRecipients == Const.MAX_POSSIBLE_RECIPIENTS) {
-                numRecipients = this.getRecipientsForQuestion(question, giver)
+                if (roster == null) {
+                    roster = CourseRosterCache.getCourseRoster(question.courseId);
+                }
+                numRecipients = this.getRecipientsForQuestion(question, giver, roster)
                         .size();
             }
             if (numRecipients > 0) {
@@ -127,6 +127,12 @@ public class FeedbackResponseCommentsLogic {
             frcDb.updateFeedbackResponseComment(comment);
         }
     }
+    
+    // updates the giverSection and receiverSection of the comments on the given responses of a session
+    public void updateFeedbackResponseCommentsForResponses(String courseId, String feedbackSessionName,
+                                                           List<FeedbackResponseAttributes> responses) {
+        frcDb.updateSectionsOfFeedbackResponseComments(courseId, feedbackSessionName, responses);
+    }
 
     public FeedbackResponseCommentAttributes updateFeedbackResponseComment(
                                                      FeedbackResponseCommentAttributes feedbackResponseComment)
@@ -171,6 +177,14 @@ public class FeedbackResponseCommentsLogic {
         frcDb.putDocument(comment);
     }
     
+    /**
+     * Create or update documents for the given comments
+     * @param comments
+     */
+    public void putDocuments(List<FeedbackResponseCommentAttributes> comments) {
+        frcDb.putDocuments(comments);
+    }
+    
     public List<FeedbackResponseCommentAttributes> getFeedbackResponseCommentsForGiver(String courseId,
                                                                                        String giverEmail) {
         return frcDb.getFeedbackResponseCommentForGiver(courseId, giverEmail);
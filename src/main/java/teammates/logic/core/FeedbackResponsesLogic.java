@@ -1,6 +1,7 @@
 package teammates.logic.core;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -12,8 +13,10 @@ import teammates.common.datatransfer.CourseRoster;
 import teammates.common.datatransfer.FeedbackParticipantType;
 import teammates.common.datatransfer.FeedbackQuestionAttributes;
 import teammates.common.datatransfer.FeedbackResponseAttributes;
+import teammates.common.datatransfer.ResponsePage;
 import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.datatransfer.StudentEnrollDetails;
+import teammates.common.datatransfer.StudentUpdateStatus;
 import teammates.common.datatransfer.UserRole;
 import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
@@ -60,6 +63,10 @@ public class FeedbackResponsesLogic {
         return frDb.getFeedbackResponse(feedbackResponseId);
     }
 
+    public List<FeedbackResponseAttributes> getFeedbackResponses(Collection<String> feedbackResponseIds) {
+        return frDb.getFeedbackResponses(feedbackResponseIds);
+    }
+
     public FeedbackResponseAttributes getFeedbackResponse(
             String feedbackQuestionId, String giverEmail, String recipient) {
         return frDb.getFeedbackResponse(feedbackQuestionId, giverEmail, recipient);
@@ -70,6 +77,24 @@ public class FeedbackResponsesLogic {
         return frDb.getFeedbackResponsesForSession(feedbackSessionName, courseId);
     }
     
+    public ResponsePage getFeedbackResponsesForSessionInPage(
+            String feedbackSessionName, String courseId, String cursor, int pageSize) {
+        return frDb.getFeedbackResponsesForSessionInPage(feedbackSessionName, courseId, cursor, pageSize);
+    }
+    
+    public ResponsePage getFeedbackResponsesForSessionInSectionInPage(
+            String feedbackSessionName, String courseId, String section, String cursor, int pageSize) {
+        if (section == null) {
+            return getFeedbackResponsesForSessionInPage(feedbackSessionName, courseId, cursor, pageSize);
+        }
+        return frDb.getFeedbackResponsesForSessionInSectionInPage(feedbackSessionName, courseId, section,
+                                                                  cursor, pageSize);
+    }
+    
+    public ResponsePage getFeedbackResponsesForQuestionInPage(String feedbackQuestionId, String cursor, int pageSize) {
+        return frDb.getFeedbackResponsesForQuestionInPage(feedbackQuestionId, cursor, pageSize);
+    }
+    
     public List<FeedbackResponseAttributes> getFeedbackResponsesForSessionInSection(
             String feedbackSessionName, String courseId, String section) {
         if (section == null) {
@@ -453,6 +478,31 @@ public class FeedbackResponsesLogic {
         }
     }
 
+    /**
+     * Creates or updates the responses in {@code responsesToSave} and deletes the responses in
+     * {@code responsesToDelete} together with their comments, writing the responses in one batch.<br>
+     * The responses are matched and updated as in {@link FeedbackResponsesDb#saveFeedbackResponses(List, List)};
+     * the comments of a response that is recreated because its giver or recipient is changed
+     * are moved to the new response.<br>
+     * Preconditions: <br>
+     * * All parameters are non-null. <br>
+     * * The responses to delete have non-null ids.
+     * @throws EntityAlreadyExistsException if a recreated response would have the id of another response.
+     */
+    public void saveFeedbackResponses(List<FeedbackResponseAttributes> responsesToSave,
+            List<FeedbackResponseAttributes> responsesToDelete)
+            throws InvalidParametersException, EntityDoesNotExistException, EntityAlreadyExistsException {
+        Map<String, String> recreatedResponseIds = frDb.saveFeedbackResponses(responsesToSave, responsesToDelete);
+
+        for (FeedbackResponseAttributes responseToDelete : responsesToDelete) {
+            frcLogic.deleteFeedbackResponseCommentsForResponse(responseToDelete.getId());
+        }
+        for (Map.Entry<String, String> recreatedResponseId : recreatedResponseIds.entrySet()) {
+            frcLogic.updateFeedbackResponseCommentsForChangingResponseId(
+                    recreatedResponseId.getKey(), recreatedResponseId.getValue());
+        }
+    }
+
     private void recreateResponse(
             FeedbackResponseAttributes newResponse, FeedbackResponseAttributes oldResponse)
             throws InvalidParametersException, EntityAlreadyExistsException, EntityDoesNotExistException {
@@ -599,6 +649,103 @@ public class FeedbackResponsesLogic {
         }
     }
 
+    /**
+     * Adjusts the given responses of a session for the modified students in {@code enrollmentList}
+     * in a single pass over the responses, with the same outcome as
+     * {@link #updateFeedbackResponseForChangingTeam} and {@link #updateFeedbackResponseForChangingSection}
+     * for each response and enrollment: a response that is no longer relevant to a student in the new team
+     * is deleted, and the sections of the others are updated to the new sections of their giver and recipient.
+     * The changed responses are written in one batch.
+     */
+    public void adjustFeedbackResponsesForEnrollments(String feedbackSessionName, String courseId,
+            List<StudentEnrollDetails> enrollmentList, List<FeedbackResponseAttributes> responses)
+            throws InvalidParametersException, EntityDoesNotExistException {
+        Map<String, StudentEnrollDetails> modifiedEnrollments = new HashMap<String, StudentEnrollDetails>();
+        for (StudentEnrollDetails enrollment : enrollmentList) {
+            if (enrollment.updateStatus == StudentUpdateStatus.MODIFIED) {
+                modifiedEnrollments.put(enrollment.email, enrollment);
+            }
+        }
+        if (modifiedEnrollments.isEmpty()) {
+            return;
+        }
+
+        Map<String, FeedbackQuestionAttributes> questions = new HashMap<String, FeedbackQuestionAttributes>();
+        List<FeedbackResponseAttributes> responsesToUpdate = new ArrayList<FeedbackResponseAttributes>();
+        List<FeedbackResponseAttributes> responsesToDelete = new ArrayList<FeedbackResponseAttributes>();
+        Set<String> emailsWithDeletedResponses = new HashSet<String>();
+
+        for (FeedbackResponseAttributes response : responses) {
+            StudentEnrollDetails giverEnrollment = modifiedEnrollments.get(response.giver);
+            StudentEnrollDetails recipientEnrollment = modifiedEnrollments.get(response.recipient);
+            if (giverEnrollment == null && recipientEnrollment == null) {
+                continue;
+            }
+
+            FeedbackQuestionAttributes question = questions.get(response.feedbackQuestionId);
+            if (question == null) {
+                question = fqLogic.getFeedbackQuestion(response.feedbackQuestionId);
+                questions.put(response.feedbackQuestionId, question);
+            }
+
+            boolean shouldDeleteByChangeOfGiver = giverEnrollment != null && isTeamChanged(giverEnrollment)
+                                                  && (question.giverType == FeedbackParticipantType.TEAMS
+                                                      || isRecipientTypeTeamMembers(question));
+            boolean shouldDeleteByChangeOfRecipient = recipientEnrollment != null
+                                                      && isTeamChanged(recipientEnrollment)
+                                                      && isRecipientTypeTeamMembers(question);
+            if (shouldDeleteByChangeOfGiver) {
+                emailsWithDeletedResponses.add(giverEnrollment.email);
+            }
+            if (shouldDeleteByChangeOfRecipient) {
+                emailsWithDeletedResponses.add(recipientEnrollment.email);
+            }
+            if (shouldDeleteByChangeOfGiver || shouldDeleteByChangeOfRecipient) {
+                responsesToDelete.add(response);
+                continue;
+            }
+
+            boolean isSectionUpdated = false;
+            if (giverEnrollment != null && isSectionChanged(giverEnrollment)) {
+                response.giverSection = giverEnrollment.newSection;
+                isSectionUpdated = true;
+            }
+            if (recipientEnrollment != null && isSectionChanged(recipientEnrollment)) {
+                response.recipientSection = recipientEnrollment.newSection;
+                isSectionUpdated = true;
+            }
+            if (isSectionUpdated) {
+                responsesToUpdate.add(response);
+            }
+        }
+
+        if (responsesToUpdate.isEmpty() && responsesToDelete.isEmpty()) {
+            return;
+        }
+
+        try {
+            saveFeedbackResponses(responsesToUpdate, responsesToDelete);
+        } catch (EntityAlreadyExistsException e) {
+            // the givers and recipients of the responses are not changed, so no response is recreated
+            Assumption.fail("Adjusted responses should not be recreated: " + e.getMessage());
+        }
+        frcLogic.updateFeedbackResponseCommentsForResponses(courseId, feedbackSessionName, responsesToUpdate);
+
+        for (String email : emailsWithDeletedResponses) {
+            updateSessionResponseRateForDeletingStudentResponse(email, feedbackSessionName, courseId);
+        }
+    }
+
+    private boolean isTeamChanged(StudentEnrollDetails enrollment) {
+        return enrollment.newTeam != null && enrollment.oldTeam != null
+               && !enrollment.oldTeam.equals(enrollment.newTeam);
+    }
+
+    private boolean isSectionChanged(StudentEnrollDetails enrollment) {
+        return enrollment.newSection != null && enrollment.oldSection != null
+               && !enrollment.oldSection.equals(enrollment.newSection);
+    }
+
     /**
      * Updates responses for a student when his email changes.
      */
@@ -1,5 +1,7 @@
 package teammates.logic.core;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
@@ -34,7 +36,6 @@ import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.ExceedingRangeException;
 import teammates.common.exception.InvalidParametersException;
-import teammates.common.exception.TeammatesException;
 import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.common.util.Const.ParamsNames;
@@ -45,9 +46,8 @@ import teammates.common.util.Sanitizer;
 import teammates.common.util.StringHelper;
 import teammates.common.util.TimeHelper;
 import teammates.common.util.Utils;
+import teammates.storage.api.CourseRosterCache;
 import teammates.storage.api.FeedbackSessionsDb;
-import teammates.storage.api.InstructorsDb;
-import teammates.storage.api.StudentsDb;
 
 public class FeedbackSessionsLogic {
     
@@ -311,11 +311,17 @@ public class FeedbackSessionsLogic {
         
         InstructorAttributes instructorGiver = instructor;
         StudentAttributes studentGiver = null;
+        
+        // Load details of students once, when first needed, to check the sections of all recipients
+        CourseRoster roster = null;
 
         for (FeedbackQuestionAttributes question : questions) {
+            if (roster == null && isRosterNeededForRecipients(question)) {
+                roster = CourseRosterCache.getCourseRoster(courseId);
+            }
 
-            updateBundleAndRecipientListWithResponsesForInstructor(courseId,
-                    userEmail, fsa, instructor, bundle, recipientList,
+            updateBundleAndRecipientListWithResponsesForInstructor(
+                    userEmail, fsa, instructor, roster, bundle, recipientList,
                     question, instructorGiver, studentGiver);
         }
 
@@ -342,19 +348,23 @@ public class FeedbackSessionsLogic {
         
         InstructorAttributes instructorGiver = instructor;
         StudentAttributes studentGiver = null;
+        
+        CourseRoster roster = isRosterNeededForRecipients(question)
+                              ? CourseRosterCache.getCourseRoster(courseId)
+                              : null;
 
-        updateBundleAndRecipientListWithResponsesForInstructor(courseId,
-                userEmail, fsa, instructor, bundle, recipientList,
+        updateBundleAndRecipientListWithResponsesForInstructor(
+                userEmail, fsa, instructor, roster, bundle, recipientList,
                 question, instructorGiver, studentGiver);
 
         return new FeedbackSessionQuestionsBundle(fsa, bundle, recipientList);
     }
 
     private void updateBundleAndRecipientListWithResponsesForInstructor(
-            String courseId,
             String userEmail,
             FeedbackSessionAttributes fsa,
             InstructorAttributes instructor,
+            CourseRoster roster,
             Map<FeedbackQuestionAttributes, List<FeedbackResponseAttributes>> bundle,
             Map<String, Map<String, String>> recipientList,
             FeedbackQuestionAttributes question,
@@ -364,13 +374,13 @@ public class FeedbackSessionsLogic {
                 frLogic.getFeedbackResponsesFromGiverForQuestion(
                         question.getId(), userEmail);
         Map<String, String> recipients =
-                fqLogic.getRecipientsForQuestion(question, userEmail, instructorGiver, studentGiver);
+                fqLogic.getRecipientsForQuestion(question, userEmail, instructorGiver, studentGiver, roster);
         // instructor can only see students in allowed sections for him/her
         if (question.recipientType.equals(FeedbackParticipantType.STUDENTS)) {
             Iterator<Map.Entry<String, String>> iter = recipients.entrySet().iterator();
             while (iter.hasNext()) {
                 Map.Entry<String, String> studentEntry = iter.next();
-                StudentAttributes student = studentsLogic.getStudentForEmail(courseId, studentEntry.getKey());
+                StudentAttributes student = roster.getStudentForEmail(studentEntry.getKey());
                 if (!instructor.isAllowedForPrivilege(student.section,
                         fsa.getFeedbackSessionName(), Const.ParamsNames.INSTRUCTOR_PERMISSION_SUBMIT_SESSION_IN_SECTIONS)) {
                     iter.remove();
@@ -382,7 +392,10 @@ public class FeedbackSessionsLogic {
             Iterator<Map.Entry<String, String>> iter = recipients.entrySet().iterator();
             while (iter.hasNext()) {
                 Map.Entry<String, String> teamEntry = iter.next();
-                String teamSection = studentsLogic.getSectionForTeam(courseId, teamEntry.getKey());
+                String teamSection = roster.getSectionForTeam(teamEntry.getKey());
+                if (teamSection == null) {
+                    teamSection = Const.DEFAULT_SECTION;
+                }
                 if (!instructor.isAllowedForPrivilege(teamSection,
                         fsa.getFeedbackSessionName(), Const.ParamsNames.INSTRUCTOR_PERMISSION_SUBMIT_SESSION_IN_SECTIONS)) {
                     iter.remove();
@@ -395,6 +408,17 @@ public class FeedbackSessionsLogic {
         recipientList.put(question.getId(), recipients);
     }
 
+    /**
+     * Checks if the recipients of {@code question} are found from the roster of the course,
+     * i.e. the recipients are not only the giver, the giver's team or nobody.
+     */
+    private static boolean isRosterNeededForRecipients(FeedbackQuestionAttributes question) {
+        FeedbackParticipantType recipientType = question.recipientType;
+        return recipientType != FeedbackParticipantType.SELF
+               && recipientType != FeedbackParticipantType.OWN_TEAM
+               && recipientType != FeedbackParticipantType.NONE;
+    }
+
     /**
      * Gets {@code FeedbackQuestions} and previously filled
      * {@code FeedbackResponses} that a student can view/submit as a
@@ -431,9 +455,16 @@ public class FeedbackSessionsLogic {
             }
         }
 
+        // Load details of students, teams and instructors once, when first needed,
+        // to find the recipients of all questions
+        CourseRoster roster = null;
+
         for (FeedbackQuestionAttributes question : questions) {
+            if (roster == null && isRosterNeededForRecipients(question)) {
+                roster = CourseRosterCache.getCourseRoster(courseId);
+            }
 
-            updateBundleAndRecipientListWithResponsesForStudent(userEmail, student,
+            updateBundleAndRecipientListWithResponsesForStudent(userEmail, student, roster,
                     bundle, recipientList, question, hiddenInstructorEmails);
         }
 
@@ -468,7 +499,11 @@ public class FeedbackSessionsLogic {
             hiddenInstructorEmails = getHiddenInstructorEmails(courseId);
         }
 
-        updateBundleAndRecipientListWithResponsesForStudent(userEmail, student,
+        CourseRoster roster = isRosterNeededForRecipients(question)
+                              ? CourseRosterCache.getCourseRoster(courseId)
+                              : null;
+
+        updateBundleAndRecipientListWithResponsesForStudent(userEmail, student, roster,
                 bundle, recipientList, question, hiddenInstructorEmails);
 
         return new FeedbackSessionQuestionsBundle(fsa, bundle, recipientList);
@@ -477,6 +512,7 @@ public class FeedbackSessionsLogic {
     private void updateBundleAndRecipientListWithResponsesForStudent(
             String userEmail,
             StudentAttributes student,
+            CourseRoster roster,
             Map<FeedbackQuestionAttributes, List<FeedbackResponseAttributes>> bundle,
             Map<String, Map<String, String>> recipientList,
             FeedbackQuestionAttributes question,
@@ -486,7 +522,7 @@ public class FeedbackSessionsLogic {
                 frLogic.getFeedbackResponsesFromStudentOrTeamForQuestion(
                         question, student);
         Map<String, String> recipients =
-                fqLogic.getRecipientsForQuestion(question, userEmail, null, student);
+                fqLogic.getRecipientsForQuestion(question, userEmail, null, student, roster);
 
         removeHiddenInstructors(question, responses, recipients, hiddenInstructorEmails);
 
@@ -580,8 +616,7 @@ public class FeedbackSessionsLogic {
         List<FeedbackQuestionAttributes> allQuestions = fqLogic.getFeedbackQuestionsForSession(feedbackSessionName,
                         courseId);
         
-        CourseRoster roster = new CourseRoster(new StudentsDb().getStudentsForCourse(courseId),
-                                               new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         return getFeedbackSessionResponseStatus(session, roster, allQuestions);
     }
 
@@ -597,9 +632,7 @@ public class FeedbackSessionsLogic {
         // Load details of students and instructors once and pass it to callee
         // methods
         // (rather than loading them many times).
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "false");
@@ -622,9 +655,7 @@ public class FeedbackSessionsLogic {
                                                 String questionId, String selectedSection)
                                         throws EntityDoesNotExistException {
 
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "true");
@@ -657,9 +688,7 @@ public class FeedbackSessionsLogic {
             String feedbackSessionName, String courseId, String userEmail, String section, long range, String viewType)
             throws EntityDoesNotExistException {
         
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "true");
@@ -683,9 +712,7 @@ public class FeedbackSessionsLogic {
             String feedbackSessionName, String courseId, String userEmail, String section, long range)
             throws EntityDoesNotExistException {
         
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "false");
@@ -707,9 +734,7 @@ public class FeedbackSessionsLogic {
             String feedbackSessionName, String courseId, String userEmail, String section, long range)
             throws EntityDoesNotExistException {
         
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "false");
@@ -742,9 +767,7 @@ public class FeedbackSessionsLogic {
             String section)
             throws EntityDoesNotExistException {
         
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "true");
@@ -764,9 +787,7 @@ public class FeedbackSessionsLogic {
             String section)
             throws EntityDoesNotExistException {
 
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "false");
         params.put(PARAM_IN_SECTION, "false");
@@ -786,9 +807,7 @@ public class FeedbackSessionsLogic {
             String section)
             throws EntityDoesNotExistException {
 
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         Map<String, String> params = new HashMap<String, String>();
         params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "true");
         params.put(PARAM_IN_SECTION, "false");
@@ -865,20 +884,7 @@ public class FeedbackSessionsLogic {
         Collections.sort(results.responses,
                 results.compareByGiverRecipientQuestion);
         
-        StringBuilder exportBuilder = new StringBuilder(100);
-
-        exportBuilder.append(String.format("Course,%s", Sanitizer.sanitizeForCsv(results.feedbackSession.getCourseId())))
-                     .append(Const.EOL)
-                     .append(String.format("Session Name,%s",
-                             Sanitizer.sanitizeForCsv(results.feedbackSession.getFeedbackSessionName())))
-                     .append(Const.EOL);
-        
-        if (section != null) {
-            exportBuilder.append(String.format("Section Name,%s", Sanitizer.sanitizeForCsv(section)))
-                         .append(Const.EOL);
-        }
-
-        exportBuilder.append(Const.EOL).append(Const.EOL);
+        StringBuilder exportBuilder = getFeedbackSessionResultsHeaderInCsvFormat(results.feedbackSession, section);
         
         Set<Entry<FeedbackQuestionAttributes, List<FeedbackResponseAttributes>>> entrySet =
                 results.getQuestionResponseMap().entrySet();
@@ -895,6 +901,84 @@ public class FeedbackSessionsLogic {
         
     }
 
+    /**
+     * Writes summary results (without comments) of a feedback session, optionally within a section,
+     * in CSV format to {@code writer}.
+     * 
+     * Unlike {@link #getFeedbackSessionResultsSummaryInSectionAsCsv}, responses are loaded, sorted
+     * and written one question at a time, so the memory used does not grow with the number of
+     * responses in the session and there is no limit on the number of responses exported.
+     * 
+     * @param section the section to export, or null to export the whole session
+     */
+    public void writeFeedbackSessionResultsSummaryInSectionAsCsv(
+            String feedbackSessionName, String courseId, String userEmail,
+            String section, String filterText, boolean isMissingResponsesShown, boolean isStatsShown,
+            Writer writer)
+            throws EntityDoesNotExistException, IOException {
+        
+        FeedbackSessionAttributes session = fsDb.getFeedbackSession(courseId, feedbackSessionName);
+        
+        if (session == null) {
+            throw new EntityDoesNotExistException(ERROR_NON_EXISTENT_FS_VIEW + courseId + "/" + feedbackSessionName);
+        }
+        
+        // Load details of students and instructors once and reuse it for every question
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
+        
+        writer.append(getFeedbackSessionResultsHeaderInCsvFormat(session, section));
+        
+        List<FeedbackQuestionAttributes> questions =
+                fqLogic.getFeedbackQuestionsForSession(feedbackSessionName, courseId);
+        String lowerCaseFilterText = filterText == null ? "" : filterText.toLowerCase();
+        
+        for (FeedbackQuestionAttributes question : questions) {
+            if (!question.getQuestionMetaData().getValue().toLowerCase().contains(lowerCaseFilterText)) {
+                continue;
+            }
+            
+            Map<String, String> params = new HashMap<String, String>();
+            params.put(PARAM_IS_INCLUDE_RESPONSE_STATUS, "false");
+            params.put(PARAM_IN_SECTION, String.valueOf(section != null));
+            params.put(PARAM_FROM_SECTION, "false");
+            params.put(PARAM_TO_SECTION, "false");
+            params.put(PARAM_QUESTION_ID, question.getId());
+            params.put(PARAM_SECTION, section);
+            
+            FeedbackSessionResultsBundle results = getFeedbackSessionResultsForUserWithParams(
+                    feedbackSessionName, courseId, userEmail, UserRole.INSTRUCTOR, roster, params);
+            
+            for (Map.Entry<FeedbackQuestionAttributes, List<FeedbackResponseAttributes>> entry
+                    : results.getQuestionResponseMap().entrySet()) {
+                writer.append(getFeedbackSessionResultsForQuestionInCsvFormat(
+                        results, entry, isMissingResponsesShown, isStatsShown));
+            }
+            
+            // push the rows of this question to the client before loading the next one
+            writer.flush();
+        }
+    }
+
+    private StringBuilder getFeedbackSessionResultsHeaderInCsvFormat(
+            FeedbackSessionAttributes session, String section) {
+        
+        StringBuilder exportBuilder = new StringBuilder(100);
+
+        exportBuilder.append(String.format("Course,%s", Sanitizer.sanitizeForCsv(session.getCourseId())))
+                     .append(Const.EOL)
+                     .append(String.format("Session Name,%s",
+                             Sanitizer.sanitizeForCsv(session.getFeedbackSessionName())))
+                     .append(Const.EOL);
+        
+        if (section != null) {
+            exportBuilder.append(String.format("Section Name,%s", Sanitizer.sanitizeForCsv(section)))
+                         .append(Const.EOL);
+        }
+
+        exportBuilder.append(Const.EOL).append(Const.EOL);
+        return exportBuilder;
+    }
+
     private Set<Entry<FeedbackQuestionAttributes, List<FeedbackResponseAttributes>>> filterQuestions(
             Set<Entry<FeedbackQuestionAttributes, List<FeedbackResponseAttributes>>> entrySet,
             String filterText) {
@@ -1723,12 +1807,12 @@ public class FeedbackSessionsLogic {
      * Deletes the feedback sessions in the course specified. The delete
      * is cascaded, and feedback questions, feedback responses, and
      * feedback response comments in the course are deleted.
+     * If there are too many of them to be deleted in this request,
+     * the rest are deleted in the background.
      * @param courseId
      */
     public void deleteFeedbackSessionsForCourseCascade(String courseId) {
-        frcLogic.deleteFeedbackResponseCommentsForCourse(courseId);
-        frLogic.deleteFeedbackResponsesForCourse(courseId);
-        fqLogic.deleteFeedbackQuestionsForCourse(courseId);
+        CascadeDeletionLogic.inst().deleteFeedbackDataForCourse(courseId);
         deleteFeedbackSessionsForCourse(courseId);
     }
     
@@ -1745,16 +1829,12 @@ public class FeedbackSessionsLogic {
 
     /**
      * This method deletes a specific feedback session, and all it's question
-     * and responses
+     * and responses. If there are too many of them to be deleted in this request,
+     * the rest are deleted in the background.
      */
     public void deleteFeedbackSessionCascade(String feedbackSessionName, String courseId) {
 
-        try {
-            fqLogic.deleteFeedbackQuestionsForSession(feedbackSessionName, courseId);
-        } catch (EntityDoesNotExistException e) {
-            // Silently fail if session does not exist
-            log.warning(TeammatesException.toStringWithStackTrace(e));
-        }
+        CascadeDeletionLogic.inst().deleteFeedbackDataForSession(feedbackSessionName, courseId);
 
         FeedbackSessionAttributes sessionToDelete = new FeedbackSessionAttributes();
         sessionToDelete.setFeedbackSessionName(feedbackSessionName);
@@ -1775,20 +1855,20 @@ public class FeedbackSessionsLogic {
         
         switch (fsa.getFeedbackSessionType()) {
         case STANDARD:
-            List<StudentAttributes> students = studentsLogic.getStudentsForCourse(fsa.getCourseId());
-            List<InstructorAttributes> instructors = instructorsLogic.getInstructorsForCourse(fsa.getCourseId());
-            List<FeedbackQuestionAttributes> questions =
-                    fqLogic.getFeedbackQuestionsForSession(fsa.getFeedbackSessionName(), fsa.getCourseId());
-            List<FeedbackQuestionAttributes> studentQns = fqLogic.getFeedbackQuestionsForStudents(questions);
-
-            if (!studentQns.isEmpty()) {
-                details.stats.expectedTotal += students.size();
+            // the roster and the giver types of the questions are kept across requests,
+            // so neither the students, the instructors nor the questions are read here in most cases
+            CourseRoster roster = CourseRosterCache.getCourseRoster(fsa.getCourseId());
+            Set<FeedbackParticipantType> giverTypes =
+                    fqLogic.getGiverTypesForSession(fsa.getFeedbackSessionName(), fsa.getCourseId());
+
+            if (giverTypes.contains(FeedbackParticipantType.STUDENTS)
+                    || giverTypes.contains(FeedbackParticipantType.TEAMS)) {
+                details.stats.expectedTotal += roster.getStudents().size();
             }
         
-            for (InstructorAttributes instructor : instructors) {
-                List<FeedbackQuestionAttributes> instructorQns =
-                        fqLogic.getFeedbackQuestionsForInstructor(questions, fsa.isCreator(instructor.email));
-                if (!instructorQns.isEmpty()) {
+            for (InstructorAttributes instructor : roster.getInstructors()) {
+                if (giverTypes.contains(FeedbackParticipantType.INSTRUCTORS)
+                        || giverTypes.contains(FeedbackParticipantType.SELF) && fsa.isCreator(instructor.email)) {
                     details.stats.expectedTotal += 1;
                 }
             }
@@ -1830,9 +1910,7 @@ public class FeedbackSessionsLogic {
         // Load details of students and instructors once and pass it to callee
         // methods
         // (rather than loading them many times).
-        CourseRoster roster = new CourseRoster(
-                new StudentsDb().getStudentsForCourse(courseId),
-                new InstructorsDb().getInstructorsForCourse(courseId));
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         
         return getFeedbackSessionResultsForUserInSectionByQuestions(
                 feedbackSessionName, courseId, userEmail, role, section, roster);
@@ -1960,7 +2038,7 @@ public class FeedbackSessionsLogic {
             sortByCreatedDate(responseCommentList);
         }
         
-        addSectionTeamNamesToTable(sectionTeamNameTable, roster, courseId, userEmail, role, feedbackSessionName, section);
+        addSectionTeamNamesToTable(sectionTeamNameTable, roster, instructor, feedbackSessionName, section);
 
         FeedbackSessionResultsBundle results =
                 new FeedbackSessionResultsBundle(
@@ -2029,6 +2107,12 @@ public class FeedbackSessionsLogic {
         
         String section = params.get(PARAM_SECTION);
         
+        // resolve the instructor once and reuse it for every response, comment and section checked below
+        InstructorAttributes instructor = null;
+        if (role == UserRole.INSTRUCTOR) {
+            instructor = instructorsLogic.getInstructorForEmail(courseId, userEmail);
+        }
+        
         if (params.get(PARAM_QUESTION_ID) != null) {
             String questionId = params.get(PARAM_QUESTION_ID);
             boolean isQueryingResponseRateStatus = questionId.equals(QUESTION_ID_FOR_RESPONSE_RATE);
@@ -2068,10 +2152,6 @@ public class FeedbackSessionsLogic {
                                             && question.isResponseVisibleTo(FeedbackParticipantType.STUDENTS)) {
                                 isVisibleResponse = true;
                             }
-                            InstructorAttributes instructor = null;
-                            if (role == UserRole.INSTRUCTOR) {
-                                instructor = instructorsLogic.getInstructorForEmail(courseId, userEmail);
-                            }
                             if (isVisibleResponse && instructor != null) {
                                 boolean isGiverSectionRestricted =
                                         !instructor.isAllowedForPrivilege(
@@ -2107,8 +2187,7 @@ public class FeedbackSessionsLogic {
                 }
             }
 
-            addSectionTeamNamesToTable(sectionTeamNameTable, roster, courseId, userEmail, role,
-                                       feedbackSessionName, section);
+            addSectionTeamNamesToTable(sectionTeamNameTable, roster, instructor, feedbackSessionName, section);
             
             FeedbackSessionResultsBundle results =
                     new FeedbackSessionResultsBundle(
@@ -2182,11 +2261,6 @@ public class FeedbackSessionsLogic {
             }
         }
         
-        InstructorAttributes instructor = null;
-        if (role == UserRole.INSTRUCTOR) {
-            instructor = instructorsLogic.getInstructorForEmail(courseId, userEmail);
-        }
-        
         Map<String, FeedbackResponseAttributes> relevantResponse = new HashMap<String, FeedbackResponseAttributes>();
         for (FeedbackResponseAttributes response : allResponses) {
             FeedbackQuestionAttributes relatedQuestion = allQuestionsMap
@@ -2248,7 +2322,7 @@ public class FeedbackSessionsLogic {
             }
         }
         
-        addSectionTeamNamesToTable(sectionTeamNameTable, roster, courseId, userEmail, role, feedbackSessionName, section);
+        addSectionTeamNamesToTable(sectionTeamNameTable, roster, instructor, feedbackSessionName, section);
         
         FeedbackSessionResultsBundle results =
                 new FeedbackSessionResultsBundle(
@@ -2259,13 +2333,13 @@ public class FeedbackSessionsLogic {
         return results;
     }
 
+    /**
+     * Adds the teams of the sections that {@code instructor} can view to {@code sectionTeamNameTable}.
+     * Does nothing if {@code instructor} is null, i.e. the results are not for an instructor.
+     */
     private void addSectionTeamNamesToTable(Map<String, Set<String>> sectionTeamNameTable,
-                                    CourseRoster roster, String courseId, String userEmail, UserRole role,
+                                    CourseRoster roster, InstructorAttributes instructor,
                                     String feedbackSessionName, String sectionToView) {
-        InstructorAttributes instructor = null;
-        if (role == UserRole.INSTRUCTOR) {
-            instructor = instructorsLogic.getInstructorForEmail(courseId, userEmail);
-        }
         if (instructor != null) {
             for (StudentAttributes student : roster.getStudents()) {
                 boolean isVisibleResponse =
@@ -2573,8 +2647,9 @@ public class FeedbackSessionsLogic {
                 fqLogic.getFeedbackQuestionsForStudents(feedbackSessionName,
                         courseId);
 
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         for (FeedbackQuestionAttributes question : allQuestions) {
-            if (!fqLogic.isQuestionFullyAnsweredByUser(question, userEmail)) {
+            if (!fqLogic.isQuestionFullyAnsweredByUser(question, userEmail, roster)) {
                 // If any question is not completely answered, session is not
                 // completed
                 return false;
@@ -2597,8 +2672,9 @@ public class FeedbackSessionsLogic {
                         courseId,
                         userEmail);
 
+        CourseRoster roster = CourseRosterCache.getCourseRoster(courseId);
         for (FeedbackQuestionAttributes question : allQuestions) {
-            if (!fqLogic.isQuestionFullyAnsweredByUser(question, userEmail)) {
+            if (!fqLogic.isQuestionFullyAnsweredByUser(question, userEmail, roster)) {
                 // If any question is not completely answered, session is not
                 // completed
                 return false;
@@ -1,13 +1,17 @@
 package teammates.logic.core;
 
+import java.util.List;
+
 import javax.ws.rs.core.MediaType;
 
+import org.json.JSONObject;
+
+import teammates.common.exception.EmailSendingException;
 import teammates.common.util.Config;
 import teammates.common.util.EmailWrapper;
 
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.ClientResponse;
-import com.sun.jersey.api.client.WebResource;
 import com.sun.jersey.api.client.filter.HTTPBasicAuthFilter;
 import com.sun.jersey.multipart.FormDataMultiPart;
 
@@ -17,6 +21,25 @@ import com.sun.jersey.multipart.FormDataMultiPart;
  */
 public class MailgunService extends EmailSenderService {
     
+    private static final String MAILGUN_API_URL = "https://api.mailgun.net/v3/" + Config.MAILGUN_DOMAINNAME + "/messages";
+    
+    /** Mailgun allows up to 1000 recipients per message; fewer are used to keep each request small. */
+    private static final int MAX_EMAILS_PER_REQUEST = 50;
+    
+    private final String apiUrl;
+    
+    public MailgunService() {
+        this(MAILGUN_API_URL);
+    }
+    
+    /**
+     * Creates a service which sends emails through the Mailgun messages API at {@code apiUrl},
+     * e.g. a stub of the API.
+     */
+    public MailgunService(String apiUrl) {
+        this.apiUrl = apiUrl;
+    }
+    
     /**
      * {@inheritDoc}
      */
@@ -24,10 +47,7 @@ public class MailgunService extends EmailSenderService {
     public FormDataMultiPart parseToEmail(EmailWrapper wrapper) {
         FormDataMultiPart formData = new FormDataMultiPart();
         
-        String sender = wrapper.getSenderName() == null || wrapper.getSenderName().isEmpty()
-                        ? wrapper.getSenderEmail()
-                        : wrapper.getSenderName() + " <" + wrapper.getSenderEmail() + ">";
-        formData.field("from", sender);
+        formData.field("from", getSender(wrapper));
         
         formData.field("to", wrapper.getRecipient());
         
@@ -42,18 +62,82 @@ public class MailgunService extends EmailSenderService {
         return formData;
     }
     
+    /**
+     * Parses {@code wrappers}, which have the same sender and reply-to address and different recipients,
+     * to one message which Mailgun sends to each recipient separately with the recipient's own
+     * subject and content, given as recipient variables.
+     */
+    public FormDataMultiPart parseToBatchEmail(List<EmailWrapper> wrappers) {
+        EmailWrapper firstWrapper = wrappers.get(0);
+        FormDataMultiPart formData = new FormDataMultiPart();
+        
+        formData.field("from", getSender(firstWrapper));
+        
+        JSONObject recipientVariables = new JSONObject();
+        for (EmailWrapper wrapper : wrappers) {
+            formData.field("to", wrapper.getRecipient());
+            recipientVariables.put(wrapper.getRecipient(), new JSONObject().put("subject", wrapper.getSubject())
+                                                                           .put("html", wrapper.getContent()));
+        }
+        formData.field("recipient-variables", recipientVariables.toString());
+        
+        formData.field("h:Reply-To", firstWrapper.getReplyTo());
+        formData.field("subject", "%recipient.subject%");
+        formData.field("html", "%recipient.html%");
+        
+        return formData;
+    }
+    
+    @Override
+    protected void sendEmailWithService(EmailWrapper wrapper) throws EmailSendingException {
+        post(parseToEmail(wrapper));
+    }
+    
     @Override
-    protected void sendEmailWithService(EmailWrapper wrapper) {
-        FormDataMultiPart email = parseToEmail(wrapper);
-        Client client = Client.create();
-        client.addFilter(new HTTPBasicAuthFilter("api", Config.MAILGUN_APIKEY));
-        WebResource webResource =
-                client.resource("https://api.mailgun.net/v3/" + Config.MAILGUN_DOMAINNAME + "/messages");
-        
-        ClientResponse response = webResource.type(MediaType.MULTIPART_FORM_DATA_TYPE)
-                                             .post(ClientResponse.class, email);
-        if (response.getStatus() != SUCCESS_CODE) {
-            log.severe("Email failed to send: " + response.getStatusInfo().getReasonPhrase());
+    protected void sendEmailsWithService(List<EmailWrapper> wrappers) throws EmailSendingException {
+        if (wrappers.size() == 1) {
+            sendEmailWithService(wrappers.get(0));
+            return;
+        }
+        post(parseToBatchEmail(wrappers));
+    }
+    
+    @Override
+    protected int getMaxEmailsPerRequest() {
+        return MAX_EMAILS_PER_REQUEST;
+    }
+    
+    private void post(FormDataMultiPart email) throws EmailSendingException {
+        ClientResponse response = ClientHolder.CLIENT.resource(apiUrl)
+                                                     .type(MediaType.MULTIPART_FORM_DATA_TYPE)
+                                                     .post(ClientResponse.class, email);
+        try {
+            if (!isSuccessStatus(response.getStatus())) {
+                throw new EmailSendingException("Email failed to send: " + response.getStatus() + " "
+                                                + response.getStatusInfo().getReasonPhrase());
+            }
+        } finally {
+            // releases the connection to be reused
+            response.close();
+        }
+    }
+    
+    private static String getSender(EmailWrapper wrapper) {
+        return wrapper.getSenderName() == null || wrapper.getSenderName().isEmpty()
+               ? wrapper.getSenderEmail()
+               : wrapper.getSenderName() + " <" + wrapper.getSenderEmail() + ">";
+    }
+    
+    /**
+     * Holds the client shared by all requests, as a client is costly to create and can be reused.
+     */
+    private static final class ClientHolder {
+        static final Client CLIENT = createClient();
+        
+        private static Client createClient() {
+            Client client = Client.create();
+            client.addFilter(new HTTPBasicAuthFilter("api", Config.MAILGUN_APIKEY));
+            return client;
         }
     }
     
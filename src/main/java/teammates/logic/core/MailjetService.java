@@ -1,9 +1,12 @@
 package teammates.logic.core;
 
+import java.util.List;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.jsoup.Jsoup;
 
+import teammates.common.exception.EmailSendingException;
 import teammates.common.util.Config;
 import teammates.common.util.EmailWrapper;
 
@@ -23,6 +26,11 @@ import com.mailjet.client.resource.Email;
  */
 public class MailjetService extends EmailSenderService {
     
+    /** The property of a request to the Send API which holds the messages sent in one request. */
+    private static final String MESSAGES = "Messages";
+    
+    private static final int MAX_EMAILS_PER_REQUEST = 50;
+    
     /**
      * {@inheritDoc}
      */
@@ -46,14 +54,49 @@ public class MailjetService extends EmailSenderService {
         return request;
     }
     
+    /**
+     * Parses {@code wrappers} to one request to the Send API holding each of them as a separate message.
+     */
+    public MailjetRequest parseToBatchEmail(List<EmailWrapper> wrappers) {
+        JSONArray messages = new JSONArray();
+        for (EmailWrapper wrapper : wrappers) {
+            messages.put(new JSONObject(parseToEmail(wrapper).getBody()));
+        }
+        return new MailjetRequest(Email.resource).property(MESSAGES, messages);
+    }
+    
+    @Override
+    protected void sendEmailWithService(EmailWrapper wrapper) throws MailjetException, EmailSendingException {
+        post(parseToEmail(wrapper));
+    }
+    
     @Override
-    protected void sendEmailWithService(EmailWrapper wrapper) throws MailjetException {
-        MailjetRequest email = parseToEmail(wrapper);
-        MailjetClient mailjet = new MailjetClient(Config.MAILJET_APIKEY, Config.MAILJET_SECRETKEY);
-        MailjetResponse response = mailjet.post(email);
-        if (response.getStatus() != SUCCESS_CODE) {
-            log.severe("Email failed to send: " + response.getData().toString());
+    protected void sendEmailsWithService(List<EmailWrapper> wrappers) throws MailjetException, EmailSendingException {
+        if (wrappers.size() == 1) {
+            sendEmailWithService(wrappers.get(0));
+            return;
         }
+        post(parseToBatchEmail(wrappers));
+    }
+    
+    @Override
+    protected int getMaxEmailsPerRequest() {
+        return MAX_EMAILS_PER_REQUEST;
+    }
+    
+    private void post(MailjetRequest email) throws MailjetException, EmailSendingException {
+        MailjetResponse response = ClientHolder.CLIENT.post(email);
+        if (!isSuccessStatus(response.getStatus())) {
+            throw new EmailSendingException("Email failed to send: " + response.getStatus() + " "
+                                            + response.getData().toString());
+        }
+    }
+    
+    /**
+     * Holds the client shared by all requests, as a client can be reused.
+     */
+    private static final class ClientHolder {
+        static final MailjetClient CLIENT = new MailjetClient(Config.MAILJET_APIKEY, Config.MAILJET_SECRETKEY);
     }
     
 }
@@ -1,7 +1,10 @@
 package teammates.logic.core;
 
+import java.util.List;
+
 import org.jsoup.Jsoup;
 
+import teammates.common.exception.EmailSendingException;
 import teammates.common.util.Config;
 import teammates.common.util.EmailWrapper;
 
@@ -18,17 +21,34 @@ import com.sendgrid.SendGridException;
  */
 public class SendgridService extends EmailSenderService {
     
+    private static final int MAX_EMAILS_PER_REQUEST = 50;
+    
+    // tags in a batch email which are substituted with the subject and content of each recipient
+    private static final String SUBJECT_TAG = "-teammatesSubject-";
+    private static final String HTML_TAG = "-teammatesHtml-";
+    private static final String TEXT_TAG = "-teammatesText-";
+    
+    private final SendGrid sendgrid;
+    
+    public SendgridService() {
+        this.sendgrid = ClientHolder.CLIENT;
+    }
+    
+    /**
+     * Creates a service which sends emails through the SendGrid API at {@code apiUrl},
+     * e.g. a stub of the API.
+     */
+    public SendgridService(String apiUrl) {
+        this.sendgrid = new SendGrid(Config.SENDGRID_APIKEY).setUrl(apiUrl);
+    }
+    
     /**
      * {@inheritDoc}
      */
     @Override
     public Email parseToEmail(EmailWrapper wrapper) {
         Email email = new Email();
-        email.setFrom(wrapper.getSenderEmail());
-        if (wrapper.getSenderName() != null && !wrapper.getSenderName().isEmpty()) {
-            email.setFromName(wrapper.getSenderName());
-        }
-        email.setReplyTo(wrapper.getReplyTo());
+        setSender(email, wrapper);
         email.addTo(wrapper.getRecipient());
         if (wrapper.getBcc() != null && !wrapper.getBcc().isEmpty()) {
             email.addBcc(wrapper.getBcc());
@@ -39,14 +59,74 @@ public class SendgridService extends EmailSenderService {
         return email;
     }
     
+    /**
+     * Parses {@code wrappers}, which have the same sender and reply-to address and different recipients,
+     * to one email which SendGrid sends to each recipient separately with the recipient's own
+     * subject and content, given as substitutions.
+     */
+    public Email parseToBatchEmail(List<EmailWrapper> wrappers) {
+        Email email = new Email();
+        setSender(email, wrappers.get(0));
+        
+        String[] subjects = new String[wrappers.size()];
+        String[] htmls = new String[wrappers.size()];
+        String[] texts = new String[wrappers.size()];
+        for (int i = 0; i < wrappers.size(); i++) {
+            EmailWrapper wrapper = wrappers.get(i);
+            email.addSmtpApiTo(wrapper.getRecipient());
+            subjects[i] = wrapper.getSubject();
+            htmls[i] = wrapper.getContent();
+            texts[i] = Jsoup.parse(wrapper.getContent()).text();
+        }
+        
+        email.setSubject(SUBJECT_TAG);
+        email.setHtml(HTML_TAG);
+        email.setText(TEXT_TAG);
+        email.addSubstitution(SUBJECT_TAG, subjects);
+        email.addSubstitution(HTML_TAG, htmls);
+        email.addSubstitution(TEXT_TAG, texts);
+        return email;
+    }
+    
+    @Override
+    protected void sendEmailWithService(EmailWrapper wrapper) throws SendGridException, EmailSendingException {
+        send(parseToEmail(wrapper));
+    }
+    
     @Override
-    protected void sendEmailWithService(EmailWrapper wrapper) throws SendGridException {
-        Email email = parseToEmail(wrapper);
-        SendGrid sendgrid = new SendGrid(Config.SENDGRID_APIKEY);
+    protected void sendEmailsWithService(List<EmailWrapper> wrappers) throws SendGridException, EmailSendingException {
+        if (wrappers.size() == 1) {
+            sendEmailWithService(wrappers.get(0));
+            return;
+        }
+        send(parseToBatchEmail(wrappers));
+    }
+    
+    @Override
+    protected int getMaxEmailsPerRequest() {
+        return MAX_EMAILS_PER_REQUEST;
+    }
+    
+    private void send(Email email) throws SendGridException, EmailSendingException {
         Response response = sendgrid.send(email);
-        if (response.getCode() != SUCCESS_CODE) {
-            log.severe("Email failed to send: " + response.getMessage());
+        if (!isSuccessStatus(response.getCode())) {
+            throw new EmailSendingException("Email failed to send: " + response.getCode() + " " + response.getMessage());
         }
     }
     
+    private static void setSender(Email email, EmailWrapper wrapper) {
+        email.setFrom(wrapper.getSenderEmail());
+        if (wrapper.getSenderName() != null && !wrapper.getSenderName().isEmpty()) {
+            email.setFromName(wrapper.getSenderName());
+        }
+        email.setReplyTo(wrapper.getReplyTo());
+    }
+    
+    /**
+     * Holds the client shared by all requests, whose connections to SendGrid are pooled and reused.
+     */
+    private static final class ClientHolder {
+        static final SendGrid CLIENT = new SendGrid(Config.SENDGRID_APIKEY);
+    }
+    
 }
@@ -2,7 +2,10 @@ package teammates.logic.core;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import teammates.common.datatransfer.CourseAttributes;
 import teammates.common.datatransfer.FeedbackResponseAttributes;
@@ -30,6 +33,7 @@ import teammates.common.util.StringHelper;
 import teammates.common.util.Utils;
 import teammates.storage.api.StudentsDb;
 
+import com.google.appengine.api.taskqueue.TaskOptions;
 import com.google.gson.Gson;
 
 /**
@@ -42,9 +46,11 @@ public class StudentsLogic {
     //  comments.
     
     private static final int SECTION_SIZE_LIMIT = 100;
-    private static final int SIZE_LIMIT_PER_ENROLLMENT = 150;
+    private static final int SIZE_LIMIT_PER_ENROLLMENT = 5000;
+    private static final int ENROLLMENT_DETAILS_PER_ADJUSTMENT_TASK = 200;
 
     private static StudentsLogic instance;
+    private static int sizeLimitPerEnrollment = SIZE_LIMIT_PER_ENROLLMENT;
     private StudentsDb studentsDb = new StudentsDb();
     
     private CoursesLogic coursesLogic = CoursesLogic.inst();
@@ -53,6 +59,14 @@ public class StudentsLogic {
     private ProfilesLogic profilesLogic = ProfilesLogic.inst();
     private CommentsLogic commentsLogic = CommentsLogic.inst();
     
+    /**
+     * Sets the maximum number of students in one enrollment, e.g. to test the limit with few students.
+     * A non-positive {@code sizeLimit} restores the default limit.
+     */
+    public static void setSizeLimitPerEnrollment(int sizeLimit) {
+        sizeLimitPerEnrollment = sizeLimit > 0 ? sizeLimit : SIZE_LIMIT_PER_ENROLLMENT;
+    }
+    
     public static StudentsLogic inst() {
         if (instance == null) {
             instance = new StudentsLogic();
@@ -321,7 +335,6 @@ public class StudentsLogic {
         }
         
         ArrayList<StudentAttributes> returnList = new ArrayList<StudentAttributes>();
-        ArrayList<StudentEnrollDetails> enrollmentList = new ArrayList<StudentEnrollDetails>();
         ArrayList<StudentAttributes> studentList = new ArrayList<StudentAttributes>();
         
         String[] linesArray = enrollLines.split(Const.EOL);
@@ -340,34 +353,22 @@ public class StudentsLogic {
         }
 
         verifyIsWithinSizeLimitPerEnrollment(studentList);
-        validateSectionsAndTeams(studentList, courseId);
-
-        // TODO: can we use a batch persist operation here?
-        // enroll all students
-        for (StudentAttributes student : studentList) {
-            StudentEnrollDetails enrollmentDetails;
-            
-            enrollmentDetails = enrollStudent(student, hasDocument);
-            student.updateStatus = enrollmentDetails.updateStatus;
-            
-            enrollmentList.add(enrollmentDetails);
-            returnList.add(student);
-        }
         
-        //Adjust submissions for all feedback responses within the course
-        List<FeedbackSessionAttributes> feedbackSessions = FeedbackSessionsLogic.inst()
-                .getFeedbackSessionsForCourse(courseId);
+        // the enrolled students are compared with the students already in the course,
+        // which are read once, and are then created or updated in batches
+        List<StudentAttributes> studentsInCourse = getStudentsForCourse(courseId);
+        validateSectionsAndTeams(studentList, studentsInCourse);
         
-        for (FeedbackSessionAttributes session : feedbackSessions) {
-            //Schedule adjustment of submissions for feedback session in course
-            scheduleSubmissionAdjustmentForFeedbackInCourse(enrollmentList, courseId,
-                    session.getFeedbackSessionName());
-        }
+        List<StudentEnrollDetails> enrollmentList = enrollStudents(studentList, studentsInCourse, courseId, hasDocument);
+        returnList.addAll(studentList);
+        
+        //Adjust submissions for all feedback responses within the course
+        scheduleSubmissionAdjustmentForFeedbackInCourse(enrollmentList, courseId);
 
         // add to return list students not included in the enroll list.
-        List<StudentAttributes> studentsInCourse = getStudentsForCourse(courseId);
+        Set<String> enrolledEmails = getLowerCaseEmails(returnList);
         for (StudentAttributes student : studentsInCourse) {
-            if (!isInEnrollList(student, returnList)) {
+            if (!enrolledEmails.contains(student.email.toLowerCase())) {
                 student.updateStatus = StudentUpdateStatus.NOT_IN_ENROLL_LIST;
                 returnList.add(student);
             }
@@ -376,8 +377,50 @@ public class StudentsLogic {
         return returnList;
     }
 
+    /**
+     * Creates the new students and updates the modified students among the given valid students,
+     * which are compared with {@code studentsInCourse}, the students already in the course.
+     * @return the enrollment details of each of the given students
+     */
+    private List<StudentEnrollDetails> enrollStudents(List<StudentAttributes> studentList,
+            List<StudentAttributes> studentsInCourse, String courseId, boolean hasDocument)
+            throws InvalidParametersException, EntityAlreadyExistsException, EntityDoesNotExistException {
+        Map<String, StudentAttributes> originalStudents = new HashMap<String, StudentAttributes>();
+        for (StudentAttributes student : studentsInCourse) {
+            originalStudents.put(student.email, student);
+        }
+        
+        List<StudentEnrollDetails> enrollmentList = new ArrayList<StudentEnrollDetails>();
+        List<StudentAttributes> studentsToCreate = new ArrayList<StudentAttributes>();
+        List<StudentAttributes> studentsToUpdate = new ArrayList<StudentAttributes>();
+        for (StudentAttributes student : studentList) {
+            StudentAttributes originalStudent = originalStudents.get(student.email);
+            StudentEnrollDetails enrollmentDetails = getEnrollmentDetails(student, originalStudent);
+            
+            if (enrollmentDetails.updateStatus == StudentUpdateStatus.MODIFIED) {
+                // prepare the updated student
+                student.updateWithExistingRecord(originalStudent);
+                if (!student.isValid()) {
+                    throw new InvalidParametersException(student.getInvalidityInfo());
+                }
+                studentsToUpdate.add(student);
+            } else if (enrollmentDetails.updateStatus == StudentUpdateStatus.NEW) {
+                studentsToCreate.add(student);
+            }
+            student.updateStatus = enrollmentDetails.updateStatus;
+            
+            enrollmentList.add(enrollmentDetails);
+        }
+        
+        if (!studentsToCreate.isEmpty() || !studentsToUpdate.isEmpty()) {
+            studentsDb.createAndUpdateStudentsForCourse(courseId, studentsToCreate, studentsToUpdate, hasDocument);
+        }
+        
+        return enrollmentList;
+    }
+
     private void verifyIsWithinSizeLimitPerEnrollment(List<StudentAttributes> students) throws EnrollException {
-        if (students.size() > SIZE_LIMIT_PER_ENROLLMENT) {
+        if (students.size() > sizeLimitPerEnrollment) {
             throw new EnrollException(Const.StatusMessages.QUOTA_PER_ENROLLMENT_EXCEED);
         }
     }
@@ -389,8 +432,13 @@ public class StudentsLogic {
      * @throws EnrollException
      */
     public void validateSectionsAndTeams(List<StudentAttributes> studentList, String courseId) throws EnrollException {
+        validateSectionsAndTeams(studentList, getStudentsForCourse(courseId));
+    }
+    
+    private void validateSectionsAndTeams(List<StudentAttributes> studentList, List<StudentAttributes> studentsInCourse)
+            throws EnrollException {
 
-        List<StudentAttributes> mergedList = getMergedList(studentList, courseId);
+        List<StudentAttributes> mergedList = getMergedList(studentList, studentsInCourse);
 
         if (mergedList.size() < 2) { // no conflicts
             return;
@@ -412,7 +460,7 @@ public class StudentsLogic {
      */
     public void validateTeams(List<StudentAttributes> studentList, String courseId) throws EnrollException {
 
-        List<StudentAttributes> mergedList = getMergedList(studentList, courseId);
+        List<StudentAttributes> mergedList = getMergedList(studentList, getStudentsForCourse(courseId));
 
         if (mergedList.size() < 2) { // no conflicts
             return;
@@ -426,17 +474,18 @@ public class StudentsLogic {
 
     }
     
-    private List<StudentAttributes> getMergedList(List<StudentAttributes> studentList, String courseId) {
+    private List<StudentAttributes> getMergedList(List<StudentAttributes> studentList,
+            List<StudentAttributes> studentsInCourse) {
 
         List<StudentAttributes> mergedList = new ArrayList<StudentAttributes>();
-        List<StudentAttributes> studentsInCourse = getStudentsForCourse(courseId);
 
         for (StudentAttributes student : studentList) {
             mergedList.add(student);
         }
 
+        Set<String> enrolledEmails = getLowerCaseEmails(studentList);
         for (StudentAttributes student : studentsInCourse) {
-            if (!isInEnrollList(student, mergedList)) {
+            if (!enrolledEmails.contains(student.email.toLowerCase())) {
                 mergedList.add(student);
             }
         }
@@ -511,35 +560,52 @@ public class StudentsLogic {
         return errorMessage.toString();
     }
 
+    /**
+     * Schedules the adjustment of the responses in each feedback session of the course for the enrollments.
+     * Only modified students can have responses to adjust, so the tasks carry only their enrollment details,
+     * split so that each task stays well within the task size limit. Each session gets at least one task.
+     */
     private void scheduleSubmissionAdjustmentForFeedbackInCourse(
-            ArrayList<StudentEnrollDetails> enrollmentList, String courseId, String sessionName) {
-        // private methods -- should I test this?
-        HashMap<String, String> paramMap = new HashMap<String, String>();
-        
-        paramMap.put(ParamsNames.COURSE_ID, courseId);
-        paramMap.put(ParamsNames.FEEDBACK_SESSION_NAME, sessionName);
+            List<StudentEnrollDetails> enrollmentList, String courseId) {
+        List<StudentEnrollDetails> modifiedEnrollments = new ArrayList<StudentEnrollDetails>();
+        for (StudentEnrollDetails enrollment : enrollmentList) {
+            if (enrollment.updateStatus == StudentUpdateStatus.MODIFIED) {
+                modifiedEnrollments.add(enrollment);
+            }
+        }
         
         Gson gsonBuilder = Utils.getTeammatesGson();
-        String enrollmentDetails = gsonBuilder.toJson(enrollmentList);
-        paramMap.put(ParamsNames.ENROLLMENT_DETAILS, enrollmentDetails);
+        List<String> enrollmentDetailsForTasks = new ArrayList<String>();
+        int i = 0;
+        do {
+            List<StudentEnrollDetails> enrollmentsForTask = modifiedEnrollments.subList(
+                    i, Math.min(i + ENROLLMENT_DETAILS_PER_ADJUSTMENT_TASK, modifiedEnrollments.size()));
+            enrollmentDetailsForTasks.add(gsonBuilder.toJson(enrollmentsForTask));
+            i += ENROLLMENT_DETAILS_PER_ADJUSTMENT_TASK;
+        } while (i < modifiedEnrollments.size());
         
         TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
-        taskQueueLogic.createAndAddTask(SystemParams.FEEDBACK_SUBMISSION_ADJUSTMENT_TASK_QUEUE,
-                Const.ActionURIs.FEEDBACK_SUBMISSION_ADJUSTMENT_WORKER, paramMap);
-        
+        List<TaskOptions> tasks = new ArrayList<TaskOptions>();
+        for (FeedbackSessionAttributes session : fsLogic.getFeedbackSessionsForCourse(courseId)) {
+            for (String enrollmentDetails : enrollmentDetailsForTasks) {
+                HashMap<String, String> paramMap = new HashMap<String, String>();
+                paramMap.put(ParamsNames.COURSE_ID, courseId);
+                paramMap.put(ParamsNames.FEEDBACK_SESSION_NAME, session.getFeedbackSessionName());
+                paramMap.put(ParamsNames.ENROLLMENT_DETAILS, enrollmentDetails);
+                tasks.add(taskQueueLogic.createTask(Const.ActionURIs.FEEDBACK_SUBMISSION_ADJUSTMENT_WORKER, paramMap));
+            }
+        }
+        taskQueueLogic.addTasks(SystemParams.FEEDBACK_SUBMISSION_ADJUSTMENT_TASK_QUEUE, tasks);
     }
     
-    private EmailWrapper scheduleRegistrationInviteToStudent(CourseAttributes course, StudentAttributes student) {
+    private TaskOptions createRegistrationInviteTask(CourseAttributes course, StudentAttributes student) {
         HashMap<String, String> paramMap = new HashMap<String, String>();
         
         paramMap.put(ParamsNames.COURSE_ID, course.getId());
         paramMap.put(ParamsNames.STUDENT_EMAIL, student.getEmail());
         
         TaskQueuesLogic taskQueueLogic = TaskQueuesLogic.inst();
-        taskQueueLogic.createAndAddTask(SystemParams.COURSE_JOIN_REMIND_EMAIL_TASK_QUEUE,
-                Const.ActionURIs.COURSE_JOIN_REMIND_EMAIL_WORKER, paramMap);
-        
-        return new EmailGenerator().generateStudentCourseJoinEmail(course, student);
+        return taskQueueLogic.createTask(Const.ActionURIs.COURSE_JOIN_REMIND_EMAIL_WORKER, paramMap);
     }
 
     public EmailWrapper sendRegistrationInviteToStudent(String courseId, String studentEmail)
@@ -599,11 +665,13 @@ public class StudentsLogic {
         List<StudentAttributes> studentDataList = getUnregisteredStudentsForCourse(courseId);
         
         List<EmailWrapper> emailsSent = new ArrayList<EmailWrapper>();
+        List<TaskOptions> tasks = new ArrayList<TaskOptions>();
         CourseAttributes course = coursesLogic.getCourse(courseId);
         for (StudentAttributes s : studentDataList) {
-            EmailWrapper email = scheduleRegistrationInviteToStudent(course, s);
-            emailsSent.add(email);
+            tasks.add(createRegistrationInviteTask(course, s));
+            emailsSent.add(new EmailGenerator().generateStudentCourseJoinEmail(course, s));
         }
+        TaskQueuesLogic.inst().addTasks(SystemParams.COURSE_JOIN_REMIND_EMAIL_TASK_QUEUE, tasks);
         return emailsSent;
     }
 
@@ -659,31 +727,18 @@ public class StudentsLogic {
     public void adjustFeedbackResponseForEnrollments(
             ArrayList<StudentEnrollDetails> enrollmentList,
             FeedbackResponseAttributes response) throws InvalidParametersException, EntityDoesNotExistException {
-        for (StudentEnrollDetails enrollment : enrollmentList) {
-            if (enrollment.updateStatus != StudentUpdateStatus.MODIFIED) {
-                continue;
-            }
-
-            boolean isResponseDeleted = false;
-            if (isTeamChanged(enrollment.oldTeam, enrollment.newTeam)) {
-                isResponseDeleted = frLogic.updateFeedbackResponseForChangingTeam(enrollment, response);
-            }
-        
-            if (!isResponseDeleted && isSectionChanged(enrollment.oldSection, enrollment.newSection)) {
-                frLogic.updateFeedbackResponseForChangingSection(enrollment, response);
-            }
-        }
+        List<FeedbackResponseAttributes> responses = new ArrayList<FeedbackResponseAttributes>();
+        responses.add(response);
+        frLogic.adjustFeedbackResponsesForEnrollments(response.feedbackSessionName, response.courseId,
+                                                      enrollmentList, responses);
     }
     
     public void putDocument(StudentAttributes student) {
         studentsDb.putDocument(student);
     }
     
-    private StudentEnrollDetails enrollStudent(StudentAttributes validStudentAttributes, Boolean hasDocument)
-            throws InvalidParametersException, EntityDoesNotExistException, EntityAlreadyExistsException {
-        StudentAttributes originalStudentAttributes = getStudentForEmail(
-                validStudentAttributes.course, validStudentAttributes.email);
-        
+    private StudentEnrollDetails getEnrollmentDetails(StudentAttributes validStudentAttributes,
+            StudentAttributes originalStudentAttributes) {
         StudentEnrollDetails enrollmentDetails = new StudentEnrollDetails();
         enrollmentDetails.course = validStudentAttributes.course;
         enrollmentDetails.email = validStudentAttributes.email;
@@ -694,8 +749,6 @@ public class StudentsLogic {
         if (validStudentAttributes.isEnrollInfoSameAs(originalStudentAttributes)) {
             enrollmentDetails.updateStatus = StudentUpdateStatus.UNMODIFIED;
         } else if (isModifyingExistingStudent) {
-            updateStudentCascadeWithSubmissionAdjustmentScheduled(originalStudentAttributes.email,
-                                                                  validStudentAttributes, true);
             enrollmentDetails.updateStatus = StudentUpdateStatus.MODIFIED;
             
             if (!originalStudentAttributes.team.equals(validStudentAttributes.team)) {
@@ -705,7 +758,6 @@ public class StudentsLogic {
                 enrollmentDetails.oldSection = originalStudentAttributes.section;
             }
         } else {
-            createStudentCascade(validStudentAttributes, hasDocument);
             enrollmentDetails.updateStatus = StudentUpdateStatus.NEW;
         }
 
@@ -767,14 +819,12 @@ public class StudentsLogic {
         return studentEmailList.contains(email);
     }
     
-    private boolean isInEnrollList(StudentAttributes student,
-            List<StudentAttributes> studentInfoList) {
-        for (StudentAttributes studentInfo : studentInfoList) {
-            if (studentInfo.email.equalsIgnoreCase(student.email)) {
-                return true;
-            }
+    private Set<String> getLowerCaseEmails(List<StudentAttributes> students) {
+        Set<String> emails = new HashSet<String>();
+        for (StudentAttributes student : students) {
+            emails.add(student.email.toLowerCase());
         }
-        return false;
+        return emails;
     }
     
     private boolean isTeamChanged(String originalTeam, String newTeam) {
@@ -1,9 +1,18 @@
 package teammates.logic.core;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import teammates.common.exception.TeammatesException;
+import teammates.common.util.Utils;
 
 import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueConstants;
 import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskAlreadyExistsException;
+import com.google.appengine.api.taskqueue.TaskHandle;
 import com.google.appengine.api.taskqueue.TaskOptions;
 
 /**
@@ -11,6 +20,8 @@ import com.google.appengine.api.taskqueue.TaskOptions;
  */
 public class TaskQueuesLogic {
 
+    private static final Logger log = Utils.getLogger();
+    
     private static TaskQueuesLogic instance;
     
     public static TaskQueuesLogic inst() {
@@ -23,16 +34,31 @@ public class TaskQueuesLogic {
     public void createAndAddTask(String queueName,
             String workerUrl, Map<String, String> paramMap) {
         Queue requiredQueue = QueueFactory.getQueue(queueName);
-        TaskOptions taskToBeAdded = TaskOptions.Builder.withUrl(workerUrl);
+        requiredQueue.add(createTask(workerUrl, paramMap));
+    }
+    
+    /**
+     * Adds the {@code task}, e.g. one created by {@link #createTask(String, Map)}, to the queue.
+     */
+    public void addTask(String queueName, TaskOptions task) {
+        Queue requiredQueue = QueueFactory.getQueue(queueName);
+        requiredQueue.add(task);
+    }
+    
+    /**
+     * Creates a task for {@code workerUrl} with the given parameters.
+     * The task can be added with {@link #addTasks(String, List)}.
+     */
+    public TaskOptions createTask(String workerUrl, Map<String, String> paramMap) {
+        TaskOptions task = TaskOptions.Builder.withUrl(workerUrl);
         
         for (Map.Entry<String, String> entry : paramMap.entrySet()) {
             String name = entry.getKey();
             String value = entry.getValue();
             
-            taskToBeAdded = taskToBeAdded.param(name, value);
+            task = task.param(name, value);
         }
-        
-        requiredQueue.add(taskToBeAdded);
+        return task;
     }
     
     // TODO Combine this and createAndAddTask and modify task schedulers accordingly?
@@ -56,16 +82,77 @@ public class TaskQueuesLogic {
     public void createAndAddDeferredTask(String queueName,
             String workerUrl, Map<String, String> paramMap, long countdownTime) {
         Queue requiredQueue = QueueFactory.getQueue(queueName);
-        TaskOptions taskToBeAdded = TaskOptions.Builder.withUrl(workerUrl);
-        taskToBeAdded.countdownMillis(countdownTime);
+        requiredQueue.add(createDeferredTask(workerUrl, paramMap, countdownTime));
+    }
+    
+    /**
+     * Creates a task for {@code workerUrl} that runs after {@code countdownTime} milliseconds.
+     * The task can be added with {@link #addTasks(String, List)}.
+     */
+    public TaskOptions createDeferredTask(String workerUrl, Map<String, String> paramMap, long countdownTime) {
+        return createTask(workerUrl, paramMap).countdownMillis(countdownTime);
+    }
+    
+    /**
+     * Creates a task for a pull queue with the given parameters, which can be leased
+     * after {@code countdownTime} milliseconds.
+     * The task can be added with {@link #addTasks(String, List)}.
+     */
+    public TaskOptions createPullTask(Map<String, String> paramMap, long countdownTime) {
+        TaskOptions task = TaskOptions.Builder.withMethod(TaskOptions.Method.PULL).countdownMillis(countdownTime);
         
         for (Map.Entry<String, String> entry : paramMap.entrySet()) {
-            String name = entry.getKey();
-            String value = entry.getValue();
-            
-            taskToBeAdded = taskToBeAdded.param(name, value);
+            task = task.param(entry.getKey(), entry.getValue());
+        }
+        return task;
+    }
+    
+    /**
+     * Leases up to {@code count} tasks from the pull queue for {@code leaseSeconds}.
+     * Tasks which are not deleted before their lease expires can be leased again.
+     */
+    public List<TaskHandle> leaseTasks(String queueName, long leaseSeconds, long count) {
+        Queue requiredQueue = QueueFactory.getQueue(queueName);
+        return requiredQueue.leaseTasks(leaseSeconds, TimeUnit.SECONDS, count);
+    }
+    
+    /**
+     * Deletes the leased {@code tasks} from the pull queue.
+     */
+    public void deleteTasks(String queueName, List<TaskHandle> tasks) {
+        if (tasks.isEmpty()) {
+            return;
         }
+        Queue requiredQueue = QueueFactory.getQueue(queueName);
+        requiredQueue.deleteTask(tasks);
+    }
+    
+    /**
+     * Adds {@code tasks} to the queue, as many as the queue accepts in each call.
+     * If a batch of tasks fails to be added, the error is logged and the remaining batches are still added.
+     * Named tasks that were already added, e.g. by an earlier run of a retried task, are counted as added.
+     * @return the number of tasks added
+     */
+    public int addTasks(String queueName, List<TaskOptions> tasks) {
+        Queue requiredQueue = QueueFactory.getQueue(queueName);
+        int maxTasksPerAdd = QueueConstants.maxTasksPerAdd();
+        int numberOfTasksAdded = 0;
         
-        requiredQueue.add(taskToBeAdded);
+        for (int i = 0; i < tasks.size(); i += maxTasksPerAdd) {
+            List<TaskOptions> batch = tasks.subList(i, Math.min(i + maxTasksPerAdd, tasks.size()));
+            try {
+                requiredQueue.add(batch);
+                numberOfTasksAdded += batch.size();
+            } catch (TaskAlreadyExistsException e) {
+                // the other tasks of the batch are still added
+                log.info(e.getTaskNames().size() + " of " + batch.size() + " tasks already exist in queue "
+                         + queueName);
+                numberOfTasksAdded += batch.size();
+            } catch (RuntimeException e) {
+                log.severe("Failed to add " + batch.size() + " tasks to queue " + queueName
+                           + " e:\n" + TeammatesException.toStringWithStackTrace(e));
+            }
+        }
+        return numberOfTasksAdded;
     }
 }
@@ -12,6 +12,7 @@ import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.common.util.HttpRequestHelper;
 import teammates.common.util.Utils;
+import teammates.logic.core.ActivityLogsLogic;
 
 /** 
  * Serves the public resources stored in google cloud storage using the blobkey.<br>
@@ -55,6 +56,10 @@ public abstract class PublicResourcesServlet extends HttpServlet {
     protected void logMessage(HttpServletRequest request, String message) {
         String url = HttpRequestHelper.getRequestedUrl(request);
         ActivityLogEntry activityLogEntry = new ActivityLogEntry(servletName, action, null, message, url);
-        log.info(activityLogEntry.generateLogMessage());
+        String logMessage = activityLogEntry.generateLogMessage();
+        log.info(logMessage);
+        
+        String courseId = HttpRequestHelper.getValueFromRequestParameterMap(request, Const.ParamsNames.COURSE_ID);
+        ActivityLogsLogic.inst().createActivityLog(System.currentTimeMillis(), logMessage, courseId);
     }
 }
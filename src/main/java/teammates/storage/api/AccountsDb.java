@@ -56,6 +56,7 @@ public class AccountsDb extends EntitiesDb {
                 Assumption.fail("Entity found be already existing and not existing simultaneously");
             }
         }
+        UserIdentityCache.invalidate(accountToAdd.googleId);
     }
     
     /* This function is used for persisting data bundle in testing process */
@@ -75,6 +76,7 @@ public class AccountsDb extends EntitiesDb {
                 }
             }
         }
+        invalidateUserIdentities(accountsToAdd);
     }
     
     /**
@@ -160,6 +162,7 @@ public class AccountsDb extends EntitiesDb {
         }
         log.info(a.getBackupIdentifier());
         closePm();
+        UserIdentityCache.invalidate(a.googleId);
     }
     
     public void updateAccount(AccountAttributes a)
@@ -191,6 +194,7 @@ public class AccountsDb extends EntitiesDb {
         }
         deleteEntity(accountToDelete);
         closePm();
+        UserIdentityCache.invalidate(googleId);
     }
     
     public void deleteAccounts(Collection<AccountAttributes> accounts) {
@@ -202,6 +206,15 @@ public class AccountsDb extends EntitiesDb {
         }
         deleteEntities(accounts);
         closePm();
+        invalidateUserIdentities(accounts);
+    }
+
+    private void invalidateUserIdentities(Collection<AccountAttributes> accounts) {
+        List<String> googleIds = new ArrayList<String>();
+        for (AccountAttributes account : accounts) {
+            googleIds.add(account.googleId);
+        }
+        UserIdentityCache.invalidate(googleIds);
     }
 
     private Account getAccountEntity(String googleId, boolean retrieveStudentProfile) {
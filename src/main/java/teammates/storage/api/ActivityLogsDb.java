@@ -0,0 +1,256 @@
+package teammates.storage.api;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import javax.jdo.Query;
+
+import org.datanucleus.store.appengine.query.JDOCursorHelper;
+
+import teammates.common.datatransfer.EntityAttributes;
+import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
+import teammates.common.util.Assumption;
+import teammates.common.util.StringHelper;
+import teammates.storage.entity.ActivityLog;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.PreparedQuery;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.datastore.Text;
+
+/**
+ * Handles CRUD operations for activity logs, which are only added, and deleted once they are
+ * older than {@link #RETENTION_DAYS} days.
+ * The logs are read one day at a time with indexed queries on the day and one of the person, role,
+ * action and course, ordered by time, so each of these filters needs its own composite index.
+ * The person is searched by the words in the Google ID, email and name of the user, so the logs found
+ * by a person include those of the other users who share the longest word searched by.
+ */
+public class ActivityLogsDb extends EntitiesDb {
+
+    /**
+     * The number of days the activity logs are kept for. Older logs are not searched.
+     */
+    public static final int RETENTION_DAYS = 90;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Adds the activity log written to the application log as {@code logMessage} at {@code time}.
+     * The log is added asynchronously, so the request is not held up by the write.
+     * @param courseId the course the action was carried out in, or null if there is none.
+     * @return the pending write, which callers other than tests need not wait for.
+     */
+    public Future<Key> createActivityLog(long time, String logMessage, String courseId) {
+        Assumption.assertNotNull(logMessage);
+
+        ActivityLogEntry entry = new ActivityLogEntry(time, logMessage, courseId);
+
+        Set<String> personTokens = new LinkedHashSet<String>();
+        addTokensIfKnown(personTokens, entry.getGoogleId());
+        addTokensIfKnown(personTokens, entry.getEmail());
+        addTokensIfKnown(personTokens, entry.getName());
+
+        // written with the low-level API as JDO cannot write asynchronously;
+        // the properties are those of the ActivityLog entity, so the log is read back with JDO
+        Entity activityLog = new Entity(ActivityLog.class.getSimpleName());
+        activityLog.setProperty("time", new Date(time));
+        activityLog.setProperty("day", getDay(time));
+        activityLog.setProperty("personTokens", new ArrayList<String>(personTokens));
+        activityLog.setProperty("role", toLowerCase(entry.getRole()));
+        activityLog.setProperty("action", toLowerCase(entry.getServletName()));
+        activityLog.setProperty("courseId", toLowerCase(courseId));
+        activityLog.setUnindexedProperty("logMessage", new Text(logMessage));
+        return DatastoreServiceFactory.getAsyncDatastoreService().put(activityLog);
+    }
+
+    /**
+     * Gets at most {@code limit} activity logs matching the {@code query}, most recent first,
+     * continuing from the cursor of the query. The cursor of the query is then moved to after the last log read.
+     * <br> The logs are read from one day after another, starting from the day of the end time of the query.
+     */
+    public List<ActivityLogEntry> getActivityLogs(ActivityLogQuery query, int limit) {
+        Assumption.assertNotNull(query);
+
+        long earliestDay = Math.max(getDay(query.getStartTime()),
+                                    getDay(System.currentTimeMillis()) - RETENTION_DAYS);
+        long day = getDay(query.getEndTime());
+        String dayCursor = null;
+        if (query.getCursor() != null) {
+            // the cursor of the query is the day being read, followed by the cursor within the day
+            String[] cursorParts = query.getCursor().split(":", 2);
+            day = Long.parseLong(cursorParts[0]);
+            dayCursor = cursorParts[1].isEmpty() ? null : cursorParts[1];
+        }
+
+        List<ActivityLogEntry> entries = new ArrayList<ActivityLogEntry>();
+        while (entries.size() < limit && day >= earliestDay) {
+            int dayLimit = limit - entries.size();
+            List<ActivityLog> activityLogs = getActivityLogsOfDay(query, day, dayCursor, dayLimit);
+            for (ActivityLog activityLog : activityLogs) {
+                entries.add(new ActivityLogEntry(activityLog.getTime().getTime(), activityLog.getLogMessage(),
+                                                 activityLog.getCourseId()));
+            }
+
+            boolean hasMoreLogsInDay = activityLogs.size() == dayLimit;
+            if (hasMoreLogsInDay) {
+                dayCursor = JDOCursorHelper.getCursor(activityLogs).toWebSafeString();
+            } else {
+                day--;
+                dayCursor = null;
+            }
+        }
+
+        boolean hasMoreLogs = day >= earliestDay;
+        query.setCursor(hasMoreLogs ? day + ":" + (dayCursor == null ? "" : dayCursor) : null);
+
+        return entries;
+    }
+
+    private List<ActivityLog> getActivityLogsOfDay(ActivityLogQuery query, long day, String cursor, int limit) {
+        List<String> filters = new ArrayList<String>();
+        List<String> parameters = new ArrayList<String>();
+        Map<String, Object> parameterValues = new HashMap<String, Object>();
+
+        addFilter(filters, parameters, parameterValues, "day == dayParam",
+                  "Long dayParam", "dayParam", day);
+        addFilter(filters, parameters, parameterValues, "personTokens.contains(personParam)",
+                  "String personParam", "personParam", getPersonSearchToken(query.getPerson()));
+        addFilter(filters, parameters, parameterValues, "role == roleParam",
+                  "String roleParam", "roleParam", toLowerCase(query.getRole()));
+        addFilter(filters, parameters, parameterValues, "action == actionParam",
+                  "String actionParam", "actionParam", toLowerCase(query.getAction()));
+        addFilter(filters, parameters, parameterValues, "courseId == courseIdParam",
+                  "String courseIdParam", "courseIdParam", toLowerCase(query.getCourseId()));
+        addFilter(filters, parameters, parameterValues, "time >= startTimeParam",
+                  "java.util.Date startTimeParam", "startTimeParam", new Date(query.getStartTime()));
+        addFilter(filters, parameters, parameterValues, "time <= endTimeParam",
+                  "java.util.Date endTimeParam", "endTimeParam", new Date(query.getEndTime()));
+
+        Query q = getPm().newQuery(ActivityLog.class);
+        q.setFilter(StringHelper.toString(filters, " && "));
+        q.declareParameters(StringHelper.toString(parameters, ", "));
+        q.setOrdering("time desc");
+        q.setRange(0, limit);
+        if (cursor != null) {
+            Map<String, Object> extensions = new HashMap<String, Object>();
+            extensions.put(JDOCursorHelper.CURSOR_EXTENSION, Cursor.fromWebSafeString(cursor));
+            q.setExtensions(extensions);
+        }
+
+        @SuppressWarnings("unchecked")
+        List<ActivityLog> activityLogs = (List<ActivityLog>) q.executeWithMap(parameterValues);
+        return activityLogs;
+    }
+
+    /**
+     * Deletes at most {@code maxLogs} of the activity logs written on the days before the day of {@code time}.
+     * The logs are found with keys-only queries and deleted by their keys in chunks.
+     * @return the number of logs deleted, which is {@code maxLogs} if there may be more to delete.
+     */
+    public int deleteActivityLogsBefore(long time, int maxLogs) {
+        com.google.appengine.api.datastore.Query query =
+                new com.google.appengine.api.datastore.Query(ActivityLog.class.getSimpleName())
+                        .setKeysOnly()
+                        .setFilter(new FilterPredicate("day", FilterOperator.LESS_THAN, getDay(time)));
+
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        PreparedQuery preparedQuery = datastore.prepare(query);
+        Cursor nextCursor = null;
+        int numDeleted = 0;
+        boolean hasMore = true;
+        while (hasMore && numDeleted < maxLogs) {
+            int chunkSize = Math.min(MAX_KEYS_PER_DELETE_CHUNK, maxLogs - numDeleted);
+            FetchOptions fetchOptions = FetchOptions.Builder.withLimit(chunkSize);
+            if (nextCursor != null) {
+                fetchOptions.startCursor(nextCursor);
+            }
+            QueryResultList<Entity> chunk = preparedQuery.asQueryResultList(fetchOptions);
+
+            List<Key> keys = new ArrayList<Key>();
+            for (Entity activityLog : chunk) {
+                keys.add(activityLog.getKey());
+            }
+            datastore.delete(keys);
+            numDeleted += keys.size();
+            hasMore = keys.size() == chunkSize;
+            nextCursor = chunk.getCursor();
+        }
+        return numDeleted;
+    }
+
+    /**
+     * Gets the number of days from the epoch (in UTC) to {@code time}, which is the day the logs are filed under.
+     */
+    public static long getDay(long time) {
+        return time / MILLIS_PER_DAY;
+    }
+
+    private static void addFilter(List<String> filters, List<String> parameters, Map<String, Object> parameterValues,
+                                  String filter, String parameter, String parameterName, Object value) {
+        if (value == null) {
+            return;
+        }
+        filters.add(filter);
+        parameters.add(parameter);
+        parameterValues.put(parameterName, value);
+    }
+
+    private static void addTokensIfKnown(Set<String> personTokens, String identifier) {
+        boolean isKnown = identifier != null && !"Unknown".equals(identifier) && !"Unregistered".equals(identifier);
+        if (isKnown) {
+            personTokens.addAll(getTokens(identifier));
+        }
+    }
+
+    /**
+     * Gets the word in {@code person} to search the person tokens by, which is its longest word,
+     * or null if it has no words. The logs found are to be filtered by the whole of {@code person}.
+     */
+    private static String getPersonSearchToken(String person) {
+        if (person == null) {
+            return null;
+        }
+        String searchToken = null;
+        for (String token : getTokens(person)) {
+            if (searchToken == null || token.length() > searchToken.length()) {
+                searchToken = token;
+            }
+        }
+        return searchToken;
+    }
+
+    private static List<String> getTokens(String identifier) {
+        List<String> tokens = new ArrayList<String>();
+        for (String token : identifier.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static String toLowerCase(String value) {
+        return value == null ? null : value.toLowerCase().trim();
+    }
+
+    @Override
+    protected Object getEntity(EntityAttributes attributes) {
+        // activity logs are never looked up by their attributes
+        return null;
+    }
+}
@@ -0,0 +1,181 @@
+package teammates.storage.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheService.SetPolicy;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+
+/**
+ * Keeps the versions of data that is cached across requests, e.g. the roster of a course, so that
+ * a change on any instance is seen by all of them.
+ * <br> Each cached item has a version in memcache, which is a counter incremented whenever the item
+ * changes, together with the time of the last change. Queries on the datastore may not reflect a write
+ * for a short while, so data loaded within {@link #CONSISTENCY_WINDOW_MILLIS} of a change must not
+ * be cached.
+ * <br> A version that is not in memcache, e.g. as it was evicted, is started again from the current time,
+ * so it differs from the versions the item was cached under before unless the item changed more than
+ * once per millisecond on average.
+ */
+public final class CacheVersions {
+
+    /**
+     * How long after a change queries on the datastore may not reflect it.
+     */
+    public static final long CONSISTENCY_WINDOW_MILLIS = 10 * 1000;
+
+    /**
+     * The source of the current time used by the caches.
+     */
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private static volatile Clock clock = SYSTEM_CLOCK;
+
+    private final String versionKeyPrefix;
+    private final String changedAtKeyPrefix;
+
+    /**
+     * @param cacheName the name of the cache, which prefixes the memcache keys of the versions.
+     */
+    public CacheVersions(String cacheName) {
+        this.versionKeyPrefix = cacheName + "Version:";
+        this.changedAtKeyPrefix = cacheName + "ChangedAt:";
+    }
+
+    /**
+     * Returns the current time according to the clock of the caches.
+     */
+    public static long now() {
+        return clock.currentTimeMillis();
+    }
+
+    /**
+     * Sets the clock of the caches, e.g. to move past the consistency window in tests.
+     * A null {@code newClock} restores the system clock.
+     */
+    public static void setClock(Clock newClock) {
+        clock = newClock == null ? SYSTEM_CLOCK : newClock;
+    }
+
+    /**
+     * Checks if data that changed at {@code changedAt} is reflected by queries on the datastore,
+     * i.e. if data loaded now may be cached.
+     */
+    public static boolean isSettled(long changedAt) {
+        return now() - changedAt >= CONSISTENCY_WINDOW_MILLIS;
+    }
+
+    /**
+     * Returns the version of the item {@code id}, starting a new version if there is none.
+     * The memcache entries under {@code otherKeys}, e.g. the cached item, are fetched in the same call
+     * and are available from the version.
+     * Returns null if memcache cannot be reached.
+     */
+    public Version getVersion(String id, String... otherKeys) {
+        MemcacheService memcache = getMemcache();
+        String versionKey = versionKeyPrefix + id;
+        String changedAtKey = changedAtKeyPrefix + id;
+
+        List<String> keys = new ArrayList<String>(Arrays.asList(versionKey, changedAtKey));
+        keys.addAll(Arrays.asList(otherKeys));
+        Map<String, Object> entries = memcache.getAll(keys);
+
+        Long number = (Long) entries.get(versionKey);
+        Long changedAt = (Long) entries.get(changedAtKey);
+        if (number == null || changedAt == null) {
+            // the last change is not known, so the item is treated as just changed
+            changedAt = now();
+            memcache.put(changedAtKey, changedAt);
+        }
+        if (number == null) {
+            memcache.put(versionKey, changedAt, null, SetPolicy.ADD_ONLY_IF_NOT_PRESENT);
+            number = (Long) memcache.get(versionKey);
+            if (number == null) {
+                return null;
+            }
+        }
+        return new Version(number, changedAt, entries);
+    }
+
+    /**
+     * Starts a new version of the item {@code id}, marking the data cached under the previous one as stale.
+     */
+    public void invalidate(String id) {
+        MemcacheService memcache = getMemcache();
+        long now = now();
+        // the time of the change is written first, so the new version is never seen with an older time
+        memcache.put(changedAtKeyPrefix + id, now);
+        memcache.increment(versionKeyPrefix + id, 1, now);
+    }
+
+    /**
+     * Starts new versions of the items {@code ids} with two memcache calls.
+     */
+    public void invalidate(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        MemcacheService memcache = getMemcache();
+        long now = now();
+        Map<String, Long> changedAts = new HashMap<String, Long>();
+        List<String> versionKeys = new ArrayList<String>();
+        for (String id : ids) {
+            changedAts.put(changedAtKeyPrefix + id, now);
+            versionKeys.add(versionKeyPrefix + id);
+        }
+        memcache.putAll(changedAts);
+        memcache.incrementAll(versionKeys, 1, now);
+    }
+
+    private static MemcacheService getMemcache() {
+        return MemcacheServiceFactory.getMemcacheService();
+    }
+
+    /**
+     * A version of a cached item, with the other memcache entries fetched with it.
+     */
+    public static final class Version {
+        private final long number;
+        private final long changedAt;
+        private final Map<String, Object> entries;
+
+        Version(long number, long changedAt, Map<String, Object> entries) {
+            this.number = number;
+            this.changedAt = changedAt;
+            this.entries = entries;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        /**
+         * Checks if data of the item loaded now may be cached under this version.
+         */
+        public boolean isSettled() {
+            return CacheVersions.isSettled(changedAt);
+        }
+
+        /**
+         * Returns the memcache entry under {@code key} fetched with the version, or null if there is none.
+         */
+        public Object getEntry(String key) {
+            return entries.get(key);
+        }
+    }
+
+}
@@ -0,0 +1,281 @@
+package teammates.storage.api;
+
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import teammates.common.datatransfer.CommentAttributes;
+import teammates.common.datatransfer.CommentParticipantType;
+import teammates.common.util.Utils;
+import teammates.storage.api.CacheVersions.Version;
+
+import com.google.appengine.api.memcache.Expiration;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceException;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSerializationContext;
+import com.google.gson.JsonSerializer;
+
+/**
+ * Indexes the comments of a course that students may see by their recipients, so that the comments
+ * visible to a student are found with a few lookups instead of a query per type of viewer.
+ * <br> The comments of each course are kept in memcache under a {@link CacheVersions version} that changes whenever
+ * {@link CommentsDb} writes to the course. The index does not depend on the teams and sections
+ * of the students, so it stays valid when students are moved.
+ * <br> The comments of a course too large for a memcache entry are not cached. For an hour after that
+ * is found, only the comments that may be visible to the student are read for each call, with the
+ * queries on the recipient and the viewer types of the comments.
+ * <br> Recipients are matched as they are stored, i.e. sanitized for HTML. Each call returns
+ * new copies of the comments, which may be modified.
+ */
+public final class CommentVisibilityIndex {
+
+    private static final int SNAPSHOT_EXPIRY_SECONDS = 60 * 60;
+
+    /** The largest snapshot that fits in a memcache entry, leaving room for the key and the entry's overhead. */
+    private static final int MAX_SNAPSHOT_SIZE_BYTES = 1000 * 1000;
+
+    private static final String SNAPSHOT_KEY_PREFIX = "CommentVisibilityIndex:";
+
+    private static final String TOO_LARGE_KEY_PREFIX = "CommentVisibilityIndexTooLarge:";
+
+    private static final CacheVersions VERSIONS = new CacheVersions("CommentVisibilityIndex");
+
+    private static final List<CommentParticipantType> STUDENT_VIEWER_TYPES = Arrays.asList(
+            CommentParticipantType.PERSON, CommentParticipantType.TEAM,
+            CommentParticipantType.SECTION, CommentParticipantType.COURSE);
+
+    /**
+     * Keeps dates to the millisecond, as comments are sorted by their creation time, and keeps
+     * the transient sending state of the comments.
+     */
+    private static final Gson SNAPSHOT_GSON = new GsonBuilder()
+            .excludeFieldsWithModifiers(Modifier.STATIC)
+            .registerTypeAdapter(Date.class, new MillisecondDateAdapter())
+            .create();
+
+    private static final Logger log = Utils.getLogger();
+
+    private final Map<String, List<CommentAttributes>> commentsForPerson =
+            new HashMap<String, List<CommentAttributes>>();
+    private final Map<String, List<CommentAttributes>> commentsForTeam =
+            new HashMap<String, List<CommentAttributes>>();
+    private final Map<String, List<CommentAttributes>> commentsForSection =
+            new HashMap<String, List<CommentAttributes>>();
+    private final List<CommentAttributes> commentsShownToCourse = new ArrayList<CommentAttributes>();
+
+    private CommentVisibilityIndex(List<CommentAttributes> comments) {
+        for (CommentAttributes comment : comments) {
+            if (comment.recipientType == CommentParticipantType.PERSON) {
+                addToRecipients(commentsForPerson, comment);
+            } else if (comment.recipientType == CommentParticipantType.TEAM) {
+                addToRecipients(commentsForTeam, comment);
+            } else if (comment.recipientType == CommentParticipantType.SECTION) {
+                addToRecipients(commentsForSection, comment);
+            }
+            if (comment.showCommentTo.contains(CommentParticipantType.COURSE)) {
+                commentsShownToCourse.add(comment);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the comments in {@code courseId} that are shown to
+     * at least one type of student viewer. The index may be limited to the comments that
+     * may be visible to the student with {@code studentEmail}, as stored in the recipients of comments.
+     */
+    public static CommentVisibilityIndex getForStudent(String courseId, String studentEmail) {
+        String snapshotKey = SNAPSHOT_KEY_PREFIX + courseId;
+        String tooLargeKey = TOO_LARGE_KEY_PREFIX + courseId;
+        Version version = VERSIONS.getVersion(courseId, snapshotKey, tooLargeKey);
+        if (version == null) {
+            // memcache is unavailable, so there is no way to tell whether cached comments are stale
+            return new CommentVisibilityIndex(loadComments(courseId));
+        }
+        if (version.getEntry(tooLargeKey) != null) {
+            return new CommentVisibilityIndex(loadCommentsForStudent(courseId, studentEmail));
+        }
+
+        String json = (String) version.getEntry(snapshotKey);
+        CommentsSnapshot snapshot = json == null ? null : SNAPSHOT_GSON.fromJson(json, CommentsSnapshot.class);
+        if (snapshot != null && snapshot.version == version.getNumber()) {
+            return new CommentVisibilityIndex(snapshot.comments);
+        }
+
+        List<CommentAttributes> comments = loadComments(courseId);
+        if (version.isSettled()) {
+            putSnapshot(courseId, new CommentsSnapshot(version.getNumber(), comments));
+        }
+        return new CommentVisibilityIndex(comments);
+    }
+
+    /**
+     * Marks the cached comments of {@code courseId}, if any, as stale on all instances.
+     */
+    public static void invalidate(String courseId) {
+        VERSIONS.invalidate(courseId);
+    }
+
+    /**
+     * Marks the cached comments of {@code courseIds} as stale on all instances.
+     */
+    public static void invalidate(Collection<String> courseIds) {
+        VERSIONS.invalidate(courseIds);
+    }
+
+    /**
+     * Returns the comments given to the student with {@code email}.
+     */
+    public List<CommentAttributes> getCommentsForPerson(String email) {
+        return getOrEmpty(commentsForPerson, email);
+    }
+
+    /**
+     * Returns the comments given to the team {@code teamName}.
+     */
+    public List<CommentAttributes> getCommentsForTeam(String teamName) {
+        return getOrEmpty(commentsForTeam, teamName);
+    }
+
+    /**
+     * Returns the comments given to the section {@code sectionName}.
+     */
+    public List<CommentAttributes> getCommentsForSection(String sectionName) {
+        return getOrEmpty(commentsForSection, sectionName);
+    }
+
+    /**
+     * Returns the comments shown to the whole course, whatever their recipients are.
+     */
+    public List<CommentAttributes> getCommentsShownToCourse() {
+        return commentsShownToCourse;
+    }
+
+    private static void addToRecipients(Map<String, List<CommentAttributes>> commentsForRecipient,
+                                        CommentAttributes comment) {
+        for (String recipient : comment.recipients) {
+            List<CommentAttributes> commentsForThisRecipient = commentsForRecipient.get(recipient);
+            if (commentsForThisRecipient == null) {
+                commentsForThisRecipient = new ArrayList<CommentAttributes>();
+                commentsForRecipient.put(recipient, commentsForThisRecipient);
+            }
+            commentsForThisRecipient.add(comment);
+        }
+    }
+
+    private static List<CommentAttributes> getOrEmpty(Map<String, List<CommentAttributes>> commentsForRecipient,
+                                                      String recipient) {
+        List<CommentAttributes> commentsForThisRecipient = commentsForRecipient.get(recipient);
+        return commentsForThisRecipient == null
+               ? Collections.<CommentAttributes>emptyList()
+               : commentsForThisRecipient;
+    }
+
+    private static List<CommentAttributes> loadComments(String courseId) {
+        List<CommentAttributes> comments = new ArrayList<CommentAttributes>();
+        for (CommentAttributes comment : new CommentsDb().getCommentsForCourse(courseId)) {
+            if (!Collections.disjoint(comment.showCommentTo, STUDENT_VIEWER_TYPES)) {
+                comments.add(comment);
+            }
+        }
+        return comments;
+    }
+
+    /**
+     * Loads the comments of {@code courseId} that may be visible to the student with {@code studentEmail},
+     * i.e. those given to the student and those shown to teams, sections or the whole course.
+     */
+    private static List<CommentAttributes> loadCommentsForStudent(String courseId, String studentEmail) {
+        CommentsDb commentsDb = new CommentsDb();
+        List<CommentAttributes> commentsToCheck = new ArrayList<CommentAttributes>(
+                commentsDb.getCommentsForReceiver(courseId, CommentParticipantType.PERSON, studentEmail));
+        for (CommentParticipantType viewerType : Arrays.asList(CommentParticipantType.TEAM,
+                                                               CommentParticipantType.SECTION,
+                                                               CommentParticipantType.COURSE)) {
+            commentsToCheck.addAll(commentsDb.getCommentsForCommentViewer(courseId, viewerType));
+        }
+
+        Set<Long> commentIds = new HashSet<Long>();
+        List<CommentAttributes> comments = new ArrayList<CommentAttributes>();
+        for (CommentAttributes comment : commentsToCheck) {
+            if (!Collections.disjoint(comment.showCommentTo, STUDENT_VIEWER_TYPES)
+                    && commentIds.add(comment.getCommentId())) {
+                comments.add(comment);
+            }
+        }
+        return comments;
+    }
+
+    private static void putSnapshot(String courseId, CommentsSnapshot snapshot) {
+        String json = SNAPSHOT_GSON.toJson(snapshot, CommentsSnapshot.class);
+        if (json.getBytes(StandardCharsets.UTF_8).length > MAX_SNAPSHOT_SIZE_BYTES) {
+            markTooLarge(courseId);
+            return;
+        }
+        try {
+            getMemcache().put(SNAPSHOT_KEY_PREFIX + courseId, json,
+                              Expiration.byDeltaSeconds(SNAPSHOT_EXPIRY_SECONDS));
+        } catch (MemcacheServiceException e) {
+            // e.g. the entry is still too large for memcache once serialized
+            log.warning("Unable to cache comments of course " + courseId + ": " + e.getMessage());
+            markTooLarge(courseId);
+        }
+    }
+
+    /**
+     * Remembers that the comments of {@code courseId} are too large to cache, so that they are not
+     * all read again for each call until the mark expires.
+     */
+    private static void markTooLarge(String courseId) {
+        log.info("Comments of course " + courseId + " are too large to cache");
+        getMemcache().put(TOO_LARGE_KEY_PREFIX + courseId, Boolean.TRUE,
+                          Expiration.byDeltaSeconds(SNAPSHOT_EXPIRY_SECONDS));
+    }
+
+    private static MemcacheService getMemcache() {
+        return MemcacheServiceFactory.getMemcacheService();
+    }
+
+    /**
+     * The form in which the comments of a course are kept in memcache.
+     */
+    private static class CommentsSnapshot {
+        long version;
+        List<CommentAttributes> comments;
+
+        CommentsSnapshot(long version, List<CommentAttributes> comments) {
+            this.version = version;
+            this.comments = comments;
+        }
+    }
+
+    private static class MillisecondDateAdapter implements JsonSerializer<Date>, JsonDeserializer<Date> {
+        @Override
+        public JsonElement serialize(Date date, Type type, JsonSerializationContext context) {
+            return new JsonPrimitive(date.getTime());
+        }
+
+        @Override
+        public Date deserialize(JsonElement json, Type type, JsonDeserializationContext context) {
+            return new Date(json.getAsLong());
+        }
+    }
+
+}
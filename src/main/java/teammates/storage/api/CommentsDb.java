@@ -3,6 +3,7 @@ package teammates.storage.api;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -64,6 +65,7 @@ public class CommentsDb extends EntitiesDb {
     public CommentAttributes createEntity(EntityAttributes entityToAdd)
             throws InvalidParametersException, EntityAlreadyExistsException {
         Comment createdEntity = (Comment) super.createEntity(entityToAdd);
+        CommentVisibilityIndex.invalidate(((CommentAttributes) entityToAdd).courseId);
         if (createdEntity == null) {
             log.info("Trying to get non-existent Comment, possibly entity not persistent yet.");
             return null;
@@ -71,6 +73,34 @@ public class CommentsDb extends EntitiesDb {
         return new CommentAttributes(createdEntity);
     }
     
+    @Override
+    public List<EntityAttributes> createEntities(Collection<? extends EntityAttributes> entitiesToAdd)
+            throws InvalidParametersException {
+        List<EntityAttributes> entitiesToUpdate = super.createEntities(entitiesToAdd);
+        CommentVisibilityIndex.invalidate(getCourseIds(entitiesToAdd));
+        return entitiesToUpdate;
+    }
+    
+    @Override
+    public void deleteEntity(EntityAttributes entityToDelete) {
+        super.deleteEntity(entityToDelete);
+        CommentVisibilityIndex.invalidate(((CommentAttributes) entityToDelete).courseId);
+    }
+    
+    @Override
+    public void deleteEntities(Collection<? extends EntityAttributes> entitiesToDelete) {
+        super.deleteEntities(entitiesToDelete);
+        CommentVisibilityIndex.invalidate(getCourseIds(entitiesToDelete));
+    }
+    
+    private Set<String> getCourseIds(Collection<? extends EntityAttributes> comments) {
+        Set<String> courseIds = new HashSet<String>();
+        for (EntityAttributes comment : comments) {
+            courseIds.add(((CommentAttributes) comment).courseId);
+        }
+        return courseIds;
+    }
+    
     /**
      * Remove search document for the given comment
      * @param commentToDelete
@@ -261,6 +291,7 @@ public class CommentsDb extends EntitiesDb {
         
         log.info(Const.SystemParams.COURSE_BACKUP_LOG_MSG + courseId);
         getPm().close();
+        CommentVisibilityIndex.invalidate(courseId);
     }
 
     /**
@@ -310,6 +341,7 @@ public class CommentsDb extends EntitiesDb {
         getPm().close();
         
         CommentAttributes updatedComment = new CommentAttributes(comment);
+        CommentVisibilityIndex.invalidate(updatedComment.courseId);
         log.info(updatedComment.getBackupIdentifier());
         return updatedComment;
     }
@@ -325,6 +357,7 @@ public class CommentsDb extends EntitiesDb {
         
         updateInstructorEmailAsGiver(courseId, oldInstrEmail, updatedInstrEmail);
         updateInstructorEmailAsLastEditorForStudentComments(courseId, oldInstrEmail, updatedInstrEmail);
+        CommentVisibilityIndex.invalidate(courseId);
         // for now, instructors can only be giver
         // updateInstructorEmailAsRecipient(courseId, oldInstrEmail, updatedInstrEmail);
     }
@@ -366,6 +399,7 @@ public class CommentsDb extends EntitiesDb {
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, updatedStudentEmail);
         
         updateStudentEmailAsRecipient(courseId, oldStudentEmail, updatedStudentEmail);
+        CommentVisibilityIndex.invalidate(courseId);
     }
 
     private void updateStudentEmailAsRecipient(String courseId,
@@ -400,6 +434,7 @@ public class CommentsDb extends EntitiesDb {
         getPm().deletePersistentAll(giverComments);
         
         getPm().flush();
+        CommentVisibilityIndex.invalidate(courseId);
     }
     
     /*
@@ -417,6 +452,7 @@ public class CommentsDb extends EntitiesDb {
         getPm().deletePersistentAll(recipientComments);
         
         getPm().flush();
+        CommentVisibilityIndex.invalidate(courseId);
     }
     
     /*
@@ -433,6 +469,7 @@ public class CommentsDb extends EntitiesDb {
         
         getPm().deletePersistentAll(recipientComments);
         getPm().flush();
+        CommentVisibilityIndex.invalidate(courseId);
     }
     
     /*
@@ -449,6 +486,7 @@ public class CommentsDb extends EntitiesDb {
         
         getPm().deletePersistentAll(recipientComments);
         getPm().flush();
+        CommentVisibilityIndex.invalidate(courseId);
     }
     
     /*
@@ -462,6 +500,7 @@ public class CommentsDb extends EntitiesDb {
         
         getPm().deletePersistentAll(courseComments);
         getPm().flush();
+        CommentVisibilityIndex.invalidate(courseId);
     }
     
     /*
@@ -475,6 +514,7 @@ public class CommentsDb extends EntitiesDb {
         
         getPm().deletePersistentAll(commentsToDelete);
         getPm().flush();
+        CommentVisibilityIndex.invalidate(courseIds);
     }
     
     /*
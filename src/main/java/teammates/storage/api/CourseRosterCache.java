@@ -0,0 +1,148 @@
+package teammates.storage.api;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import teammates.common.datatransfer.CourseRoster;
+import teammates.common.datatransfer.InstructorAttributes;
+import teammates.common.datatransfer.StudentAttributes;
+import teammates.common.util.Utils;
+import teammates.storage.api.CacheVersions.Version;
+
+import com.google.appengine.api.memcache.Expiration;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceException;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+
+/**
+ * Caches the {@link CourseRoster} of a course across requests so that its students and
+ * instructors are not read from the datastore on every request.
+ * <br> Each course has a {@link CacheVersions version} that changes whenever {@link StudentsDb} or
+ * {@link InstructorsDb} writes to the course. Rosters are kept in memcache under that version,
+ * and the most recently used ones are also kept in memory on this instance. Every lookup
+ * checks the version in memcache, so a change on any instance is seen by all of them.
+ */
+public final class CourseRosterCache {
+
+    private static final int SNAPSHOT_EXPIRY_SECONDS = 60 * 60;
+    private static final int NEAR_CACHE_CAPACITY = 50;
+
+    private static final String SNAPSHOT_KEY_PREFIX = "CourseRoster:";
+
+    private static final CacheVersions VERSIONS = new CacheVersions("CourseRoster");
+
+    private static final Logger log = Utils.getLogger();
+
+    private static final Map<String, VersionedCourseRoster> NEAR_CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, VersionedCourseRoster>(NEAR_CACHE_CAPACITY, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VersionedCourseRoster> eldest) {
+                    return size() > NEAR_CACHE_CAPACITY;
+                }
+            });
+
+    private CourseRosterCache() {
+        // utility class
+    }
+
+    /**
+     * Returns the roster of {@code courseId}. The roster may be shared with other requests
+     * and must not be modified.
+     */
+    public static CourseRoster getCourseRoster(String courseId) {
+        Version version = VERSIONS.getVersion(courseId);
+        if (version == null) {
+            // memcache is unavailable, so there is no way to tell whether a cached roster is stale
+            return loadCourseRoster(courseId);
+        }
+
+        VersionedCourseRoster cached = NEAR_CACHE.get(courseId);
+        if (cached != null && cached.version == version.getNumber()) {
+            return cached.roster;
+        }
+
+        CourseRoster roster = getSnapshot(courseId, version.getNumber());
+        if (roster == null) {
+            roster = loadCourseRoster(courseId);
+            if (!version.isSettled()) {
+                return roster;
+            }
+            putSnapshot(courseId, version.getNumber(), roster);
+        }
+
+        NEAR_CACHE.put(courseId, new VersionedCourseRoster(version.getNumber(), roster));
+        return roster;
+    }
+
+    /**
+     * Marks the cached roster of {@code courseId}, if any, as stale on all instances.
+     */
+    public static void invalidate(String courseId) {
+        NEAR_CACHE.remove(courseId);
+        VERSIONS.invalidate(courseId);
+    }
+
+    private static CourseRoster getSnapshot(String courseId, long version) {
+        Object snapshot = getMemcache().get(getSnapshotKey(courseId, version));
+        if (snapshot == null) {
+            return null;
+        }
+        CourseRosterSnapshot parsedSnapshot =
+                Utils.getTeammatesGson().fromJson((String) snapshot, CourseRosterSnapshot.class);
+        return new CourseRoster(parsedSnapshot.students, parsedSnapshot.instructors);
+    }
+
+    private static void putSnapshot(String courseId, long version, CourseRoster roster) {
+        CourseRosterSnapshot snapshot = new CourseRosterSnapshot(roster.getStudents(), roster.getInstructors());
+        try {
+            getMemcache().put(getSnapshotKey(courseId, version),
+                              Utils.getTeammatesGson().toJson(snapshot, CourseRosterSnapshot.class),
+                              Expiration.byDeltaSeconds(SNAPSHOT_EXPIRY_SECONDS));
+        } catch (MemcacheServiceException e) {
+            // e.g. the roster is too large for a memcache entry; it is still cached on this instance
+            log.warning("Unable to cache roster of course " + courseId + ": " + e.getMessage());
+        }
+    }
+
+    private static String getSnapshotKey(String courseId, long version) {
+        return SNAPSHOT_KEY_PREFIX + courseId + ":" + version;
+    }
+
+    private static CourseRoster loadCourseRoster(String courseId) {
+        return new CourseRoster(new StudentsDb().getStudentsForCourse(courseId),
+                                new InstructorsDb().getInstructorsForCourse(courseId));
+    }
+
+    private static MemcacheService getMemcache() {
+        return MemcacheServiceFactory.getMemcacheService();
+    }
+
+    private static class VersionedCourseRoster {
+        final long version;
+        final CourseRoster roster;
+
+        VersionedCourseRoster(long version, CourseRoster roster) {
+            this.version = version;
+            this.roster = roster;
+        }
+    }
+
+    /**
+     * The form in which a roster is kept in memcache.
+     */
+    private static class CourseRosterSnapshot {
+        List<StudentAttributes> students;
+        List<InstructorAttributes> instructors;
+
+        CourseRosterSnapshot(List<StudentAttributes> students, List<InstructorAttributes> instructors) {
+            this.students = students;
+            this.instructors = instructors;
+        }
+    }
+
+}
@@ -2,7 +2,10 @@ package teammates.storage.api;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import javax.jdo.JDOHelper;
@@ -23,12 +26,29 @@ import teammates.storage.search.SearchManager;
 import teammates.storage.search.SearchQuery;
 
 import com.google.appengine.api.blobstore.BlobKey;
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.PreparedQuery;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
+import com.google.appengine.api.datastore.Query.Filter;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.search.Document;
 import com.google.appengine.api.search.Results;
 import com.google.appengine.api.search.ScoredDocument;
 import com.google.appengine.api.search.SearchQueryException;
 
 public abstract class EntitiesDb {
 
+    /** The maximum number of entities deleted with each batch delete in {@link #deleteEntitiesInChunks}. */
+    protected static final int MAX_KEYS_PER_DELETE_CHUNK = 500;
+
     public static final String ERROR_CREATE_ENTITY_ALREADY_EXISTS = "Trying to create a %s that exists: ";
     public static final String ERROR_UPDATE_NON_EXISTENT = "Trying to update non-existent Entity: ";
     public static final String ERROR_UPDATE_NON_EXISTENT_ACCOUNT = "Trying to update non-existent Account: ";
@@ -285,6 +305,93 @@ public abstract class EntitiesDb {
         GoogleCloudStorageHelper.deleteFile(key);
     }
     
+    /**
+     * Deletes at most {@code maxEntities} of the entities of {@code entityClass} that have the given
+     * property values, starting from {@code cursor}. The entities are found with keys-only queries
+     * and deleted by their keys in chunks, so the memory used does not grow with the number of entities.
+     * @param createdUntil if not null, only the entities created at or before this time are deleted,
+     *                   e.g. so that those of a course created again with the same ID are kept.
+     *                   The entities of each chunk are then loaded to check their {@code createdAt},
+     *                   and those without one are deleted. If null, the entities are never loaded.
+     * @param propertyValues Array of a variable, even number of property name-value pairs:
+     *                   { "property1", value1, "property2", value2, ... }
+     * @return the cursor to continue the deletion from, or null if all the entities are deleted.
+     */
+    protected String deleteEntitiesInChunks(Class<?> entityClass, String cursor, int maxEntities, Date createdUntil,
+                                            Object... propertyValues) {
+        Assumption.assertTrue("The number of property values passed in must be even", propertyValues.length % 2 == 0);
+        
+        List<Filter> filters = new ArrayList<Filter>();
+        for (int i = 0; i < propertyValues.length; i += 2) {
+            filters.add(new FilterPredicate((String) propertyValues[i], FilterOperator.EQUAL, propertyValues[i + 1]));
+        }
+        Query query = new Query(entityClass.getSimpleName()).setKeysOnly();
+        query.setFilter(filters.size() == 1 ? filters.get(0) : CompositeFilterOperator.and(filters));
+        
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        PreparedQuery preparedQuery = datastore.prepare(query);
+        Cursor nextCursor = cursor == null ? null : Cursor.fromWebSafeString(cursor);
+        int numFound = 0;
+        int numDeleted = 0;
+        boolean hasMore = true;
+        
+        while (hasMore && numFound < maxEntities) {
+            int chunkSize = Math.min(MAX_KEYS_PER_DELETE_CHUNK, maxEntities - numFound);
+            FetchOptions fetchOptions = FetchOptions.Builder.withLimit(chunkSize);
+            if (nextCursor != null) {
+                fetchOptions.startCursor(nextCursor);
+            }
+            QueryResultList<Entity> chunk = preparedQuery.asQueryResultList(fetchOptions);
+            
+            List<Key> keys = new ArrayList<Key>();
+            for (Entity entity : chunk) {
+                keys.add(entity.getKey());
+            }
+            numFound += keys.size();
+            hasMore = keys.size() == chunkSize;
+            nextCursor = chunk.getCursor();
+            
+            if (createdUntil != null) {
+                keys = getKeysOfEntitiesCreatedUntil(datastore, keys, createdUntil);
+            }
+            datastore.delete(keys);
+            numDeleted += keys.size();
+        }
+        
+        log.info("Deleted " + numDeleted + " " + entityClass.getSimpleName() + " entities"
+                 + (numDeleted < numFound ? ", keeping " + (numFound - numDeleted) + " created later" : "")
+                 + (hasMore ? ", more to be deleted" : ""));
+        
+        // the deleted entities may still be cached as persistent objects
+        getPm().close();
+        
+        return hasMore ? nextCursor.toWebSafeString() : null;
+    }
+    
+    private static List<Key> getKeysOfEntitiesCreatedUntil(DatastoreService datastore, List<Key> keys,
+                                                           Date createdUntil) {
+        List<Key> keysCreatedUntil = new ArrayList<Key>();
+        for (Map.Entry<Key, Entity> entity : datastore.get(keys).entrySet()) {
+            Date createdAt = (Date) entity.getValue().getProperty("createdAt");
+            if (createdAt == null || !createdAt.after(createdUntil)) {
+                keysCreatedUntil.add(entity.getKey());
+            }
+        }
+        return keysCreatedUntil;
+    }
+    
+    /**
+     * Checks if the {@code e} was thrown as a transaction conflicted with changes made by another request.
+     */
+    protected static boolean isCausedByConcurrentModification(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConcurrentModificationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * NOTE: This method must be overriden for all subclasses such that it will return the Entity
      * matching the EntityAttributes in the parameter.
@@ -307,6 +414,18 @@ public abstract class EntitiesDb {
         }
     }
     
+    protected void putDocuments(String indexName, List<SearchDocument> documents) {
+        List<Document> builtDocuments = new ArrayList<Document>();
+        for (SearchDocument document : documents) {
+            try {
+                builtDocuments.add(document.build());
+            } catch (Exception e) {
+                log.info("Failed to put searchable document in " + indexName + " for " + document.toString());
+            }
+        }
+        SearchManager.putDocuments(indexName, builtDocuments);
+    }
+    
     protected void getDocument(String indexName, String documentId) {
         SearchManager.getDocument(indexName, documentId);
     }
@@ -2,23 +2,81 @@ package teammates.storage.api;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import javax.jdo.JDOException;
 import javax.jdo.JDOHelper;
+import javax.jdo.JDOObjectNotFoundException;
+import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import javax.jdo.Transaction;
 
 import teammates.common.datatransfer.EntityAttributes;
 import teammates.common.datatransfer.FeedbackParticipantType;
 import teammates.common.datatransfer.FeedbackQuestionAttributes;
+import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Assumption;
 import teammates.common.util.Const;
+import teammates.storage.datastore.Datastore;
 import teammates.storage.entity.FeedbackQuestion;
+import teammates.storage.entity.FeedbackSessionGiverTypes;
+
+import com.google.appengine.api.datastore.KeyFactory;
 
 public class FeedbackQuestionsDb extends EntitiesDb {
     public static final String ERROR_UPDATE_NON_EXISTENT = "Trying to update non-existent Feedback Question : ";
     
+    /** The number of times clearing the giver types of a session is tried when other changes to them conflict. */
+    private static final int MAX_GIVER_TYPES_CLEAR_ATTEMPTS = 5;
+    
+    @Override
+    public Object createEntity(EntityAttributes entityToAdd)
+            throws InvalidParametersException, EntityAlreadyExistsException {
+        Object createdEntity = super.createEntity(entityToAdd);
+        clearGiverTypes((FeedbackQuestionAttributes) entityToAdd);
+        return createdEntity;
+    }
+    
+    @Override
+    public List<EntityAttributes> createEntities(Collection<? extends EntityAttributes> entitiesToAdd)
+            throws InvalidParametersException {
+        List<EntityAttributes> entitiesToUpdate = super.createEntities(entitiesToAdd);
+        clearGiverTypes(entitiesToAdd);
+        return entitiesToUpdate;
+    }
+    
+    @Override
+    public Object createEntityWithoutExistenceCheck(EntityAttributes entityToAdd)
+            throws InvalidParametersException {
+        Object createdEntity = super.createEntityWithoutExistenceCheck(entityToAdd);
+        clearGiverTypes((FeedbackQuestionAttributes) entityToAdd);
+        return createdEntity;
+    }
+    
+    @Override
+    public void deleteEntity(EntityAttributes entityToDelete) {
+        FeedbackQuestionAttributes question = (FeedbackQuestionAttributes) entityToDelete;
+        if ((question.feedbackSessionName == null || question.courseId == null) && question.getId() != null) {
+            // the question is identified by its id alone, so its session is found before it is deleted
+            question = getFeedbackQuestion(question.getId());
+        }
+        super.deleteEntity(entityToDelete);
+        if (question != null) {
+            clearGiverTypes(question);
+        }
+    }
+    
+    @Override
+    public void deleteEntities(Collection<? extends EntityAttributes> entitiesToDelete) {
+        super.deleteEntities(entitiesToDelete);
+        clearGiverTypes(entitiesToDelete);
+    }
+    
     public void createFeedbackQuestions(Collection<FeedbackQuestionAttributes> questionsToAdd)
             throws InvalidParametersException {
         List<EntityAttributes> questionsToUpdate = createEntities(questionsToAdd);
@@ -202,6 +260,8 @@ public class FeedbackQuestionsDb extends EntitiesDb {
         //set true to prevent changes to last update timestamp
         fq.keepUpdateTimestamp = keepUpdateTimestamp;
         
+        clearGiverTypes(fq.getFeedbackSessionName(), fq.getCourseId());
+        
         log.info(newAttributes.getBackupIdentifier());
         getPm().close();
     }
@@ -220,9 +280,217 @@ public class FeedbackQuestionsDb extends EntitiesDb {
         List<FeedbackQuestion> feedbackQuestionList = getFeedbackQuestionEntitiesForCourses(courseIds);
         
         getPm().deletePersistentAll(feedbackQuestionList);
+        getPm().deletePersistentAll(getGiverTypesEntitiesForCourses(courseIds));
         getPm().flush();
     }
     
+    /**
+     * Deletes at most {@code maxEntities} of the questions in the course, starting from {@code cursor}.
+     * If {@code createdUntil} is not null, only those created at or before it are deleted,
+     * otherwise they are deleted without being loaded.
+     * @return the cursor to continue the deletion from, or null if all the questions in the course are deleted.
+     */
+    public String deleteFeedbackQuestionsForCourseInChunks(String courseId, String cursor, int maxEntities,
+                                                           Date createdUntil) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        deleteEntitiesInChunks(FeedbackSessionGiverTypes.class, null, Integer.MAX_VALUE, null, "courseId", courseId);
+        return deleteEntitiesInChunks(FeedbackQuestion.class, cursor, maxEntities, createdUntil, "courseId", courseId);
+    }
+    
+    /**
+     * Deletes at most {@code maxEntities} of the questions in the session, starting from {@code cursor}.
+     * If {@code createdUntil} is not null, only those created at or before it are deleted,
+     * otherwise they are deleted without being loaded.
+     * @return the cursor to continue the deletion from, or null if all the questions in the session are deleted.
+     */
+    public String deleteFeedbackQuestionsForSessionInChunks(String feedbackSessionName, String courseId,
+                                                   String cursor, int maxEntities, Date createdUntil) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        deleteEntitiesInChunks(FeedbackSessionGiverTypes.class, null, Integer.MAX_VALUE, null,
+                               "feedbackSessionName", feedbackSessionName, "courseId", courseId);
+        return deleteEntitiesInChunks(FeedbackQuestion.class, cursor, maxEntities, createdUntil,
+                                      "feedbackSessionName", feedbackSessionName, "courseId", courseId);
+    }
+    
+    /**
+     * Returns the giver types of the questions of the session. The giver types are kept
+     * between calls, so the questions are only read again after one of them changes.
+     * Preconditions: <br>
+     * * All parameters are non-null.
+     * @return An empty set if the session has no questions.
+     */
+    public Set<FeedbackParticipantType> getGiverTypesForSession(String feedbackSessionName, String courseId) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        Set<FeedbackParticipantType> giverTypes = new HashSet<FeedbackParticipantType>();
+        boolean isGiverTypesEntityFound;
+        Date questionsChangedAt = null;
+        
+        // the giver types are changed with separate persistence managers, so they are read with one as well
+        PersistenceManager pm = Datastore.newPersistenceManager();
+        try {
+            FeedbackSessionGiverTypes giverTypesEntity = getGiverTypesEntity(pm, feedbackSessionName, courseId);
+            if (giverTypesEntity != null && giverTypesEntity.isKnown()) {
+                for (String giverType : giverTypesEntity.getGiverTypes()) {
+                    giverTypes.add(FeedbackParticipantType.valueOf(giverType));
+                }
+                return giverTypes;
+            }
+            isGiverTypesEntityFound = giverTypesEntity != null;
+            if (isGiverTypesEntityFound) {
+                questionsChangedAt = giverTypesEntity.getQuestionsChangedAt();
+            }
+        } finally {
+            pm.close();
+        }
+        
+        Set<String> giverTypeNames = new HashSet<String>();
+        for (FeedbackQuestion question : getFeedbackQuestionEntitiesForSession(feedbackSessionName, courseId)) {
+            if (!JDOHelper.isDeleted(question)) {
+                giverTypes.add(question.getGiverType());
+                giverTypeNames.add(question.getGiverType().name());
+            }
+        }
+        
+        keepGiverTypes(feedbackSessionName, courseId, giverTypeNames, isGiverTypesEntityFound, questionsChangedAt);
+        
+        return giverTypes;
+    }
+    
+    /**
+     * Keeps the giver types found from the questions of the session, unless the questions changed after
+     * the giver types entity was read before finding them, i.e. if the entity was found then is no longer
+     * {@code isGiverTypesEntityFound}, or was changed since {@code questionsChangedAt}.
+     * The entity is checked and saved in a single transaction, so giver types cleared by another request
+     * in the meantime are never overwritten.
+     */
+    private void keepGiverTypes(String feedbackSessionName, String courseId, Set<String> giverTypeNames,
+                                boolean isGiverTypesEntityFound, Date questionsChangedAt) {
+        PersistenceManager pm = Datastore.newPersistenceManager();
+        Transaction tx = pm.currentTransaction();
+        try {
+            tx.begin();
+            FeedbackSessionGiverTypes giverTypesEntity = getGiverTypesEntity(pm, feedbackSessionName, courseId);
+            if (giverTypesEntity == null) {
+                if (isGiverTypesEntityFound) {
+                    // the giver types were deleted with the questions
+                    return;
+                }
+                giverTypesEntity = new FeedbackSessionGiverTypes(feedbackSessionName, courseId);
+                giverTypesEntity.setGiverTypes(giverTypeNames);
+                pm.makePersistent(giverTypesEntity);
+            } else {
+                Date lastChangedAt = giverTypesEntity.getQuestionsChangedAt();
+                boolean isChangedSinceRead = !isGiverTypesEntityFound || giverTypesEntity.isKnown()
+                                             || !isSameTime(lastChangedAt, questionsChangedAt);
+                // queries on the questions may not reflect a recent change, so giver types found then are not kept
+                boolean isChangedRecently = lastChangedAt != null && !CacheVersions.isSettled(lastChangedAt.getTime());
+                if (isChangedSinceRead || isChangedRecently) {
+                    return;
+                }
+                giverTypesEntity.setGiverTypes(giverTypeNames);
+            }
+            tx.commit();
+        } catch (JDOException e) {
+            if (!isCausedByConcurrentModification(e)) {
+                throw e;
+            }
+            // the giver types were changed by another request, which may have cleared them
+            log.info("Giver types of session " + feedbackSessionName + " in course " + courseId
+                     + " are not kept after a conflict");
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            pm.close();
+        }
+    }
+    
+    private static boolean isSameTime(Date time, Date otherTime) {
+        return time == null ? otherTime == null : time.equals(otherTime);
+    }
+    
+    private void clearGiverTypes(Collection<? extends EntityAttributes> questions) {
+        Set<String> clearedSessions = new HashSet<String>();
+        for (EntityAttributes question : questions) {
+            FeedbackQuestionAttributes fqa = (FeedbackQuestionAttributes) question;
+            if (clearedSessions.add(FeedbackSessionGiverTypes.generateId(fqa.feedbackSessionName, fqa.courseId))) {
+                clearGiverTypes(fqa);
+            }
+        }
+    }
+    
+    private void clearGiverTypes(FeedbackQuestionAttributes question) {
+        if (question.feedbackSessionName == null || question.courseId == null) {
+            return;
+        }
+        clearGiverTypes(question.feedbackSessionName, question.courseId);
+    }
+    
+    /**
+     * Clears the giver types kept for the session after a change to its questions.
+     * The entity is read and saved in a single transaction, retrying if it was changed by another request
+     * in the meantime, so that giver types found from the questions before the change are not kept.
+     */
+    private void clearGiverTypes(String feedbackSessionName, String courseId) {
+        for (int attempt = 1;; attempt++) {
+            // a separate persistence manager is used, so that the changes pending in the one of the thread,
+            // e.g. to the question, are not made in the transaction
+            PersistenceManager pm = Datastore.newPersistenceManager();
+            Transaction tx = pm.currentTransaction();
+            try {
+                tx.begin();
+                FeedbackSessionGiverTypes giverTypesEntity =
+                        getGiverTypesEntity(pm, feedbackSessionName, courseId);
+                if (giverTypesEntity == null) {
+                    giverTypesEntity = new FeedbackSessionGiverTypes(feedbackSessionName, courseId);
+                    giverTypesEntity.clearGiverTypes(new Date(CacheVersions.now()));
+                    pm.makePersistent(giverTypesEntity);
+                } else {
+                    giverTypesEntity.clearGiverTypes(new Date(CacheVersions.now()));
+                }
+                tx.commit();
+                return;
+            } catch (JDOException e) {
+                if (attempt >= MAX_GIVER_TYPES_CLEAR_ATTEMPTS || !isCausedByConcurrentModification(e)) {
+                    throw e;
+                }
+                log.info("Retrying to clear the giver types of session " + feedbackSessionName
+                         + " in course " + courseId + " after a conflict");
+            } finally {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                pm.close();
+            }
+        }
+    }
+    
+    private static FeedbackSessionGiverTypes getGiverTypesEntity(PersistenceManager pm, String feedbackSessionName,
+                                                                 String courseId) {
+        try {
+            FeedbackSessionGiverTypes giverTypesEntity = pm.getObjectById(
+                    FeedbackSessionGiverTypes.class,
+                    KeyFactory.createKey(FeedbackSessionGiverTypes.class.getSimpleName(),
+                                         FeedbackSessionGiverTypes.generateId(feedbackSessionName, courseId)));
+            return JDOHelper.isDeleted(giverTypesEntity) ? null : giverTypesEntity;
+        } catch (JDOObjectNotFoundException e) {
+            return null;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<FeedbackSessionGiverTypes> getGiverTypesEntitiesForCourses(List<String> courseIds) {
+        Query q = getPm().newQuery(FeedbackSessionGiverTypes.class);
+        q.setFilter(":p.contains(courseId)");
+        
+        return (List<FeedbackSessionGiverTypes>) q.execute(courseIds);
+    }
+    
     private List<FeedbackQuestion> getFeedbackQuestionEntitiesForCourses(List<String> courseIds) {
         Query q = getPm().newQuery(FeedbackQuestion.class);
         q.setFilter(":p.contains(courseId)");
@@ -12,6 +12,7 @@ import javax.jdo.Query;
 
 import teammates.common.datatransfer.CommentSendingState;
 import teammates.common.datatransfer.EntityAttributes;
+import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.FeedbackResponseCommentAttributes;
 import teammates.common.datatransfer.FeedbackResponseCommentSearchResultBundle;
 import teammates.common.datatransfer.InstructorAttributes;
@@ -225,6 +226,34 @@ public class FeedbackResponseCommentsDb extends EntitiesDb {
         deleteFeedbackResponseCommentsForCourses(courseIds);
     }
     
+    /**
+     * Deletes at most {@code maxEntities} of the response comments in the course, starting from {@code cursor}.
+     * If {@code createdUntil} is not null, only those created at or before it are deleted,
+     * otherwise they are deleted without being loaded.
+     * @return the cursor to continue the deletion from, or null if all the response comments in the course are deleted.
+     */
+    public String deleteFeedbackResponseCommentsForCourseInChunks(String courseId, String cursor, int maxEntities,
+                                                                  Date createdUntil) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        return deleteEntitiesInChunks(FeedbackResponseComment.class, cursor, maxEntities, createdUntil, "courseId", courseId);
+    }
+    
+    /**
+     * Deletes at most {@code maxEntities} of the response comments in the session, starting from {@code cursor}.
+     * If {@code createdUntil} is not null, only those created at or before it are deleted,
+     * otherwise they are deleted without being loaded.
+     * @return the cursor to continue the deletion from, or null if all the response comments in the session are deleted.
+     */
+    public String deleteFeedbackResponseCommentsForSessionInChunks(String feedbackSessionName, String courseId,
+                                                   String cursor, int maxEntities, Date createdUntil) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        return deleteEntitiesInChunks(FeedbackResponseComment.class, cursor, maxEntities, createdUntil,
+                                      "feedbackSessionName", feedbackSessionName, "courseId", courseId);
+    }
+    
     /*
      * Get response comments for the course Ids
      */
@@ -389,6 +418,39 @@ public class FeedbackResponseCommentsDb extends EntitiesDb {
         getPm().close();
     }
     
+    /*
+     * Updates the sections of the comments on the given responses of a session to the sections of the responses
+     */
+    public void updateSectionsOfFeedbackResponseComments(String courseId, String feedbackSessionName,
+                                                         Collection<FeedbackResponseAttributes> responses) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, responses);
+        
+        if (responses.isEmpty()) {
+            return;
+        }
+        
+        Map<String, FeedbackResponseAttributes> responsesById = new HashMap<String, FeedbackResponseAttributes>();
+        for (FeedbackResponseAttributes response : responses) {
+            responsesById.put(response.getId(), response);
+        }
+        
+        List<FeedbackResponseComment> responseComments =
+                getFeedbackResponseCommentEntitiesForSession(courseId, feedbackSessionName);
+        
+        for (FeedbackResponseComment responseComment : responseComments) {
+            FeedbackResponseAttributes response = responsesById.get(responseComment.getFeedbackResponseId());
+            if (response != null) {
+                responseComment.setGiverSection(response.giverSection);
+                responseComment.setReceiverSection(response.recipientSection);
+            }
+        }
+        
+        log.info(Const.SystemParams.COURSE_BACKUP_LOG_MSG + courseId);
+        getPm().close();
+    }
+    
     /*
      * Get response comments for a sending state (SENT|SENDING|PENDING)
      */
@@ -435,6 +497,14 @@ public class FeedbackResponseCommentsDb extends EntitiesDb {
         putDocument(Const.SearchIndex.FEEDBACK_RESPONSE_COMMENT, new FeedbackResponseCommentSearchDocument(comment));
     }
     
+    /*
+     * Create or update search documents for the given comments, reading the data shared by them only once
+     */
+    public void putDocuments(List<FeedbackResponseCommentAttributes> comments) {
+        putDocuments(Const.SearchIndex.FEEDBACK_RESPONSE_COMMENT,
+                     FeedbackResponseCommentSearchDocument.fromComments(comments));
+    }
+    
     /**
      * Search for response comments
      * @return {@link FeedbackResponseCommentSearchResultBundle}
@@ -2,23 +2,50 @@ package teammates.storage.api;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.jdo.JDOHelper;
 import javax.jdo.Query;
 
+import org.datanucleus.store.appengine.query.JDOCursorHelper;
+
 import teammates.common.datatransfer.EntityAttributes;
 import teammates.common.datatransfer.FeedbackResponseAttributes;
+import teammates.common.datatransfer.ResponsePage;
+import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Assumption;
+import teammates.common.util.Config;
 import teammates.common.util.Const;
 import teammates.storage.entity.FeedbackResponse;
 
+import com.google.appengine.api.datastore.Cursor;
+
 public class FeedbackResponsesDb extends EntitiesDb {
 
+    // whether the responses in a section are found through the sections stored in them
+    private final boolean isQueryingBySections;
+
+    public FeedbackResponsesDb() {
+        this(Config.IS_RESPONSE_SECTIONS_STORED);
+    }
+
+    /**
+     * @param isQueryingBySections whether the responses in a section are found through the sections
+     *                   stored in them, which misses responses stored before the sections were kept
+     *                   until DataMigrationForSectionsInResponses has run.
+     */
+    public FeedbackResponsesDb(boolean isQueryingBySections) {
+        this.isQueryingBySections = isQueryingBySections;
+    }
+
     public void createFeedbackResponses(Collection<FeedbackResponseAttributes> responsesToAdd)
             throws InvalidParametersException {
         List<EntityAttributes> responsesToUpdate = createEntities(responsesToAdd);
@@ -47,6 +74,35 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return new FeedbackResponseAttributes(feedbackResponse);
     }
 
+    /**
+     * Gets the responses with {@code feedbackResponseIds} with one batch read.
+     * Preconditions: <br>
+     * * All parameters are non-null.
+     * @return the responses found, in no particular order. Ids of responses that do not exist are ignored.
+     */
+    public List<FeedbackResponseAttributes> getFeedbackResponses(Collection<String> feedbackResponseIds) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackResponseIds);
+        
+        List<FeedbackResponseAttributes> responses = new ArrayList<FeedbackResponseAttributes>();
+        if (feedbackResponseIds.isEmpty()) {
+            return responses;
+        }
+        
+        // a filter on the primary key with contains() is carried out as a batch get by key
+        Query q = getPm().newQuery(FeedbackResponse.class);
+        q.setFilter(":p.contains(feedbackResponseId)");
+        
+        @SuppressWarnings("unchecked")
+        List<FeedbackResponse> feedbackResponses =
+                (List<FeedbackResponse>) q.execute(new ArrayList<String>(feedbackResponseIds));
+        for (FeedbackResponse feedbackResponse : feedbackResponses) {
+            if (feedbackResponse != null && !JDOHelper.isDeleted(feedbackResponse)) {
+                responses.add(new FeedbackResponseAttributes(feedbackResponse));
+            }
+        }
+        return responses;
+    }
+    
     /**
      * Preconditions: <br>
      * * All parameters are non-null.
@@ -237,6 +293,106 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return fraList;
     }
 
+    /**
+     * Gets a page of at most {@code pageSize} responses of the session, starting from {@code cursor}.
+     * The responses of the session can be read page by page by passing the cursor of each page
+     * to get the next one, as long as the page {@link ResponsePage#hasMore has more}.<br>
+     * Preconditions: <br>
+     * * All parameters except {@code cursor} are non-null. <br>
+     * * {@code cursor} is null to get the first page, or the cursor of the previous page.
+     */
+    public ResponsePage getFeedbackResponsesForSessionInPage(
+            String feedbackSessionName, String courseId, String cursor, int pageSize) {
+        
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        Query q = getPm().newQuery(FeedbackResponse.class);
+        q.declareParameters("String feedbackSessionNameParam, String courseIdParam");
+        q.setFilter("feedbackSessionName == feedbackSessionNameParam && courseId == courseIdParam");
+        
+        return getFeedbackResponsesInPage(q, cursor, pageSize, feedbackSessionName, courseId);
+    }
+    
+    /**
+     * Gets a page of the responses given by or to the section in the session.
+     * Until the sections of all responses are stored, the page is taken from the responses of the session,
+     * so it may have fewer than {@code pageSize} responses even if more follow.
+     * Preconditions: <br>
+     * * {@code feedbackSessionName}, {@code courseId} and {@code section} are non-null. <br>
+     * * {@code cursor} is null to get the first page, or the cursor of the previous page.
+     */
+    public ResponsePage getFeedbackResponsesForSessionInSectionInPage(
+            String feedbackSessionName, String courseId, String section, String cursor, int pageSize) {
+        
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, section);
+        
+        if (!isQueryingBySections) {
+            ResponsePage sessionPage =
+                    getFeedbackResponsesForSessionInPage(feedbackSessionName, courseId, cursor, pageSize);
+            List<FeedbackResponseAttributes> responsesInSection = new ArrayList<FeedbackResponseAttributes>();
+            for (FeedbackResponseAttributes response : sessionPage.results) {
+                if (section.equals(response.giverSection) || section.equals(response.recipientSection)) {
+                    responsesInSection.add(response);
+                }
+            }
+            return new ResponsePage(responsesInSection, sessionPage.cursor, sessionPage.hasMore);
+        }
+        
+        Query q = getPm().newQuery(FeedbackResponse.class);
+        q.declareParameters("String feedbackSessionNameParam, String courseIdParam, String sectionParam");
+        q.setFilter("feedbackSessionName == feedbackSessionNameParam "
+                    + "&& courseId == courseIdParam "
+                    + "&& sections == sectionParam");
+        
+        return getFeedbackResponsesInPage(q, cursor, pageSize, feedbackSessionName, courseId, section);
+    }
+    
+    /**
+     * Gets a page of the responses to the question.
+     * Preconditions: <br>
+     * * {@code feedbackQuestionId} is non-null. <br>
+     * * {@code cursor} is null to get the first page, or the cursor of the previous page.
+     */
+    public ResponsePage getFeedbackResponsesForQuestionInPage(
+            String feedbackQuestionId, String cursor, int pageSize) {
+        
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackQuestionId);
+        
+        Query q = getPm().newQuery(FeedbackResponse.class);
+        q.declareParameters("String feedbackQuestionIdParam");
+        q.setFilter("feedbackQuestionId == feedbackQuestionIdParam");
+        
+        return getFeedbackResponsesInPage(q, cursor, pageSize, feedbackQuestionId);
+    }
+    
+    private ResponsePage getFeedbackResponsesInPage(Query q, String cursor, int pageSize, Object... parameters) {
+        if (cursor != null) {
+            Map<String, Object> extensionMap = new HashMap<String, Object>();
+            extensionMap.put(JDOCursorHelper.CURSOR_EXTENSION, Cursor.fromWebSafeString(cursor));
+            q.setExtensions(extensionMap);
+        }
+        q.setRange(0, pageSize);
+        
+        @SuppressWarnings("unchecked")
+        List<FeedbackResponse> frList = (List<FeedbackResponse>) q.executeWithArray(parameters);
+        List<FeedbackResponseAttributes> fraList = new ArrayList<FeedbackResponseAttributes>();
+        
+        for (FeedbackResponse fr : frList) {
+            if (!JDOHelper.isDeleted(fr)) {
+                fraList.add(new FeedbackResponseAttributes(fr));
+            }
+        }
+        
+        // a full page may be followed by more responses, which is only known when the next page is read
+        boolean hasMore = frList.size() == pageSize;
+        String nextCursor = hasMore ? JDOCursorHelper.getCursor(frList).toWebSafeString() : null;
+        
+        return new ResponsePage(fraList, nextCursor, hasMore);
+    }
+
     /**
      * Preconditions: <br>
      * * All parameters are non-null.
@@ -647,7 +803,211 @@ public class FeedbackResponsesDb extends EntitiesDb {
             throws InvalidParametersException, EntityDoesNotExistException {
         updateFeedbackResponseOptimized(newAttributes, fr, false);
     }
-    
+
+    /**
+     * Creates or updates the responses in {@code responsesToSave} and deletes the responses in
+     * {@code responsesToDelete}, e.g. the responses to one question in a submission.<br>
+     * All the responses are validated before any of them is written. The existing responses are
+     * read with one batch get, and the responses are written with one batch put and one batch delete.<br>
+     * A response to save is matched to an existing response by its id, or by its question, giver and
+     * recipient if its id is null. An existing response is updated with the 'keep existing' policy of
+     * {@link #updateFeedbackResponse(FeedbackResponseAttributes)}, except that it is recreated
+     * if its giver or recipient is changed.<br>
+     * Preconditions: <br>
+     * * All parameters are non-null. <br>
+     * * The responses to delete have non-null ids.
+     * @return the ids of the recreated responses, mapped to their new ids, in the order they were recreated.
+     * @throws EntityDoesNotExistException if a response to save has an id that does not exist.
+     * @throws EntityAlreadyExistsException if a recreated response would have the id of another response.
+     */
+    public Map<String, String> saveFeedbackResponses(List<FeedbackResponseAttributes> responsesToSave,
+            List<FeedbackResponseAttributes> responsesToDelete)
+            throws InvalidParametersException, EntityDoesNotExistException, EntityAlreadyExistsException {
+
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, responsesToSave);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, responsesToDelete);
+
+        Set<String> idsToGet = new HashSet<String>();
+        for (FeedbackResponseAttributes response : responsesToDelete) {
+            Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, response.getId());
+            idsToGet.add(response.getId());
+        }
+        for (FeedbackResponseAttributes response : responsesToSave) {
+            Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, response);
+            if (response.getId() != null) {
+                idsToGet.add(response.getId());
+            }
+            if (response.giver != null && response.recipient != null) {
+                idsToGet.add(generateFeedbackResponseId(response));
+            }
+        }
+        Map<String, FeedbackResponse> existingEntities = getFeedbackResponseEntities(idsToGet);
+
+        Set<String> idsToDelete = new HashSet<String>();
+        for (FeedbackResponseAttributes response : responsesToDelete) {
+            if (existingEntities.containsKey(response.getId())) {
+                idsToDelete.add(response.getId());
+            }
+        }
+
+        // The final state of the saved responses, worked out and validated before anything is written
+        Map<String, FeedbackResponseAttributes> responsesToCreate =
+                new LinkedHashMap<String, FeedbackResponseAttributes>();
+        Map<String, FeedbackResponseAttributes> responsesToUpdate = new HashMap<String, FeedbackResponseAttributes>();
+        Map<String, String> recreatedResponseIds = new LinkedHashMap<String, String>();
+
+        for (FeedbackResponseAttributes response : responsesToSave) {
+            String id = response.getId() == null ? generateFeedbackResponseId(response) : response.getId();
+            FeedbackResponseAttributes currentResponse =
+                    getCurrentResponse(id, responsesToCreate, responsesToUpdate, existingEntities, idsToDelete);
+
+            if (currentResponse == null) {
+                if (response.getId() != null) {
+                    throw new EntityDoesNotExistException(ERROR_UPDATE_NON_EXISTENT + response.toString());
+                }
+                FeedbackResponseAttributes newResponse = new FeedbackResponseAttributes(response);
+                validateForSaving(newResponse);
+                responsesToCreate.put(id, newResponse);
+                continue;
+            }
+
+            FeedbackResponseAttributes updatedResponse = getUpdatedResponse(response, currentResponse);
+            validateForSaving(updatedResponse);
+
+            if (updatedResponse.giver.equals(currentResponse.giver)
+                    && updatedResponse.recipient.equals(currentResponse.recipient)) {
+                if (responsesToCreate.containsKey(id)) {
+                    responsesToCreate.put(id, updatedResponse);
+                } else {
+                    responsesToUpdate.put(id, updatedResponse);
+                }
+                continue;
+            }
+
+            // Recreate response to prevent possible future id conflict.
+            String newId = generateFeedbackResponseId(updatedResponse);
+            if (!idsToGet.contains(newId)) {
+                idsToGet.add(newId);
+                FeedbackResponse entity = getFeedbackResponseEntity(newId);
+                if (entity != null) {
+                    existingEntities.put(newId, entity);
+                }
+            }
+            if (getCurrentResponse(newId, responsesToCreate, responsesToUpdate, existingEntities, idsToDelete) != null) {
+                String error = String.format(ERROR_CREATE_ENTITY_ALREADY_EXISTS, updatedResponse.getEntityTypeAsString())
+                             + updatedResponse.getIdentificationString();
+                log.warning("Trying to update an existing response to one that already exists.");
+                throw new EntityAlreadyExistsException(error, existingEntities.get(newId));
+            }
+
+            responsesToCreate.remove(id);
+            responsesToUpdate.remove(id);
+            if (existingEntities.containsKey(id)) {
+                idsToDelete.add(id);
+            }
+            updatedResponse.setId(null);
+            responsesToCreate.put(newId, updatedResponse);
+            recreatedResponseIds.put(id, newId);
+        }
+
+        List<FeedbackResponse> entitiesToDelete = new ArrayList<FeedbackResponse>();
+        for (String id : idsToDelete) {
+            FeedbackResponse entity = existingEntities.get(id);
+            entitiesToDelete.add(entity);
+            log.info(new FeedbackResponseAttributes(entity).getBackupIdentifier());
+        }
+        getPm().deletePersistentAll(entitiesToDelete);
+        getPm().flush();
+
+        List<FeedbackResponse> entitiesToSave = new ArrayList<FeedbackResponse>();
+        for (Map.Entry<String, FeedbackResponseAttributes> entry : responsesToUpdate.entrySet()) {
+            FeedbackResponseAttributes updatedResponse = entry.getValue();
+            FeedbackResponse entity = existingEntities.get(entry.getKey());
+            entity.keepUpdateTimestamp = false;
+            entity.setAnswer(updatedResponse.responseMetaData);
+            entity.setRecipientEmail(updatedResponse.recipient);
+            entity.setGiverSection(updatedResponse.giverSection);
+            entity.setRecipientSection(updatedResponse.recipientSection);
+            entitiesToSave.add(entity);
+            log.info(updatedResponse.getBackupIdentifier());
+        }
+        for (FeedbackResponseAttributes newResponse : responsesToCreate.values()) {
+            entitiesToSave.add(newResponse.toEntity());
+            log.info(newResponse.getBackupIdentifier());
+        }
+        getPm().makePersistentAll(entitiesToSave);
+        getPm().close();
+
+        return recreatedResponseIds;
+    }
+
+    /**
+     * Returns the response with the given id as it is after the changes worked out so far
+     * in {@link #saveFeedbackResponses(List, List)}, or null if there is no such response.
+     */
+    private FeedbackResponseAttributes getCurrentResponse(String id,
+            Map<String, FeedbackResponseAttributes> responsesToCreate,
+            Map<String, FeedbackResponseAttributes> responsesToUpdate,
+            Map<String, FeedbackResponse> existingEntities, Set<String> idsToDelete) {
+        if (responsesToCreate.containsKey(id)) {
+            return responsesToCreate.get(id);
+        }
+        if (responsesToUpdate.containsKey(id)) {
+            return responsesToUpdate.get(id);
+        }
+        if (existingEntities.containsKey(id) && !idsToDelete.contains(id)) {
+            return new FeedbackResponseAttributes(existingEntities.get(id));
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of {@code response} with the values that cannot be changed taken from
+     * {@code currentResponse}, and with the values that are null kept as they are in {@code currentResponse}.
+     */
+    private FeedbackResponseAttributes getUpdatedResponse(FeedbackResponseAttributes response,
+            FeedbackResponseAttributes currentResponse) {
+        FeedbackResponseAttributes updatedResponse = new FeedbackResponseAttributes(response);
+
+        updatedResponse.setId(currentResponse.getId());
+        updatedResponse.courseId = currentResponse.courseId;
+        updatedResponse.feedbackSessionName = currentResponse.feedbackSessionName;
+        updatedResponse.feedbackQuestionId = currentResponse.feedbackQuestionId;
+        updatedResponse.feedbackQuestionType = currentResponse.feedbackQuestionType;
+
+        if (updatedResponse.responseMetaData == null) {
+            updatedResponse.responseMetaData = currentResponse.responseMetaData;
+        }
+        if (updatedResponse.giver == null) {
+            updatedResponse.giver = currentResponse.giver;
+        }
+        if (updatedResponse.recipient == null) {
+            updatedResponse.recipient = currentResponse.recipient;
+        }
+        if (updatedResponse.giverSection == null) {
+            updatedResponse.giverSection = currentResponse.giverSection;
+        }
+        if (updatedResponse.recipientSection == null) {
+            updatedResponse.recipientSection = currentResponse.recipientSection;
+        }
+        return updatedResponse;
+    }
+
+    private void validateForSaving(FeedbackResponseAttributes response) throws InvalidParametersException {
+        response.sanitizeForSaving();
+        if (!response.isValid()) {
+            throw new InvalidParametersException(response.getInvalidityInfo());
+        }
+    }
+
+    /**
+     * Returns the id that a response with the given question, giver and recipient is stored with,
+     * in the same format as {@link FeedbackResponse}.
+     */
+    private static String generateFeedbackResponseId(FeedbackResponseAttributes response) {
+        return response.feedbackQuestionId + "%" + response.giver + "%" + response.recipient;
+    }
+
     public void deleteFeedbackResponsesForCourse(String courseId) {
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
         
@@ -666,6 +1026,34 @@ public class FeedbackResponsesDb extends EntitiesDb {
         getPm().flush();
     }
     
+    /**
+     * Deletes at most {@code maxEntities} of the responses in the course, starting from {@code cursor}.
+     * If {@code createdUntil} is not null, only those created at or before it are deleted,
+     * otherwise they are deleted without being loaded.
+     * @return the cursor to continue the deletion from, or null if all the responses in the course are deleted.
+     */
+    public String deleteFeedbackResponsesForCourseInChunks(String courseId, String cursor, int maxEntities,
+                                                           Date createdUntil) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        return deleteEntitiesInChunks(FeedbackResponse.class, cursor, maxEntities, createdUntil, "courseId", courseId);
+    }
+    
+    /**
+     * Deletes at most {@code maxEntities} of the responses in the session, starting from {@code cursor}.
+     * If {@code createdUntil} is not null, only those created at or before it are deleted,
+     * otherwise they are deleted without being loaded.
+     * @return the cursor to continue the deletion from, or null if all the responses in the session are deleted.
+     */
+    public String deleteFeedbackResponsesForSessionInChunks(String feedbackSessionName, String courseId,
+                                                   String cursor, int maxEntities, Date createdUntil) {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSessionName);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        
+        return deleteEntitiesInChunks(FeedbackResponse.class, cursor, maxEntities, createdUntil,
+                                      "feedbackSessionName", feedbackSessionName, "courseId", courseId);
+    }
+    
     @SuppressWarnings("unchecked")
     public List<FeedbackResponse> getFeedbackResponseEntitiesForCourses(List<String> courseIds) {
         Query q = getPm().newQuery(FeedbackResponse.class);
@@ -715,6 +1103,30 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return (List<FeedbackResponse>) q.execute(courseId);
     }
     
+    /**
+     * Gets the responses with the given ids with one batch get, mapped by their ids.
+     */
+    private Map<String, FeedbackResponse> getFeedbackResponseEntities(Collection<String> feedbackResponseIds) {
+        Map<String, FeedbackResponse> feedbackResponses = new HashMap<String, FeedbackResponse>();
+        if (feedbackResponseIds.isEmpty()) {
+            return feedbackResponses;
+        }
+
+        Query q = getPm().newQuery(FeedbackResponse.class);
+        q.setFilter(":p.contains(feedbackResponseId)");
+
+        @SuppressWarnings("unchecked")
+        List<FeedbackResponse> feedbackResponseList =
+                (List<FeedbackResponse>) q.execute(new ArrayList<String>(feedbackResponseIds));
+
+        for (FeedbackResponse feedbackResponse : feedbackResponseList) {
+            if (!JDOHelper.isDeleted(feedbackResponse)) {
+                feedbackResponses.put(feedbackResponse.getId(), feedbackResponse);
+            }
+        }
+        return feedbackResponses;
+    }
+
     private FeedbackResponse getFeedbackResponseEntity(String feedbackResponseId) {
         Query q = getPm().newQuery(FeedbackResponse.class);
         q.declareParameters("String feedbackResponseIdParam");
@@ -836,39 +1248,12 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return feedbackResponses;
     }
  
-    private Collection<FeedbackResponse> getFeedbackResponseEntitiesForSessionInSection(
+    private List<FeedbackResponse> getFeedbackResponseEntitiesForSessionInSection(
             String feedbackSessionName, String courseId, String section) {
-
-        Map<String, FeedbackResponse> feedbackResponses = new HashMap<String, FeedbackResponse>();
-
-        Query q = getPm().newQuery(FeedbackResponse.class);
-        q.declareParameters("String feedbackSessionNameParam, String courseIdParam, String sectionParam");
-        q.setFilter("feedbackSessionName == feedbackSessionNameParam "
-                    + "&& courseId == courseIdParam "
-                    + "&& giverSection == sectionParam");
         
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> firstQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackSessionName, courseId, section);
-        for (FeedbackResponse response : firstQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
-        }
-        
-        q.setFilter("feedbackSessionName == feedbackSessionNameParam "
-                    + "&& courseId == courseIdParam "
-                    + "&& receiverSection == sectionParam");
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> secondQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackSessionName, courseId, section);
-        for (FeedbackResponse response : secondQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
-        }
-        
-        return feedbackResponses.values();
+        return getFeedbackResponseEntitiesInSection("String feedbackSessionNameParam, String courseIdParam, String sectionParam",
+                "feedbackSessionName == feedbackSessionNameParam && courseId == courseIdParam",
+                0, feedbackSessionName, courseId, section);
     }
 
     private List<FeedbackResponse> getFeedbackResponseEntitiesForSessionFromSection(
@@ -903,41 +1288,12 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return queryResponses;
     }
     
-    private Collection<FeedbackResponse> getFeedbackResponseEntitiesForSessionInSectionWithinRange(
+    private List<FeedbackResponse> getFeedbackResponseEntitiesForSessionInSectionWithinRange(
             String feedbackSessionName, String courseId, String section, long range) {
-
-        Map<String, FeedbackResponse> feedbackResponses = new HashMap<String, FeedbackResponse>();
-
-        Query q = getPm().newQuery(FeedbackResponse.class);
-        q.declareParameters("String feedbackSessionNameParam, String courseIdParam, String sectionParam");
-        q.setFilter("feedbackSessionName == feedbackSessionNameParam "
-                    + "&& courseId == courseIdParam "
-                    + "&& giverSection == sectionParam");
-        q.setRange(0, range + 1);
-        
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> firstQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackSessionName, courseId, section);
-        for (FeedbackResponse response : firstQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
-        }
         
-        q.setFilter("feedbackSessionName == feedbackSessionNameParam "
-                    + "&& courseId == courseIdParam "
-                    + "&& receiverSection == sectionParam");
-        q.setRange(0, range + 1);
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> secondQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackSessionName, courseId, section);
-        for (FeedbackResponse response : secondQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
-        }
-        
-        return feedbackResponses.values();
+        return getFeedbackResponseEntitiesInSection("String feedbackSessionNameParam, String courseIdParam, String sectionParam",
+                "feedbackSessionName == feedbackSessionNameParam && courseId == courseIdParam",
+                range + 1, feedbackSessionName, courseId, section);
     }
 
     private List<FeedbackResponse> getFeedbackResponseEntitiesForSessionFromSectionWithinRange(
@@ -988,37 +1344,12 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return feedbackResponses;
     }
 
-    private Collection<FeedbackResponse> getFeedbackResponseEntitiesForReceiverForQuestionInSection(
+    private List<FeedbackResponse> getFeedbackResponseEntitiesForReceiverForQuestionInSection(
             String feedbackQuestionId, String receiver, String section) {
         
-        Map<String, FeedbackResponse> feedbackResponses = new HashMap<String, FeedbackResponse>();
-        
-        Query q = getPm().newQuery(FeedbackResponse.class);
-        q.declareParameters("String feedbackQuestionIdParam, String receiverParam, String sectionParam");
-        q.setFilter("feedbackQuestionId == feedbackQuestionIdParam && receiver == receiverParam "
-                    + "&& giverSection == sectionParam");
-    
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> firstQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackQuestionId, receiver, section);
-        for (FeedbackResponse response : firstQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
-        }
-        
-        q.setFilter("feedbackQuestionId == feedbackQuestionIdParam && receiver == receiverParam "
-                + "&& receiverSection == sectionParam");
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> secondQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackQuestionId, receiver, section);
-        for (FeedbackResponse response : secondQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
-        }
-        
-        return feedbackResponses.values();
+        return getFeedbackResponseEntitiesInSection("String feedbackQuestionIdParam, String receiverParam, String sectionParam",
+                "feedbackQuestionId == feedbackQuestionIdParam && receiver == receiverParam",
+                0, feedbackQuestionId, receiver, section);
     }
     
     private List<FeedbackResponse> getFeedbackResponseEntitiesFromGiverForQuestion(
@@ -1035,37 +1366,48 @@ public class FeedbackResponsesDb extends EntitiesDb {
         return feedbackResponses;
     }
 
-    private Collection<FeedbackResponse> getFeedbackResponseEntitiesFromGiverForQuestionInSection(
+    private List<FeedbackResponse> getFeedbackResponseEntitiesFromGiverForQuestionInSection(
             String feedbackQuestionId, String giverEmail, String section) {
         
-        Map<String, FeedbackResponse> feedbackResponses = new HashMap<String, FeedbackResponse>();
+        return getFeedbackResponseEntitiesInSection("String feedbackQuestionIdParam, String giverEmailParam, String sectionParam",
+                "feedbackQuestionId == feedbackQuestionIdParam && giverEmail == giverEmailParam",
+                0, feedbackQuestionId, giverEmail, section);
+    }
+    
+    /**
+     * Gets the responses matching {@code filter} that are given by or to the section,
+     * which is the last of the {@code parameters} and named sectionParam. <br>
+     * The responses are found through their sections once those of all responses are stored.
+     * Until then, the responses given by
+     * and to the section are found with separate queries, so that those stored without their sections
+     * are not missed.
+     * @param range the maximum number of responses from each query, or 0 for no limit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<FeedbackResponse> getFeedbackResponseEntitiesInSection(
+            String parameters, String filter, long range, Object... parameterValues) {
         
         Query q = getPm().newQuery(FeedbackResponse.class);
-        q.declareParameters("String feedbackQuestionIdParam, String giverEmailParam, String sectionParam");
-        q.setFilter("feedbackQuestionId == feedbackQuestionIdParam && giverEmail == giverEmailParam "
-                    + "&& giverSection == sectionParam");
-    
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> firstQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackQuestionId, giverEmail, section);
-        for (FeedbackResponse response : firstQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
+        q.declareParameters(parameters);
+        if (range > 0) {
+            q.setRange(0, range);
         }
         
-        q.setFilter("feedbackQuestionId == feedbackQuestionIdParam && giverEmail == giverEmailParam "
-                + "&& receiverSection == sectionParam");
-        @SuppressWarnings("unchecked")
-        List<FeedbackResponse> secondQueryResponses =
-                (List<FeedbackResponse>) q.execute(feedbackQuestionId, giverEmail, section);
-        for (FeedbackResponse response : secondQueryResponses) {
-            if (!JDOHelper.isDeleted(response)) {
-                feedbackResponses.put(response.getId(), response);
-            }
+        if (isQueryingBySections) {
+            q.setFilter(filter + " && sections == sectionParam");
+            return (List<FeedbackResponse>) q.executeWithArray(parameterValues);
         }
         
-        return feedbackResponses.values();
+        Map<String, FeedbackResponse> feedbackResponses = new LinkedHashMap<String, FeedbackResponse>();
+        for (String sectionFilter : new String[] {"giverSection == sectionParam", "receiverSection == sectionParam"}) {
+            q.setFilter(filter + " && " + sectionFilter);
+            for (FeedbackResponse response : (List<FeedbackResponse>) q.executeWithArray(parameterValues)) {
+                if (!JDOHelper.isDeleted(response)) {
+                    feedbackResponses.put(response.getId(), response);
+                }
+            }
+        }
+        return new ArrayList<FeedbackResponse>(feedbackResponses.values());
     }
     
     private List<FeedbackResponse> getFeedbackResponseEntitiesFromGiverForSessionWithinRange(
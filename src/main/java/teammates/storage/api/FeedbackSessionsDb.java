@@ -1,29 +1,108 @@
 package teammates.storage.api;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import javax.jdo.JDOException;
 import javax.jdo.JDOHelper;
+import javax.jdo.JDOObjectNotFoundException;
+import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
+import javax.jdo.Transaction;
 
 import teammates.common.datatransfer.EntityAttributes;
 import teammates.common.datatransfer.FeedbackSessionAttributes;
 import teammates.common.datatransfer.FeedbackSessionType;
+import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Assumption;
+import teammates.common.util.Config;
 import teammates.common.util.Const;
 import teammates.common.util.TimeHelper;
+import teammates.storage.datastore.Datastore;
 import teammates.storage.entity.FeedbackSession;
+import teammates.storage.entity.FeedbackSessionRespondentShard;
+import teammates.storage.entity.FeedbackSessionScheduleEntry;
+
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
 
 public class FeedbackSessionsDb extends EntitiesDb {
     
     public static final String ERROR_UPDATE_NON_EXISTENT = "Trying to update non-existent Feedback Session : ";
+    
+    /** The number of shards that the respondents of each session are spread over. */
+    private static final int NUMBER_OF_RESPONDENT_SHARDS = 10;
+    
+    /** The number of times a change to a respondent shard is tried when other changes to the shard conflict. */
+    private static final int MAX_RESPONDENT_SHARD_UPDATE_ATTEMPTS = 5;
+    
+    private static final long MILLISECONDS_PER_HOUR = 60 * 60 * 1000;
+    private static final long MILLISECONDS_PER_MINUTE = 60 * 1000;
+    
+    /**
+     * Sessions which opened up to this many hours ago may still need their open emails to be sent.
+     * This is two days in the time zone of the session, with a day added as the times of a session
+     * are kept in its own time zone, which may be up to a day from UTC.
+     */
+    private static final int HOURS_TO_LOOK_BACK_FOR_UNSENT_OPEN_EMAILS = 3 * 24;
+    
+    // whether the sessions needing automated emails are found through their schedule entries
+    private final boolean isQueryingScheduleEntries;
+    
+    public FeedbackSessionsDb() {
+        this(Config.IS_SESSION_SCHEDULE_STORED);
+    }
+    
+    /**
+     * @param isQueryingScheduleEntries whether the sessions needing automated emails are found through
+     *                   their schedule entries, which misses sessions stored before the entries were kept
+     *                   until DataMigrationForFeedbackSessionScheduleEntries has run.
+     */
+    public FeedbackSessionsDb(boolean isQueryingScheduleEntries) {
+        this.isQueryingScheduleEntries = isQueryingScheduleEntries;
+    }
+    
+    @Override
+    public Object createEntity(EntityAttributes entityToAdd)
+            throws InvalidParametersException, EntityAlreadyExistsException {
+        Object createdEntity = super.createEntity(entityToAdd);
+        putScheduleEntries((FeedbackSessionAttributes) entityToAdd);
+        return createdEntity;
+    }
+    
+    @Override
+    public List<EntityAttributes> createEntities(Collection<? extends EntityAttributes> entitiesToAdd)
+            throws InvalidParametersException {
+        List<EntityAttributes> entitiesToUpdate = super.createEntities(entitiesToAdd);
+        for (EntityAttributes entity : entitiesToAdd) {
+            // sessions which already exist get their entries when they are updated instead
+            if (!entitiesToUpdate.contains(entity)) {
+                putScheduleEntries((FeedbackSessionAttributes) entity);
+            }
+        }
+        return entitiesToUpdate;
+    }
+    
+    @Override
+    public Object createEntityWithoutExistenceCheck(EntityAttributes entityToAdd)
+            throws InvalidParametersException {
+        Object createdEntity = super.createEntityWithoutExistenceCheck(entityToAdd);
+        putScheduleEntries((FeedbackSessionAttributes) entityToAdd);
+        return createdEntity;
+    }
 
     public void createFeedbackSessions(Collection<FeedbackSessionAttributes> feedbackSessionsToAdd)
             throws InvalidParametersException {
@@ -67,15 +146,11 @@ public class FeedbackSessionsDb extends EntitiesDb {
         @SuppressWarnings("unchecked")
         List<FeedbackSession> startEntities = (List<FeedbackSession>) startTimequery.execute(curStart, curEnd);
         
-        List<FeedbackSession> endTimeEntities = new ArrayList<FeedbackSession>(endEntities);
-        List<FeedbackSession> startTimeEntities = new ArrayList<FeedbackSession>(startEntities);
+        // sessions which both start and end within the range are returned by both queries
+        Set<FeedbackSession> entities = new LinkedHashSet<FeedbackSession>(endEntities);
+        entities.addAll(startEntities);
         
-        endTimeEntities.removeAll(startTimeEntities);
-        startTimeEntities.removeAll(endTimeEntities);
-        endTimeEntities.addAll(startTimeEntities);
-                    
-        
-        Iterator<FeedbackSession> it = endTimeEntities.iterator();
+        Iterator<FeedbackSession> it = entities.iterator();
 
         while (it.hasNext()) {
             FeedbackSession feedbackSession = it.next();
@@ -108,7 +183,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
             }
         }
              
-        return list;
+        return addRespondentsFromShards(list);
     }
 
     
@@ -128,7 +203,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
             log.info("Trying to get non-existent Session: " + feedbackSessionName + "/" + courseId);
             return null;
         }
-        return new FeedbackSessionAttributes(fs);
+        return addRespondentsFromShards(new FeedbackSessionAttributes(fs));
         
     }
     
@@ -146,7 +221,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 fsaList.add(new FeedbackSessionAttributes(fs));
             }
         }
-        return fsaList;
+        return addRespondentsFromShards(fsaList);
     }
     
     /**
@@ -166,7 +241,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 fsaList.add(new FeedbackSessionAttributes(fs));
             }
         }
-        return fsaList;
+        return addRespondentsFromShards(fsaList);
     }
         
     /**
@@ -182,7 +257,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 fsaList.add(new FeedbackSessionAttributes(fs));
             }
         }
-        return fsaList;
+        return addRespondentsFromShards(fsaList);
     }
     
     /**
@@ -198,7 +273,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 fsaList.add(new FeedbackSessionAttributes(fs));
             }
         }
-        return fsaList;
+        return addRespondentsFromShards(fsaList);
     }
     
     /**
@@ -214,7 +289,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 fsaList.add(new FeedbackSessionAttributes(fs));
             }
         }
-        return fsaList;
+        return addRespondentsFromShards(fsaList);
     }
     
     /**
@@ -230,7 +305,7 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 fsaList.add(new FeedbackSessionAttributes(fs));
             }
         }
-        return fsaList;
+        return addRespondentsFromShards(fsaList);
     }
     
     /**
@@ -279,6 +354,8 @@ public class FeedbackSessionsDb extends EntitiesDb {
                 
         log.info(newAttributes.getBackupIdentifier());
         getPm().close();
+        
+        putScheduleEntries(newAttributes);
     }
 
     public void addInstructorRespondent(String email, FeedbackSessionAttributes feedbackSession)
@@ -291,168 +368,231 @@ public class FeedbackSessionsDb extends EntitiesDb {
 
     public void addInstructorRespondents(List<String> emails, FeedbackSessionAttributes feedbackSession)
             throws InvalidParametersException, EntityDoesNotExistException {
+        addRespondents(emails, feedbackSession, true);
+    }
 
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, emails);
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
+    public void updateInstructorRespondent(String oldEmail, String newEmail, FeedbackSessionAttributes feedbackSession)
+            throws InvalidParametersException, EntityDoesNotExistException {
+        updateRespondent(oldEmail, newEmail, feedbackSession, true);
+    }
 
-        feedbackSession.sanitizeForSaving();
+    public void clearInstructorRespondents(FeedbackSessionAttributes feedbackSession)
+            throws InvalidParametersException, EntityDoesNotExistException {
+        clearRespondents(feedbackSession, true);
+    }
 
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
-        }
+    public void addStudentRespondent(String email, FeedbackSessionAttributes feedbackSession)
+            throws EntityDoesNotExistException, InvalidParametersException {
 
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
-        }
+        List<String> emails = new ArrayList<String>();
+        emails.add(email);
+        addStudentRespondents(emails, feedbackSession);
+    }
 
-        fs.getRespondingInstructorList().addAll(emails);
-        
-        log.info(feedbackSession.getBackupIdentifier());
-        getPm().close();
+    public void deleteInstructorRespondent(String email, FeedbackSessionAttributes feedbackSession)
+            throws InvalidParametersException, EntityDoesNotExistException {
+        deleteRespondent(email, feedbackSession, true);
     }
 
-    public void updateInstructorRespondent(String oldEmail, String newEmail, FeedbackSessionAttributes feedbackSession)
+    public void addStudentRespondents(List<String> emails, FeedbackSessionAttributes feedbackSession)
             throws InvalidParametersException, EntityDoesNotExistException {
+        addRespondents(emails, feedbackSession, false);
+    }
 
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, oldEmail);
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, newEmail);
+    public void updateStudentRespondent(String oldEmail, String newEmail, FeedbackSessionAttributes feedbackSession)
+            throws InvalidParametersException, EntityDoesNotExistException {
+        updateRespondent(oldEmail, newEmail, feedbackSession, false);
+    }
+
+    public void clearStudentRespondents(FeedbackSessionAttributes feedbackSession)
+            throws InvalidParametersException, EntityDoesNotExistException {
+        clearRespondents(feedbackSession, false);
+    }
+
+    public void deleteStudentRespondent(String email, FeedbackSessionAttributes feedbackSession)
+            throws EntityDoesNotExistException, InvalidParametersException {
+        deleteRespondent(email, feedbackSession, false);
+    }
+    
+    /*
+     * Respondents are recorded in the respondent shards of the session, and only removed from the lists
+     * in the session entity, which hold the respondents recorded before the shards were introduced.
+     * Each shard is changed in a transaction of its own, so that respondents recorded at the same time
+     * are not lost.
+     */
+    
+    private void addRespondents(List<String> emails, FeedbackSessionAttributes feedbackSession, boolean isInstructor)
+            throws InvalidParametersException, EntityDoesNotExistException {
+
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, emails);
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
 
-        feedbackSession.sanitizeForSaving();
+        getFeedbackSessionEntityToUpdate(feedbackSession);
 
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
+        Map<Integer, List<String>> emailsByShard = new HashMap<Integer, List<String>>();
+        for (String email : emails) {
+            int shardIndex = getRespondentShardIndex(email);
+            if (!emailsByShard.containsKey(shardIndex)) {
+                emailsByShard.put(shardIndex, new ArrayList<String>());
+            }
+            emailsByShard.get(shardIndex).add(email);
         }
-
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
+        for (Map.Entry<Integer, List<String>> shardEmails : emailsByShard.entrySet()) {
+            addRespondentsToShard(feedbackSession, shardEmails.getKey(), shardEmails.getValue(), isInstructor);
         }
 
-        if (fs.getRespondingInstructorList().contains(oldEmail)) {
-            fs.getRespondingInstructorList().remove(oldEmail);
-            fs.getRespondingInstructorList().add(newEmail);
-        }
-       
         log.info(feedbackSession.getBackupIdentifier());
         getPm().close();
     }
 
-    public void clearInstructorRespondents(FeedbackSessionAttributes feedbackSession)
+    private void updateRespondent(String oldEmail, String newEmail, FeedbackSessionAttributes feedbackSession,
+                                  boolean isInstructor)
             throws InvalidParametersException, EntityDoesNotExistException {
 
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, oldEmail);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, newEmail);
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
 
-        feedbackSession.sanitizeForSaving();
+        FeedbackSession fs = getFeedbackSessionEntityToUpdate(feedbackSession);
 
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
+        boolean isRespondent = false;
+        if (getRespondents(fs, isInstructor).contains(oldEmail)) {
+            getRespondents(fs, isInstructor).remove(oldEmail);
+            isRespondent = true;
         }
-
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
+        if (removeRespondentsFromShard(feedbackSession, getRespondentShardIndex(oldEmail),
+                                       Arrays.asList(oldEmail), isInstructor)) {
+            isRespondent = true;
+        }
+        if (isRespondent) {
+            addRespondentsToShard(feedbackSession, getRespondentShardIndex(newEmail), Arrays.asList(newEmail),
+                                  isInstructor);
         }
-
-        fs.getRespondingInstructorList().clear();
 
         log.info(feedbackSession.getBackupIdentifier());
         getPm().close();
     }
 
-    public void addStudentRespondent(String email, FeedbackSessionAttributes feedbackSession)
-            throws EntityDoesNotExistException, InvalidParametersException {
-
-        List<String> emails = new ArrayList<String>();
-        emails.add(email);
-        addStudentRespondents(emails, feedbackSession);
-    }
-
-    public void deleteInstructorRespondent(String email, FeedbackSessionAttributes feedbackSession)
+    private void clearRespondents(FeedbackSessionAttributes feedbackSession, boolean isInstructor)
             throws InvalidParametersException, EntityDoesNotExistException {
 
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, email);
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
 
-        feedbackSession.sanitizeForSaving();
-
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
+        FeedbackSession fs = getFeedbackSessionEntityToUpdate(feedbackSession);
+
+        getRespondents(fs, isInstructor).clear();
+        for (int shardIndex = 0; shardIndex < NUMBER_OF_RESPONDENT_SHARDS; shardIndex++) {
+            updateRespondentShard(feedbackSession, shardIndex, isInstructor, new RespondentsChange() {
+                @Override
+                public boolean applyTo(Set<String> respondents) {
+                    boolean isChanged = !respondents.isEmpty();
+                    respondents.clear();
+                    return isChanged;
+                }
+            });
         }
 
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
-        }
-
-        fs.getRespondingInstructorList().remove(email);
-
         log.info(feedbackSession.getBackupIdentifier());
         getPm().close();
     }
 
-    public void addStudentRespondents(List<String> emails, FeedbackSessionAttributes feedbackSession)
+    private void deleteRespondent(String email, FeedbackSessionAttributes feedbackSession, boolean isInstructor)
             throws InvalidParametersException, EntityDoesNotExistException {
 
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, emails);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, email);
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
 
-        feedbackSession.sanitizeForSaving();
+        FeedbackSession fs = getFeedbackSessionEntityToUpdate(feedbackSession);
 
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
+        if (getRespondents(fs, isInstructor).contains(email)) {
+            getRespondents(fs, isInstructor).remove(email);
         }
-
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
-        }
-
-        fs.getRespondingStudentList().addAll(emails);
+        removeRespondentsFromShard(feedbackSession, getRespondentShardIndex(email), Arrays.asList(email),
+                                   isInstructor);
 
         log.info(feedbackSession.getBackupIdentifier());
         getPm().close();
     }
 
-    public void updateStudentRespondent(String oldEmail, String newEmail, FeedbackSessionAttributes feedbackSession)
-            throws InvalidParametersException, EntityDoesNotExistException {
-
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, oldEmail);
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, newEmail);
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
-
-        feedbackSession.sanitizeForSaving();
+    private void addRespondentsToShard(FeedbackSessionAttributes feedbackSession, int shardIndex,
+                                       final List<String> emails, boolean isInstructor) {
+        updateRespondentShard(feedbackSession, shardIndex, isInstructor, new RespondentsChange() {
+            @Override
+            public boolean applyTo(Set<String> respondents) {
+                return respondents.addAll(emails);
+            }
+        });
+    }
 
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
-        }
+    private boolean removeRespondentsFromShard(FeedbackSessionAttributes feedbackSession, int shardIndex,
+                                               final List<String> emails, boolean isInstructor) {
+        return updateRespondentShard(feedbackSession, shardIndex, isInstructor, new RespondentsChange() {
+            @Override
+            public boolean applyTo(Set<String> respondents) {
+                return respondents.removeAll(emails);
+            }
+        });
+    }
 
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
-        }
+    /**
+     * A change to the respondents in a respondent shard.
+     */
+    private interface RespondentsChange {
+        /**
+         * Changes the {@code respondents}, returning true if they were changed.
+         */
+        boolean applyTo(Set<String> respondents);
+    }
 
-        if (fs.getRespondingStudentList().contains(oldEmail)) {
-            fs.getRespondingStudentList().remove(oldEmail);
-            fs.getRespondingStudentList().add(newEmail);
+    /**
+     * Reads the respondent shard, applies the {@code change} to it and saves it in a single transaction,
+     * retrying if the shard was changed by another request in the meantime.
+     * The shard is created if it does not exist yet and the change adds respondents to it.
+     * @return true if the respondents in the shard were changed.
+     */
+    private boolean updateRespondentShard(FeedbackSessionAttributes feedbackSession, int shardIndex,
+                                          boolean isInstructor, RespondentsChange change) {
+        Key key = getRespondentShardKey(feedbackSession.getFeedbackSessionName(), feedbackSession.getCourseId(),
+                                        shardIndex);
+        for (int attempt = 1;; attempt++) {
+            // a separate persistence manager is used, so that the changes pending in the one of the thread,
+            // e.g. to the session entity, are not made in the transaction
+            PersistenceManager pm = Datastore.newPersistenceManager();
+            Transaction tx = pm.currentTransaction();
+            try {
+                tx.begin();
+                FeedbackSessionRespondentShard shard;
+                boolean isNewShard = false;
+                try {
+                    shard = pm.getObjectById(FeedbackSessionRespondentShard.class, key);
+                } catch (JDOObjectNotFoundException e) {
+                    shard = new FeedbackSessionRespondentShard(feedbackSession.getFeedbackSessionName(),
+                                                               feedbackSession.getCourseId(), shardIndex);
+                    isNewShard = true;
+                }
+                boolean isChanged = change.applyTo(getRespondents(shard, isInstructor));
+                if (isChanged && isNewShard) {
+                    pm.makePersistent(shard);
+                }
+                tx.commit();
+                return isChanged;
+            } catch (JDOException e) {
+                if (attempt >= MAX_RESPONDENT_SHARD_UPDATE_ATTEMPTS || !isCausedByConcurrentModification(e)) {
+                    throw e;
+                }
+                log.info("Retrying the update of respondent shard " + key.getName() + " after a conflict");
+            } finally {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                pm.close();
+            }
         }
-        
-        log.info(feedbackSession.getBackupIdentifier());
-        getPm().close();
     }
 
-    public void clearStudentRespondents(FeedbackSessionAttributes feedbackSession)
+    private FeedbackSession getFeedbackSessionEntityToUpdate(FeedbackSessionAttributes feedbackSession)
             throws InvalidParametersException, EntityDoesNotExistException {
 
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
-
         feedbackSession.sanitizeForSaving();
 
         if (!feedbackSession.isValid()) {
@@ -464,35 +604,70 @@ public class FeedbackSessionsDb extends EntitiesDb {
             throw new EntityDoesNotExistException(
                     ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
         }
-
-        fs.getRespondingStudentList().clear();
-
-        log.info(feedbackSession.getBackupIdentifier());
-        getPm().close();
+        return fs;
     }
 
-    public void deleteStudentRespondent(String email, FeedbackSessionAttributes feedbackSession)
-            throws EntityDoesNotExistException, InvalidParametersException {
+    private static Set<String> getRespondents(FeedbackSession fs, boolean isInstructor) {
+        return isInstructor ? fs.getRespondingInstructorList() : fs.getRespondingStudentList();
+    }
 
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, email);
-        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, feedbackSession);
+    private static Set<String> getRespondents(FeedbackSessionRespondentShard shard, boolean isInstructor) {
+        return isInstructor ? shard.getRespondingInstructorList() : shard.getRespondingStudentList();
+    }
 
-        feedbackSession.sanitizeForSaving();
+    private static int getRespondentShardIndex(String email) {
+        return (email.hashCode() & Integer.MAX_VALUE) % NUMBER_OF_RESPONDENT_SHARDS;
+    }
 
-        if (!feedbackSession.isValid()) {
-            throw new InvalidParametersException(feedbackSession.getInvalidityInfo());
+    /**
+     * Returns the given sessions after adding the respondents recorded in their respondent shards.
+     */
+    private List<FeedbackSessionAttributes> addRespondentsFromShards(List<FeedbackSessionAttributes> sessions) {
+        Map<String, List<FeedbackSessionRespondentShard>> shardsBySession =
+                new HashMap<String, List<FeedbackSessionRespondentShard>>();
+        for (FeedbackSessionRespondentShard shard : getRespondentShardEntities(sessions)) {
+            String sessionKey = shard.getFeedbackSessionName() + "%" + shard.getCourseId();
+            if (!shardsBySession.containsKey(sessionKey)) {
+                shardsBySession.put(sessionKey, new ArrayList<FeedbackSessionRespondentShard>());
+            }
+            shardsBySession.get(sessionKey).add(shard);
         }
 
-        FeedbackSession fs = (FeedbackSession) getEntity(feedbackSession);
-        if (fs == null) {
-            throw new EntityDoesNotExistException(
-                    ERROR_UPDATE_NON_EXISTENT + feedbackSession.toString());
+        for (FeedbackSessionAttributes session : sessions) {
+            // the lists are copied so that the lists in the session entity are not modified
+            Set<String> instructors = new HashSet<String>(session.getRespondingInstructorList());
+            Set<String> students = new HashSet<String>(session.getRespondingStudentList());
+            String sessionKey = session.getFeedbackSessionName() + "%" + session.getCourseId();
+            if (shardsBySession.containsKey(sessionKey)) {
+                for (FeedbackSessionRespondentShard shard : shardsBySession.get(sessionKey)) {
+                    instructors.addAll(shard.getRespondingInstructorList());
+                    students.addAll(shard.getRespondingStudentList());
+                }
+            }
+            session.setRespondingInstructorList(instructors);
+            session.setRespondingStudentList(students);
         }
-        
-        fs.getRespondingStudentList().remove(email);
+        return sessions;
+    }
 
-        log.info(feedbackSession.getBackupIdentifier());
-        getPm().close();
+    private FeedbackSessionAttributes addRespondentsFromShards(FeedbackSessionAttributes session) {
+        List<FeedbackSessionAttributes> sessions = new ArrayList<FeedbackSessionAttributes>();
+        sessions.add(session);
+        addRespondentsFromShards(sessions);
+        return session;
+    }
+
+    /**
+     * Note: This is a non-cascade delete, except that the respondents of the session are deleted too.
+     */
+    @Override
+    public void deleteEntity(EntityAttributes entityToDelete) {
+        super.deleteEntity(entityToDelete);
+
+        FeedbackSessionAttributes session = (FeedbackSessionAttributes) entityToDelete;
+        getPm().deletePersistentAll(getRespondentShardEntities(Arrays.asList(session)));
+        getPm().deletePersistentAll(getScheduleEntryEntities(Arrays.asList(session)));
+        getPm().flush();
     }
     
     public void deleteFeedbackSessionsForCourse(String courseId) {
@@ -508,7 +683,13 @@ public class FeedbackSessionsDb extends EntitiesDb {
         
         List<FeedbackSession> feedbackSessionList = getFeedbackSessionEntitiesForCourses(courseIds);
         
+        List<FeedbackSessionAttributes> sessions = new ArrayList<FeedbackSessionAttributes>();
+        for (FeedbackSession fs : feedbackSessionList) {
+            sessions.add(new FeedbackSessionAttributes(fs));
+        }
+        getPm().deletePersistentAll(getRespondentShardEntities(sessions));
         getPm().deletePersistentAll(feedbackSessionList);
+        getPm().deletePersistentAll(getScheduleEntryEntities(sessions));
         getPm().flush();
     }
     
@@ -520,6 +701,39 @@ public class FeedbackSessionsDb extends EntitiesDb {
         return (List<FeedbackSession>) q.execute(courseIds);
     }
     
+    private static Key getRespondentShardKey(String feedbackSessionName, String courseId, int shardIndex) {
+        return KeyFactory.createKey(FeedbackSessionRespondentShard.class.getSimpleName(),
+                FeedbackSessionRespondentShard.generateShardId(feedbackSessionName, courseId, shardIndex));
+    }
+    
+    /**
+     * Gets the respondent shards of the {@code sessions} with a single batch get by their keys,
+     * which, unlike a query, reflects all changes made to the shards.
+     */
+    @SuppressWarnings("unchecked")
+    private List<FeedbackSessionRespondentShard> getRespondentShardEntities(List<FeedbackSessionAttributes> sessions) {
+        if (sessions.isEmpty()) {
+            return new ArrayList<FeedbackSessionRespondentShard>();
+        }
+        List<String> shardIds = new ArrayList<String>();
+        for (FeedbackSessionAttributes session : sessions) {
+            for (int shardIndex = 0; shardIndex < NUMBER_OF_RESPONDENT_SHARDS; shardIndex++) {
+                shardIds.add(FeedbackSessionRespondentShard.generateShardId(session.getFeedbackSessionName(),
+                                                                            session.getCourseId(), shardIndex));
+            }
+        }
+        Query q = getPm().newQuery(FeedbackSessionRespondentShard.class);
+        q.setFilter(":p.contains(shardId)");
+        
+        List<FeedbackSessionRespondentShard> shards = new ArrayList<FeedbackSessionRespondentShard>();
+        for (FeedbackSessionRespondentShard shard : (List<FeedbackSessionRespondentShard>) q.execute(shardIds)) {
+            if (shard != null && !JDOHelper.isDeleted(shard)) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+    
     @SuppressWarnings("unchecked")
     private List<FeedbackSession> getAllFeedbackSessionEntities() {
         Query q = getPm().newQuery(FeedbackSession.class);
@@ -536,50 +750,255 @@ public class FeedbackSessionsDb extends EntitiesDb {
         return (List<FeedbackSession>) q.execute(courseId);
     }
     
-    @SuppressWarnings("unchecked")
     private List<FeedbackSession> getFeedbackSessionEntitiesPossiblyNeedingOpenEmail() {
-        Query q = getPm().newQuery(FeedbackSession.class);
-        q.declareParameters("java.util.Date startTimeParam, boolean sentParam");
-        q.setFilter("startTime > startTimeParam && sentOpenEmail == sentParam");
-        
         // only get sessions with startTime within the past two days to reduce the number of sessions returned
         Date d = TimeHelper.getDateOffsetToCurrentTime(-2);
         
-        return (List<FeedbackSession>) q.execute(d, false);
+        if (!isQueryingScheduleEntries) {
+            Query q = getPm().newQuery(FeedbackSession.class);
+            q.declareParameters("java.util.Date startTimeParam, boolean sentParam");
+            q.setFilter("startTime > startTimeParam && sentOpenEmail == sentParam");
+            
+            @SuppressWarnings("unchecked")
+            List<FeedbackSession> sessions = (List<FeedbackSession>) q.execute(d, false);
+            return sessions;
+        }
+        
+        List<FeedbackSession> sessions = new ArrayList<FeedbackSession>();
+        for (FeedbackSession fs : getFeedbackSessionEntitiesWithPendingEvent(
+                FeedbackSessionScheduleEntry.Event.OPENING, -HOURS_TO_LOOK_BACK_FOR_UNSENT_OPEN_EMAILS, 0)) {
+            if (fs.getStartTime().after(d) && !fs.isSentOpenEmail()) {
+                sessions.add(fs);
+            }
+        }
+        return sessions;
     }
     
-    @SuppressWarnings("unchecked")
     private List<FeedbackSession> getFeedbackSessionEntitiesPossiblyNeedingClosingEmail() {
-        Query q = getPm().newQuery(FeedbackSession.class);
-        q.declareParameters("java.util.Date endTimeParam, boolean sentParam, boolean enableParam");
-        q.setFilter("endTime > endTimeParam && sentClosingEmail == sentParam && isClosingEmailEnabled == enableParam");
+        // closing emails are sent in the hour before the session is due to close in a set number of hours
+        int hoursBeforeClosing = Const.SystemParams.NUMBER_OF_HOURS_BEFORE_CLOSING_ALERT;
         
-        // only get sessions with endTime within the past two days to reduce the number of sessions returned
-        Date d = TimeHelper.getDateOffsetToCurrentTime(-2);
+        if (!isQueryingScheduleEntries) {
+            return getFeedbackSessionEntitiesClosedInPastTwoDays("sentClosingEmail");
+        }
         
-        return (List<FeedbackSession>) q.execute(d, false, true);
+        List<FeedbackSession> sessions = new ArrayList<FeedbackSession>();
+        for (FeedbackSession fs : getFeedbackSessionEntitiesWithPendingEvent(
+                FeedbackSessionScheduleEntry.Event.CLOSING, hoursBeforeClosing - 2, hoursBeforeClosing + 1)) {
+            if (fs.isClosingEmailEnabled()) {
+                sessions.add(fs);
+            }
+        }
+        return sessions;
     }
     
-    @SuppressWarnings("unchecked")
     private List<FeedbackSession> getFeedbackSessionEntitiesPossiblyNeedingClosedEmail() {
+        // closed emails are sent for sessions closed within the past hour
+        if (!isQueryingScheduleEntries) {
+            return getFeedbackSessionEntitiesClosedInPastTwoDays("sentClosedEmail");
+        }
+        
+        List<FeedbackSession> sessions = new ArrayList<FeedbackSession>();
+        for (FeedbackSession fs : getFeedbackSessionEntitiesWithPendingEvent(
+                FeedbackSessionScheduleEntry.Event.CLOSED, -2, 0)) {
+            if (!fs.isSentClosedEmail() && fs.isClosingEmailEnabled()) {
+                sessions.add(fs);
+            }
+        }
+        return sessions;
+    }
+    
+    private List<FeedbackSession> getFeedbackSessionEntitiesPossiblyNeedingPublishedEmail() {
+        // a published email is sent once for each session published at a set time, however long ago,
+        // so only the sessions whose published emails are not sent yet have entries
+        if (!isQueryingScheduleEntries) {
+            Query q = getPm().newQuery(FeedbackSession.class);
+            q.declareParameters("boolean sentParam, boolean enableParam, Enum notTypeParam");
+            q.setFilter("sentPublishedEmail == sentParam && isPublishedEmailEnabled == enableParam "
+                        + "&& feedbackSessionType != notTypeParam");
+            
+            @SuppressWarnings("unchecked")
+            List<FeedbackSession> sessions =
+                    (List<FeedbackSession>) q.execute(false, true, FeedbackSessionType.PRIVATE);
+            return sessions;
+        }
+        
+        List<FeedbackSession> sessions = new ArrayList<FeedbackSession>();
+        for (FeedbackSession fs : getFeedbackSessionEntitiesWithPendingEvent(
+                FeedbackSessionScheduleEntry.Event.PUBLISHED, null, 0)) {
+            if (!fs.isSentPublishedEmail() && fs.isPublishedEmailEnabled()) {
+                sessions.add(fs);
+            }
+        }
+        return sessions;
+    }
+    
+    /**
+     * Gets the sessions with closing emails enabled, ending within the past two days or later,
+     * whose email flag {@code sentEmailField} is not set.
+     */
+    private List<FeedbackSession> getFeedbackSessionEntitiesClosedInPastTwoDays(String sentEmailField) {
         Query q = getPm().newQuery(FeedbackSession.class);
         q.declareParameters("java.util.Date endTimeParam, boolean sentParam, boolean enableParam");
-        q.setFilter("endTime > endTimeParam && sentClosedEmail == sentParam && isClosingEmailEnabled == enableParam");
+        q.setFilter("endTime > endTimeParam && " + sentEmailField + " == sentParam && isClosingEmailEnabled == enableParam");
         
         // only get sessions with endTime within the past two days to reduce the number of sessions returned
         Date d = TimeHelper.getDateOffsetToCurrentTime(-2);
         
-        return (List<FeedbackSession>) q.execute(d, false, true);
+        @SuppressWarnings("unchecked")
+        List<FeedbackSession> sessions = (List<FeedbackSession>) q.execute(d, false, true);
+        return sessions;
+    }
+    
+    /**
+     * Gets the sessions with a schedule entry for {@code event}, i.e. whose email for the event
+     * has not been sent, where the event takes place from {@code fromHoursOffset} to {@code toHoursOffset}
+     * hours from the current hour, both inclusive.
+     * @param fromHoursOffset the start of the period, or null if the period has no start.
+     */
+    private List<FeedbackSession> getFeedbackSessionEntitiesWithPendingEvent(FeedbackSessionScheduleEntry.Event event,
+                                                                            Integer fromHoursOffset,
+                                                                            int toHoursOffset) {
+        long currentHourBucket = FeedbackSessionScheduleEntry.getHourBucket(new Date());
+        
+        Query q = getPm().newQuery(FeedbackSessionScheduleEntry.class);
+        q.declareParameters("Enum eventParam, long fromParam, long toParam");
+        q.setFilter("event == eventParam && hourBucket >= fromParam && hourBucket <= toParam");
+        
+        long fromHourBucket = fromHoursOffset == null ? Long.MIN_VALUE : currentHourBucket + fromHoursOffset;
+        long toHourBucket = currentHourBucket + toHoursOffset;
+        
+        @SuppressWarnings("unchecked")
+        List<FeedbackSessionScheduleEntry> entries =
+                (List<FeedbackSessionScheduleEntry>) q.execute(event, fromHourBucket, toHourBucket);
+        
+        List<FeedbackSession> sessions = new ArrayList<FeedbackSession>();
+        for (FeedbackSessionScheduleEntry entry : entries) {
+            if (JDOHelper.isDeleted(entry)) {
+                continue;
+            }
+            FeedbackSession fs = getFeedbackSessionEntity(entry.getFeedbackSessionName(), entry.getCourseId());
+            if (fs != null) {
+                sessions.add(fs);
+            }
+        }
+        return sessions;
     }
     
+    /**
+     * Writes the schedule entries of {@code session} for the events whose emails are yet to be sent,
+     * and removes the entries of the other events.
+     */
+    private void putScheduleEntries(FeedbackSessionAttributes session) {
+        for (FeedbackSessionScheduleEntry.Event event : FeedbackSessionScheduleEntry.Event.values()) {
+            Date eventTime = isEmailPending(session, event) ? getEventTimeInUtc(session, event) : null;
+            FeedbackSessionScheduleEntry entry = getScheduleEntryEntity(session.getFeedbackSessionName(),
+                                                                        session.getCourseId(), event);
+            if (eventTime == null) {
+                if (entry != null) {
+                    getPm().deletePersistent(entry);
+                }
+            } else if (entry == null) {
+                getPm().makePersistent(new FeedbackSessionScheduleEntry(session.getFeedbackSessionName(),
+                                                                        session.getCourseId(), event, eventTime));
+            } else {
+                entry.setEventTime(eventTime);
+            }
+        }
+        // the entries are in entity groups of their own, so they are written separately from the session
+        getPm().close();
+    }
+    
+    private static boolean isEmailPending(FeedbackSessionAttributes session, FeedbackSessionScheduleEntry.Event event) {
+        if (session.getFeedbackSessionType() == FeedbackSessionType.PRIVATE) {
+            // automated emails are not sent for private sessions
+            return false;
+        }
+        switch (event) {
+        case OPENING:
+            return !session.isSentOpenEmail();
+        case CLOSING:
+            return !session.isSentClosingEmail() && session.isClosingEmailEnabled();
+        case CLOSED:
+            return !session.isSentClosedEmail() && session.isClosingEmailEnabled();
+        case PUBLISHED:
+            return !session.isSentPublishedEmail() && session.isPublishedEmailEnabled();
+        default:
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the time in UTC at which {@code event} takes place for {@code session},
+     * or null if the event is not at a specific time, e.g. if the results are to be published manually.
+     */
+    private static Date getEventTimeInUtc(FeedbackSessionAttributes session, FeedbackSessionScheduleEntry.Event event) {
+        Date eventTime;
+        switch (event) {
+        case OPENING:
+            eventTime = session.getStartTime();
+            break;
+        case CLOSING:
+            eventTime = session.getEndTime();
+            break;
+        case CLOSED:
+            eventTime = session.getEndTime() == null
+                        ? null
+                        : new Date(session.getEndTime().getTime()
+                                   + session.getGracePeriod() * MILLISECONDS_PER_MINUTE);
+            break;
+        case PUBLISHED:
+            eventTime = session.getResultsVisibleFromTime();
+            break;
+        default:
+            eventTime = null;
+            break;
+        }
+        
+        if (eventTime == null || TimeHelper.isSpecialTime(eventTime)) {
+            return null;
+        }
+        // the times of a session are kept in the time zone of the session
+        return new Date(eventTime.getTime() - (long) (session.getTimeZone() * MILLISECONDS_PER_HOUR));
+    }
+    
+    private FeedbackSessionScheduleEntry getScheduleEntryEntity(String feedbackSessionName, String courseId,
+                                                                FeedbackSessionScheduleEntry.Event event) {
+        String entryId = FeedbackSessionScheduleEntry.generateId(feedbackSessionName, courseId, event);
+        try {
+            Key key = KeyFactory.createKey(FeedbackSessionScheduleEntry.class.getSimpleName(), entryId);
+            FeedbackSessionScheduleEntry entry = getPm().getObjectById(FeedbackSessionScheduleEntry.class, key);
+            return JDOHelper.isDeleted(entry) ? null : entry;
+        } catch (JDOObjectNotFoundException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Gets the schedule entries of the {@code sessions} with a single batch get on their keys.
+     */
     @SuppressWarnings("unchecked")
-    private List<FeedbackSession> getFeedbackSessionEntitiesPossiblyNeedingPublishedEmail() {
-        Query q = getPm().newQuery(FeedbackSession.class);
-        q.declareParameters("boolean sentParam, boolean enableParam, Enum notTypeParam");
-        q.setFilter("sentPublishedEmail == sentParam && isPublishedEmailEnabled == enableParam "
-                    + "&& feedbackSessionType != notTypeParam");
+    private List<FeedbackSessionScheduleEntry> getScheduleEntryEntities(List<FeedbackSessionAttributes> sessions) {
+        if (sessions.isEmpty()) {
+            return new ArrayList<FeedbackSessionScheduleEntry>();
+        }
+        List<String> entryIds = new ArrayList<String>();
+        for (FeedbackSessionAttributes session : sessions) {
+            for (FeedbackSessionScheduleEntry.Event event : FeedbackSessionScheduleEntry.Event.values()) {
+                entryIds.add(FeedbackSessionScheduleEntry.generateId(session.getFeedbackSessionName(),
+                                                                     session.getCourseId(), event));
+            }
+        }
+        Query q = getPm().newQuery(FeedbackSessionScheduleEntry.class);
+        q.setFilter(":p.contains(scheduleEntryId)");
         
-        return (List<FeedbackSession>) q.execute(false, true, FeedbackSessionType.PRIVATE);
+        List<FeedbackSessionScheduleEntry> entries = new ArrayList<FeedbackSessionScheduleEntry>();
+        for (FeedbackSessionScheduleEntry entry : (List<FeedbackSessionScheduleEntry>) q.execute(entryIds)) {
+            if (entry != null && !JDOHelper.isDeleted(entry)) {
+                entries.add(entry);
+            }
+        }
+        return entries;
     }
     
     private FeedbackSession getFeedbackSessionEntity(String feedbackSessionName, String courseId) {
@@ -89,6 +89,28 @@ public class InstructorsDb extends EntitiesDb {
      * =========================================================================
      */
 
+    /**
+     * Preconditions:
+     * <br> * {@code entityToAdd} is not null and has valid data.
+     */
+    @Override
+    public Object createEntity(EntityAttributes entityToAdd)
+            throws InvalidParametersException, EntityAlreadyExistsException {
+        Object createdEntity = super.createEntity(entityToAdd);
+        CourseRosterCache.invalidate(((InstructorAttributes) entityToAdd).courseId);
+        return createdEntity;
+    }
+    
+    @Override
+    public List<EntityAttributes> createEntities(Collection<? extends EntityAttributes> entitiesToAdd)
+            throws InvalidParametersException {
+        List<EntityAttributes> entitiesToUpdate = super.createEntities(entitiesToAdd);
+        for (EntityAttributes entity : entitiesToAdd) {
+            CourseRosterCache.invalidate(((InstructorAttributes) entity).courseId);
+        }
+        return entitiesToUpdate;
+    }
+    
     public void createInstructors(Collection<InstructorAttributes> instructorsToAdd) throws InvalidParametersException {
         
         List<EntityAttributes> instructorsToUpdate = createEntities(instructorsToAdd);
@@ -313,6 +335,7 @@ public class InstructorsDb extends EntitiesDb {
         putDocument(new InstructorAttributes(instructorToUpdate));
         log.info(instructorAttributesToUpdate.getBackupIdentifier());
         getPm().close();
+        CourseRosterCache.invalidate(instructorAttributesToUpdate.courseId);
     }
     
     /**
@@ -350,6 +373,7 @@ public class InstructorsDb extends EntitiesDb {
         putDocument(new InstructorAttributes(instructorToUpdate));
         log.info(instructorAttributesToUpdate.getBackupIdentifier());
         getPm().close();
+        CourseRosterCache.invalidate(instructorAttributesToUpdate.courseId);
     }
     
     /**
@@ -372,6 +396,7 @@ public class InstructorsDb extends EntitiesDb {
 
         getPm().deletePersistent(instructorToDelete);
         getPm().flush();
+        CourseRosterCache.invalidate(courseId);
   
         // Check delete operation persisted
         if (Config.PERSISTENCE_CHECK_DURATION > 0) {
@@ -410,6 +435,9 @@ public class InstructorsDb extends EntitiesDb {
         
         getPm().deletePersistentAll(instructorsToDelete);
         getPm().flush();
+        for (String courseId : courseIds) {
+            CourseRosterCache.invalidate(courseId);
+        }
     }
     
     /**
@@ -421,13 +449,18 @@ public class InstructorsDb extends EntitiesDb {
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, googleId);
 
         List<Instructor> instructorList = getInstructorEntitiesForGoogleId(googleId);
+        List<String> courseIds = new ArrayList<String>();
         
         for (Instructor instructor : instructorList) {
             deleteDocument(new InstructorAttributes(instructor));
+            courseIds.add(instructor.getCourseId());
         }
         
         getPm().deletePersistentAll(instructorList);
         getPm().flush();
+        for (String courseId : courseIds) {
+            CourseRosterCache.invalidate(courseId);
+        }
       
     }
     
@@ -446,6 +479,7 @@ public class InstructorsDb extends EntitiesDb {
         }
         getPm().deletePersistentAll(instructorList);
         getPm().flush();
+        CourseRosterCache.invalidate(courseId);
 
     }
     
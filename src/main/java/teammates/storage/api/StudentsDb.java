@@ -1,7 +1,9 @@
 package teammates.storage.api;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -39,6 +41,11 @@ public class StudentsDb extends EntitiesDb {
 
     public static final String ERROR_UPDATE_EMAIL_ALREADY_USED = "Trying to update to an email that is already used by: ";
     
+    /** The maximum number of entities the datastore accepts in one batch put. */
+    private static final int MAX_ENTITIES_PER_BATCH_PUT = 500;
+    /** The maximum number of keys the datastore looks up in one batch get. */
+    private static final int MAX_KEYS_PER_BATCH_GET = 1000;
+    
     public void putDocument(StudentAttributes student) {
         putDocument(Const.SearchIndex.STUDENT, new StudentSearchDocument(student));
     }
@@ -113,6 +120,32 @@ public class StudentsDb extends EntitiesDb {
         }
     }
     
+    /**
+     * Preconditions:
+     * <br> * {@code entityToAdd} is not null and has valid data.
+     */
+    @Override
+    public Object createEntity(EntityAttributes entityToAdd)
+            throws InvalidParametersException, EntityAlreadyExistsException {
+        Object createdEntity = super.createEntity(entityToAdd);
+        CourseRosterCache.invalidate(((StudentAttributes) entityToAdd).course);
+        UserIdentityCache.invalidate(((StudentAttributes) entityToAdd).googleId);
+        return createdEntity;
+    }
+    
+    @Override
+    public List<EntityAttributes> createEntities(Collection<? extends EntityAttributes> entitiesToAdd)
+            throws InvalidParametersException {
+        List<EntityAttributes> entitiesToUpdate = super.createEntities(entitiesToAdd);
+        List<String> googleIds = new ArrayList<String>();
+        for (EntityAttributes entity : entitiesToAdd) {
+            CourseRosterCache.invalidate(((StudentAttributes) entity).course);
+            googleIds.add(((StudentAttributes) entity).googleId);
+        }
+        UserIdentityCache.invalidate(googleIds);
+        return entitiesToUpdate;
+    }
+    
     public void createStudent(StudentAttributes student)
             throws InvalidParametersException, EntityAlreadyExistsException {
         
@@ -132,6 +165,85 @@ public class StudentsDb extends EntitiesDb {
         }
     }
 
+    /**
+     * Creates the students in {@code studentsToCreate} and updates the students in {@code studentsToUpdate},
+     * all of which are in the course {@code courseId}, e.g. when enrolling students.
+     * The existing students are read with one batch get and the students are written in batch puts.
+     * Their search documents are put in batches if {@code hasDocument} is true.<br>
+     * Preconditions: <br>
+     * * All parameters are non-null. <br>
+     * * The students to update are valid and do not change their emails.
+     * @throws EntityAlreadyExistsException if a student to create already exists.
+     * @throws EntityDoesNotExistException if a student to update does not exist.
+     */
+    public void createAndUpdateStudentsForCourse(String courseId, List<StudentAttributes> studentsToCreate,
+            List<StudentAttributes> studentsToUpdate, boolean hasDocument)
+            throws InvalidParametersException, EntityAlreadyExistsException, EntityDoesNotExistException {
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseId);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, studentsToCreate);
+        Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, studentsToUpdate);
+        
+        List<String> ids = new ArrayList<String>();
+        for (StudentAttributes student : studentsToCreate) {
+            student.sanitizeForSaving();
+            if (!student.isValid()) {
+                throw new InvalidParametersException(student.getInvalidityInfo());
+            }
+            ids.add(CourseStudent.makeId(student.email, courseId));
+        }
+        for (StudentAttributes student : studentsToUpdate) {
+            ids.add(CourseStudent.makeId(student.email, courseId));
+        }
+        Map<String, CourseStudent> existingStudents = getCourseStudentEntities(ids);
+        
+        List<CourseStudent> studentsToSave = new ArrayList<CourseStudent>();
+        List<String> googleIds = new ArrayList<String>();
+        for (StudentAttributes student : studentsToCreate) {
+            if (existingStudents.containsKey(CourseStudent.makeId(student.email, courseId))) {
+                String error = String.format(ERROR_CREATE_ENTITY_ALREADY_EXISTS, student.getEntityTypeAsString())
+                             + student.getIdentificationString();
+                log.info(error);
+                throw new EntityAlreadyExistsException(error);
+            }
+            studentsToSave.add((CourseStudent) student.toEntity());
+            googleIds.add(student.googleId);
+        }
+        for (StudentAttributes student : studentsToUpdate) {
+            CourseStudent courseStudent = existingStudents.get(CourseStudent.makeId(student.email, courseId));
+            if (courseStudent == null) {
+                throw new EntityDoesNotExistException(ERROR_UPDATE_NON_EXISTENT_STUDENT + courseId + "/" + student.email);
+            }
+            courseStudent.setName(student.name);
+            courseStudent.setLastName(StringHelper.splitName(student.name)[1]);
+            courseStudent.setComments(student.comments);
+            googleIds.add(courseStudent.getGoogleId());
+            googleIds.add(student.googleId);
+            courseStudent.setGoogleId(student.googleId);
+            courseStudent.setTeamName(student.team);
+            courseStudent.setSectionName(student.section);
+            courseStudent.keepUpdateTimestamp = false;
+            studentsToSave.add(courseStudent);
+        }
+        
+        for (int i = 0; i < studentsToSave.size(); i += MAX_ENTITIES_PER_BATCH_PUT) {
+            getPm().makePersistentAll(
+                    studentsToSave.subList(i, Math.min(i + MAX_ENTITIES_PER_BATCH_PUT, studentsToSave.size())));
+        }
+        
+        if (hasDocument) {
+            List<StudentAttributes> savedStudents = new ArrayList<StudentAttributes>();
+            for (CourseStudent courseStudent : studentsToSave) {
+                savedStudents.add(new StudentAttributes(courseStudent));
+            }
+            putDocuments(Const.SearchIndex.STUDENT, StudentSearchDocument.fromStudents(savedStudents));
+        }
+        
+        log.info(Const.SystemParams.COURSE_BACKUP_LOG_MSG + courseId);
+        getPm().close();
+        CourseRosterCache.invalidate(courseId);
+        UserIdentityCache.invalidate(googleIds);
+    }
+
     /**
      * Preconditions: <br>
      * * All parameters are non-null.
@@ -402,6 +514,7 @@ public class StudentsDb extends EntitiesDb {
         
         // Update CourseStudent if it exists.
         CourseStudent courseStudent = getCourseStudentEntityForEmail(courseId, email);
+        String oldGoogleId = null;
         if (courseStudent != null) {
             boolean isEmailChanged = !email.equals(newEmail);
             if (isEmailChanged) {
@@ -417,6 +530,7 @@ public class StudentsDb extends EntitiesDb {
             courseStudent.setName(newName);
             courseStudent.setLastName(StringHelper.splitName(newName)[1]);
             courseStudent.setComments(newComments);
+            oldGoogleId = courseStudent.getGoogleId();
             courseStudent.setGoogleId(newGoogleId);
             courseStudent.setTeamName(newTeamName);
             courseStudent.setSectionName(newSectionName);
@@ -433,6 +547,8 @@ public class StudentsDb extends EntitiesDb {
         
         log.info(Const.SystemParams.COURSE_BACKUP_LOG_MSG + courseId);
         getPm().close();
+        CourseRosterCache.invalidate(courseId);
+        UserIdentityCache.invalidate(Arrays.asList(oldGoogleId, newGoogleId));
     }
 
     //TODO: add an updateStudent(StudentAttributes) version and make the above private
@@ -465,8 +581,11 @@ public class StudentsDb extends EntitiesDb {
                 deleteDocument(new StudentAttributes(courseStudentToDelete));
             }
            
+            String googleId = courseStudentToDelete.getGoogleId();
             getPm().deletePersistent(courseStudentToDelete);
             getPm().flush();
+            CourseRosterCache.invalidate(courseId);
+            UserIdentityCache.invalidate(googleId);
         }
     
         // Check delete operation persisted
@@ -507,16 +626,21 @@ public class StudentsDb extends EntitiesDb {
 
         // Delete from CourseStudent
         List<CourseStudent> courseStudents = getCourseStudentEntitiesForGoogleId(googleId);
-        if (hasDocument) {
-            for (CourseStudent student : courseStudents) {
+        List<String> courseIds = new ArrayList<String>();
+        for (CourseStudent student : courseStudents) {
+            if (hasDocument) {
                 deleteDocument(new StudentAttributes(student));
             }
+            courseIds.add(student.getCourseId());
         }
         getPm().deletePersistentAll(courseStudents);
         
         
         getPm().flush();
-
+        for (String courseId : courseIds) {
+            CourseRosterCache.invalidate(courseId);
+        }
+        UserIdentityCache.invalidate(googleId);
     }
 
     /**
@@ -544,8 +668,11 @@ public class StudentsDb extends EntitiesDb {
             }
         }
 
+        List<String> googleIds = getGoogleIds(courseStudentList);
         getPm().deletePersistentAll(courseStudentList);
         getPm().flush();
+        CourseRosterCache.invalidate(courseId);
+        UserIdentityCache.invalidate(googleIds);
     }
 
     public void deleteStudentsForCourses(List<String> courseIds) {
@@ -553,8 +680,21 @@ public class StudentsDb extends EntitiesDb {
         Assumption.assertNotNull(Const.StatusCodes.DBLEVEL_NULL_INPUT, courseIds);
         
         List<CourseStudent> courseStudentsToDelete = getCourseStudentEntitiesForCourses(courseIds);
+        List<String> googleIds = getGoogleIds(courseStudentsToDelete);
         getPm().deletePersistentAll(courseStudentsToDelete);
         getPm().flush();
+        for (String courseId : courseIds) {
+            CourseRosterCache.invalidate(courseId);
+        }
+        UserIdentityCache.invalidate(googleIds);
+    }
+
+    private List<String> getGoogleIds(List<CourseStudent> courseStudents) {
+        List<String> googleIds = new ArrayList<String>();
+        for (CourseStudent courseStudent : courseStudents) {
+            googleIds.add(courseStudent.getGoogleId());
+        }
+        return googleIds;
     }
     
     /**
@@ -625,6 +765,30 @@ public class StudentsDb extends EntitiesDb {
         }
     }
 
+    /**
+     * Gets the students with the given ids with batch gets of at most {@link #MAX_KEYS_PER_BATCH_GET} ids,
+     * mapped by their ids.
+     */
+    private Map<String, CourseStudent> getCourseStudentEntities(List<String> ids) {
+        Map<String, CourseStudent> students = new HashMap<String, CourseStudent>();
+        
+        for (int i = 0; i < ids.size(); i += MAX_KEYS_PER_BATCH_GET) {
+            Query q = getPm().newQuery(CourseStudent.class);
+            q.setFilter(":p.contains(id)");
+            
+            @SuppressWarnings("unchecked")
+            List<CourseStudent> studentList = (List<CourseStudent>) q.execute(
+                    ids.subList(i, Math.min(i + MAX_KEYS_PER_BATCH_GET, ids.size())));
+            
+            for (CourseStudent student : studentList) {
+                if (!JDOHelper.isDeleted(student)) {
+                    students.put(student.getUniqueId(), student);
+                }
+            }
+        }
+        return students;
+    }
+    
     @SuppressWarnings("unchecked")
     public List<CourseStudent> getCourseStudentEntitiesForCourse(String courseId) {
         Query q = getPm().newQuery(CourseStudent.class);
@@ -0,0 +1,162 @@
+package teammates.storage.api;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import teammates.common.datatransfer.AccountAttributes;
+import teammates.common.util.Utils;
+import teammates.storage.api.CacheVersions.Version;
+
+import com.google.appengine.api.memcache.Expiration;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+
+/**
+ * Caches the {@link UserIdentity} of a Google ID, i.e. the account of the user and whether the
+ * user is a student, so that the roles of a logged-in user are not read from the datastore on
+ * every request.
+ * <br> Each Google ID has a {@link CacheVersions version} that changes whenever {@link AccountsDb} writes
+ * the account of the user or {@link StudentsDb} writes a student with the Google ID, e.g. when
+ * the user joins a course. An identity is kept in memcache for a short while together with the
+ * version it was read at, so both are fetched with one memcache lookup. An identity is also kept
+ * in memory on this instance for a moment, so that it is looked up only once per request.
+ */
+public final class UserIdentityCache {
+
+    private static final int IDENTITY_EXPIRY_SECONDS = 10 * 60;
+
+    /** How long an identity kept in memory on this instance is used without checking memcache. */
+    private static final long NEAR_CACHE_REUSE_MILLIS = 1000;
+    private static final int NEAR_CACHE_CAPACITY = 1000;
+
+    private static final String IDENTITY_KEY_PREFIX = "UserIdentity:";
+
+    private static final CacheVersions VERSIONS = new CacheVersions("UserIdentity");
+
+    private static final Map<String, RecentUserIdentity> NEAR_CACHE =
+            new ConcurrentHashMap<String, RecentUserIdentity>();
+
+    private UserIdentityCache() {
+        // utility class
+    }
+
+    /**
+     * Returns the identity of the user with {@code googleId}.
+     */
+    public static UserIdentity getUserIdentity(String googleId) {
+        long now = CacheVersions.now();
+        RecentUserIdentity recent = NEAR_CACHE.get(googleId);
+        if (recent != null && now - recent.fetchedAt < NEAR_CACHE_REUSE_MILLIS) {
+            return parse(recent.json);
+        }
+
+        String identityKey = IDENTITY_KEY_PREFIX + googleId;
+        Version version = VERSIONS.getVersion(googleId, identityKey);
+        if (version == null) {
+            // memcache is unavailable, so there is no way to tell whether a cached identity is stale
+            return loadUserIdentity(googleId);
+        }
+
+        String json = (String) version.getEntry(identityKey);
+        UserIdentity identity = json == null ? null : parse(json);
+        if (identity == null || identity.version != version.getNumber()) {
+            identity = loadUserIdentity(googleId);
+            if (!version.isSettled()) {
+                return identity;
+            }
+            identity.version = version.getNumber();
+            json = Utils.getTeammatesGson().toJson(identity, UserIdentity.class);
+            getMemcache().put(identityKey, json, Expiration.byDeltaSeconds(IDENTITY_EXPIRY_SECONDS));
+        }
+
+        if (NEAR_CACHE.size() >= NEAR_CACHE_CAPACITY) {
+            NEAR_CACHE.clear();
+        }
+        NEAR_CACHE.put(googleId, new RecentUserIdentity(now, json));
+        return identity;
+    }
+
+    /**
+     * Marks the cached identity of {@code googleId}, if any, as stale on all instances.
+     * Does nothing if {@code googleId} is null or empty, e.g. for a student who has not joined.
+     */
+    public static void invalidate(String googleId) {
+        if (googleId == null || googleId.isEmpty()) {
+            return;
+        }
+        NEAR_CACHE.remove(googleId);
+        VERSIONS.invalidate(googleId);
+    }
+
+    /**
+     * Marks the cached identities of {@code googleIds} as stale on all instances.
+     * Null and empty Google IDs are ignored.
+     */
+    public static void invalidate(Collection<String> googleIds) {
+        Set<String> knownGoogleIds = new HashSet<String>();
+        for (String googleId : googleIds) {
+            if (googleId != null && !googleId.isEmpty()) {
+                NEAR_CACHE.remove(googleId);
+                knownGoogleIds.add(googleId);
+            }
+        }
+        VERSIONS.invalidate(knownGoogleIds);
+    }
+
+    private static UserIdentity loadUserIdentity(String googleId) {
+        AccountAttributes account = new AccountsDb().getAccount(googleId);
+        boolean isStudent = !new StudentsDb().getStudentsForGoogleId(googleId).isEmpty();
+        return new UserIdentity(account, isStudent);
+    }
+
+    private static UserIdentity parse(String json) {
+        return Utils.getTeammatesGson().fromJson(json, UserIdentity.class);
+    }
+
+    private static MemcacheService getMemcache() {
+        return MemcacheServiceFactory.getMemcacheService();
+    }
+
+    /**
+     * The account of a user and whether the user is a student of any course.
+     */
+    public static class UserIdentity {
+        private long version;
+        private AccountAttributes account;
+        private boolean isStudent;
+
+        UserIdentity(AccountAttributes account, boolean isStudent) {
+            this.account = account;
+            this.isStudent = isStudent;
+        }
+
+        /**
+         * Returns the account of the user without the student profile, or null if the user has no account.
+         */
+        public AccountAttributes getAccount() {
+            return account;
+        }
+
+        public boolean isInstructor() {
+            return account != null && account.isInstructor;
+        }
+
+        public boolean isStudent() {
+            return isStudent;
+        }
+    }
+
+    private static class RecentUserIdentity {
+        final long fetchedAt;
+        final String json;
+
+        RecentUserIdentity(long fetchedAt, String json) {
+            this.fetchedAt = fetchedAt;
+            this.json = json;
+        }
+    }
+
+}
@@ -50,4 +50,13 @@ public final class Datastore {
         return pm;
     }
 
+    /**
+     * Returns a new persistence manager, separate from the one of the current thread,
+     * e.g. to carry out a transaction without the changes pending in the other.
+     * The caller is responsible for closing it.
+     */
+    public static PersistenceManager newPersistenceManager() {
+        return pmf.getPersistenceManager();
+    }
+
 }
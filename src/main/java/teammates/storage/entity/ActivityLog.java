@@ -0,0 +1,96 @@
+package teammates.storage.entity;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+import com.google.appengine.api.datastore.Text;
+
+/**
+ * Represents an entry of the activity log shown in the admin activity log page,
+ * kept so that the entries of a person, role, action or course can be found
+ * without scanning the application logs. <br>
+ * Activity logs are only added, and deleted once they are older than the retention period.
+ * The properties searched by are kept in lower case alongside the log message the entry is read from.
+ * Each log is also filed under the day it was written on, so that the logs are searched one day at a time
+ * and the writes of a day are spread over the index entries of the properties searched by.
+ */
+@PersistenceCapable
+public class ActivityLog {
+
+    // PMD.UnusedPrivateField and SingularField are suppressed
+    // as activityLogId is persisted to the database
+    @SuppressWarnings({"PMD.UnusedPrivateField", "PMD.SingularField"})
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.IDENTITY)
+    private transient Long activityLogId;
+
+    @Persistent
+    private Date time;
+
+    /** The number of days from the epoch (in UTC) to {@link #time}. */
+    @Persistent
+    private Long day;
+
+    /** The words in the Google ID, email and name of the user who carried out the action. */
+    @Persistent
+    private List<String> personTokens;
+
+    @Persistent
+    private String role;
+
+    /** The name of the servlet action, e.g. instructorhomepage. */
+    @Persistent
+    private String action;
+
+    /** The course the action was carried out in, or null if there is none. */
+    @Persistent
+    private String courseId;
+
+    /** The log message as written to the application log, including the time taken. */
+    @Persistent
+    private Text logMessage;
+
+    public ActivityLog(Date time, long day, List<String> personTokens, String role, String action, String courseId,
+                       String logMessage) {
+        this.time = time;
+        this.day = day;
+        this.personTokens = personTokens;
+        this.role = role;
+        this.action = action;
+        this.courseId = courseId;
+        this.logMessage = new Text(logMessage);
+    }
+
+    public Date getTime() {
+        return time;
+    }
+
+    public long getDay() {
+        return day;
+    }
+
+    public List<String> getPersonTokens() {
+        return personTokens;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public String getLogMessage() {
+        return logMessage == null ? null : logMessage.getValue();
+    }
+}
@@ -119,7 +119,14 @@ public class CourseStudent implements StoreCallback {
     }
     
     private String makeId() {
-        return getEmail() + '%' + getCourseId();
+        return makeId(getEmail(), getCourseId());
+    }
+    
+    /**
+     * Returns the id of the student with {@code email} in the course {@code courseId}.
+     */
+    public static String makeId(String email, String courseId) {
+        return email + '%' + courseId;
     }
     
     public Date getCreatedAt() {
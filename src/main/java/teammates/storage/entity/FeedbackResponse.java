@@ -1,6 +1,8 @@
 package teammates.storage.entity;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import javax.jdo.annotations.NotPersistent;
 import javax.jdo.annotations.PersistenceCapable;
@@ -55,6 +57,13 @@ public class FeedbackResponse implements StoreCallback {
     @Persistent
     private String receiverSection;
 
+    /**
+     * The giver section and the recipient section, kept in sync with them,
+     * so that the responses in a section can be found with a single query.
+     */
+    @Persistent
+    private List<String> sections;
+
     @Persistent
     private Text answer; //TODO: rename to responseMetaData, will require database conversion
 
@@ -76,6 +85,7 @@ public class FeedbackResponse implements StoreCallback {
         this.receiver = recipient;
         this.receiverSection = recipientSection;
         this.answer = answer;
+        updateSections();
                 
         this.feedbackResponseId = feedbackQuestionId + "%" + giverEmail + "%" + receiver;
         
@@ -137,6 +147,7 @@ public class FeedbackResponse implements StoreCallback {
 
     public void setGiverSection(String giverSection) {
         this.giverSection = giverSection;
+        updateSections();
     }
 
     public String getRecipientEmail() {
@@ -153,6 +164,26 @@ public class FeedbackResponse implements StoreCallback {
 
     public void setRecipientSection(String recipientSection) {
         this.receiverSection = recipientSection;
+        updateSections();
+    }
+
+    public List<String> getSections() {
+        return sections;
+    }
+
+    /**
+     * Sets the sections of the response from its giver section and recipient section.
+     * Also used to populate the sections of responses stored before they were kept.
+     */
+    public void updateSections() {
+        List<String> newSections = new ArrayList<String>();
+        if (giverSection != null) {
+            newSections.add(giverSection);
+        }
+        if (receiverSection != null && !receiverSection.equals(giverSection)) {
+            newSections.add(receiverSection);
+        }
+        this.sections = newSections;
     }
 
     public Text getResponseMetaData() {
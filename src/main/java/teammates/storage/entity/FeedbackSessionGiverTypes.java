@@ -0,0 +1,94 @@
+package teammates.storage.entity;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+/**
+ * Represents the giver types of the questions of a Feedback Session, kept so that the number of
+ * users expected to respond to the session can be found without reading its questions.
+ * The giver types are cleared whenever a question of the session changes, and are found again
+ * from the questions when they are next needed.
+ */
+@PersistenceCapable
+public class FeedbackSessionGiverTypes {
+
+    // Format is feedbackSessionName%courseId
+    // PMD.UnusedPrivateField and SingularField are suppressed
+    // as giverTypesId is persisted to the database
+    @SuppressWarnings({"PMD.UnusedPrivateField", "PMD.SingularField"})
+    @PrimaryKey
+    @Persistent
+    private transient String giverTypesId;
+
+    @Persistent
+    private String feedbackSessionName;
+
+    @Persistent
+    private String courseId;
+
+    /** Whether {@link #giverTypes} is known, as an empty set is not stored in the datastore. */
+    @Persistent
+    private boolean isKnown;
+
+    @Persistent
+    private Set<String> giverTypes;
+
+    /** The time a question of the session was last changed, or null if not known. */
+    @Persistent
+    private Date questionsChangedAt;
+
+    public FeedbackSessionGiverTypes(String feedbackSessionName, String courseId) {
+        this.feedbackSessionName = feedbackSessionName;
+        this.courseId = courseId;
+        this.giverTypesId = generateId(feedbackSessionName, courseId);
+    }
+
+    public static String generateId(String feedbackSessionName, String courseId) {
+        return feedbackSessionName + "%" + courseId;
+    }
+
+    public String getFeedbackSessionName() {
+        return feedbackSessionName;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public boolean isKnown() {
+        return isKnown;
+    }
+
+    /**
+     * Returns the names of the giver types, or null if they are not known.
+     */
+    public Set<String> getGiverTypes() {
+        if (!isKnown) {
+            return null;
+        }
+        return giverTypes == null ? new HashSet<String>() : giverTypes;
+    }
+
+    public void setGiverTypes(Set<String> giverTypes) {
+        this.giverTypes = giverTypes;
+        this.isKnown = true;
+    }
+
+    public Date getQuestionsChangedAt() {
+        return questionsChangedAt;
+    }
+
+    /**
+     * Clears the giver types after a change to a question of the session made at {@code changedAt}.
+     */
+    public void clearGiverTypes(Date changedAt) {
+        this.giverTypes = null;
+        this.isKnown = false;
+        this.questionsChangedAt = changedAt;
+    }
+}
@@ -0,0 +1,83 @@
+package teammates.storage.entity;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.jdo.annotations.Extension;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+/**
+ * Represents a part of the respondents of a Feedback Session.
+ * The respondents of a session are spread over a fixed number of shards by their email,
+ * so that respondents submitting at the same time do not all update the same entity.
+ */
+@PersistenceCapable
+public class FeedbackSessionRespondentShard {
+
+    // Format is feedbackSessionName%courseId%shardIndex
+    // PMD.UnusedPrivateField and SingularField are suppressed
+    // as shardId is persisted to the database
+    @SuppressWarnings({"PMD.UnusedPrivateField", "PMD.SingularField"})
+    @PrimaryKey
+    @Persistent
+    private transient String shardId;
+
+    @Persistent
+    private String feedbackSessionName;
+
+    @Persistent
+    private String courseId;
+
+    @Persistent
+    @Extension(vendorName = "datanucleus", key = "gae.unindexed", value = "true")
+    private Set<String> respondingInstructorList;
+
+    @Persistent
+    @Extension(vendorName = "datanucleus", key = "gae.unindexed", value = "true")
+    private Set<String> respondingStudentList;
+
+    public FeedbackSessionRespondentShard(String feedbackSessionName, String courseId, int shardIndex) {
+        this.feedbackSessionName = feedbackSessionName;
+        this.courseId = courseId;
+        this.shardId = generateShardId(feedbackSessionName, courseId, shardIndex);
+        this.respondingInstructorList = new HashSet<String>();
+        this.respondingStudentList = new HashSet<String>();
+    }
+
+    public static String generateShardId(String feedbackSessionName, String courseId, int shardIndex) {
+        return feedbackSessionName + "%" + courseId + "%" + shardIndex;
+    }
+
+    public String getFeedbackSessionName() {
+        return feedbackSessionName;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public Set<String> getRespondingInstructorList() {
+        if (respondingInstructorList == null) {
+            // empty sets are not stored in the datastore
+            respondingInstructorList = new HashSet<String>();
+        }
+        return respondingInstructorList;
+    }
+
+    public Set<String> getRespondingStudentList() {
+        if (respondingStudentList == null) {
+            // empty sets are not stored in the datastore
+            respondingStudentList = new HashSet<String>();
+        }
+        return respondingStudentList;
+    }
+
+    @Override
+    public String toString() {
+        return "FeedbackSessionRespondentShard [feedbackSessionName=" + feedbackSessionName
+                + ", courseId=" + courseId + ", respondingInstructorList=" + respondingInstructorList
+                + ", respondingStudentList=" + respondingStudentList + "]";
+    }
+}
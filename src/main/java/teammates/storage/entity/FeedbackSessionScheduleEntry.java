@@ -0,0 +1,91 @@
+package teammates.storage.entity;
+
+import java.util.Date;
+
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+/**
+ * Represents the time at which an event of a Feedback Session, e.g. its opening, takes place,
+ * kept so that the sessions needing automated emails around a time can be found
+ * without reading all sessions. <br>
+ * The time is kept as the UTC hour in which the event takes place.
+ */
+@PersistenceCapable
+public class FeedbackSessionScheduleEntry {
+
+    /**
+     * The events of a session that automated emails are sent for.
+     */
+    public enum Event {
+        OPENING,
+        /** The end time of the session, before which the closing reminders are sent. */
+        CLOSING,
+        /** The end of the grace period of the session. */
+        CLOSED,
+        PUBLISHED
+    }
+
+    private static final long MILLISECONDS_PER_HOUR = 60 * 60 * 1000;
+
+    // Format is event%feedbackSessionName%courseId
+    // PMD.UnusedPrivateField and SingularField are suppressed
+    // as scheduleEntryId is persisted to the database
+    @SuppressWarnings({"PMD.UnusedPrivateField", "PMD.SingularField"})
+    @PrimaryKey
+    @Persistent
+    private transient String scheduleEntryId;
+
+    @Persistent
+    private String feedbackSessionName;
+
+    @Persistent
+    private String courseId;
+
+    @Persistent
+    private Event event;
+
+    /** The number of hours from the epoch to the UTC hour in which the event takes place. */
+    @Persistent
+    private long hourBucket;
+
+    public FeedbackSessionScheduleEntry(String feedbackSessionName, String courseId, Event event, Date eventTime) {
+        this.feedbackSessionName = feedbackSessionName;
+        this.courseId = courseId;
+        this.event = event;
+        this.scheduleEntryId = generateId(feedbackSessionName, courseId, event);
+        setEventTime(eventTime);
+    }
+
+    public static String generateId(String feedbackSessionName, String courseId, Event event) {
+        return event + "%" + feedbackSessionName + "%" + courseId;
+    }
+
+    /**
+     * Returns the hour bucket of {@code time}, which is a time in UTC.
+     */
+    public static long getHourBucket(Date time) {
+        return time.getTime() / MILLISECONDS_PER_HOUR;
+    }
+
+    public String getFeedbackSessionName() {
+        return feedbackSessionName;
+    }
+
+    public String getCourseId() {
+        return courseId;
+    }
+
+    public Event getEvent() {
+        return event;
+    }
+
+    public long getHourBucket() {
+        return hourBucket;
+    }
+
+    public void setEventTime(Date eventTime) {
+        this.hourBucket = getHourBucket(eventTime);
+    }
+}
@@ -1,11 +1,14 @@
 package teammates.storage.search;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import teammates.common.datatransfer.CourseAttributes;
+import teammates.common.datatransfer.CourseRoster;
 import teammates.common.datatransfer.FeedbackParticipantType;
 import teammates.common.datatransfer.FeedbackQuestionAttributes;
 import teammates.common.datatransfer.FeedbackResponseAttributes;
@@ -14,6 +17,8 @@ import teammates.common.datatransfer.FeedbackSessionAttributes;
 import teammates.common.datatransfer.InstructorAttributes;
 import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.util.Const;
+import teammates.logic.api.Logic;
+import teammates.storage.api.CourseRosterCache;
 
 import com.google.appengine.api.search.Document;
 import com.google.appengine.api.search.Field;
@@ -34,26 +39,50 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
     private InstructorAttributes giverAsInstructor; //comment giver
     private List<InstructorAttributes> relatedInstructors;
     private List<StudentAttributes> relatedStudents;
+    private RelatedData prefetchedData;
     
     public FeedbackResponseCommentSearchDocument(FeedbackResponseCommentAttributes comment) {
         this.comment = comment;
     }
     
+    private FeedbackResponseCommentSearchDocument(FeedbackResponseCommentAttributes comment,
+                                                  RelatedData prefetchedData) {
+        this.comment = comment;
+        this.prefetchedData = prefetchedData;
+    }
+    
+    /**
+     * Creates the search documents of {@code comments}. The sessions, questions, responses,
+     * courses and rosters they refer to are read once for all of them, instead of once for each comment.
+     */
+    public static List<SearchDocument> fromComments(List<FeedbackResponseCommentAttributes> comments) {
+        RelatedData prefetchedData = new RelatedData(comments);
+        List<SearchDocument> documents = new ArrayList<SearchDocument>();
+        for (FeedbackResponseCommentAttributes comment : comments) {
+            documents.add(new FeedbackResponseCommentSearchDocument(comment, prefetchedData));
+        }
+        return documents;
+    }
+    
     @Override
     protected void prepareData() {
         if (comment == null) {
             return;
         }
         
-        relatedSession = logic.getFeedbackSession(comment.feedbackSessionName, comment.courseId);
-        
-        relatedQuestion = logic.getFeedbackQuestion(comment.feedbackQuestionId);
-        
-        relatedResponse = logic.getFeedbackResponse(comment.feedbackResponseId);
-        
-        course = logic.getCourse(comment.courseId);
+        if (prefetchedData == null) {
+            relatedSession = logic.getFeedbackSession(comment.feedbackSessionName, comment.courseId);
+            relatedQuestion = logic.getFeedbackQuestion(comment.feedbackQuestionId);
+            relatedResponse = logic.getFeedbackResponse(comment.feedbackResponseId);
+            course = logic.getCourse(comment.courseId);
+        } else {
+            relatedSession = prefetchedData.sessions.get(getSessionKey(comment.courseId, comment.feedbackSessionName));
+            relatedQuestion = prefetchedData.questions.get(comment.feedbackQuestionId);
+            relatedResponse = prefetchedData.responses.get(comment.feedbackResponseId);
+            course = prefetchedData.courses.get(comment.courseId);
+        }
         
-        giverAsInstructor = logic.getInstructorForEmail(comment.courseId, comment.giverEmail);
+        giverAsInstructor = getInstructorForEmail(comment.giverEmail);
         
         relatedInstructors = new ArrayList<InstructorAttributes>();
         relatedStudents = new ArrayList<StudentAttributes>();
@@ -62,7 +91,7 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
         Set<String> addedEmailSet = new HashSet<String>();
         if (relatedQuestion.giverType == FeedbackParticipantType.INSTRUCTORS
                 || relatedQuestion.giverType == FeedbackParticipantType.SELF) {
-            InstructorAttributes ins = logic.getInstructorForEmail(comment.courseId, relatedResponse.giver);
+            InstructorAttributes ins = getInstructorForEmail(relatedResponse.giver);
             if (ins == null || addedEmailSet.contains(ins.email)) {
                 responseGiverName = Const.USER_UNKNOWN_TEXT;
             } else {
@@ -71,7 +100,7 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
                 responseGiverName = ins.name + " (" + ins.displayedName + ")";
             }
         } else {
-            StudentAttributes stu = logic.getStudentForEmail(comment.courseId, relatedResponse.giver);
+            StudentAttributes stu = getStudentForEmail(relatedResponse.giver);
             if (stu == null || addedEmailSet.contains(stu.email)) {
                 responseGiverName = Const.USER_UNKNOWN_TEXT;
             } else {
@@ -82,7 +111,7 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
         }
         
         if (relatedQuestion.recipientType == FeedbackParticipantType.INSTRUCTORS) {
-            InstructorAttributes ins = logic.getInstructorForEmail(comment.courseId, relatedResponse.recipient);
+            InstructorAttributes ins = getInstructorForEmail(relatedResponse.recipient);
             if (ins != null && !addedEmailSet.contains(ins.email)) {
                 relatedInstructors.add(ins);
                 addedEmailSet.add(ins.email);
@@ -93,13 +122,13 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
         } else if (relatedQuestion.recipientType == FeedbackParticipantType.NONE) {
             responseRecipientName = Const.USER_NOBODY_TEXT;
         } else {
-            StudentAttributes stu = logic.getStudentForEmail(comment.courseId, relatedResponse.recipient);
+            StudentAttributes stu = getStudentForEmail(relatedResponse.recipient);
             if (stu != null && !addedEmailSet.contains(stu.email)) {
                 relatedStudents.add(stu);
                 addedEmailSet.add(stu.email);
                 responseRecipientName = stu.name + " (" + stu.team + ")";
             }
-            List<StudentAttributes> team = logic.getStudentsForTeam(relatedResponse.recipient, comment.courseId);
+            List<StudentAttributes> team = getStudentsForTeam(relatedResponse.recipient);
             if (team != null) {
                 responseRecipientName = relatedResponse.recipient; //it's actually a team name here
                 for (StudentAttributes studentInTeam : team) {
@@ -115,6 +144,31 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
         }
     }
 
+    private InstructorAttributes getInstructorForEmail(String email) {
+        if (prefetchedData == null) {
+            return logic.getInstructorForEmail(comment.courseId, email);
+        }
+        return prefetchedData.rosters.get(comment.courseId).getInstructorForEmail(email);
+    }
+    
+    private StudentAttributes getStudentForEmail(String email) {
+        if (prefetchedData == null) {
+            return logic.getStudentForEmail(comment.courseId, email);
+        }
+        return prefetchedData.rosters.get(comment.courseId).getStudentForEmail(email);
+    }
+    
+    private List<StudentAttributes> getStudentsForTeam(String teamName) {
+        if (prefetchedData == null) {
+            return logic.getStudentsForTeam(teamName, comment.courseId);
+        }
+        return prefetchedData.rosters.get(comment.courseId).getStudentsInTeam(teamName);
+    }
+    
+    private static String getSessionKey(String courseId, String feedbackSessionName) {
+        return courseId + "%" + feedbackSessionName;
+    }
+    
     @Override
     public Document toDocument() {
         
@@ -222,4 +276,45 @@ public class FeedbackResponseCommentSearchDocument extends SearchDocument {
         return doc;
     }
 
+    /**
+     * The data related to a batch of comments, each distinct item of which is read only once.
+     */
+    private static class RelatedData {
+        final Map<String, FeedbackSessionAttributes> sessions = new HashMap<String, FeedbackSessionAttributes>();
+        final Map<String, FeedbackQuestionAttributes> questions = new HashMap<String, FeedbackQuestionAttributes>();
+        final Map<String, FeedbackResponseAttributes> responses = new HashMap<String, FeedbackResponseAttributes>();
+        final Map<String, CourseAttributes> courses = new HashMap<String, CourseAttributes>();
+        final Map<String, CourseRoster> rosters = new HashMap<String, CourseRoster>();
+        
+        RelatedData(List<FeedbackResponseCommentAttributes> comments) {
+            Logic logic = new Logic();
+            Set<String> responseIds = new HashSet<String>();
+            for (FeedbackResponseCommentAttributes comment : comments) {
+                if (comment == null) {
+                    continue;
+                }
+                
+                String sessionKey = getSessionKey(comment.courseId, comment.feedbackSessionName);
+                if (!sessions.containsKey(sessionKey)) {
+                    sessions.put(sessionKey, logic.getFeedbackSession(comment.feedbackSessionName, comment.courseId));
+                }
+                
+                if (!questions.containsKey(comment.feedbackQuestionId)) {
+                    questions.put(comment.feedbackQuestionId, logic.getFeedbackQuestion(comment.feedbackQuestionId));
+                }
+                
+                responseIds.add(comment.feedbackResponseId);
+                
+                if (!courses.containsKey(comment.courseId)) {
+                    courses.put(comment.courseId, logic.getCourse(comment.courseId));
+                    rosters.put(comment.courseId, CourseRosterCache.getCourseRoster(comment.courseId));
+                }
+            }
+            
+            // one batch read for the responses commented on, instead of one read per comment
+            for (FeedbackResponseAttributes response : logic.getFeedbackResponses(responseIds)) {
+                responses.put(response.getId(), response);
+            }
+        }
+    }
 }
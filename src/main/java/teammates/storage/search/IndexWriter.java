@@ -0,0 +1,285 @@
+package teammates.storage.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import teammates.common.exception.TeammatesException;
+import teammates.common.util.Const;
+import teammates.common.util.ThreadHelper;
+import teammates.common.util.Utils;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.OperationResult;
+import com.google.appengine.api.search.PutException;
+import com.google.appengine.api.search.PutResponse;
+import com.google.appengine.api.search.StatusCode;
+import com.google.appengine.api.taskqueue.DeferredTask;
+import com.google.appengine.api.taskqueue.DeferredTaskContext;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskOptions;
+
+/**
+ * Writes documents into the search indexes in batches.
+ * <br> Within a request (see {@link IndexWriterFilter}), documents are buffered per index and put
+ * asynchronously in batches of up to {@link #MAX_DOCUMENTS_PER_PUT}; the rest are put when the request ends.
+ * Outside of a request, e.g. in scripts and tests, documents are put as soon as they are added.
+ * <br> Documents that fail to be put are retried a few times with exponential backoff,
+ * after which they are handed to a task in the search document queue.
+ */
+public final class IndexWriter {
+
+    /** The maximum number of documents the search service accepts in one put. */
+    static final int MAX_DOCUMENTS_PER_PUT = 200;
+
+    private static final int MAX_RETRIES = 3;
+    private static final int INITIAL_BACKOFF_MILLIS = 100;
+
+    private static final String ERROR_NON_TRANSIENT_BACKEND_ISSUE =
+            "Failed to put document %s into search index %s due to non-transient backend issue.";
+    private static final String ERROR_EXCEED_RETRIES =
+            "Failed to put %d documents into search index %s after %d retries, handing them to the task queue";
+
+    private static final Logger log = Utils.getLogger();
+
+    /** The documents waiting to be put, by index and then by document id. */
+    private static final ThreadLocal<Map<String, Map<String, Document>>> PER_THREAD_BUFFERS =
+            new ThreadLocal<Map<String, Map<String, Document>>>();
+    private static final ThreadLocal<List<PendingPut>> PER_THREAD_PENDING_PUTS = new ThreadLocal<List<PendingPut>>();
+
+    private IndexWriter() {
+        // utility class
+    }
+
+    /**
+     * Starts buffering the documents added by the current thread until {@link #flush()} is called.
+     */
+    public static void startBuffering() {
+        PER_THREAD_BUFFERS.set(new HashMap<String, Map<String, Document>>());
+    }
+
+    /**
+     * Adds {@code documents} to be put into the index, replacing any existing documents with the same ids.
+     */
+    public static void addDocuments(String indexName, List<Document> documents) {
+        Map<String, Map<String, Document>> buffers = PER_THREAD_BUFFERS.get();
+        if (buffers == null) {
+            startPuts(indexName, documents);
+            completePendingPuts();
+            return;
+        }
+
+        Map<String, Document> buffer = buffers.get(indexName);
+        if (buffer == null) {
+            buffer = new LinkedHashMap<String, Document>();
+            buffers.put(indexName, buffer);
+        }
+        for (Document document : documents) {
+            // only the latest version of a document needs to be put
+            buffer.remove(document.getId());
+            buffer.put(document.getId(), document);
+        }
+
+        if (buffer.size() >= MAX_DOCUMENTS_PER_PUT) {
+            startPuts(indexName, new ArrayList<Document>(buffer.values()));
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Removes the documents with the given ids from those waiting to be put into the index,
+     * so that they are not put after being deleted.
+     */
+    public static void discardDocuments(String indexName, Collection<String> documentIds) {
+        Map<String, Map<String, Document>> buffers = PER_THREAD_BUFFERS.get();
+        if (buffers != null && buffers.containsKey(indexName)) {
+            buffers.get(indexName).keySet().removeAll(documentIds);
+        }
+
+        // puts already started for the index must finish before the documents are deleted
+        List<PendingPut> pendingPuts = PER_THREAD_PENDING_PUTS.get();
+        if (pendingPuts == null) {
+            return;
+        }
+        for (PendingPut pendingPut : pendingPuts) {
+            if (pendingPut.indexName.equals(indexName)) {
+                completePendingPuts();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Puts all documents added by the current thread and waits for them to be written,
+     * then stops buffering documents. Puts that are not completed because of an exception are dropped,
+     * so that they are not carried over to the next request served by the thread.
+     */
+    public static void flush() {
+        Map<String, Map<String, Document>> buffers = PER_THREAD_BUFFERS.get();
+        PER_THREAD_BUFFERS.remove();
+        try {
+            if (buffers != null) {
+                for (Map.Entry<String, Map<String, Document>> buffer : buffers.entrySet()) {
+                    startPuts(buffer.getKey(), new ArrayList<Document>(buffer.getValue().values()));
+                }
+            }
+            completePendingPuts();
+        } finally {
+            PER_THREAD_PENDING_PUTS.remove();
+        }
+    }
+
+    private static void startPuts(String indexName, List<Document> documents) {
+        for (int i = 0; i < documents.size(); i += MAX_DOCUMENTS_PER_PUT) {
+            List<Document> batch = documents.subList(i, Math.min(i + MAX_DOCUMENTS_PER_PUT, documents.size()));
+            startPut(indexName, new ArrayList<Document>(batch), 0);
+        }
+    }
+
+    private static void startPut(String indexName, List<Document> documents, int retries) {
+        List<PendingPut> pendingPuts = PER_THREAD_PENDING_PUTS.get();
+        if (pendingPuts == null) {
+            pendingPuts = new ArrayList<PendingPut>();
+            PER_THREAD_PENDING_PUTS.set(pendingPuts);
+        }
+        pendingPuts.add(new PendingPut(indexName, documents, retries));
+    }
+
+    private static void completePendingPuts() {
+        List<PendingPut> pendingPuts = PER_THREAD_PENDING_PUTS.get();
+        if (pendingPuts == null) {
+            return;
+        }
+        while (!pendingPuts.isEmpty()) {
+            PendingPut pendingPut = pendingPuts.remove(0);
+            List<Document> failedDocuments = pendingPut.getFailedDocuments();
+            log.info("Put " + pendingPut.documents.size() + " documents into search index " + pendingPut.indexName
+                     + " in " + (System.currentTimeMillis() - pendingPut.startTime) + " ms"
+                     + " (retries: " + pendingPut.retries + ", failed: " + failedDocuments.size() + ")");
+
+            if (failedDocuments.isEmpty()) {
+                continue;
+            }
+            if (pendingPut.retries >= MAX_RETRIES) {
+                log.warning(String.format(ERROR_EXCEED_RETRIES, failedDocuments.size(), pendingPut.indexName,
+                                          pendingPut.retries));
+                addRetryTasks(pendingPut.indexName, failedDocuments);
+                continue;
+            }
+            ThreadHelper.waitFor(INITIAL_BACKOFF_MILLIS << pendingPut.retries);
+            startPut(pendingPut.indexName, failedDocuments, pendingPut.retries + 1);
+        }
+    }
+
+    private static void addRetryTasks(String indexName, List<Document> documents) {
+        for (Document document : documents) {
+            try {
+                QueueFactory.getQueue(Const.SystemParams.SEARCH_DOCUMENT_TASK_QUEUE)
+                            .add(TaskOptions.Builder.withPayload(new PutDocumentTask(indexName, document)));
+            } catch (RuntimeException e) {
+                log.severe("Failed to add task to put document " + document.getId() + " into search index "
+                           + indexName + " e:\n" + TeammatesException.toStringWithStackTrace(e));
+            }
+        }
+    }
+
+    /**
+     * Returns the documents among {@code documents} that failed to be put with a transient error,
+     * given the {@code results} of putting them. Documents that failed with other errors are logged.
+     */
+    private static List<Document> getDocumentsToRetry(String indexName, List<Document> documents,
+                                                      List<OperationResult> results) {
+        List<Document> documentsToRetry = new ArrayList<Document>();
+        for (int i = 0; i < documents.size(); i++) {
+            StatusCode code = results.get(i).getCode();
+            if (StatusCode.TRANSIENT_ERROR.equals(code)) {
+                documentsToRetry.add(documents.get(i));
+            } else if (!StatusCode.OK.equals(code)) {
+                log.severe(String.format(ERROR_NON_TRANSIENT_BACKEND_ISSUE, documents.get(i).getId(), indexName)
+                           + " " + results.get(i));
+            }
+        }
+        return documentsToRetry;
+    }
+
+    /**
+     * A put of a batch of documents that has been sent to the search service.
+     */
+    private static class PendingPut {
+        final String indexName;
+        final List<Document> documents;
+        final int retries;
+        final long startTime;
+        final Future<PutResponse> response;
+
+        PendingPut(String indexName, List<Document> documents, int retries) {
+            this.indexName = indexName;
+            this.documents = documents;
+            this.retries = retries;
+            this.startTime = System.currentTimeMillis();
+            this.response = SearchManager.getIndex(indexName).putAsync(documents);
+        }
+
+        /**
+         * Waits for the put to finish and returns the documents that should be put again.
+         */
+        List<Document> getFailedDocuments() {
+            try {
+                return getDocumentsToRetry(indexName, documents, response.get().getResults());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof PutException) {
+                    PutException putException = (PutException) e.getCause();
+                    List<OperationResult> results = putException.getResults();
+                    if (results != null && results.size() == documents.size()) {
+                        return getDocumentsToRetry(indexName, documents, results);
+                    }
+                }
+                log.warning("Failed to put " + documents.size() + " documents into search index " + indexName
+                            + " e:\n" + TeammatesException.toStringWithStackTrace(e));
+                return documents;
+            } catch (InterruptedException e) {
+                log.warning(TeammatesException.toStringWithStackTrace(e));
+                return documents;
+            }
+        }
+    }
+
+    /**
+     * Puts a document that could not be put during a request. The task is retried by the queue until it succeeds.
+     */
+    private static class PutDocumentTask implements DeferredTask {
+        private static final long serialVersionUID = 1L;
+
+        private final String indexName;
+        private final Document document;
+
+        PutDocumentTask(String indexName, Document document) {
+            this.indexName = indexName;
+            this.document = document;
+        }
+
+        @Override
+        public void run() {
+            PutResponse response;
+            try {
+                response = SearchManager.getIndex(indexName).put(document);
+            } catch (PutException e) {
+                response = null;
+                if (!StatusCode.TRANSIENT_ERROR.equals(e.getOperationResult().getCode())) {
+                    log.severe(String.format(ERROR_NON_TRANSIENT_BACKEND_ISSUE, document.getId(), indexName)
+                               + " e:\n" + TeammatesException.toStringWithStackTrace(e));
+                    return;
+                }
+            }
+            if (response == null || StatusCode.TRANSIENT_ERROR.equals(response.getResults().get(0).getCode())) {
+                DeferredTaskContext.markForRetry();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package teammates.storage.search;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import teammates.common.exception.TeammatesException;
+import teammates.common.util.Utils;
+
+/**
+ * Servlet Filter that lets {@link IndexWriter} buffer the search documents written during a request
+ * and puts them into the indexes in batches when the request ends.
+ */
+public final class IndexWriterFilter implements javax.servlet.Filter {
+
+    private static final Logger log = Utils.getLogger();
+
+    @Override
+    public void init(FilterConfig config) {
+        // nothing to initialize
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response,
+            FilterChain chain) throws IOException, ServletException {
+        IndexWriter.startBuffering();
+        boolean isRequestSuccessful = false;
+        try {
+            chain.doFilter(request, response);
+            isRequestSuccessful = true;
+        } finally {
+            if (isRequestSuccessful) {
+                IndexWriter.flush();
+            } else {
+                flushAfterFailedRequest();
+            }
+        }
+    }
+
+    /**
+     * Flushes the documents of a request that threw an exception. A failure to flush is only logged,
+     * so that it does not hide the exception of the request.
+     */
+    private static void flushAfterFailedRequest() {
+        try {
+            IndexWriter.flush();
+        } catch (RuntimeException e) {
+            log.severe("Failed to put search documents of a failed request e:\n"
+                       + TeammatesException.toStringWithStackTrace(e));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // unused class
+    }
+}
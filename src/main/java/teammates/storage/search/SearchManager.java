@@ -1,24 +1,18 @@
 package teammates.storage.search;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
-
-import teammates.common.exception.TeammatesException;
-import teammates.common.util.Config;
-import teammates.common.util.ThreadHelper;
-import teammates.common.util.Utils;
 
 import com.google.appengine.api.search.Document;
 import com.google.appengine.api.search.Index;
 import com.google.appengine.api.search.IndexSpec;
-import com.google.appengine.api.search.PutException;
-import com.google.appengine.api.search.PutResponse;
 import com.google.appengine.api.search.Query;
 import com.google.appengine.api.search.Results;
 import com.google.appengine.api.search.ScoredDocument;
 import com.google.appengine.api.search.SearchServiceFactory;
-import com.google.appengine.api.search.StatusCode;
 
 /**
  * Represents the search manager for index.
@@ -26,11 +20,6 @@ import com.google.appengine.api.search.StatusCode;
  * https://developers.google.com/appengine/docs/java/search/
  */
 public final class SearchManager {
-    private static final String ERROR_NON_TRANSIENT_BACKEND_ISSUE =
-            "Failed to put document %s into search index %s due to non-transient backend issue.";
-    private static final String ERROR_EXCEED_DURATION =
-            "Operation did not succeed in time to put document %s into search index %s";
-    private static final Logger log = Utils.getLogger();
     private static final ThreadLocal<Map<String, Index>> PER_THREAD_INDICES_TABLE = new ThreadLocal<Map<String, Index>>();
     
     private SearchManager() {
@@ -41,36 +30,14 @@ public final class SearchManager {
      * Create or update the search document for the given document and index
      */
     public static void putDocument(String indexName, Document document) {
-        int elapsedTime = 0;
-        boolean isSuccessful = tryPutDocument(indexName, document);
-        while (!isSuccessful
-                && elapsedTime < Config.PERSISTENCE_CHECK_DURATION) {
-            ThreadHelper.waitBriefly();
-            //retry putting the document
-            isSuccessful = tryPutDocument(indexName, document);
-            //check before incrementing to avoid boundary case problem
-            if (!isSuccessful) {
-                elapsedTime += ThreadHelper.WAIT_DURATION;
-            }
-        }
-        if (elapsedTime >= Config.PERSISTENCE_CHECK_DURATION) {
-            log.severe(String.format(ERROR_EXCEED_DURATION, document, indexName));
-        }
+        IndexWriter.addDocuments(indexName, Collections.singletonList(document));
     }
     
-    private static boolean tryPutDocument(String indexName, Document document) {
-        Index index = getIndex(indexName);
-        try {
-            PutResponse result = index.put(document);
-            return result.getResults().get(0).getCode() == StatusCode.OK;
-        } catch (PutException e) {
-            //if it's a transient error in the server, it can be re-tried
-            if (!StatusCode.TRANSIENT_ERROR.equals(e.getOperationResult().getCode())) {
-                log.severe(String.format(ERROR_NON_TRANSIENT_BACKEND_ISSUE, document, indexName)
-                        + " e:\n" + TeammatesException.toStringWithStackTrace(e));
-            }
-            return false;
-        }
+    /*
+     * Create or update the search documents for the given documents and index
+     */
+    public static void putDocuments(String indexName, List<Document> documents) {
+        IndexWriter.addDocuments(indexName, documents);
     }
     
     /*
@@ -91,6 +58,7 @@ public final class SearchManager {
      * Delete document by documentId
      */
     public static void deleteDocument(String indexName, String documentId) {
+        IndexWriter.discardDocuments(indexName, Collections.singletonList(documentId));
         getIndex(indexName).deleteAsync(documentId);
     }
     
@@ -98,10 +66,11 @@ public final class SearchManager {
      * Delete documents by documentIds
      */
     public static void deleteDocuments(String indexName, String[] documentIds) {
+        IndexWriter.discardDocuments(indexName, Arrays.asList(documentIds));
         getIndex(indexName).deleteAsync(documentIds);
     }
     
-    private static Index getIndex(String indexName) {
+    static Index getIndex(String indexName) {
         Map<String, Index> indicesTable = getIndicesTable();
         Index index = indicesTable.get(indexName);
         if (index == null) {
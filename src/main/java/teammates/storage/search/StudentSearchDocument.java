@@ -1,8 +1,14 @@
 package teammates.storage.search;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import teammates.common.datatransfer.CourseAttributes;
 import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.util.Const;
+import teammates.logic.api.Logic;
 
 import com.google.appengine.api.search.Document;
 import com.google.appengine.api.search.Field;
@@ -12,14 +18,38 @@ public class StudentSearchDocument extends SearchDocument {
 
     private StudentAttributes student;
     private CourseAttributes course;
+    private boolean isCoursePrefetched;
     
     public StudentSearchDocument(StudentAttributes student) {
         this.student = student;
     }
     
+    private StudentSearchDocument(StudentAttributes student, CourseAttributes course) {
+        this.student = student;
+        this.course = course;
+        this.isCoursePrefetched = true;
+    }
+    
+    /**
+     * Creates the search documents of {@code students}. Each course they are in is read once,
+     * instead of once for each student.
+     */
+    public static List<SearchDocument> fromStudents(List<StudentAttributes> students) {
+        Logic logic = new Logic();
+        Map<String, CourseAttributes> courses = new HashMap<String, CourseAttributes>();
+        List<SearchDocument> documents = new ArrayList<SearchDocument>();
+        for (StudentAttributes student : students) {
+            if (!courses.containsKey(student.course)) {
+                courses.put(student.course, logic.getCourse(student.course));
+            }
+            documents.add(new StudentSearchDocument(student, courses.get(student.course)));
+        }
+        return documents;
+    }
+    
     @Override
     protected void prepareData() {
-        if (student == null) {
+        if (student == null || isCoursePrefetched) {
             return;
         }
         
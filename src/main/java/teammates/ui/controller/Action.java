@@ -118,7 +118,7 @@ public abstract class Action {
             Assumption.assertNotNull(regkey);
             loggedInUser = authenticateNotLoggedInUser(email, courseId);
         } else {
-            loggedInUser = logic.getAccount(currentUser.id);
+            loggedInUser = logic.getCurrentUserAccount();
             if (doesRegkeyMatchLoggedInUserGoogleId(currentUser.id)) {
                 loggedInUser = createDummyAccountIfUserIsUnregistered(currentUser, loggedInUser);
             }
@@ -346,7 +346,7 @@ public abstract class Action {
         response.isError = isError;
         
         // Set the common parameters for the response
-        if (logic.getCurrentUser() != null) {
+        if (Logic.isUserLoggedIn()) {
             response.responseParams.put(Const.ParamsNames.USER_ID, account.googleId);
         }
         
@@ -10,6 +10,7 @@ import teammates.common.datatransfer.CourseAttributes;
 import teammates.common.datatransfer.FeedbackSessionAttributes;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
 import teammates.common.util.AdminLogQuery;
 import teammates.common.util.Const;
 import teammates.common.util.GaeLogApi;
@@ -38,10 +39,21 @@ public class AdminActivityLogPageAction extends Action {
      * Maximum number of versions to query.
      */
     private static final int MAX_VERSIONS_TO_QUERY = 1 + 5; //the current version and its 5 preceding versions
+    /**
+     * The maximum number of logs to read from the activity log store in one search.
+     */
+    private static final int MAX_LOGS_TO_READ_FROM_STORE = 20 * RELEVANT_LOGS_PER_PAGE;
+    
+    private static final String ADMIN_ACTIVITY_LOG_PAGE_ACTION_NAME =
+            ActivityLogEntry.getActionName(Const.ActionURIs.ADMIN_ACTIVITY_LOG_PAGE);
     
     private int totalLogsSearched;
     private boolean isFirstRow = true;
     private Long nextEndTimeToSearch;
+    /**
+     * The cursor to continue the search in the activity log store from, or null if the search is done.
+     */
+    private String nextCursorToSearch;
     
     @Override
     protected ActionResult execute() {
@@ -94,14 +106,24 @@ public class AdminActivityLogPageAction extends Action {
             data.setToDate(Long.parseLong(searchTimeOffset));
         }
         
-        List<String> versionToQuery = getVersionsForQuery(data.getVersions());
-        AdminLogQuery query = new AdminLogQuery(versionToQuery, data.getFromDate(), data.getToDate());
-        
+        // The logs are searched in the activity log store, unless versions are specified in the query,
+        // in which case the application logs of those versions are searched instead.
+        boolean isVersionSpecifiedInQuery = data.getVersions() != null && !data.getVersions().isEmpty();
+        List<String> versionToQuery = null;
         List<ActivityLogEntry> logs = null;
-        if (data.isFromDateSpecifiedInQuery()) {
-            logs = searchLogsWithExactTimePeriod(query, data);
+        if (isVersionSpecifiedInQuery) {
+            versionToQuery = getVersionsForQuery(data.getVersions());
+            AdminLogQuery query = new AdminLogQuery(versionToQuery, data.getFromDate(), data.getToDate());
+            if (data.isFromDateSpecifiedInQuery()) {
+                logs = searchLogsWithExactTimePeriod(query, data);
+            } else {
+                logs = searchLogsWithTimeIncrement(query, data);
+            }
         } else {
-            logs = searchLogsWithTimeIncrement(query, data);
+            Long startTime = data.isFromDateSpecifiedInQuery() ? data.getFromDate() : null;
+            ActivityLogQuery query = data.toActivityLogQuery(startTime, data.getToDate());
+            query.setCursor(getRequestParamValue("searchCursor"));
+            logs = searchLogsInStore(query, data);
         }
         
         String courseIdFromSearchPage = getRequestParamValue("courseId");
@@ -142,7 +164,8 @@ public class AdminActivityLogPageAction extends Action {
             earliestLogChecked = logs.get(logs.size() - 1);
         }
         //  if the search space is limited to a certain log
-        if (logs.size() >= RELEVANT_LOGS_PER_PAGE && earliestLogChecked != null) {
+        boolean isSearchLimitedToLog = versionToQuery == null || logs.size() >= RELEVANT_LOGS_PER_PAGE;
+        if (isSearchLimitedToLog && earliestLogChecked != null) {
             earliestSearchTime = earliestLogChecked.getTime();
         }
         
@@ -171,13 +194,18 @@ public class AdminActivityLogPageAction extends Action {
             status.append("on <b>" + timeInUserTimeZone + "</b> in Local Time Zone (" + targetTimeZone + ").<br>");
         }
         
-        status.append("Logs are from following version(s): ");
-        for (int i = 0; i < versionToQuery.size(); i++) {
-            String version = versionToQuery.get(i).replace('-', '.');
-            if (i < versionToQuery.size() - 1) {
-                status.append(version).append(", ");
-            } else {
-                status.append(version).append("<br>");
+        if (versionToQuery == null) {
+            status.append("Logs are from the activity log store. "
+                          + "Specify the version(s) in the query to search the application logs instead.<br>");
+        } else {
+            status.append("Logs are from following version(s): ");
+            for (int i = 0; i < versionToQuery.size(); i++) {
+                String version = versionToQuery.get(i).replace('-', '.');
+                if (i < versionToQuery.size() - 1) {
+                    status.append(version).append(", ");
+                } else {
+                    status.append(version).append("<br>");
+                }
             }
         }
         
@@ -193,10 +221,18 @@ public class AdminActivityLogPageAction extends Action {
             }
         }
         
-        // the "Search More" button to continue searching from the previous fromDate
-        status.append("<button class=\"btn-link\" id=\"button_older\" onclick=\"submitFormAjax("
-                      + nextEndTimeToSearch
-                      + ");\">Search More</button><input id=\"ifShowAll\" type=\"hidden\" value=\""
+        // the "Search More" button to continue searching from the previous fromDate,
+        // or from the previous cursor for the activity log store
+        if (versionToQuery == null && nextCursorToSearch == null) {
+            status.append("No more logs found.");
+        } else if (versionToQuery == null) {
+            status.append("<button class=\"btn-link\" id=\"button_older\" onclick=\"submitFormAjax("
+                          + data.getToDate() + ", '" + nextCursorToSearch + "');\">Search More</button>");
+        } else {
+            status.append("<button class=\"btn-link\" id=\"button_older\" onclick=\"submitFormAjax("
+                          + nextEndTimeToSearch + ");\">Search More</button>");
+        }
+        status.append("<input id=\"ifShowAll\" type=\"hidden\" value=\""
                       + data.getIfShowAll()
                       + "\"/><input id=\"ifShowTestData\" type=\"hidden\" value=\""
                       + data.getIfShowTestData() + "\"/>");
@@ -232,6 +268,23 @@ public class AdminActivityLogPageAction extends Action {
         return appLogs;
     }
     
+    /**
+     * Retrieves enough logs from the activity log store, reading at most MAX_LOGS_TO_READ_FROM_STORE logs.
+     */
+    private List<ActivityLogEntry> searchLogsInStore(ActivityLogQuery query, AdminActivityLogPageData data) {
+        List<ActivityLogEntry> appLogs = new LinkedList<ActivityLogEntry>();
+        
+        totalLogsSearched = 0;
+        do {
+            List<ActivityLogEntry> searchResult = logic.getActivityLogs(query, RELEVANT_LOGS_PER_PAGE);
+            appLogs.addAll(filterActivityLogEntries(searchResult, data));
+            totalLogsSearched += searchResult.size();
+        } while (query.hasMoreLogs() && appLogs.size() < RELEVANT_LOGS_PER_PAGE
+                 && totalLogsSearched < MAX_LOGS_TO_READ_FROM_STORE);
+        nextCursorToSearch = query.getCursor();
+        return appLogs;
+    }
+    
     /**
      * Retrieves all logs in the time period specified in the query.
      */
@@ -250,7 +303,7 @@ public class AdminActivityLogPageAction extends Action {
      */
     private List<ActivityLogEntry> filterLogsForActivityLogPage(List<AppLogLine> appLogLines,
                                                                 AdminActivityLogPageData data) {
-        List<ActivityLogEntry> appLogs = new LinkedList<ActivityLogEntry>();
+        List<ActivityLogEntry> activityLogEntries = new LinkedList<ActivityLogEntry>();
         for (AppLogLine appLog : appLogLines) {
             String logMsg = appLog.getLogMessage();
             boolean isNotTeammatesLog = !logMsg.contains("TEAMMATESLOG");
@@ -259,8 +312,24 @@ public class AdminActivityLogPageAction extends Action {
                 continue;
             }
             
-            ActivityLogEntry activityLogEntry = new ActivityLogEntry(appLog);
-            activityLogEntry = data.filterLogs(activityLogEntry);
+            activityLogEntries.add(new ActivityLogEntry(appLog));
+        }
+        return filterActivityLogEntries(activityLogEntries, data);
+    }
+    
+    /**
+     * Filters activity log entries that should be shown on Admin Activity Log Page.
+     */
+    private List<ActivityLogEntry> filterActivityLogEntries(List<ActivityLogEntry> activityLogEntries,
+                                                            AdminActivityLogPageData data) {
+        List<ActivityLogEntry> appLogs = new LinkedList<ActivityLogEntry>();
+        for (ActivityLogEntry entry : activityLogEntries) {
+            boolean isLogFromAdminActivityLogPage = ADMIN_ACTIVITY_LOG_PAGE_ACTION_NAME.equals(entry.getServletName());
+            if (isLogFromAdminActivityLogPage) {
+                continue;
+            }
+            
+            ActivityLogEntry activityLogEntry = data.filterLogs(entry);
             
             boolean isToShow = activityLogEntry.toShow() && (!activityLogEntry.isTestingData() || data.getIfShowTestData());
             if (!isToShow) {
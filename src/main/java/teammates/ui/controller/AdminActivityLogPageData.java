@@ -12,6 +12,7 @@ import java.util.TimeZone;
 import teammates.common.datatransfer.AccountAttributes;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
 import teammates.common.util.Assumption;
 import teammates.common.util.Const;
 import teammates.common.util.StringHelper;
@@ -205,6 +206,11 @@ public class AdminActivityLogPageData extends PageData {
             logEntry.setToShow(false);
             return logEntry;
         }
+        if (q.isCourseInQuery
+                && (logEntry.getCourseId() == null || !arrayContains(q.courseValues, logEntry.getCourseId()))) {
+            logEntry.setToShow(false);
+            return logEntry;
+        }
         if (q.isCutoffInQuery) {
             if (logEntry.getTimeTaken() == null) {
                 logEntry.setToShow(false);
@@ -244,6 +250,30 @@ public class AdminActivityLogPageData extends PageData {
         return logEntry;
     }
     
+    /**
+     * Creates the query for the activity log store for the logs between {@code startTime} and {@code endTime}.
+     * Only the most selective of the person, course, request and role in the query is searched by,
+     * as each combination of them would need its own index; the logs found are filtered by the rest
+     * with {@link #filterLogs}.
+     */
+    public ActivityLogQuery toActivityLogQuery(Long startTime, Long endTime) {
+        ActivityLogQuery query = new ActivityLogQuery(startTime, endTime);
+        if (q == null) {
+            return query;
+        }
+        
+        if (q.isPersonInQuery) {
+            query.setPerson(q.personValue);
+        } else if (q.isCourseInQuery && q.courseValues.length == 1) {
+            query.setCourseId(q.courseValues[0]);
+        } else if (q.isRequestInQuery && q.requestValues.length == 1) {
+            query.setAction(q.requestValues[0]);
+        } else if (q.isRoleInQuery && q.roleValues.length == 1) {
+            query.setRole(q.roleValues[0]);
+        }
+        return query;
+    }
+    
     /**
      * Converts the query string into a QueryParameters object
      * 
@@ -417,6 +447,9 @@ public class AdminActivityLogPageData extends PageData {
         public boolean isRoleInQuery;
         public String[] roleValues;
         
+        public boolean isCourseInQuery;
+        public String[] courseValues;
+        
         public boolean isCutoffInQuery;
         public long cutoffValue;
         
@@ -431,6 +464,7 @@ public class AdminActivityLogPageData extends PageData {
             isResponseInQuery = false;
             isPersonInQuery = false;
             isRoleInQuery = false;
+            isCourseInQuery = false;
             isCutoffInQuery = false;
             isInfoInQuery = false;
             isIdInQuery = false;
@@ -457,6 +491,10 @@ public class AdminActivityLogPageData extends PageData {
                 isRoleInQuery = true;
                 roleValues = values;
                 break;
+            case "course":
+                isCourseInQuery = true;
+                courseValues = values;
+                break;
             case "time":
                 isCutoffInQuery = true;
                 cutoffValue = Long.parseLong(values[0]);
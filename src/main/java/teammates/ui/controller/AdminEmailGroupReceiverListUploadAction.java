@@ -5,7 +5,7 @@ import java.util.List;
 import java.util.Map;
 
 import teammates.common.util.Const;
-import teammates.common.util.GoogleCloudStorageHelper;
+import teammates.common.util.GroupReceiverListReader;
 import teammates.logic.api.GateKeeper;
 
 import com.google.appengine.api.blobstore.BlobInfo;
@@ -15,6 +15,8 @@ import com.google.appengine.api.blobstore.BlobstoreServiceFactory;
 
 public class AdminEmailGroupReceiverListUploadAction extends Action {
     
+    private static final int RECEIVERS_PER_READ = 500;
+    
     AdminEmailComposePageData data;
 
     @Override
@@ -35,17 +37,20 @@ public class AdminEmailGroupReceiverListUploadAction extends Action {
         }
         
         try {
-            List<List<String>> groupReceiverList =
-                    GoogleCloudStorageHelper.getGroupReceiverList(blobInfo.getBlobKey());
+            GroupReceiverListReader reader = new GroupReceiverListReader(blobInfo.getBlobKey(), 0);
             
             // log all email addresses retrieved from the txt file
             int i = 0;
             
-            for (List<String> list : groupReceiverList) {
-                for (String str : list) {
-                    log.info(str + " - " + i + " \n");
-                    i++;
+            try {
+                while (reader.hasMore()) {
+                    for (String str : reader.readReceivers(RECEIVERS_PER_READ)) {
+                        log.info(str + " - " + i + " \n");
+                        i++;
+                    }
                 }
+            } finally {
+                reader.close();
             }
         } catch (IOException e) {
             data.isFileUploaded = false;
@@ -212,9 +212,7 @@ public class AdminInstructorAccountAddAction extends Action {
         for (CommentAttributes comment : comments) {
             backdoor.putDocument(comment);
         }
-        for (FeedbackResponseCommentAttributes comment : frComments) {
-            backdoor.putDocument(comment);
-        }
+        backdoor.putDocuments(frComments);
         for (StudentAttributes student : students) {
             backdoor.putDocument(student);
         }
@@ -69,26 +69,27 @@ public class ControllerServlet extends HttpServlet {
             
             long timeTaken = System.currentTimeMillis() - startTime;
             // This is the log message that is used to generate the 'activity log' for the admin.
-            
-            log.info(c.getLogMessage() + "|||" + timeTaken);
+            String logMessage = c.getLogMessage() + "|||" + timeTaken;
+            log.info(logMessage);
+            createActivityLog(req, logMessage);
             
         } catch (PageNotFoundException e) {
-            log.warning(ActivityLogEntry.generateServletActionFailureLogMessage(req, e));
+            logServletActionFailure(req, e);
             cleanUpStatusMessageInSession(req);
             resp.sendRedirect(Const.ViewURIs.ACTION_NOT_FOUND_PAGE);
         } catch (EntityNotFoundException e) {
-            log.warning(ActivityLogEntry.generateServletActionFailureLogMessage(req, e));
+            logServletActionFailure(req, e);
             cleanUpStatusMessageInSession(req);
             resp.sendRedirect(Const.ViewURIs.ENTITY_NOT_FOUND_PAGE);
 
         } catch (FeedbackSessionNotVisibleException e) {
-            log.warning(ActivityLogEntry.generateServletActionFailureLogMessage(req, e));
+            logServletActionFailure(req, e);
             cleanUpStatusMessageInSession(req);
             req.getSession().setAttribute(Const.ParamsNames.FEEDBACK_SESSION_NOT_VISIBLE, e.getStartTimeString());
             resp.sendRedirect(Const.ViewURIs.FEEDBACK_SESSION_NOT_VISIBLE);
             
         } catch (UnauthorizedAccessException e) {
-            log.warning(ActivityLogEntry.generateServletActionFailureLogMessage(req, e));
+            logServletActionFailure(req, e);
             cleanUpStatusMessageInSession(req);
             resp.sendRedirect(Const.ViewURIs.UNAUTHORIZED);
 
@@ -131,7 +132,9 @@ public class ControllerServlet extends HttpServlet {
             EmailWrapper email = new Logic().emailErrorReport(requestMethod, requestUserAgent, requestPath,
                                                               requestUrl, requestParams, userType, t);
             if (email != null) {
-                log.severe(ActivityLogEntry.generateSystemErrorReportLogMessage(req, email));
+                String logMessage = ActivityLogEntry.generateSystemErrorReportLogMessage(req, email);
+                log.severe(logMessage);
+                createActivityLog(req, logMessage);
             }
             cleanUpStatusMessageInSession(req);
             resp.sendRedirect(Const.ViewURIs.ERROR_PAGE);
@@ -139,6 +142,21 @@ public class ControllerServlet extends HttpServlet {
         
     }
     
+    private void logServletActionFailure(HttpServletRequest req, Exception e) {
+        String logMessage = ActivityLogEntry.generateServletActionFailureLogMessage(req, e);
+        log.warning(logMessage);
+        createActivityLog(req, logMessage);
+    }
+    
+    /**
+     * Adds the activity log, which is also written to the application log, to the activity log store
+     * searched by the admin activity log page.
+     */
+    private void createActivityLog(HttpServletRequest req, String logMessage) {
+        String courseId = HttpRequestHelper.getValueFromRequestParameterMap(req, Const.ParamsNames.COURSE_ID);
+        new Logic().createActivityLog(System.currentTimeMillis(), logMessage, courseId);
+    }
+    
     private void cleanUpStatusMessageInSession(HttpServletRequest req) {
         req.getSession().removeAttribute(Const.ParamsNames.STATUS_MESSAGES_LIST);
     }
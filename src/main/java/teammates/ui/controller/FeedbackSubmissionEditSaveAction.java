@@ -75,6 +75,7 @@ public abstract class FeedbackSubmissionEditSaveAction extends Action {
             }
             
             List<FeedbackResponseAttributes> responsesForQuestion = new ArrayList<FeedbackResponseAttributes>();
+            List<FeedbackResponseAttributes> responsesToDelete = new ArrayList<FeedbackResponseAttributes>();
             String questionId = HttpRequestHelper.getValueFromParamMap(
                     requestParameters,
                     Const.ParamsNames.FEEDBACK_QUESTION_ID + "-" + questionIndx);
@@ -128,7 +129,9 @@ public abstract class FeedbackSubmissionEditSaveAction extends Action {
                 
                 if (response.responseMetaData.getValue().isEmpty()) {
                     // deletes the response since answer is empty
-                    saveResponse(response);
+                    if (isExistingResponse) {
+                        responsesToDelete.add(response);
+                    }
                 } else {
                     response.giver = questionAttributes.giverType.isTeam() ? userTeamForCourse
                                                                                 : userEmailForCourse;
@@ -147,10 +150,10 @@ public abstract class FeedbackSubmissionEditSaveAction extends Action {
             }
             
             if (errors.isEmpty()) {
-                for (FeedbackResponseAttributes response : responsesForQuestion) {
-                    saveResponse(response);
-                }
+                saveResponses(responsesForQuestion, responsesToDelete);
             } else {
+                saveResponses(new ArrayList<FeedbackResponseAttributes>(), responsesToDelete);
+
                 List<StatusMessage> errorMessages = new ArrayList<StatusMessage>();
                 
                 for (String error : errors) {
@@ -211,29 +214,22 @@ public abstract class FeedbackSubmissionEditSaveAction extends Action {
         return existingResponsesId.contains(response.getId());
     }
 
-    private void saveResponse(FeedbackResponseAttributes response)
-            throws EntityDoesNotExistException {
-        boolean isExistingResponse = response.getId() != null;
-        if (isExistingResponse) {
-            // Delete away response if any empty fields
-            if (response.responseMetaData.getValue().isEmpty() || response.recipient.isEmpty()) {
-                logic.deleteFeedbackResponse(response);
-                return;
-            }
-            try {
-                logic.updateFeedbackResponse(response);
-                hasValidResponse = true;
-            } catch (EntityAlreadyExistsException | InvalidParametersException e) {
-                setStatusForException(e);
-            }
-        } else if (!response.responseMetaData.getValue().isEmpty()
-                   && !response.recipient.isEmpty()) {
-            try {
-                logic.createFeedbackResponse(response);
+    /**
+     * Saves the responses to one question in one batch, and deletes the existing responses
+     * whose answers have been cleared.
+     */
+    private void saveResponses(List<FeedbackResponseAttributes> responsesToSave,
+            List<FeedbackResponseAttributes> responsesToDelete) throws EntityDoesNotExistException {
+        if (responsesToSave.isEmpty() && responsesToDelete.isEmpty()) {
+            return;
+        }
+        try {
+            logic.saveFeedbackResponses(responsesToSave, responsesToDelete);
+            if (!responsesToSave.isEmpty()) {
                 hasValidResponse = true;
-            } catch (InvalidParametersException e) {
-                setStatusForException(e);
             }
+        } catch (EntityAlreadyExistsException | InvalidParametersException e) {
+            setStatusForException(e);
         }
     }
     
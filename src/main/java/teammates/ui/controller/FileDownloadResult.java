@@ -2,6 +2,7 @@ package teammates.ui.controller;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
@@ -42,6 +43,14 @@ public class FileDownloadResult extends ActionResult {
         resp.setHeader("Content-Disposition", getContentDispositionHeader());
         PrintWriter writer = resp.getWriter();
         writer.write("\uFEFF");
+        writeFileContent(writer);
+    }
+    
+    /**
+     * Writes the content of the file to the response. Subclasses can override this
+     * to stream content that is too large to be held in {@code fileContent}.
+     */
+    protected void writeFileContent(Writer writer) throws IOException {
         writer.append(fileContent);
     }
     
@@ -1,5 +1,8 @@
 package teammates.ui.controller;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import teammates.common.datatransfer.FeedbackSessionAttributes;
 import teammates.common.datatransfer.InstructorAttributes;
 import teammates.common.exception.EntityDoesNotExistException;
@@ -21,6 +24,7 @@ public class InstructorFeedbackResultsDownloadAction extends Action {
                 Const.ParamsNames.FEEDBACK_RESULTS_INDICATE_MISSING_RESPONSES);
         String filterText = getRequestParamValue(Const.ParamsNames.FEEDBACK_QUESTION_FILTER_TEXT);
         boolean isStatsShown = getRequestParamAsBoolean(Const.ParamsNames.FEEDBACK_RESULTS_SHOWSTATS);
+        boolean isStreamDownload = getRequestParamAsBoolean(Const.ParamsNames.FEEDBACK_RESULTS_STREAM_DOWNLOAD);
 
         Assumption.assertPostParamNotNull(Const.ParamsNames.COURSE_ID, courseId);
         Assumption.assertPostParamNotNull(Const.ParamsNames.FEEDBACK_SESSION_NAME, feedbackSessionName);
@@ -31,10 +35,18 @@ public class InstructorFeedbackResultsDownloadAction extends Action {
 
         new GateKeeper().verifyAccessible(instructor, session, !isCreatorOnly);
 
+        boolean isAllSections = section == null || "All".equals(section);
+        
+        if (isStreamDownload) {
+            return createStreamedFileDownloadResult(courseId, feedbackSessionName, instructor.email,
+                                                    isAllSections ? null : section,
+                                                    filterText, isMissingResponsesShown, isStatsShown);
+        }
+
         String fileContent = "";
         String fileName = "";
         try {
-            if (section == null || "All".equals(section)) {
+            if (isAllSections) {
                 fileContent = logic.getFeedbackSessionResultSummaryAsCsv(
                         courseId, feedbackSessionName, instructor.email, filterText, isMissingResponsesShown, isStatsShown);
                 fileName = courseId + "_" + feedbackSessionName;
@@ -63,4 +75,40 @@ public class InstructorFeedbackResultsDownloadAction extends Action {
         return createFileDownloadResult(fileName, fileContent);
     }
 
+    /**
+     * Creates a result that writes the CSV rows straight to the response one question
+     * at a time, instead of building the whole file in memory first.
+     * 
+     * @param section the section to download, or null to download all sections
+     */
+    private FileDownloadResult createStreamedFileDownloadResult(
+            final String courseId, final String feedbackSessionName, final String instructorEmail,
+            final String section, final String filterText,
+            final boolean isMissingResponsesShown, final boolean isStatsShown) {
+        
+        String fileName = courseId + "_" + feedbackSessionName;
+        if (section == null) {
+            statusToAdmin = "Summary data for Feedback Session " + feedbackSessionName
+                          + " in Course " + courseId + " was downloaded";
+        } else {
+            fileName += "_" + section;
+            statusToAdmin = "Summary data for Feedback Session " + feedbackSessionName
+                          + " in Course " + courseId + " within " + section + " was downloaded";
+        }
+        
+        return new FileDownloadResult("filedownload", account, statusToUser, fileName, "") {
+            @Override
+            protected void writeFileContent(Writer writer) throws IOException {
+                try {
+                    logic.writeFeedbackSessionResultSummaryInSectionAsCsv(
+                            courseId, feedbackSessionName, instructorEmail, section,
+                            filterText, isMissingResponsesShown, isStatsShown, writer);
+                } catch (EntityDoesNotExistException e) {
+                    // the session was verified to exist before the download started
+                    Assumption.fail("Feedback session was deleted during the download: " + e.getMessage());
+                }
+            }
+        };
+    }
+
 }
@@ -50,8 +50,9 @@ function submitLocalTimeAjaxRequest(time, googleId, role, entry) {
     });
 }
 
-function submitFormAjax(searchTimeOffset) {
+function submitFormAjax(searchTimeOffset, searchCursor) {
     $('input[name=searchTimeOffset]').val(searchTimeOffset);
+    $('input[name=searchCursor]').val(searchCursor === undefined ? '' : searchCursor);
     
     var formObject = $('#ajaxLoaderDataForm');
     var formData = formObject.serialize();
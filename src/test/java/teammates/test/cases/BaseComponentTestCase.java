@@ -1,6 +1,8 @@
 package teammates.test.cases;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeTest;
@@ -31,6 +33,13 @@ import teammates.test.driver.GaeSimulation;
 import teammates.test.util.FileHelper;
 
 import com.google.appengine.api.blobstore.BlobKey;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
 import com.google.gson.Gson;
 
 /** Base class for Component tests.
@@ -224,6 +233,21 @@ public class BaseComponentTestCase extends BaseTestCase {
         }
     }
     
+    /**
+     * Deletes the entities of {@code kind} whose {@code propertyName} is {@code value} directly from the
+     * datastore, so that caches of the entities are not told of the change.
+     */
+    protected static void deleteEntitiesWithoutInvalidatingCaches(String kind, String propertyName, Object value) {
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        Query query = new Query(kind).setFilter(new FilterPredicate(propertyName, FilterOperator.EQUAL, value))
+                                     .setKeysOnly();
+        List<Key> keys = new ArrayList<Key>();
+        for (Entity entity : datastore.prepare(query).asIterable()) {
+            keys.add(entity.getKey());
+        }
+        datastore.delete(keys);
+    }
+    
     @AfterTest
     public void testTearDown() {
         gaeSimulation.tearDown();
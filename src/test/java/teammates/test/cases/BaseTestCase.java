@@ -219,7 +219,11 @@ public class BaseTestCase {
     protected static void assertNotNull(String message, Object object) {
         AssertJUnit.assertNotNull(message, object);
     }
-    
+
+    protected static void assertSame(Object expected, Object actual) {
+        AssertJUnit.assertSame(expected, actual);
+    }
+
     protected static void fail(String message) {
         AssertJUnit.fail(message);
     }
@@ -74,6 +74,54 @@ public class CourseRosterTest extends BaseTestCase {
         assertEquals(roster.getInstructorForEmail("ins2@email.com").name, "Jean");
         
     }
+    
+    @Test
+    public void testIndexedViews() {
+        
+        ______TS("students grouped by team and section");
+        
+        List<StudentAttributes> students = createStudentList("team 1", "s2@gmail.com",
+                                                             "team 1", "s1@gmail.com",
+                                                             "team 2", "s3@gmail.com");
+        students.get(0).section = "section 1";
+        students.get(1).section = "section 1";
+        students.get(2).section = "section 2";
+        CourseRoster roster = new CourseRoster(students, null);
+        
+        assertEquals(2, roster.getStudentsInTeam("team 1").size());
+        assertEquals("s3@gmail.com", roster.getStudentsInTeam("team 2").get(0).email);
+        assertTrue(roster.getStudentsInTeam("non-existent team").isEmpty());
+        
+        assertEquals(2, roster.getStudentsInSection("section 1").size());
+        assertEquals("s3@gmail.com", roster.getStudentsInSection("section 2").get(0).email);
+        assertTrue(roster.getStudentsInSection("non-existent section").isEmpty());
+        
+        assertEquals("section 1", roster.getSectionForTeam("team 1"));
+        assertEquals("section 2", roster.getSectionForTeam("team 2"));
+        assertNull(roster.getSectionForTeam("non-existent team"));
+        
+        assertEquals("[s1@gmail.com, s2@gmail.com, s3@gmail.com]", roster.getSortedStudentEmails().toString());
+        assertEquals("[team 1, team 2]", roster.getSortedTeamNames().toString());
+        
+        ______TS("views cannot be modified");
+        
+        try {
+            roster.getStudents().clear();
+            signalFailureToDetectException();
+        } catch (UnsupportedOperationException e) {
+            ignoreExpectedException();
+        }
+        
+        try {
+            roster.getStudentsInTeam("team 1").clear();
+            signalFailureToDetectException();
+        } catch (UnsupportedOperationException e) {
+            ignoreExpectedException();
+        }
+        
+        students.clear();
+        assertEquals(3, roster.getStudents().size());
+    }
 
     private List<StudentAttributes> createStudentList(String... studentData) {
         List<StudentAttributes> students = new ArrayList<StudentAttributes>();
@@ -199,6 +199,16 @@ public class FeedbackQuestionAttributesTest extends BaseTestCase {
         
         fq = typicalBundle.feedbackQuestions.get("qn2InSession1InCourse1");
         assertEquals(fq.getQuestionDetails().getQuestionText(), "Rate 1 other student's product");
+        
+        ______TS("Parsed details are reused until the metadata changes");
+        
+        assertSame(fq.getQuestionDetails(), fq.getQuestionDetails());
+        
+        fq.setQuestionDetails(new FeedbackTextQuestionDetails("Updated question"));
+        assertEquals("Updated question", fq.getQuestionDetails().getQuestionText());
+        
+        fq.questionMetaData = new Text("Directly updated question");
+        assertEquals("Directly updated question", fq.getQuestionDetails().getQuestionText());
     }
 
     @Test
@@ -4,10 +4,14 @@ import java.util.Date;
 
 import org.testng.annotations.Test;
 
+import teammates.common.datatransfer.FeedbackQuestionType;
 import teammates.common.datatransfer.FeedbackResponseAttributes;
+import teammates.common.datatransfer.FeedbackTextResponseDetails;
 import teammates.common.util.Const;
 import teammates.test.cases.BaseTestCase;
 
+import com.google.appengine.api.datastore.Text;
+
 public class FeedbackResponseAttributesTest extends BaseTestCase {
 
     private static class FeedbackResponseAttributesWithModifiableTimestamp extends FeedbackResponseAttributes {
@@ -41,4 +45,26 @@ public class FeedbackResponseAttributesTest extends BaseTestCase {
         assertEquals(defaultTimeStamp, fra.getUpdatedAt());
     }
     
+    @Test
+    public void testGetResponseDetails() {
+        FeedbackResponseAttributes fra = new FeedbackResponseAttributes();
+        fra.feedbackQuestionType = FeedbackQuestionType.TEXT;
+        
+        ______TS("missing response has no details");
+        
+        assertNull(fra.getResponseDetails());
+        
+        ______TS("parsed details are reused until the metadata changes");
+        
+        fra.setResponseDetails(new FeedbackTextResponseDetails("first answer"));
+        assertEquals("first answer", fra.getResponseDetails().getAnswerString());
+        assertSame(fra.getResponseDetails(), fra.getResponseDetails());
+        
+        fra.setResponseDetails(new FeedbackTextResponseDetails("second answer"));
+        assertEquals("second answer", fra.getResponseDetails().getAnswerString());
+        
+        fra.responseMetaData = new Text("third answer");
+        assertEquals("third answer", fra.getResponseDetails().getAnswerString());
+    }
+    
 }
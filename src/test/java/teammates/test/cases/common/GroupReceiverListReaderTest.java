@@ -0,0 +1,95 @@
+package teammates.test.cases.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import teammates.common.util.Const;
+import teammates.common.util.GroupReceiverListReader;
+import teammates.test.cases.BaseTestCase;
+
+public class GroupReceiverListReaderTest extends BaseTestCase {
+
+    @Test
+    public void testReadReceivers() throws IOException {
+
+        ______TS("addresses are read in batches, skipping blank entries and surrounding whitespace");
+
+        byte[] file = getBytes("a@grlr.tmt,b@grlr.tmt, c@grlr.tmt ,,\n d@grlr.tmt\n");
+        GroupReceiverListReader reader = new GroupReceiverListReader(new ByteArrayInputStream(file), 0);
+
+        assertEquals(Arrays.asList("a@grlr.tmt", "b@grlr.tmt"), reader.readReceivers(2));
+        long offsetAfterFirstBatch = getBytes("a@grlr.tmt,b@grlr.tmt,").length;
+        assertEquals(offsetAfterFirstBatch, reader.getOffset());
+        assertTrue(reader.hasMore());
+
+        assertEquals(Arrays.asList("c@grlr.tmt", "d@grlr.tmt"), reader.readReceivers(2));
+        assertEquals(file.length, reader.getOffset());
+        assertFalse(reader.hasMore());
+
+        assertTrue(reader.readReceivers(2).isEmpty());
+        assertEquals(file.length, reader.getOffset());
+        reader.close();
+
+        ______TS("reading resumed from the offset reached continues with the next address");
+
+        reader = new GroupReceiverListReader(getStreamFrom(file, offsetAfterFirstBatch), offsetAfterFirstBatch);
+        assertEquals(Arrays.asList("c@grlr.tmt", "d@grlr.tmt"), reader.readReceivers(10));
+        assertEquals(file.length, reader.getOffset());
+        assertFalse(reader.hasMore());
+        reader.close();
+
+        ______TS("batch ending at the last separator");
+
+        file = getBytes("a@grlr.tmt,b@grlr.tmt,");
+        reader = new GroupReceiverListReader(new ByteArrayInputStream(file), 0);
+        assertEquals(Arrays.asList("a@grlr.tmt", "b@grlr.tmt"), reader.readReceivers(2));
+        assertEquals(file.length, reader.getOffset());
+        assertTrue(reader.hasMore());
+        assertTrue(reader.readReceivers(2).isEmpty());
+        assertFalse(reader.hasMore());
+        reader.close();
+
+        ______TS("empty file");
+
+        reader = new GroupReceiverListReader(new ByteArrayInputStream(new byte[0]), 0);
+        assertTrue(reader.readReceivers(2).isEmpty());
+        assertEquals(0, reader.getOffset());
+        assertFalse(reader.hasMore());
+        reader.close();
+    }
+
+    @Test
+    public void testOffsetInBytes() throws IOException {
+
+        ______TS("offset counts bytes, so multi-byte characters are resumed from correctly");
+
+        byte[] file = getBytes("josé@grlr.tmt,à@grlr.tmt,z@grlr.tmt");
+        GroupReceiverListReader reader = new GroupReceiverListReader(new ByteArrayInputStream(file), 0);
+        assertEquals(Arrays.asList("josé@grlr.tmt"), reader.readReceivers(1));
+        long offset = reader.getOffset();
+        assertEquals(getBytes("josé@grlr.tmt,").length, offset);
+        reader.close();
+
+        List<String> remainingReceivers = new ArrayList<String>();
+        reader = new GroupReceiverListReader(getStreamFrom(file, offset), offset);
+        while (reader.hasMore()) {
+            remainingReceivers.addAll(reader.readReceivers(1));
+        }
+        reader.close();
+        assertEquals(Arrays.asList("à@grlr.tmt", "z@grlr.tmt"), remainingReceivers);
+    }
+
+    private static byte[] getBytes(String content) throws UnsupportedEncodingException {
+        return content.getBytes(Const.SystemParams.ENCODING);
+    }
+
+    private static ByteArrayInputStream getStreamFrom(byte[] file, long offset) {
+        return new ByteArrayInputStream(file, (int) offset, file.length - (int) offset);
+    }
+}
@@ -121,6 +121,22 @@ public class StringHelperTest extends BaseTestCase {
         
         decrptedMsg = StringHelper.decrypt(StringHelper.encrypt(msg));
         assertEquals(msg, decrptedMsg);
+
+        ______TS("reused ciphers give the same results");
+
+        String encryptedMsg = StringHelper.encrypt(msg);
+        assertEquals(encryptedMsg, StringHelper.encrypt(msg));
+        assertEquals(msg, StringHelper.decrypt(encryptedMsg));
+
+        ______TS("invalid message does not affect later decryption");
+
+        try {
+            StringHelper.decrypt("ABCD");
+            signalFailureToDetectException();
+        } catch (RuntimeException e) {
+            ignoreExpectedException();
+        }
+        assertEquals(msg, StringHelper.decrypt(encryptedMsg));
     }
     
     @Test
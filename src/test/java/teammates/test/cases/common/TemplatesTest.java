@@ -0,0 +1,80 @@
+package teammates.test.cases.common;
+
+import java.lang.reflect.Field;
+
+import org.testng.annotations.Test;
+
+import teammates.common.util.CompiledTemplate;
+import teammates.common.util.Templates;
+import teammates.common.util.Templates.EmailTemplates;
+import teammates.common.util.Templates.FeedbackQuestion.FormTemplates;
+import teammates.test.cases.BaseTestCase;
+
+public class TemplatesTest extends BaseTestCase {
+
+    @Test
+    public void testPopulateTemplate() {
+
+        ______TS("typical case");
+
+        assertEquals("Hello Alice, welcome to CS1101!",
+                     Templates.populateTemplate("Hello ${name}, welcome to ${course.id}!",
+                                                "${name}", "Alice", "${course.id}", "CS1101"));
+
+        ______TS("placeholders without values are left as they are");
+
+        assertEquals("Hello Alice, welcome to ${course.id}!",
+                     Templates.populateTemplate("Hello ${name}, welcome to ${course.id}!", "${name}", "Alice"));
+
+        ______TS("text that is not a placeholder is left as it is");
+
+        assertEquals("${ $ {} ${aB ${c", Templates.populateTemplate("${ $ {} ${a${b} ${c", "${b}", "B"));
+
+        ______TS("placeholders in a value are replaced by the values that come after it");
+
+        assertEquals("Join at http://join, or ${supportEmail}",
+                     Templates.populateTemplate("Join at ${joinFragment}",
+                                                "${supportEmail}", "support@teammates",
+                                                "${joinFragment}", "${joinUrl}, or ${supportEmail}",
+                                                "${joinUrl}", "http://join"));
+
+        ______TS("only the first value of a repeated key is used");
+
+        assertEquals("first first", Templates.populateTemplate("${key} ${key}", "${key}", "first", "${key}", "second"));
+
+        ______TS("keys that are not placeholders are replaced in turn");
+
+        assertEquals("Welcome to CS1101.tmt, CS1101.tmt",
+                     Templates.populateTemplate("Welcome to ${courseId}, demo.course",
+                                                "${courseId}", "demo.course", "demo.course", "CS1101.tmt"));
+    }
+
+    @Test
+    public void testCompiledTemplatesMatchSequentialReplacement() throws Exception {
+        String[] values = {
+                "${userName}", "Alice <alice@example.com>",
+                "${courseName}", "Course $1 {name}",
+                "${courseId}", "CS1101",
+                "${joinFragment}", "Join at ${joinUrl} or ask ${supportEmail}",
+                "${joinUrl}", "http://join",
+                "${supportEmail}", "support@teammates",
+                "${status}", "is now open",
+        };
+        for (Class<?> templateClass : new Class<?>[] { EmailTemplates.class, FormTemplates.class }) {
+            for (Field field : templateClass.getFields()) {
+                String template = (String) field.get(null);
+                assertEquals(field.getName(), populateBySequentialReplacement(template, values),
+                             CompiledTemplate.compile(template).populate(values));
+            }
+        }
+    }
+
+    private String populateBySequentialReplacement(String template, String... values) {
+        String populatedTemplate = template;
+        for (int i = 0; i < values.length; i += 2) {
+            populatedTemplate = populatedTemplate.replace(values[i], values[i + 1]);
+        }
+        return populatedTemplate;
+    }
+
+}
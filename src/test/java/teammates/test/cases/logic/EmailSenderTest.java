@@ -1,29 +1,50 @@
 package teammates.test.cases.logic;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.mail.Message;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 
+import org.apache.commons.io.IOUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import teammates.common.util.Const.ActionURIs;
+import teammates.common.util.Const.ParamsNames;
+import teammates.common.util.Const.SystemParams;
 import teammates.common.util.EmailWrapper;
+import teammates.common.util.ThreadHelper;
 import teammates.logic.core.EmailSender;
 import teammates.logic.core.JavamailService;
 import teammates.logic.core.MailgunService;
 import teammates.logic.core.MailjetService;
 import teammates.logic.core.SendgridService;
+import teammates.logic.core.TaskQueuesLogic;
 import teammates.test.cases.BaseComponentTestCase;
 
+import com.google.appengine.api.taskqueue.QueueConstants;
+import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.api.taskqueue.dev.QueueStateInfo.TaskStateInfo;
+import com.google.appengine.tools.development.testing.LocalTaskQueueTestConfig;
 import com.mailjet.client.MailjetRequest;
 import com.mailjet.client.resource.Email;
 import com.sendgrid.SendGrid;
+import com.sun.jersey.multipart.FormDataBodyPart;
 import com.sun.jersey.multipart.FormDataMultiPart;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
 
 /**
  * SUT: {@link EmailSender}
@@ -64,6 +85,91 @@ public class EmailSenderTest extends BaseComponentTestCase {
         new EmailSender().sendEmails(new ArrayList<EmailWrapper>());
     }
     
+    @Test
+    public void testSendEmails() throws Exception {
+        int numberOfEmails = QueueConstants.maxTasksPerAdd() * 2 + 1;
+        List<EmailWrapper> emails = new ArrayList<EmailWrapper>();
+        for (int i = 0; i < numberOfEmails; i++) {
+            emails.add(getTypicalEmailWrapper());
+        }
+        int numberOfTasksBefore = getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE);
+        
+        new EmailSender().sendEmails(emails);
+        
+        assertEquals(numberOfTasksBefore + numberOfEmails, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+        
+        ______TS("emails in the queue can be leased with their parameters");
+        
+        List<TaskHandle> tasks = TaskQueuesLogic.inst().leaseTasks(SystemParams.SEND_EMAIL_PULL_QUEUE, 60, 1);
+        assertEquals(1, tasks.size());
+        
+        Map<String, String> paramMap = new HashMap<String, String>();
+        for (Map.Entry<String, String> param : tasks.get(0).extractParams()) {
+            paramMap.put(param.getKey(), param.getValue());
+        }
+        EmailWrapper wrapper = getTypicalEmailWrapper();
+        assertEquals(wrapper.getRecipient(), paramMap.get(ParamsNames.EMAIL_RECEIVER));
+        assertEquals(wrapper.getSubject(), paramMap.get(ParamsNames.EMAIL_SUBJECT));
+        assertEquals(wrapper.getContent(), paramMap.get(ParamsNames.EMAIL_CONTENT));
+        
+        TaskQueuesLogic.inst().deleteTasks(SystemParams.SEND_EMAIL_PULL_QUEUE, tasks);
+        assertEquals(numberOfTasksBefore + numberOfEmails - 1, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+    }
+    
+    @Test
+    public void testSendEmailsAddsTasksToSendThem() {
+        LocalTaskQueueTestConfig.getLocalTaskQueue().flushQueue(SystemParams.SEND_EMAIL_TASK_QUEUE);
+        EmailSender emailSender = new EmailSender();
+        
+        ______TS("a task to send the queued email runs within a few seconds");
+        
+        long timeBeforeQueued = System.currentTimeMillis();
+        emailSender.sendEmails(Arrays.asList(getTypicalEmailWrapper()));
+        List<TaskStateInfo> sendTasks = getTasks(SystemParams.SEND_EMAIL_TASK_QUEUE);
+        assertEquals(1, sendTasks.size());
+        TaskStateInfo sendTask = sendTasks.get(0);
+        assertEquals(ActionURIs.SEND_EMAIL_WORKER, sendTask.getUrl());
+        assertTrue(sendTask.getEtaMillis() > timeBeforeQueued);
+        assertTrue(sendTask.getEtaMillis() <= timeBeforeQueued + 60 * 1000);
+        
+        ______TS("emails queued before the task runs are sent by the same task");
+        
+        emailSender.sendEmails(Arrays.asList(getTypicalEmailWrapper()));
+        long timeAfterQueued = System.currentTimeMillis();
+        int expectedNumberOfSendTasks = timeAfterQueued < sendTask.getEtaMillis() ? 1 : 2;
+        assertEquals(expectedNumberOfSendTasks, getTasks(SystemParams.SEND_EMAIL_TASK_QUEUE).size());
+        
+        ______TS("emails spread out over time are each sent by a task which runs after they are due");
+        
+        LocalTaskQueueTestConfig.getLocalTaskQueue().flushQueue(SystemParams.SEND_EMAIL_TASK_QUEUE);
+        LocalTaskQueueTestConfig.getLocalTaskQueue().flushQueue(SystemParams.SEND_EMAIL_PULL_QUEUE);
+        List<EmailWrapper> emails = new ArrayList<EmailWrapper>();
+        for (int i = 0; i < 10; i++) {
+            emails.add(getTypicalEmailWrapper());
+        }
+        emailSender.sendEmails(emails);
+        
+        List<TaskStateInfo> emailTasks = getTasks(SystemParams.SEND_EMAIL_PULL_QUEUE);
+        assertEquals(10, emailTasks.size());
+        sendTasks = getTasks(SystemParams.SEND_EMAIL_TASK_QUEUE);
+        for (TaskStateInfo emailTask : emailTasks) {
+            boolean isSentSoonAfterDue = false;
+            for (TaskStateInfo task : sendTasks) {
+                long timeAfterDue = task.getEtaMillis() - emailTask.getEtaMillis();
+                isSentSoonAfterDue |= timeAfterDue >= 0 && timeAfterDue <= 60 * 1000;
+            }
+            assertTrue(isSentSoonAfterDue);
+        }
+    }
+    
+    private int getNumberOfTasks(String queueName) {
+        return LocalTaskQueueTestConfig.getLocalTaskQueue().getQueueStateInfo().get(queueName).getCountTasks();
+    }
+    
+    private List<TaskStateInfo> getTasks(String queueName) {
+        return LocalTaskQueueTestConfig.getLocalTaskQueue().getQueueStateInfo().get(queueName).getTaskInfo();
+    }
+    
     @Test
     public void testConvertToMimeMessage() throws Exception {
         EmailWrapper wrapper = getTypicalEmailWrapper();
@@ -123,6 +229,247 @@ public class EmailSenderTest extends BaseComponentTestCase {
         assertEquals(wrapper.getContent(), email.get(Email.HTMLPART));
     }
     
+    private List<EmailWrapper> getTypicalEmailWrappersForBatch() {
+        List<EmailWrapper> wrappers = new ArrayList<EmailWrapper>();
+        for (int i = 1; i <= 3; i++) {
+            EmailWrapper wrapper = getTypicalEmailWrapper();
+            wrapper.setRecipient("recipient" + i + "@email.com");
+            wrapper.setBcc(null);
+            wrapper.setSubject("Test subject " + i);
+            wrapper.setContent("<p>This is test content " + i + "</p>");
+            wrappers.add(wrapper);
+        }
+        return wrappers;
+    }
+    
+    @Test
+    public void testConvertToSendgridBatch() throws Exception {
+        List<EmailWrapper> wrappers = getTypicalEmailWrappersForBatch();
+        SendGrid.Email email = new SendgridService().parseToBatchEmail(wrappers);
+        
+        assertEquals(wrappers.get(0).getSenderEmail(), email.getFrom());
+        assertEquals(wrappers.get(0).getSenderName(), email.getFromName());
+        assertEquals(wrappers.get(0).getReplyTo(), email.getReplyTo());
+        assertEquals(0, email.getTos().length);
+        
+        String[] recipients = email.getSMTPAPI().getTos();
+        JSONArray subjects = email.getSubstitutions().getJSONArray(email.getSubject());
+        JSONArray contents = email.getSubstitutions().getJSONArray(email.getHtml());
+        assertEquals(wrappers.size(), recipients.length);
+        for (int i = 0; i < wrappers.size(); i++) {
+            assertEquals(wrappers.get(i).getRecipient(), recipients[i]);
+            assertEquals(wrappers.get(i).getSubject(), subjects.getString(i));
+            assertEquals(wrappers.get(i).getContent(), contents.getString(i));
+        }
+    }
+    
+    @Test
+    public void testConvertToMailgunBatch() {
+        List<EmailWrapper> wrappers = getTypicalEmailWrappersForBatch();
+        FormDataMultiPart formData = new MailgunService().parseToBatchEmail(wrappers);
+        
+        assertEquals(wrappers.get(0).getSenderName() + " <" + wrappers.get(0).getSenderEmail() + ">",
+                     formData.getField("from").getValue());
+        assertEquals(wrappers.get(0).getReplyTo(), formData.getField("h:Reply-To").getValue());
+        assertEquals("%recipient.subject%", formData.getField("subject").getValue());
+        assertEquals("%recipient.html%", formData.getField("html").getValue());
+        
+        List<FormDataBodyPart> recipients = formData.getFields("to");
+        JSONObject recipientVariables = new JSONObject(formData.getField("recipient-variables").getValue());
+        assertEquals(wrappers.size(), recipients.size());
+        for (int i = 0; i < wrappers.size(); i++) {
+            EmailWrapper wrapper = wrappers.get(i);
+            assertEquals(wrapper.getRecipient(), recipients.get(i).getValue());
+            JSONObject variables = recipientVariables.getJSONObject(wrapper.getRecipient());
+            assertEquals(wrapper.getSubject(), variables.getString("subject"));
+            assertEquals(wrapper.getContent(), variables.getString("html"));
+        }
+    }
+    
+    @Test
+    public void testConvertToMailjetBatch() {
+        List<EmailWrapper> wrappers = getTypicalEmailWrappersForBatch();
+        MailjetRequest request = new MailjetService().parseToBatchEmail(wrappers);
+        JSONArray messages = new JSONObject(request.getBody()).getJSONArray("Messages");
+        
+        assertEquals(wrappers.size(), messages.length());
+        for (int i = 0; i < wrappers.size(); i++) {
+            EmailWrapper wrapper = wrappers.get(i);
+            JSONObject email = messages.getJSONObject(i);
+            assertEquals(wrapper.getSenderEmail(), email.get(Email.FROMEMAIL));
+            assertEquals(wrapper.getRecipient(),
+                         ((JSONArray) email.get(Email.RECIPIENTS)).getJSONObject(0).get("Email"));
+            assertEquals(wrapper.getSubject(), email.get(Email.SUBJECT));
+            assertEquals(wrapper.getContent(), email.get(Email.HTMLPART));
+        }
+    }
+    
+    @Test
+    public void testSendEmailsInBatchesToStubServer() throws Exception {
+        StubEmailServer server = new StubEmailServer();
+        try {
+            String stubUrl = "http://localhost:" + server.getPort();
+            
+            ______TS("Mailgun: emails with the same sender are sent in one request");
+            
+            List<EmailWrapper> wrappers = getTypicalEmailWrappersForBatch();
+            List<EmailWrapper> failedEmails = new MailgunService(stubUrl + "/messages").sendEmails(wrappers);
+            
+            assertTrue(failedEmails.isEmpty());
+            assertEquals(1, server.getRequestBodies().size());
+            String requestBody = server.getRequestBodies().get(0);
+            assertTrue(requestBody.contains("recipient-variables"));
+            for (EmailWrapper wrapper : wrappers) {
+                assertTrue(requestBody.contains(wrapper.getRecipient()));
+            }
+            
+            ______TS("Mailgun: emails with bcc or with a recipient already in the batch are sent separately");
+            
+            server.getRequestBodies().clear();
+            wrappers = getTypicalEmailWrappersForBatch();
+            EmailWrapper emailToSameRecipient = getTypicalEmailWrappersForBatch().get(0);
+            wrappers.add(emailToSameRecipient);
+            wrappers.add(getTypicalEmailWrapper());
+            failedEmails = new MailgunService(stubUrl + "/messages").sendEmails(wrappers);
+            
+            assertTrue(failedEmails.isEmpty());
+            assertEquals(3, server.getRequestBodies().size());
+            
+            ______TS("SendGrid: emails with the same sender are sent in one request");
+            
+            server.getRequestBodies().clear();
+            wrappers = getTypicalEmailWrappersForBatch();
+            failedEmails = new SendgridService(stubUrl).sendEmails(wrappers);
+            
+            assertTrue(failedEmails.isEmpty());
+            assertEquals(1, server.getRequestBodies().size());
+            requestBody = server.getRequestBodies().get(0);
+            assertTrue(requestBody.contains("x-smtpapi"));
+            for (EmailWrapper wrapper : wrappers) {
+                assertTrue(requestBody.contains(wrapper.getRecipient()));
+            }
+        } finally {
+            server.stop();
+        }
+        
+        ______TS("emails are returned as failed if the service cannot be reached");
+        
+        List<EmailWrapper> wrappers = getTypicalEmailWrappersForBatch();
+        List<EmailWrapper> failedEmails =
+                new MailgunService("http://localhost:" + server.getPort() + "/messages").sendEmails(wrappers);
+        assertEquals(wrappers, failedEmails);
+    }
+    
+    @Test
+    public void testSendQueuedEmailsToStubServer() throws Exception {
+        StubEmailServer server = new StubEmailServer();
+        try {
+            String stubUrl = "http://localhost:" + server.getPort();
+            EmailSender emailSender = new EmailSender(new MailgunService(stubUrl + "/messages"));
+            LocalTaskQueueTestConfig.getLocalTaskQueue().flushQueue(SystemParams.SEND_EMAIL_PULL_QUEUE);
+            
+            ______TS("emails are returned as failed if the service responds with an error");
+            
+            server.setResponseStatus(500);
+            List<EmailWrapper> wrappers = getTypicalEmailWrappersForBatch();
+            assertEquals(wrappers, new MailgunService(stubUrl + "/messages").sendEmails(wrappers));
+            assertEquals(wrappers, new SendgridService(stubUrl).sendEmails(wrappers));
+            
+            ______TS("queued emails which fail to send are not deleted");
+            
+            server.getRequestBodies().clear();
+            emailSender.sendEmails(Arrays.asList(getTypicalEmailWrapper()));
+            assertEquals(1, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+            // queued emails can only be leased after the time they are queued at
+            ThreadHelper.waitBriefly();
+            
+            assertEquals(1, emailSender.sendQueuedEmails(10, 60));
+            assertEquals(1, server.getRequestBodies().size());
+            assertEquals(1, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+            
+            // the email stays leased until its lease expires
+            assertEquals(0, emailSender.sendQueuedEmails(10, 60));
+            
+            ______TS("queued emails which are sent are deleted");
+            
+            server.setResponseStatus(200);
+            server.getRequestBodies().clear();
+            emailSender.sendEmails(Arrays.asList(getTypicalEmailWrapper()));
+            assertEquals(2, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+            // queued emails can only be leased after the time they are queued at
+            ThreadHelper.waitBriefly();
+            
+            assertEquals(1, emailSender.sendQueuedEmails(10, 60));
+            assertEquals(1, server.getRequestBodies().size());
+            assertEquals(1, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+            
+            ______TS("queued emails older than a day are dropped without being sent");
+            
+            server.getRequestBodies().clear();
+            EmailWrapper wrapper = getTypicalEmailWrapper();
+            Map<String, String> paramMap = new HashMap<String, String>();
+            paramMap.put(ParamsNames.EMAIL_SUBJECT, wrapper.getSubject());
+            paramMap.put(ParamsNames.EMAIL_CONTENT, wrapper.getContent());
+            paramMap.put(ParamsNames.EMAIL_SENDER, wrapper.getSenderEmail());
+            paramMap.put(ParamsNames.EMAIL_RECEIVER, wrapper.getRecipient());
+            paramMap.put(ParamsNames.EMAIL_REPLY_TO_ADDRESS, wrapper.getReplyTo());
+            long twoDaysAgo = System.currentTimeMillis() - 2 * 24 * 60 * 60 * 1000;
+            paramMap.put(ParamsNames.EMAIL_QUEUED_TIME, Long.toString(twoDaysAgo));
+            TaskQueuesLogic.inst().addTasks(SystemParams.SEND_EMAIL_PULL_QUEUE,
+                                            Arrays.asList(TaskQueuesLogic.inst().createPullTask(paramMap, 0)));
+            // queued emails can only be leased after the time they are queued at
+            ThreadHelper.waitBriefly();
+            
+            assertEquals(1, emailSender.sendQueuedEmails(10, 60));
+            assertTrue(server.getRequestBodies().isEmpty());
+            assertEquals(1, getNumberOfTasks(SystemParams.SEND_EMAIL_PULL_QUEUE));
+        } finally {
+            server.stop();
+        }
+    }
+    
+    /**
+     * A local stub of the APIs of the email services, which responds to all requests with the
+     * response status set, 200 by default, and keeps their bodies.
+     */
+    private static class StubEmailServer {
+        
+        private final HttpServer server;
+        private final List<String> requestBodies = Collections.synchronizedList(new ArrayList<String>());
+        private volatile int responseStatus = 200;
+        
+        StubEmailServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    requestBodies.add(IOUtils.toString(exchange.getRequestBody(), "UTF-8"));
+                    byte[] response = "{\"message\":\"success\"}".getBytes("UTF-8");
+                    exchange.sendResponseHeaders(responseStatus, response.length);
+                    exchange.getResponseBody().write(response);
+                    exchange.close();
+                }
+            });
+            server.start();
+        }
+        
+        int getPort() {
+            return server.getAddress().getPort();
+        }
+        
+        List<String> getRequestBodies() {
+            return requestBodies;
+        }
+        
+        void setResponseStatus(int responseStatus) {
+            this.responseStatus = responseStatus;
+        }
+        
+        void stop() {
+            server.stop(0);
+        }
+    }
+    
     @AfterClass
     public static void classTearDown() {
         printTestClassFooter();
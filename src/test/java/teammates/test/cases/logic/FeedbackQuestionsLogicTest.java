@@ -1,6 +1,7 @@
 package teammates.test.cases.logic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -9,11 +10,13 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import teammates.common.datatransfer.CourseRoster;
 import teammates.common.datatransfer.DataBundle;
 import teammates.common.datatransfer.FeedbackParticipantType;
 import teammates.common.datatransfer.FeedbackQuestionAttributes;
 import teammates.common.datatransfer.FeedbackQuestionDetails;
 import teammates.common.datatransfer.InstructorAttributes;
+import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Const;
@@ -119,6 +122,34 @@ public class FeedbackQuestionsLogicTest extends BaseComponentTestCase {
         recipients = fqLogic.getRecipientsForQuestion(question, email);
         assertEquals(recipients.get(email), Const.USER_NAME_FOR_SELF);
         assertEquals(recipients.size(), 1);
+        
+        ______TS("recipients found from the given roster only");
+        
+        question = getQuestionFromDatastore("team.feedback");
+        StudentAttributes student = typicalBundle.students.get("student1InCourse1");
+        StudentAttributes otherTeamStudent = typicalBundle.students.get("student5InCourse1");
+        CourseRoster roster = new CourseRoster(Arrays.asList(student, otherTeamStudent),
+                                               new ArrayList<InstructorAttributes>());
+        
+        recipients = fqLogic.getRecipientsForQuestion(question, student.email, roster);
+        assertEquals(1, recipients.size());
+        assertEquals(otherTeamStudent.team, recipients.get(otherTeamStudent.team));
+        
+        question = getQuestionFromDatastore("qn2InSession1InCourse1");
+        recipients = fqLogic.getRecipientsForQuestion(question, student.email, roster);
+        assertEquals(1, recipients.size());
+        assertEquals(otherTeamStudent.name, recipients.get(otherTeamStudent.email));
+        
+        ______TS("failure: response to teams in a course that does not exist");
+        
+        question = getQuestionFromDatastore("team.feedback");
+        question.courseId = "non-existent-course";
+        try {
+            fqLogic.getRecipientsForQuestion(question, student.email, roster);
+            signalFailureToDetectException();
+        } catch (EntityDoesNotExistException e) {
+            assertEquals("The course non-existent-course does not exist", e.getMessage());
+        }
 
     }
     
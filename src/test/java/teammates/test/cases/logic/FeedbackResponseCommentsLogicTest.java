@@ -13,11 +13,18 @@ import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.FeedbackResponseCommentAttributes;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
+import teammates.common.util.Const;
 import teammates.logic.core.FeedbackQuestionsLogic;
 import teammates.logic.core.FeedbackResponseCommentsLogic;
 import teammates.logic.core.FeedbackResponsesLogic;
+import teammates.storage.search.FeedbackResponseCommentSearchDocument;
+import teammates.storage.search.SearchDocument;
+import teammates.storage.search.SearchManager;
 import teammates.test.cases.BaseComponentTestCase;
+
 import com.google.appengine.api.datastore.Text;
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Field;
 
 public class FeedbackResponseCommentsLogicTest extends BaseComponentTestCase {
 
@@ -305,6 +312,39 @@ public class FeedbackResponseCommentsLogicTest extends BaseComponentTestCase {
         assertEquals(0, frcList.size());
     }
     
+    @Test
+    public void testPutDocuments() {
+        // some typical comments refer to responses that do not exist, and cannot be indexed
+        List<FeedbackResponseCommentAttributes> comments = new ArrayList<FeedbackResponseCommentAttributes>();
+        for (FeedbackResponseCommentAttributes comment : frcLogic.getAllFeedbackResponseComments()) {
+            if (frLogic.getFeedbackResponse(comment.feedbackResponseId) != null) {
+                comments.add(comment);
+            }
+        }
+        
+        ______TS("documents built in a batch match those built one by one");
+        
+        assertFalse(comments.isEmpty());
+        List<SearchDocument> batchDocuments = FeedbackResponseCommentSearchDocument.fromComments(comments);
+        assertEquals(comments.size(), batchDocuments.size());
+        for (int i = 0; i < comments.size(); i++) {
+            Document expected = new FeedbackResponseCommentSearchDocument(comments.get(i)).build();
+            Document actual = batchDocuments.get(i).build();
+            assertEquals(expected.getId(), actual.getId());
+            for (Field field : expected.getFields()) {
+                assertEquals(field.toString(), actual.getOnlyField(field.getName()).toString());
+            }
+        }
+        
+        ______TS("documents are put into the index");
+        
+        frcLogic.putDocuments(comments);
+        for (FeedbackResponseCommentAttributes comment : comments) {
+            assertNotNull(SearchManager.getDocument(Const.SearchIndex.FEEDBACK_RESPONSE_COMMENT,
+                                                    comment.getId().toString()));
+        }
+    }
+    
     private void verifyExceptionThrownFromCreateFrComment(
             FeedbackResponseCommentAttributes frComment, String expectedMessage)
             throws InvalidParametersException {
@@ -1,7 +1,10 @@
 package teammates.test.cases.logic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -16,6 +19,7 @@ import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.FeedbackResponseCommentAttributes;
 import teammates.common.datatransfer.FeedbackSessionAttributes;
 import teammates.common.datatransfer.InstructorAttributes;
+import teammates.common.datatransfer.ResponsePage;
 import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.datatransfer.StudentEnrollDetails;
 import teammates.common.datatransfer.StudentUpdateStatus;
@@ -54,6 +58,7 @@ public class FeedbackResponsesLogicTest extends BaseComponentTestCase {
     
     @Test
     public void allTests() throws Exception {
+        testGetFeedbackResponsesInPage();
         testIsNameVisibleTo();
         testGetViewableResponsesForQuestionInSection();
         testUpdateFeedbackResponse();
@@ -64,8 +69,87 @@ public class FeedbackResponsesLogicTest extends BaseComponentTestCase {
         testDeleteFeedbackResponsesForStudent();
         testSpecialCharactersInTeamName();
         testDeleteFeedbackResponsesForCourse();
+        testSaveFeedbackResponses();
+        testAdjustFeedbackResponsesForEnrollments();
     }
 
+    public void testGetFeedbackResponsesInPage() {
+        String sessionName = "First feedback session";
+        String courseId = "idOfTypicalCourse1";
+        
+        ______TS("session: pages together have all the responses of the session");
+        
+        List<FeedbackResponseAttributes> responses = frLogic.getFeedbackResponsesForSession(sessionName, courseId);
+        ResponsePage page = frLogic.getFeedbackResponsesForSessionInPage(sessionName, courseId, null, 3);
+        assertEquals(3, page.results.size());
+        assertTrue(page.hasMore);
+        assertEquals(getIds(responses), getIdsInPages(page, sessionName, courseId, "session", 3));
+        
+        ______TS("section: pages together have the responses given by or to the section");
+        
+        responses = frLogic.getFeedbackResponsesForSessionInSection(sessionName, courseId, "Section 1");
+        assertFalse(responses.isEmpty());
+        page = frLogic.getFeedbackResponsesForSessionInSectionInPage(sessionName, courseId, "Section 1", null, 3);
+        assertEquals(getIds(responses), getIdsInPages(page, sessionName, courseId, "Section 1", 3));
+        
+        ______TS("section: null section gets the pages of the whole session");
+        
+        responses = frLogic.getFeedbackResponsesForSession(sessionName, courseId);
+        page = frLogic.getFeedbackResponsesForSessionInSectionInPage(sessionName, courseId, null, null, 3);
+        assertEquals(3, page.results.size());
+        assertEquals(getIds(responses), getIdsInPages(page, sessionName, courseId, "session", 3));
+        
+        ______TS("question: pages together have the responses to the question");
+        
+        String questionId = fqLogic.getFeedbackQuestion(sessionName, courseId, 1).getId();
+        responses = frLogic.getFeedbackResponsesForQuestion(questionId);
+        page = frLogic.getFeedbackResponsesForQuestionInPage(questionId, null, 2);
+        assertEquals(2, page.results.size());
+        assertTrue(page.hasMore);
+        assertEquals(getIds(responses), getIdsInPages(page, null, null, questionId, 2));
+        
+        ______TS("question: non-existent question");
+        
+        page = frLogic.getFeedbackResponsesForQuestionInPage("non-existent fq id", null, 2);
+        assertTrue(page.results.isEmpty());
+        assertFalse(page.hasMore);
+    }
+    
+    /**
+     * Reads the pages following {@code firstPage} and returns the ids of the responses in all pages.
+     * {@code scope} is "session", a section, or a question id if {@code sessionName} is null.
+     */
+    private Set<String> getIdsInPages(ResponsePage firstPage, String sessionName, String courseId, String scope,
+                                      int pageSize) {
+        Set<String> ids = new HashSet<String>();
+        ResponsePage page = firstPage;
+        while (true) {
+            for (FeedbackResponseAttributes response : page.results) {
+                assertTrue(ids.add(response.getId()));
+            }
+            if (!page.hasMore) {
+                assertNull(page.cursor);
+                return ids;
+            }
+            if (sessionName == null) {
+                page = frLogic.getFeedbackResponsesForQuestionInPage(scope, page.cursor, pageSize);
+            } else if ("session".equals(scope)) {
+                page = frLogic.getFeedbackResponsesForSessionInPage(sessionName, courseId, page.cursor, pageSize);
+            } else {
+                page = frLogic.getFeedbackResponsesForSessionInSectionInPage(sessionName, courseId, scope,
+                                                                             page.cursor, pageSize);
+            }
+        }
+    }
+    
+    private Set<String> getIds(List<FeedbackResponseAttributes> responses) {
+        Set<String> ids = new HashSet<String>();
+        for (FeedbackResponseAttributes response : responses) {
+            ids.add(response.getId());
+        }
+        return ids;
+    }
+    
     public void testSpecialCharactersInTeamName() {
         ______TS("test special characters");
         
@@ -659,6 +743,168 @@ public class FeedbackResponsesLogicTest extends BaseComponentTestCase {
 
     }
 
+    public void testSaveFeedbackResponses() throws Exception {
+        removeAndRestoreTypicalDataInDatastore();
+        
+        ______TS("success: create, update, recreate and delete responses in one batch");
+        
+        FeedbackResponseAttributes responseToUpdate = getResponseFromDatastore("response2ForQ2S1C1");
+        responseToUpdate.responseMetaData = new Text("Updated in batch");
+        
+        FeedbackResponseAttributes responseToRecreate = getResponseFromDatastore("response1ForQ2S1C1");
+        String oldId = responseToRecreate.getId();
+        assertEquals(1, frcLogic.getFeedbackResponseCommentForResponse(oldId).size());
+        responseToRecreate.recipient = "student4InCourse1@gmail.tmt";
+        
+        FeedbackResponseAttributes responseToCreate = new FeedbackResponseAttributes(responseToUpdate);
+        responseToCreate.setId(null);
+        responseToCreate.recipient = "student5InCourse1@gmail.tmt";
+        responseToCreate.responseMetaData = new Text("Created in batch");
+        
+        FeedbackResponseAttributes responseToDelete = getResponseFromDatastore("response3ForQ2S1C1");
+        
+        List<FeedbackResponseAttributes> responsesToSave = new ArrayList<FeedbackResponseAttributes>();
+        responsesToSave.add(responseToUpdate);
+        responsesToSave.add(responseToRecreate);
+        responsesToSave.add(responseToCreate);
+        List<FeedbackResponseAttributes> responsesToDelete = new ArrayList<FeedbackResponseAttributes>();
+        responsesToDelete.add(responseToDelete);
+        
+        frLogic.saveFeedbackResponses(responsesToSave, responsesToDelete);
+        
+        assertEquals("Updated in batch", frLogic.getFeedbackResponse(responseToUpdate.getId()).getResponseDetails()
+                                                .getAnswerString());
+        assertNull(frLogic.getFeedbackResponse(oldId));
+        FeedbackResponseAttributes recreatedResponse = frLogic.getFeedbackResponse(
+                responseToRecreate.feedbackQuestionId, responseToRecreate.giver, "student4InCourse1@gmail.tmt");
+        assertEquals("Response from student 2 to student 1.",
+                     recreatedResponse.getResponseDetails().getAnswerString());
+        assertEquals(0, frcLogic.getFeedbackResponseCommentForResponse(oldId).size());
+        assertEquals(1, frcLogic.getFeedbackResponseCommentForResponse(recreatedResponse.getId()).size());
+        assertEquals("Created in batch", frLogic.getFeedbackResponse(responseToCreate.feedbackQuestionId,
+                                                                     responseToCreate.giver,
+                                                                     responseToCreate.recipient)
+                                                .getResponseDetails().getAnswerString());
+        assertNull(frLogic.getFeedbackResponse(responseToDelete.getId()));
+        
+        ______TS("success: more responses than can be fetched with one query filter");
+        
+        responsesToSave.clear();
+        for (int i = 0; i < 40; i++) {
+            FeedbackResponseAttributes response = new FeedbackResponseAttributes(responseToCreate);
+            response.recipient = "recipient" + i + "@gmail.tmt";
+            responsesToSave.add(response);
+        }
+        frLogic.saveFeedbackResponses(responsesToSave, new ArrayList<FeedbackResponseAttributes>());
+        
+        for (FeedbackResponseAttributes response : responsesToSave) {
+            response.responseMetaData = new Text("Updated " + response.recipient);
+        }
+        frLogic.saveFeedbackResponses(responsesToSave, new ArrayList<FeedbackResponseAttributes>());
+        
+        List<FeedbackResponseAttributes> responsesFromGiver =
+                frLogic.getFeedbackResponsesFromGiverForQuestion(responseToCreate.feedbackQuestionId,
+                                                                 responseToCreate.giver);
+        assertEquals(42, responsesFromGiver.size());
+        for (FeedbackResponseAttributes response : responsesFromGiver) {
+            if (response.recipient.startsWith("recipient")) {
+                assertEquals("Updated " + response.recipient, response.getResponseDetails().getAnswerString());
+            }
+        }
+        
+        ______TS("failure: invalid response, no response is saved");
+        
+        responseToUpdate.responseMetaData = new Text("Not saved");
+        FeedbackResponseAttributes invalidResponse = new FeedbackResponseAttributes(responseToCreate);
+        invalidResponse.recipient = "student3InCourse1@gmail.tmt";
+        invalidResponse.courseId = "invalid course id";
+        
+        try {
+            frLogic.saveFeedbackResponses(Arrays.asList(responseToUpdate, invalidResponse),
+                                          new ArrayList<FeedbackResponseAttributes>());
+            signalFailureToDetectException("Should have detected that the course id is invalid");
+        } catch (InvalidParametersException e) {
+            AssertHelper.assertContains("invalid course id", e.getMessage());
+        }
+        assertEquals("Updated in batch", frLogic.getFeedbackResponse(responseToUpdate.getId()).getResponseDetails()
+                                                .getAnswerString());
+        
+        ______TS("failure: recipient changed to one that already exists");
+        
+        responseToUpdate.recipient = responseToCreate.recipient;
+        
+        try {
+            frLogic.saveFeedbackResponses(Arrays.asList(responseToUpdate), new ArrayList<FeedbackResponseAttributes>());
+            signalFailureToDetectException("Should have detected that same giver->recipient response alr exists");
+        } catch (EntityAlreadyExistsException e) {
+            AssertHelper.assertContains("Trying to create a Feedback Response that exists", e.getMessage());
+        }
+        
+        ______TS("failure: no such response");
+        
+        responseToUpdate.setId("invalidId");
+        
+        try {
+            frLogic.saveFeedbackResponses(Arrays.asList(responseToUpdate), new ArrayList<FeedbackResponseAttributes>());
+            signalFailureToDetectException("Should have detected that this response does not exist");
+        } catch (EntityDoesNotExistException e) {
+            AssertHelper.assertContains("Trying to update non-existent Entity", e.getMessage());
+        }
+    }
+    
+    public void testAdjustFeedbackResponsesForEnrollments() throws Exception {
+        removeAndRestoreTypicalDataInDatastore();
+        
+        ______TS("change of section: sections of the student's responses and their comments are updated");
+        
+        StudentAttributes student1 = typicalBundle.students.get("student1InCourse1");
+        StudentAttributes student2 = typicalBundle.students.get("student2InCourse1");
+        FeedbackSessionAttributes session1 = typicalBundle.feedbackSessions.get("session1InCourse1");
+        String sessionName = session1.getFeedbackSessionName();
+        String courseId = session1.getCourseId();
+        
+        List<StudentEnrollDetails> enrollmentList = new ArrayList<StudentEnrollDetails>();
+        enrollmentList.add(new StudentEnrollDetails(StudentUpdateStatus.MODIFIED, courseId, student1.email,
+                                                    student1.team, student1.team, student1.section, "Section 3"));
+        // not modified, so the change of team is ignored
+        enrollmentList.add(new StudentEnrollDetails(StudentUpdateStatus.UNMODIFIED, courseId, student2.email,
+                                                    student2.team, "Team 1.2", student2.section, "Section 2"));
+        
+        List<FeedbackResponseAttributes> responsesBefore = frLogic.getFeedbackResponsesForSession(sessionName, courseId);
+        frLogic.adjustFeedbackResponsesForEnrollments(sessionName, courseId, enrollmentList, responsesBefore);
+        
+        List<FeedbackResponseAttributes> responsesAfter = frLogic.getFeedbackResponsesForSession(sessionName, courseId);
+        assertEquals(responsesBefore.size(), responsesAfter.size());
+        for (FeedbackResponseAttributes response : responsesAfter) {
+            assertEquals(response.giver.equals(student1.email), "Section 3".equals(response.giverSection));
+            assertEquals(response.recipient.equals(student1.email), "Section 3".equals(response.recipientSection));
+        }
+        
+        FeedbackResponseAttributes responseToStudent1 = getResponseFromDatastore("response1ForQ2S1C1");
+        FeedbackResponseCommentAttributes comment =
+                frcLogic.getFeedbackResponseCommentForResponse(responseToStudent1.getId()).get(0);
+        assertEquals("Section 1", comment.giverSection);
+        assertEquals("Section 3", comment.receiverSection);
+        
+        ______TS("change of team: responses to and from the student's team members are deleted");
+        
+        FeedbackSessionAttributes session2 = typicalBundle.feedbackSessions.get("session2InCourse1");
+        sessionName = session2.getFeedbackSessionName();
+        FeedbackResponseAttributes responseToTeamMember = getResponseFromDatastore("response2ForQ2S2C1");
+        assertEquals(student1.email, responseToTeamMember.giver);
+        
+        enrollmentList.clear();
+        enrollmentList.add(new StudentEnrollDetails(StudentUpdateStatus.MODIFIED, courseId, student1.email,
+                                                    student1.team, "Team 1.2", student1.section, student1.section));
+        
+        responsesBefore = frLogic.getFeedbackResponsesForSession(sessionName, courseId);
+        frLogic.adjustFeedbackResponsesForEnrollments(sessionName, courseId, enrollmentList, responsesBefore);
+        
+        responsesAfter = frLogic.getFeedbackResponsesForSession(sessionName, courseId);
+        assertEquals(responsesBefore.size() - 1, responsesAfter.size());
+        assertNull(frLogic.getFeedbackResponse(responseToTeamMember.getId()));
+    }
+    
     private FeedbackQuestionAttributes getQuestionFromDatastore(DataBundle dataBundle, String jsonId) {
         FeedbackQuestionAttributes questionToGet = dataBundle.feedbackQuestions.get(jsonId);
         questionToGet = fqLogic.getFeedbackQuestion(questionToGet.feedbackSessionName,
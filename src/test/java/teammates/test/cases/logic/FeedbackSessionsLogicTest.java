@@ -1,5 +1,6 @@
 package teammates.test.cases.logic;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -754,6 +755,38 @@ public class FeedbackSessionsLogicTest extends BaseComponentTestCase {
         assertEquals(1, actual.questionResponseBundle.size());
         expectedQuestion = getQuestionFromDatastore("qn1InSession1InCourse2");
         assertTrue(actual.questionResponseBundle.containsKey(expectedQuestion));
+        assertEquals(2, actual.recipientList.get(expectedQuestion.getId()).size());
+        
+        ______TS("recipients of questions to teams and instructors");
+        actual = fsLogic.getFeedbackSessionQuestionsForInstructor(
+                        "Instructor feedback session", "idOfTypicalCourse2", "instructor1@course2.tmt");
+        expectedQuestion = getQuestionFromDatastore("qn1InSession2InCourse2");
+        assertEquals("[Team 2.1]", actual.recipientList.get(expectedQuestion.getId()).keySet().toString());
+        expectedQuestion = getQuestionFromDatastore("qn2InSession2InCourse2");
+        Map<String, String> recipients = actual.recipientList.get(expectedQuestion.getId());
+        assertFalse(recipients.isEmpty());
+        assertFalse(recipients.containsKey("instructor1@course2.tmt"));
+        
+        ______TS("questions to self only");
+        actual = fsLogic.getFeedbackSessionQuestionsForInstructor(
+                        "Closed Session", "idOfTypicalCourse1", "instructor1@course1.tmt");
+        expectedQuestion = getQuestionFromDatastore("closed.session.feedback");
+        assertEquals(1, actual.questionResponseBundle.size());
+        recipients = actual.recipientList.get(expectedQuestion.getId());
+        assertEquals(1, recipients.size());
+        assertEquals(Const.USER_NAME_FOR_SELF, recipients.get("instructor1@course1.tmt"));
+        
+        ______TS("students as recipients are limited to sections the instructor can submit in");
+        expectedQuestion = getQuestionFromDatastore("qn2InSession1InCourse1");
+        actual = fsLogic.getFeedbackSessionQuestionsForInstructor(
+                        "First feedback session", "idOfTypicalCourse1", expectedQuestion.getId(),
+                        "instructor1@course1.tmt");
+        assertEquals(5, actual.recipientList.get(expectedQuestion.getId()).size());
+        
+        actual = fsLogic.getFeedbackSessionQuestionsForInstructor(
+                        "First feedback session", "idOfTypicalCourse1", expectedQuestion.getId(),
+                        "helper@course1.tmt");
+        assertTrue(actual.recipientList.get(expectedQuestion.getId()).isEmpty());
         
         ______TS("failure: invalid session");
         
@@ -1772,6 +1805,40 @@ public class FeedbackSessionsLogicTest extends BaseComponentTestCase {
         
         assertFalse(export.contains("Summary Statistics"));
         
+        ______TS("Streamed export: same content as the in-memory export");
+        
+        String[] sessionKeys = {
+                "mcqSession", "msqSession", "numscaleSession", "constSumSession",
+                "contribSession", "rubricSession", "rankSession"
+        };
+        for (String sessionKey : sessionKeys) {
+            session = newDataBundle.feedbackSessions.get(sessionKey);
+            
+            export = fsLogic.getFeedbackSessionResultsSummaryAsCsv(
+                    session.getFeedbackSessionName(), session.getCourseId(), instructor.email, null, true, true);
+            StringWriter streamedExport = new StringWriter();
+            fsLogic.writeFeedbackSessionResultsSummaryInSectionAsCsv(
+                    session.getFeedbackSessionName(), session.getCourseId(), instructor.email,
+                    null, null, true, true, streamedExport);
+            
+            assertEquals(export, streamedExport.toString());
+        }
+        
+        ______TS("Streamed export: within section and with filter text");
+        
+        session = dataBundle.feedbackSessions.get("session1InCourse1");
+        instructor = dataBundle.instructors.get("instructor1OfCourse1");
+        
+        export = fsLogic.getFeedbackSessionResultsSummaryInSectionAsCsv(
+                session.getFeedbackSessionName(), session.getCourseId(), instructor.email,
+                "Section 1", "selling point", false, true);
+        StringWriter streamedExport = new StringWriter();
+        fsLogic.writeFeedbackSessionResultsSummaryInSectionAsCsv(
+                session.getFeedbackSessionName(), session.getCourseId(), instructor.email,
+                "Section 1", "selling point", false, true, streamedExport);
+        
+        assertEquals(export, streamedExport.toString());
+        
         ______TS("Non-existent Course/Session");
         
         try {
@@ -1782,6 +1849,16 @@ public class FeedbackSessionsLogicTest extends BaseComponentTestCase {
                          + "no course" + "/" + "non.existent",
                          e.getMessage());
         }
+        
+        try {
+            fsLogic.writeFeedbackSessionResultsSummaryInSectionAsCsv(
+                    "non.existent", "no course", instructor.email, null, null, true, true, new StringWriter());
+            signalFailureToDetectException("Failed to detect non-existent feedback session.");
+        } catch (EntityDoesNotExistException e) {
+            assertEquals("Trying to view a non-existent feedback session: "
+                         + "no course" + "/" + "non.existent",
+                         e.getMessage());
+        }
     }
     
     private String getStudentAnonEmail(DataBundle dataBundle, String studentKey) {
@@ -6,11 +6,14 @@ import org.testng.annotations.Test;
 
 import teammates.common.datatransfer.CourseAttributes;
 import teammates.common.datatransfer.DataBundle;
+import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.InstructorAttributes;
+import teammates.common.datatransfer.ResponsePage;
 import teammates.common.datatransfer.StudentAttributes;
 import teammates.common.datatransfer.UserType;
 import teammates.logic.api.Logic;
 import teammates.test.cases.BaseComponentTestCase;
+import teammates.test.driver.AssertHelper;
 
 public class LogicTest extends BaseComponentTestCase {
 
@@ -77,6 +80,44 @@ public class LogicTest extends BaseComponentTestCase {
         assertEquals(null, logic.getCurrentUser());
     }
     
+    @Test
+    public void testGetFeedbackResponsesInPage_nullParameters() {
+        
+        ______TS("null parameters are not accepted");
+        
+        try {
+            logic.getFeedbackResponsesForSessionInPage(null, "idOfTypicalCourse1", null, 10);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Logic.ERROR_NULL_PARAMETER, e.getMessage());
+        }
+        
+        try {
+            logic.getFeedbackResponsesForSessionInSectionInPage("First feedback session", "idOfTypicalCourse1",
+                                                                null, null, 10);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Logic.ERROR_NULL_PARAMETER, e.getMessage());
+        }
+        
+        try {
+            logic.getFeedbackResponsesForQuestionInPage(null, null, 10);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Logic.ERROR_NULL_PARAMETER, e.getMessage());
+        }
+        
+        ______TS("null cursor gets the first page");
+        
+        ResponsePage page = logic.getFeedbackResponsesForSessionInSectionInPage("First feedback session",
+                                                                                "idOfTypicalCourse1", "Section 1",
+                                                                                null, 2);
+        assertTrue(page.results.size() <= 2);
+        for (FeedbackResponseAttributes response : page.results) {
+            assertTrue("Section 1".equals(response.giverSection) || "Section 1".equals(response.recipientSection));
+        }
+    }
+    
     /* TODO: implement tests for the following :
      * 1. getFeedbackSessionDetails()
      * 2. getFeedbackSessionsListForInstructor()
@@ -1,6 +1,7 @@
 package teammates.test.cases.logic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -798,6 +799,43 @@ public class StudentsLogicTest extends BaseComponentTestCase {
             ignoreExpectedException();
         }
         
+        
+        ______TS("more students than fit in a single batch read or write");
+        
+        StringBuilder bulkLines = new StringBuilder("section | team | name | email | comment");
+        bulkLines.append(Const.EOL).append("None | t8 | n8b | e8@g | c1");
+        int numOfNewStudents = 1100;
+        for (int i = 0; i < numOfNewStudents; i++) {
+            bulkLines.append(Const.EOL)
+                     .append("s" + i / 100 + " | bulkT" + i / 10 + " | bulkN" + i + " | bulk" + i + "@g | ");
+        }
+        enrollResults = studentsLogic.enrollStudentsWithoutDocument(bulkLines.toString(), "tes.course");
+        assertEquals(numOfNewStudents + 1, enrollResults.size());
+        assertEquals(StudentUpdateStatus.MODIFIED, enrollResults.get(0).updateStatus);
+        assertEquals(StudentUpdateStatus.NEW, enrollResults.get(numOfNewStudents).updateStatus);
+        assertEquals(numOfNewStudents + 1, studentsLogic.getStudentsForCourse("tes.course").size());
+        assertEquals("n8b", studentsLogic.getStudentForEmail("tes.course", "e8@g").name);
+        assertEquals("bulkT109", studentsLogic.getStudentForEmail("tes.course", "bulk1099@g").team);
+        
+        
+        ______TS("more students than the size limit per enrollment");
+        
+        StudentsLogic.setSizeLimitPerEnrollment(2);
+        try {
+            enrollLines = headerLine + Const.EOL + "t8|n8c|e8@g|c1" + Const.EOL + "t8|n9|e9@g|c1";
+            studentsLogic.enrollStudentsWithoutDocument(enrollLines, "tes.course");
+            assertEquals("n9", studentsLogic.getStudentForEmail("tes.course", "e9@g").name);
+            
+            enrollLines += Const.EOL + "t8|n10|e10@g|c1";
+            studentsLogic.enrollStudentsWithoutDocument(enrollLines, "tes.course");
+            signalFailureToDetectException();
+        } catch (EnrollException e) {
+            assertEquals(Const.StatusMessages.QUOTA_PER_ENROLLMENT_EXCEED, e.getMessage());
+        } finally {
+            StudentsLogic.setSizeLimitPerEnrollment(0);
+        }
+        assertNull(studentsLogic.getStudentForEmail("tes.course", "e10@g"));
+        
     }
    
     public void testGetStudentForEmail() {
@@ -1188,9 +1226,13 @@ public class StudentsLogicTest extends BaseComponentTestCase {
     }
 
     private static StudentEnrollDetails enrollStudent(StudentAttributes student) throws Exception {
-        return (StudentEnrollDetails) invokeMethod(StudentsLogic.class, "enrollStudent",
-                                                   new Class<?>[] { StudentAttributes.class, Boolean.class },
-                                                   StudentsLogic.inst(), new Object[] { student, false });
+        List<StudentAttributes> studentsInCourse = StudentsLogic.inst().getStudentsForCourse(student.course);
+        @SuppressWarnings("unchecked")
+        List<StudentEnrollDetails> enrollmentList = (List<StudentEnrollDetails>) invokeMethod(
+                StudentsLogic.class, "enrollStudents",
+                new Class<?>[] { List.class, List.class, String.class, boolean.class }, StudentsLogic.inst(),
+                new Object[] { Arrays.asList(student), studentsInCourse, student.course, false });
+        return enrollmentList.get(0);
     }
     
     @SuppressWarnings("unchecked")
@@ -0,0 +1,226 @@
+package teammates.test.cases.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.common.datatransfer.AccountAttributes;
+import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
+import teammates.storage.api.ActivityLogsDb;
+import teammates.test.cases.BaseComponentTestCase;
+
+public class ActivityLogsDbTest extends BaseComponentTestCase {
+
+    private static final long START_TIME = System.currentTimeMillis() - 60 * 1000;
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private static ActivityLogsDb activityLogsDb = new ActivityLogsDb();
+
+    @BeforeClass
+    public static void classSetUp() throws Exception {
+        printTestClassHeader();
+
+        AccountAttributes instructor = new AccountAttributes("ALDbT.instr", "Instructor Alice", true,
+                                                             "alice@aldbt.tmt", "TEAMMATES Test Institute 1");
+        AccountAttributes student = new AccountAttributes("ALDbT.student", "Student Bob", false,
+                                                          "bob@aldbt.tmt", "TEAMMATES Test Institute 1");
+
+        createActivityLog(0, "instructorHomePage", instructor, null, 100);
+        createActivityLog(1, "instructorCourseDetailsPage", instructor, "ALDbT.CS1101", 200);
+        createActivityLog(2, "studentHomePage", student, null, 300);
+        createActivityLog(3, "studentFeedbackSubmissionEditPage", student, "ALDbT.CS1101", 400);
+        createActivityLog(4, "instructorCourseDetailsPage", instructor, "ALDbT.CS2103", 500);
+    }
+
+    private static void createActivityLog(int secondsAfterStart, String servletName, AccountAttributes account,
+                                          String courseId, long timeTaken) throws Exception {
+        createActivityLog(START_TIME + secondsAfterStart * 1000, servletName, account, courseId, timeTaken);
+    }
+
+    private static void createActivityLog(long time, String servletName, AccountAttributes account,
+                                          String courseId, long timeTaken) throws Exception {
+        ActivityLogEntry entry = new ActivityLogEntry(servletName, "Pageload", account, "Message of " + servletName,
+                                                      "/page/" + servletName);
+        // the log is written asynchronously, so the write is waited for before the log is read
+        activityLogsDb.createActivityLog(time, entry.generateLogMessage() + "|||" + timeTaken, courseId).get();
+    }
+
+    @Test
+    public void testGetActivityLogs() {
+
+        ______TS("all logs in the time period, most recent first");
+
+        ActivityLogQuery query = new ActivityLogQuery(START_TIME, START_TIME + 10 * 1000);
+        List<ActivityLogEntry> logs = activityLogsDb.getActivityLogs(query, 10);
+        assertEquals(5, logs.size());
+        assertEquals("instructorCourseDetailsPage", logs.get(0).getServletName());
+        assertEquals(START_TIME + 4 * 1000, logs.get(0).getTime());
+        assertEquals(500, logs.get(0).getTimeTaken().longValue());
+        assertEquals("alice@aldbt.tmt", logs.get(0).getEmail());
+        assertEquals("aldbt.cs2103", logs.get(0).getCourseId());
+        assertEquals("instructorHomePage", logs.get(4).getServletName());
+        assertNull(logs.get(4).getCourseId());
+        assertFalse(query.hasMoreLogs());
+
+        ______TS("logs of a person by Google ID, email, name or the whole words in them, ignoring case");
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("aldbt.STUDENT");
+        assertEquals(Arrays.asList("studentFeedbackSubmissionEditPage", "studentHomePage"),
+                     getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("Student Bob@");
+        assertEquals(2, activityLogsDb.getActivityLogs(query, 10).size());
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("instructor alice");
+        assertEquals(3, activityLogsDb.getActivityLogs(query, 10).size());
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("Alice");
+        assertEquals(3, activityLogsDb.getActivityLogs(query, 10).size());
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("alice@ALDbT");
+        assertEquals(3, activityLogsDb.getActivityLogs(query, 10).size());
+
+        ______TS("logs of a person are found by the longest word, to be filtered by the whole person");
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("Bob@ALDbT.tmt");
+        assertEquals(5, activityLogsDb.getActivityLogs(query, 10).size());
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("instructor bob");
+        assertEquals(3, activityLogsDb.getActivityLogs(query, 10).size());
+
+        ______TS("logs of a person are not found by a part of a word");
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setPerson("Alic");
+        assertTrue(activityLogsDb.getActivityLogs(query, 10).isEmpty());
+
+        ______TS("logs by role, action and course");
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setRole("student");
+        assertEquals(Arrays.asList("studentFeedbackSubmissionEditPage", "studentHomePage"),
+                     getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setAction("instructorcoursedetailspage");
+        assertEquals(2, activityLogsDb.getActivityLogs(query, 10).size());
+
+        query = new ActivityLogQuery(START_TIME, null);
+        query.setCourseId("ALDbT.CS1101");
+        assertEquals(Arrays.asList("studentFeedbackSubmissionEditPage", "instructorCourseDetailsPage"),
+                     getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+
+        ______TS("logs outside the time period are excluded");
+
+        query = new ActivityLogQuery(START_TIME + 1000, START_TIME + 3 * 1000);
+        assertEquals(Arrays.asList("studentFeedbackSubmissionEditPage", "studentHomePage",
+                                   "instructorCourseDetailsPage"),
+                     getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+
+        ______TS("paging through the logs with the cursor");
+
+        query = new ActivityLogQuery(START_TIME, START_TIME + 10 * 1000);
+        List<String> servletNames = new ArrayList<String>();
+        int numberOfPages = 0;
+        do {
+            List<ActivityLogEntry> page = activityLogsDb.getActivityLogs(query, 2);
+            assertTrue(page.size() <= 2);
+            servletNames.addAll(getServletNames(page));
+            numberOfPages++;
+        } while (query.hasMoreLogs());
+        assertEquals(3, numberOfPages);
+        assertEquals(Arrays.asList("instructorCourseDetailsPage", "studentFeedbackSubmissionEditPage",
+                                   "studentHomePage", "instructorCourseDetailsPage", "instructorHomePage"),
+                     servletNames);
+    }
+
+    @Test
+    public void testGetActivityLogsOfSeveralDays() throws Exception {
+        AccountAttributes account = new AccountAttributes("ALDbT.carol", "Carol", false,
+                                                          "carol@aldbt.tmt", "TEAMMATES Test Institute 1");
+        createActivityLog(START_TIME - 2 * MILLIS_PER_DAY, "studentHomePage", account, null, 100);
+        createActivityLog(START_TIME - MILLIS_PER_DAY, "studentProfilePage", account, null, 100);
+
+        ______TS("logs of several days, most recent first");
+
+        ActivityLogQuery query = new ActivityLogQuery(START_TIME - 3 * MILLIS_PER_DAY, null);
+        query.setPerson("carol");
+        assertEquals(Arrays.asList("studentProfilePage", "studentHomePage"),
+                     getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+        assertFalse(query.hasMoreLogs());
+
+        ______TS("logs outside the time period are excluded on the first and the last day");
+
+        query = new ActivityLogQuery(START_TIME - 2 * MILLIS_PER_DAY + 1, START_TIME - MILLIS_PER_DAY);
+        query.setPerson("carol");
+        assertEquals(Arrays.asList("studentProfilePage"),
+                     getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+
+        ______TS("paging through the logs of several days with the cursor");
+
+        query = new ActivityLogQuery(null, null);
+        query.setPerson("carol");
+        assertEquals(Arrays.asList("studentProfilePage"), getServletNames(activityLogsDb.getActivityLogs(query, 1)));
+        assertTrue(query.hasMoreLogs());
+        assertEquals(Arrays.asList("studentHomePage"), getServletNames(activityLogsDb.getActivityLogs(query, 1)));
+        assertTrue(query.hasMoreLogs());
+        assertTrue(activityLogsDb.getActivityLogs(query, 1).isEmpty());
+        assertFalse(query.hasMoreLogs());
+    }
+
+    @Test
+    public void testDeleteActivityLogsBefore() throws Exception {
+        AccountAttributes account = new AccountAttributes("ALDbT.dave", "Dave", false,
+                                                          "dave@aldbt.tmt", "TEAMMATES Test Institute 1");
+        long retentionPeriodStart = System.currentTimeMillis() - ActivityLogsDb.RETENTION_DAYS * MILLIS_PER_DAY;
+        createActivityLog(retentionPeriodStart - 2 * MILLIS_PER_DAY, "studentHomePage", account, null, 100);
+        createActivityLog(retentionPeriodStart - 3 * MILLIS_PER_DAY, "studentHomePage", account, null, 100);
+        createActivityLog(START_TIME - 30 * 1000, "studentProfilePage", account, null, 100);
+
+        ______TS("logs older than the retention period are not searched");
+
+        ActivityLogQuery query = new ActivityLogQuery(null, null);
+        query.setPerson("dave");
+        assertEquals(Arrays.asList("studentProfilePage"), getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+
+        ______TS("logs of the days before the given time are deleted in batches");
+
+        assertEquals(1, activityLogsDb.deleteActivityLogsBefore(retentionPeriodStart, 1));
+        assertEquals(1, activityLogsDb.deleteActivityLogsBefore(retentionPeriodStart, 10));
+        assertEquals(0, activityLogsDb.deleteActivityLogsBefore(retentionPeriodStart, 10));
+
+        query = new ActivityLogQuery(null, null);
+        query.setPerson("dave");
+        assertEquals(Arrays.asList("studentProfilePage"), getServletNames(activityLogsDb.getActivityLogs(query, 10)));
+    }
+
+    @Test
+    public void testCreateActivityLogWithUnparsableMessage() throws Exception {
+        long time = START_TIME - 60 * 1000;
+        activityLogsDb.createActivityLog(time, "TEAMMATESLOG|||incomplete", null).get();
+
+        List<ActivityLogEntry> logs = activityLogsDb.getActivityLogs(new ActivityLogQuery(time, time), 10);
+        assertEquals(1, logs.size());
+        assertEquals("Unknown", logs.get(0).getServletName());
+        assertEquals(time, logs.get(0).getTime());
+    }
+
+    private static List<String> getServletNames(List<ActivityLogEntry> logs) {
+        List<String> names = new ArrayList<String>();
+        for (ActivityLogEntry log : logs) {
+            names.add(log.getServletName());
+        }
+        return names;
+    }
+}
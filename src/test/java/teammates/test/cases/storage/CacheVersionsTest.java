@@ -0,0 +1,83 @@
+package teammates.test.cases.storage;
+
+import java.util.Arrays;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.storage.api.CacheVersions;
+import teammates.storage.api.CacheVersions.Version;
+import teammates.test.cases.BaseComponentTestCase;
+import teammates.test.util.MovableClock;
+
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+
+public class CacheVersionsTest extends BaseComponentTestCase {
+
+    private static MovableClock clock = new MovableClock();
+
+    private CacheVersions versions = new CacheVersions("CVersionsT");
+
+    @BeforeClass
+    public static void setupClass() {
+        printTestClassHeader();
+        CacheVersions.setClock(clock);
+    }
+
+    @Test
+    public void testVersions() {
+
+        ______TS("new version is not settled until the consistency window has passed");
+
+        Version version = versions.getVersion("item1");
+        assertFalse(version.isSettled());
+        assertEquals(version.getNumber(), versions.getVersion("item1").getNumber());
+
+        clock.movePastConsistencyWindow();
+        version = versions.getVersion("item1");
+        assertTrue(version.isSettled());
+
+        ______TS("other entries are fetched with the version");
+
+        MemcacheServiceFactory.getMemcacheService().put("CVersionsT:item1", "cached item");
+        version = versions.getVersion("item1", "CVersionsT:item1", "CVersionsT:missing");
+        assertEquals("cached item", version.getEntry("CVersionsT:item1"));
+        assertNull(version.getEntry("CVersionsT:missing"));
+
+        ______TS("each invalidation starts a different version, even within the same millisecond");
+
+        long previousNumber = version.getNumber();
+        versions.invalidate("item1");
+        versions.invalidate("item1");
+        version = versions.getVersion("item1");
+        assertEquals(previousNumber + 2, version.getNumber());
+        assertFalse(version.isSettled());
+
+        clock.movePastConsistencyWindow();
+        assertTrue(versions.getVersion("item1").isSettled());
+
+        ______TS("items invalidated together");
+
+        long item2Number = versions.getVersion("item2").getNumber();
+        clock.movePastConsistencyWindow();
+        versions.invalidate(Arrays.asList("item1", "item2"));
+        assertEquals(previousNumber + 3, versions.getVersion("item1").getNumber());
+        assertEquals(item2Number + 1, versions.getVersion("item2").getNumber());
+        assertFalse(versions.getVersion("item2").isSettled());
+
+        ______TS("evicted version is started again after the earlier ones");
+
+        clock.movePastConsistencyWindow();
+        MemcacheServiceFactory.getMemcacheService().delete("CVersionsTVersion:item1");
+        version = versions.getVersion("item1");
+        assertTrue(version.getNumber() > previousNumber + 3);
+        assertFalse(version.isSettled());
+    }
+
+    @AfterClass
+    public static void classTearDown() {
+        CacheVersions.setClock(null);
+    }
+
+}
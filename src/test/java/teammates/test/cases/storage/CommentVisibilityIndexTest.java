@@ -0,0 +1,246 @@
+package teammates.test.cases.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.common.datatransfer.CommentAttributes;
+import teammates.common.datatransfer.CommentParticipantType;
+import teammates.common.datatransfer.CommentSendingState;
+import teammates.common.datatransfer.CommentStatus;
+import teammates.storage.api.CacheVersions;
+import teammates.storage.api.CommentVisibilityIndex;
+import teammates.storage.api.CommentsDb;
+import teammates.test.cases.BaseComponentTestCase;
+import teammates.test.util.MovableClock;
+
+import com.google.appengine.api.datastore.Text;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+
+public class CommentVisibilityIndexTest extends BaseComponentTestCase {
+
+    private static final String COURSE_ID = "CVIndexT.course";
+    private static final String CACHED_COURSE_ID = "CVIndexT.cachedCourse";
+    private static final String LARGE_COURSE_ID = "CVIndexT.largeCourse";
+    private static final String GIVER_EMAIL = "instr1@cvindext.tmt";
+    private static final String STUDENT_EMAIL = "student1@cvindext.tmt";
+
+    private static MovableClock clock = new MovableClock();
+
+    private CommentsDb commentsDb = new CommentsDb();
+
+    @BeforeClass
+    public static void setupClass() {
+        printTestClassHeader();
+        CacheVersions.setClock(clock);
+    }
+
+    @Test
+    public void testGetForStudent() throws Exception {
+
+        ______TS("course without comments");
+
+        CommentVisibilityIndex index = CommentVisibilityIndex.getForStudent(COURSE_ID, STUDENT_EMAIL);
+        assertTrue(index.getCommentsForPerson("student1@cvindext.tmt").isEmpty());
+        assertTrue(index.getCommentsShownToCourse().isEmpty());
+
+        ______TS("comments shown to students and to instructors only");
+
+        CommentAttributes toStudent = createComment(CommentParticipantType.PERSON, "student1@cvindext.tmt",
+                                                    CommentParticipantType.PERSON, CommentParticipantType.COURSE);
+        CommentAttributes toTeam = createComment(CommentParticipantType.TEAM, "Team 1",
+                                                 CommentParticipantType.TEAM);
+        CommentAttributes toSection = createComment(CommentParticipantType.SECTION, "Section 1",
+                                                    CommentParticipantType.INSTRUCTOR);
+
+        index = CommentVisibilityIndex.getForStudent(COURSE_ID, STUDENT_EMAIL);
+        assertEquals(1, index.getCommentsForPerson("student1@cvindext.tmt").size());
+        assertEquals("to person", index.getCommentsForPerson("student1@cvindext.tmt").get(0).getCommentText());
+        assertEquals(1, index.getCommentsShownToCourse().size());
+        assertEquals(1, index.getCommentsForTeam("Team 1").size());
+        assertTrue(index.getCommentsForPerson("student2@cvindext.tmt").isEmpty());
+        assertTrue(index.getCommentsForSection("Section 1").isEmpty());
+
+        ______TS("comment no longer shown to students");
+
+        toTeam = commentsDb.getComment(toTeam);
+        toTeam.showCommentTo = new ArrayList<CommentParticipantType>(Arrays.asList(CommentParticipantType.INSTRUCTOR));
+        toTeam.showGiverNameTo = new ArrayList<CommentParticipantType>();
+        toTeam.showRecipientNameTo = new ArrayList<CommentParticipantType>();
+        commentsDb.updateComment(toTeam);
+
+        index = CommentVisibilityIndex.getForStudent(COURSE_ID, STUDENT_EMAIL);
+        assertTrue(index.getCommentsForTeam("Team 1").isEmpty());
+
+        ______TS("comments deleted");
+
+        commentsDb.deleteCommentsForCourse(COURSE_ID);
+
+        index = CommentVisibilityIndex.getForStudent(COURSE_ID, STUDENT_EMAIL);
+        assertTrue(index.getCommentsForPerson("student1@cvindext.tmt").isEmpty());
+        assertTrue(index.getCommentsShownToCourse().isEmpty());
+        assertNull(commentsDb.getComment(toStudent));
+        assertNull(commentsDb.getComment(toSection));
+    }
+
+    @Test
+    public void testCaching() throws Exception {
+        createComment(CACHED_COURSE_ID, CommentParticipantType.PERSON, "student1@cvindext.tmt",
+                      CommentParticipantType.PERSON);
+
+        ______TS("comments loaded soon after a change are not cached");
+
+        assertEquals(1, CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL)
+                                              .getCommentsForPerson("student1@cvindext.tmt").size());
+        deleteEntitiesWithoutInvalidatingCaches("Comment", "courseId", CACHED_COURSE_ID);
+        assertTrue(CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL)
+                                         .getCommentsForPerson("student1@cvindext.tmt").isEmpty());
+
+        ______TS("comments loaded later are cached, with their times to the millisecond");
+
+        createComment(CACHED_COURSE_ID, CommentParticipantType.PERSON, "student1@cvindext.tmt",
+                      CommentParticipantType.PERSON);
+        CommentAttributes comment = commentsDb.getCommentsForCourse(CACHED_COURSE_ID).get(0);
+        clock.movePastConsistencyWindow();
+        CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL);
+        deleteEntitiesWithoutInvalidatingCaches("Comment", "courseId", CACHED_COURSE_ID);
+
+        List<CommentAttributes> comments = CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL)
+                                                                 .getCommentsForPerson("student1@cvindext.tmt");
+        assertEquals(1, comments.size());
+        assertEquals(comment.commentText, comments.get(0).commentText);
+        assertEquals(comment.createdAt.getTime(), comments.get(0).createdAt.getTime());
+        assertEquals(comment.getCommentId(), comments.get(0).getCommentId());
+
+        ______TS("all the fields of cached comments are kept");
+
+        CommentVisibilityIndex.invalidate(CACHED_COURSE_ID);
+        comment = new CommentAttributes();
+        comment.courseId = CACHED_COURSE_ID;
+        comment.giverEmail = GIVER_EMAIL;
+        comment.recipientType = CommentParticipantType.TEAM;
+        comment.recipients = new HashSet<String>(Arrays.asList("Team 1", "Team <2>"));
+        comment.status = CommentStatus.DRAFT;
+        comment.sendingState = CommentSendingState.PENDING;
+        comment.showCommentTo = new ArrayList<CommentParticipantType>(
+                Arrays.asList(CommentParticipantType.TEAM, CommentParticipantType.INSTRUCTOR));
+        comment.showGiverNameTo = new ArrayList<CommentParticipantType>(Arrays.asList(CommentParticipantType.TEAM));
+        comment.showRecipientNameTo = new ArrayList<CommentParticipantType>();
+        comment.createdAt = new Date();
+        comment.lastEditorEmail = "instr2@cvindext.tmt";
+        comment.lastEditedAt = new Date(comment.createdAt.getTime() + 1);
+        comment.commentText = new Text("to teams, with <b>markup</b> and unicode \u00e9");
+        commentsDb.createEntity(comment);
+        CommentAttributes expected = commentsDb.getCommentsForCourse(CACHED_COURSE_ID).get(0);
+        clock.movePastConsistencyWindow();
+        CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL);
+        deleteEntitiesWithoutInvalidatingCaches("Comment", "courseId", CACHED_COURSE_ID);
+
+        comments = CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL).getCommentsForTeam("Team 1");
+        assertEquals(1, comments.size());
+        CommentAttributes actual = comments.get(0);
+        assertEquals(expected.getCommentId(), actual.getCommentId());
+        assertEquals(expected.courseId, actual.courseId);
+        assertEquals(expected.giverEmail, actual.giverEmail);
+        assertEquals(expected.recipientType, actual.recipientType);
+        assertEquals(expected.recipients, actual.recipients);
+        assertEquals(expected.status, actual.status);
+        assertEquals(expected.sendingState, actual.sendingState);
+        assertEquals(expected.showCommentTo, actual.showCommentTo);
+        assertEquals(expected.showGiverNameTo, actual.showGiverNameTo);
+        assertEquals(expected.showRecipientNameTo, actual.showRecipientNameTo);
+        assertEquals(expected.createdAt, actual.createdAt);
+        assertEquals(expected.lastEditorEmail, actual.lastEditorEmail);
+        assertEquals(expected.lastEditedAt, actual.lastEditedAt);
+        assertEquals(expected.commentText, actual.commentText);
+        // recipients are kept as stored, i.e. sanitized for HTML
+        CommentVisibilityIndex index = CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL);
+        for (String recipient : expected.recipients) {
+            assertEquals(expected.getCommentId(), index.getCommentsForTeam(recipient).get(0).getCommentId());
+        }
+
+        ______TS("cached comments are invalidated");
+
+        CommentVisibilityIndex.invalidate(CACHED_COURSE_ID);
+        assertTrue(CommentVisibilityIndex.getForStudent(CACHED_COURSE_ID, STUDENT_EMAIL)
+                                         .getCommentsForPerson("student1@cvindext.tmt").isEmpty());
+    }
+
+    @Test
+    public void testCourseTooLargeToCache() throws Exception {
+        // about 1.2MB of comments shown to the whole course
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 100 * 1000; i++) {
+            longText.append('a');
+        }
+        for (int i = 0; i < 12; i++) {
+            CommentAttributes comment = createComment(LARGE_COURSE_ID, CommentParticipantType.COURSE, LARGE_COURSE_ID,
+                                                      CommentParticipantType.COURSE);
+            comment = commentsDb.getComment(comment);
+            comment.commentText = new Text(longText.toString());
+            commentsDb.updateComment(comment);
+        }
+        createComment(LARGE_COURSE_ID, CommentParticipantType.PERSON, STUDENT_EMAIL, CommentParticipantType.PERSON);
+        createComment(LARGE_COURSE_ID, CommentParticipantType.PERSON, "student2@cvindext.tmt",
+                      CommentParticipantType.PERSON);
+        clock.movePastConsistencyWindow();
+
+        ______TS("comments too large to cache are not cached");
+
+        CommentVisibilityIndex index = CommentVisibilityIndex.getForStudent(LARGE_COURSE_ID, STUDENT_EMAIL);
+        assertEquals(12, index.getCommentsShownToCourse().size());
+        assertEquals(1, index.getCommentsForPerson("student2@cvindext.tmt").size());
+        MemcacheService memcache = MemcacheServiceFactory.getMemcacheService();
+        assertNull(memcache.get("CommentVisibilityIndex:" + LARGE_COURSE_ID));
+        assertEquals(Boolean.TRUE, memcache.get("CommentVisibilityIndexTooLarge:" + LARGE_COURSE_ID));
+
+        ______TS("only the comments that the student may see are read afterwards");
+
+        index = CommentVisibilityIndex.getForStudent(LARGE_COURSE_ID, STUDENT_EMAIL);
+        assertEquals(12, index.getCommentsShownToCourse().size());
+        assertEquals(1, index.getCommentsForPerson(STUDENT_EMAIL).size());
+        assertTrue(index.getCommentsForPerson("student2@cvindext.tmt").isEmpty());
+
+        index = CommentVisibilityIndex.getForStudent(LARGE_COURSE_ID, "student2@cvindext.tmt");
+        assertEquals(1, index.getCommentsForPerson("student2@cvindext.tmt").size());
+        assertTrue(index.getCommentsForPerson(STUDENT_EMAIL).isEmpty());
+
+        commentsDb.deleteCommentsForCourse(LARGE_COURSE_ID);
+        assertTrue(CommentVisibilityIndex.getForStudent(LARGE_COURSE_ID, STUDENT_EMAIL)
+                                         .getCommentsShownToCourse().isEmpty());
+    }
+
+    @AfterClass
+    public static void classTearDown() {
+        CacheVersions.setClock(null);
+    }
+
+    private CommentAttributes createComment(CommentParticipantType recipientType, String recipient,
+                                            CommentParticipantType... showCommentTo) throws Exception {
+        return createComment(COURSE_ID, recipientType, recipient, showCommentTo);
+    }
+
+    private CommentAttributes createComment(String courseId, CommentParticipantType recipientType, String recipient,
+                                            CommentParticipantType... showCommentTo) throws Exception {
+        CommentAttributes comment = new CommentAttributes();
+        comment.courseId = courseId;
+        comment.giverEmail = GIVER_EMAIL;
+        comment.recipientType = recipientType;
+        comment.recipients = new HashSet<String>(Arrays.asList(recipient));
+        comment.showCommentTo = new ArrayList<CommentParticipantType>(Arrays.asList(showCommentTo));
+        comment.showGiverNameTo = new ArrayList<CommentParticipantType>(Arrays.asList(showCommentTo));
+        comment.showRecipientNameTo = new ArrayList<CommentParticipantType>(Arrays.asList(showCommentTo));
+        comment.createdAt = new Date();
+        comment.commentText = new Text("to " + recipientType.toString().toLowerCase());
+        commentsDb.createEntity(comment);
+        return comment;
+    }
+
+}
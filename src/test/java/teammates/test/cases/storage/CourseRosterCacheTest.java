@@ -0,0 +1,110 @@
+package teammates.test.cases.storage;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.common.datatransfer.CourseRoster;
+import teammates.common.datatransfer.InstructorAttributes;
+import teammates.common.datatransfer.StudentAttributes;
+import teammates.storage.api.CacheVersions;
+import teammates.storage.api.CourseRosterCache;
+import teammates.storage.api.InstructorsDb;
+import teammates.storage.api.StudentsDb;
+import teammates.test.cases.BaseComponentTestCase;
+import teammates.test.util.MovableClock;
+
+public class CourseRosterCacheTest extends BaseComponentTestCase {
+
+    private static final String COURSE_ID = "CRCacheT.course";
+    private static final String CACHED_COURSE_ID = "CRCacheT.cachedCourse";
+
+    private static MovableClock clock = new MovableClock();
+
+    private StudentsDb studentsDb = new StudentsDb();
+    private InstructorsDb instructorsDb = new InstructorsDb();
+
+    @BeforeClass
+    public static void setupClass() {
+        printTestClassHeader();
+        CacheVersions.setClock(clock);
+    }
+
+    @Test
+    public void testGetCourseRoster() throws Exception {
+
+        ______TS("empty course");
+
+        CourseRoster roster = CourseRosterCache.getCourseRoster(COURSE_ID);
+        assertTrue(roster.getStudents().isEmpty());
+        assertTrue(roster.getInstructors().isEmpty());
+
+        ______TS("student and instructor created");
+
+        StudentAttributes student = new StudentAttributes("Section 1", "Team 1", "Student 1",
+                                                          "student1@crcachet.tmt", "", COURSE_ID);
+        studentsDb.createStudentWithoutDocument(student);
+        @SuppressWarnings("deprecation")
+        InstructorAttributes instructor = new InstructorAttributes("CRCacheT.instr", COURSE_ID,
+                                                                   "Instructor 1", "instr1@crcachet.tmt");
+        instructorsDb.createEntity(instructor);
+
+        roster = CourseRosterCache.getCourseRoster(COURSE_ID);
+        assertEquals(1, roster.getStudents().size());
+        assertTrue(roster.isStudentInTeam(student.email, "Team 1"));
+        assertEquals(1, roster.getInstructors().size());
+        assertTrue(roster.isInstructorOfCourse(instructor.email));
+
+        ______TS("student updated");
+
+        studentsDb.updateStudentWithoutSearchability(COURSE_ID, student.email, student.name, "Team 2",
+                                                     student.section, student.email, student.googleId,
+                                                     student.comments);
+
+        roster = CourseRosterCache.getCourseRoster(COURSE_ID);
+        assertTrue(roster.isStudentInTeam(student.email, "Team 2"));
+
+        ______TS("student and instructor deleted");
+
+        studentsDb.deleteStudentWithoutDocument(COURSE_ID, student.email);
+        instructorsDb.deleteInstructor(COURSE_ID, instructor.email);
+
+        roster = CourseRosterCache.getCourseRoster(COURSE_ID);
+        assertTrue(roster.getStudents().isEmpty());
+        assertTrue(roster.getInstructors().isEmpty());
+    }
+
+    @Test
+    public void testCaching() throws Exception {
+        StudentAttributes student1 = new StudentAttributes("Section 1", "Team 1", "Student 1",
+                                                           "student1@crcachet.tmt", "", CACHED_COURSE_ID);
+        StudentAttributes student2 = new StudentAttributes("Section 1", "Team 1", "Student 2",
+                                                           "student2@crcachet.tmt", "", CACHED_COURSE_ID);
+        studentsDb.createStudentWithoutDocument(student1);
+        studentsDb.createStudentWithoutDocument(student2);
+
+        ______TS("roster loaded soon after a change is not cached");
+
+        assertEquals(2, CourseRosterCache.getCourseRoster(CACHED_COURSE_ID).getStudents().size());
+        deleteEntitiesWithoutInvalidatingCaches("CourseStudent", "email", student1.email);
+        assertEquals(1, CourseRosterCache.getCourseRoster(CACHED_COURSE_ID).getStudents().size());
+
+        ______TS("roster loaded later is cached");
+
+        clock.movePastConsistencyWindow();
+        assertEquals(1, CourseRosterCache.getCourseRoster(CACHED_COURSE_ID).getStudents().size());
+        deleteEntitiesWithoutInvalidatingCaches("CourseStudent", "email", student2.email);
+        assertEquals(1, CourseRosterCache.getCourseRoster(CACHED_COURSE_ID).getStudents().size());
+
+        ______TS("cached roster is invalidated");
+
+        CourseRosterCache.invalidate(CACHED_COURSE_ID);
+        assertTrue(CourseRosterCache.getCourseRoster(CACHED_COURSE_ID).getStudents().isEmpty());
+    }
+
+    @AfterClass
+    public static void classTearDown() {
+        CacheVersions.setClock(null);
+    }
+
+}
@@ -1,7 +1,9 @@
 package teammates.test.cases.storage;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -16,16 +18,21 @@ import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
 import teammates.common.util.Const;
+import teammates.storage.api.CacheVersions;
 import teammates.storage.api.FeedbackQuestionsDb;
 import teammates.test.cases.BaseComponentTestCase;
 import teammates.test.driver.AssertHelper;
+import teammates.test.util.MovableClock;
 
 public class FeedbackQuestionsDbTest extends BaseComponentTestCase {
     private static final FeedbackQuestionsDb fqDb = new FeedbackQuestionsDb();
 
+    private static MovableClock clock = new MovableClock();
+
     @BeforeClass
     public static void classSetUp() {
         printTestClassHeader();
+        CacheVersions.setClock(clock);
     }
     
     @Test
@@ -286,6 +293,81 @@ public class FeedbackQuestionsDbTest extends BaseComponentTestCase {
         deleteFeedbackQuestions(numOfQuestions[0] + numOfQuestions[1] + numOfQuestions[2] + numOfQuestions[3]);
     }
 
+    @Test
+    public void testGetGiverTypesForSession() throws Exception {
+        FeedbackQuestionAttributes fqa = getNewFeedbackQuestionAttributes();
+        fqa.feedbackSessionName = "giverTypesSession";
+
+        ______TS("no questions in session");
+
+        assertTrue(fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId).isEmpty());
+
+        ______TS("giver types change with the questions");
+
+        fqDb.createEntity(fqa);
+        Set<FeedbackParticipantType> expected = new HashSet<FeedbackParticipantType>();
+        expected.add(FeedbackParticipantType.INSTRUCTORS);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+
+        fqa.questionNumber = 2;
+        fqa.giverType = FeedbackParticipantType.STUDENTS;
+        fqDb.createEntity(fqa);
+        expected.add(FeedbackParticipantType.STUDENTS);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+
+        FeedbackQuestionAttributes question =
+                fqDb.getFeedbackQuestion(fqa.feedbackSessionName, fqa.courseId, 2);
+        question.giverType = FeedbackParticipantType.TEAMS;
+        fqDb.updateFeedbackQuestion(question);
+        expected.remove(FeedbackParticipantType.STUDENTS);
+        expected.add(FeedbackParticipantType.TEAMS);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+
+        // deleted by id alone
+        FeedbackQuestionAttributes questionToDelete = new FeedbackQuestionAttributes();
+        questionToDelete.setId(question.getId());
+        fqDb.deleteEntity(questionToDelete);
+        expected.remove(FeedbackParticipantType.TEAMS);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+
+        fqa.questionNumber = 1;
+        fqDb.deleteEntity(fqa);
+        assertTrue(fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId).isEmpty());
+
+        ______TS("giver types found soon after a change are not kept");
+
+        fqa.giverType = FeedbackParticipantType.INSTRUCTORS;
+        fqDb.createEntity(fqa);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+        deleteEntitiesWithoutInvalidatingCaches("FeedbackQuestion", "feedbackSessionName", fqa.feedbackSessionName);
+        assertTrue(fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId).isEmpty());
+
+        ______TS("giver types found later are kept until a question changes");
+
+        fqDb.createEntity(fqa);
+        clock.movePastConsistencyWindow();
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+        deleteEntitiesWithoutInvalidatingCaches("FeedbackQuestion", "feedbackSessionName", fqa.feedbackSessionName);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+
+        fqa.questionNumber = 2;
+        fqa.giverType = FeedbackParticipantType.STUDENTS;
+        fqDb.createEntity(fqa);
+        expected.clear();
+        expected.add(FeedbackParticipantType.STUDENTS);
+        assertEquals(expected, fqDb.getGiverTypesForSession(fqa.feedbackSessionName, fqa.courseId));
+        fqDb.deleteEntity(fqa);
+
+        ______TS("null params");
+
+        try {
+            fqDb.getGiverTypesForSession(null, fqa.courseId);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Const.StatusCodes.DBLEVEL_NULL_INPUT, e.getLocalizedMessage());
+        }
+    }
+
     @Test
     public void testUpdateFeedbackQuestion() throws Exception {
 
@@ -443,6 +525,7 @@ public class FeedbackQuestionsDbTest extends BaseComponentTestCase {
 
     @AfterClass
     public static void classTearDown() {
+        CacheVersions.setClock(null);
         printTestClassFooter();
     }
 }
@@ -1,6 +1,8 @@
 package teammates.test.cases.storage;
 
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -14,6 +16,7 @@ import teammates.common.datatransfer.FeedbackQuestionType;
 import teammates.common.datatransfer.FeedbackResponseAttributes;
 import teammates.common.datatransfer.FeedbackResponseDetails;
 import teammates.common.datatransfer.FeedbackTextResponseDetails;
+import teammates.common.datatransfer.ResponsePage;
 import teammates.common.exception.EntityAlreadyExistsException;
 import teammates.common.exception.EntityDoesNotExistException;
 import teammates.common.exception.InvalidParametersException;
@@ -23,9 +26,15 @@ import teammates.storage.api.FeedbackResponsesDb;
 import teammates.test.cases.BaseComponentTestCase;
 import teammates.test.driver.AssertHelper;
 
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.KeyFactory;
+
 public class FeedbackResponsesDbTest extends BaseComponentTestCase {
     
     private static final FeedbackResponsesDb frDb = new FeedbackResponsesDb();
+    private static final FeedbackResponsesDb frDbQueryingBySections = new FeedbackResponsesDb(true);
     private static DataBundle dataBundle = getTypicalDataBundle();
     private static Map<String, FeedbackResponseAttributes> fras;
     
@@ -203,9 +212,32 @@ public class FeedbackResponsesDbTest extends BaseComponentTestCase {
         
         ______TS("get non-existent response by id");
         
+        String existingId = actual.getId();
         actual = frDb.getFeedbackResponse("non-existent id");
         
         assertNull(actual);
+        
+        ______TS("get by ids in one batch, ignoring non-existent ones");
+        
+        FeedbackResponseAttributes otherExpected = getResponseAttributes("response2ForQ1S1C1");
+        String otherId = frDb.getFeedbackResponse(otherExpected.feedbackQuestionId, otherExpected.giver,
+                                                  otherExpected.recipient).getId();
+        Set<String> ids = new HashSet<String>();
+        ids.add(existingId);
+        ids.add(otherId);
+        for (int i = 0; i < 40; i++) {
+            ids.add("non-existent id " + i);
+        }
+        
+        Set<String> actualIds = new HashSet<String>();
+        for (FeedbackResponseAttributes response : frDb.getFeedbackResponses(ids)) {
+            actualIds.add(response.getId());
+        }
+        Set<String> expectedIds = new HashSet<String>();
+        expectedIds.add(existingId);
+        expectedIds.add(otherId);
+        assertEquals(expectedIds, actualIds);
+        assertTrue(frDb.getFeedbackResponses(new HashSet<String>()).isEmpty());
     }
     
     @Test
@@ -231,6 +263,46 @@ public class FeedbackResponsesDbTest extends BaseComponentTestCase {
         assertTrue(frDb.getFeedbackResponsesForQuestion("non-existent fq id").isEmpty());
     }
 
+    @Test
+    public void testGetFeedbackResponsesForQuestionInPage() {
+
+        ______TS("standard success case");
+
+        String questionId = fras.get("response1ForQ1S1C1").feedbackQuestionId;
+
+        ResponsePage page = frDb.getFeedbackResponsesForQuestionInPage(questionId, null, 4);
+        assertEquals(4, page.results.size());
+        assertTrue(page.hasMore);
+
+        Set<String> idsInPages = new HashSet<String>();
+        for (FeedbackResponseAttributes response : page.results) {
+            idsInPages.add(response.getId());
+        }
+        page = frDb.getFeedbackResponsesForQuestionInPage(questionId, page.cursor, 4);
+        assertEquals(3, page.results.size());
+        assertFalse(page.hasMore);
+        assertNull(page.cursor);
+        for (FeedbackResponseAttributes response : page.results) {
+            assertTrue(idsInPages.add(response.getId()));
+        }
+        assertEquals(7, idsInPages.size());
+
+        ______TS("null params");
+
+        try {
+            frDb.getFeedbackResponsesForQuestionInPage(null, null, 4);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Const.StatusCodes.DBLEVEL_NULL_INPUT, e.getLocalizedMessage());
+        }
+
+        ______TS("non-existent feedback question");
+
+        page = frDb.getFeedbackResponsesForQuestionInPage("non-existent fq id", null, 4);
+        assertTrue(page.results.isEmpty());
+        assertFalse(page.hasMore);
+    }
+
     @Test
     public void testGetFeedbackResponsesForQuestionInSection() {
         
@@ -621,6 +693,54 @@ public class FeedbackResponsesDbTest extends BaseComponentTestCase {
                 feedbackSessionName, "non-existent courseId", 1).isEmpty());
     }
 
+    @Test
+    public void testGetFeedbackResponsesForSessionInPage() {
+        
+        ______TS("standard success case");
+        
+        String courseId = fras.get("response1ForQ1S1C1").courseId;
+        String feedbackSessionName = fras.get("response1ForQ1S1C1").feedbackSessionName;
+        
+        List<FeedbackResponseAttributes> allResponses =
+                frDb.getFeedbackResponsesForSession(feedbackSessionName, courseId);
+        assertTrue(allResponses.size() > 2);
+        
+        Set<String> idsInPages = new HashSet<String>();
+        ResponsePage page = frDb.getFeedbackResponsesForSessionInPage(feedbackSessionName, courseId, null, 2);
+        assertEquals(2, page.results.size());
+        assertTrue(page.hasMore);
+        assertNotNull(page.cursor);
+        int numOfPages = 1;
+        while (page.hasMore) {
+            for (FeedbackResponseAttributes response : page.results) {
+                assertTrue(idsInPages.add(response.getId()));
+            }
+            page = frDb.getFeedbackResponsesForSessionInPage(feedbackSessionName, courseId, page.cursor, 2);
+            numOfPages++;
+        }
+        for (FeedbackResponseAttributes response : page.results) {
+            assertTrue(idsInPages.add(response.getId()));
+        }
+        assertNull(page.cursor);
+        assertEquals(allResponses.size() / 2 + 1, numOfPages);
+        assertEquals(allResponses.size(), idsInPages.size());
+        
+        ______TS("null params");
+        
+        try {
+            frDb.getFeedbackResponsesForSessionInPage(null, courseId, null, 2);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Const.StatusCodes.DBLEVEL_NULL_INPUT, e.getLocalizedMessage());
+        }
+        
+        ______TS("non-existent feedback session");
+        
+        page = frDb.getFeedbackResponsesForSessionInPage("non-existent feedback session", courseId, null, 2);
+        assertTrue(page.results.isEmpty());
+        assertFalse(page.hasMore);
+    }
+
     @Test
     public void testGetFeedbackResponsesForSessionInSection() {
 
@@ -663,6 +783,95 @@ public class FeedbackResponsesDbTest extends BaseComponentTestCase {
                 feedbackSessionName, "non-existent courseId", "Section 1").isEmpty());
     }
 
+    @Test
+    public void testGetFeedbackResponsesForSessionInSectionInPage() throws Exception {
+
+        ______TS("standard success case");
+
+        String courseId = fras.get("response1ForQ1S1C1").courseId;
+        String feedbackSessionName = fras.get("response1ForQ1S1C1").feedbackSessionName;
+
+        Set<String> expectedIds = new HashSet<String>();
+        for (FeedbackResponseAttributes response
+                : frDb.getFeedbackResponsesForSessionInSection(feedbackSessionName, courseId, "Section 1")) {
+            expectedIds.add(response.getId());
+        }
+        assertEquals(5, expectedIds.size());
+
+        Set<String> idsInPages = new HashSet<String>();
+        ResponsePage page = frDbQueryingBySections.getFeedbackResponsesForSessionInSectionInPage(
+                feedbackSessionName, courseId, "Section 1", null, 2);
+        int numOfPages = 1;
+        while (page.hasMore) {
+            assertEquals(2, page.results.size());
+            for (FeedbackResponseAttributes response : page.results) {
+                assertTrue(idsInPages.add(response.getId()));
+            }
+            page = frDbQueryingBySections.getFeedbackResponsesForSessionInSectionInPage(
+                    feedbackSessionName, courseId, "Section 1", page.cursor, 2);
+            numOfPages++;
+        }
+        for (FeedbackResponseAttributes response : page.results) {
+            assertTrue(idsInPages.add(response.getId()));
+        }
+        assertEquals(3, numOfPages);
+        assertEquals(expectedIds, idsInPages);
+
+        ______TS("pages taken from the session until the sections of all responses are stored");
+
+        idsInPages.clear();
+        page = frDb.getFeedbackResponsesForSessionInSectionInPage(feedbackSessionName, courseId, "Section 1", null, 2);
+        while (page.hasMore) {
+            assertTrue(page.results.size() <= 2);
+            for (FeedbackResponseAttributes response : page.results) {
+                assertTrue(idsInPages.add(response.getId()));
+            }
+            page = frDb.getFeedbackResponsesForSessionInSectionInPage(
+                    feedbackSessionName, courseId, "Section 1", page.cursor, 2);
+        }
+        for (FeedbackResponseAttributes response : page.results) {
+            assertTrue(idsInPages.add(response.getId()));
+        }
+        assertEquals(expectedIds, idsInPages);
+
+        ______TS("response stored without its sections is found until the sections of all responses are stored");
+
+        String idWithoutSections = expectedIds.iterator().next();
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        Entity responseWithoutSections = datastore.get(KeyFactory.createKey("FeedbackResponse", idWithoutSections));
+        Object sections = responseWithoutSections.getProperty("sections");
+        responseWithoutSections.removeProperty("sections");
+        datastore.put(responseWithoutSections);
+
+        assertTrue(getIds(frDb.getFeedbackResponsesForSessionInSection(feedbackSessionName, courseId, "Section 1"))
+                   .contains(idWithoutSections));
+        assertFalse(getIds(frDbQueryingBySections.getFeedbackResponsesForSessionInSection(
+                feedbackSessionName, courseId, "Section 1")).contains(idWithoutSections));
+
+        responseWithoutSections.setProperty("sections", sections);
+        datastore.put(responseWithoutSections);
+
+        ______TS("null params");
+
+        try {
+            frDb.getFeedbackResponsesForSessionInSectionInPage(feedbackSessionName, courseId, null, null, 2);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Const.StatusCodes.DBLEVEL_NULL_INPUT, e.getLocalizedMessage());
+        }
+
+        ______TS("non-existent section");
+
+        page = frDbQueryingBySections.getFeedbackResponsesForSessionInSectionInPage(
+                feedbackSessionName, courseId, "non-existent section", null, 2);
+        assertTrue(page.results.isEmpty());
+        assertFalse(page.hasMore);
+
+        page = frDb.getFeedbackResponsesForSessionInSectionInPage(
+                feedbackSessionName, courseId, "non-existent section", null, 2);
+        assertTrue(page.results.isEmpty());
+    }
+
     @Test
     public void testGetFeedbackResponsesForSessionFromSection() {
         
@@ -821,6 +1030,76 @@ public class FeedbackResponsesDbTest extends BaseComponentTestCase {
         
     }
     
+    @Test
+    public void testDeleteFeedbackResponsesInChunks() throws Exception {
+
+        FeedbackResponseAttributes fra = getNewFeedbackResponseAttributes();
+        fra.courseId = "chunkDeletionCourse";
+        for (int i = 0; i < 5; i++) {
+            fra.giver = "giver" + i + "@email.tmt";
+            frDb.createEntity(fra);
+        }
+        fra.feedbackSessionName = "fsTest2";
+        fra.feedbackQuestionId = "testFeedbackQuestionId2";
+        for (int i = 0; i < 3; i++) {
+            fra.giver = "giver" + i + "@email.tmt";
+            frDb.createEntity(fra);
+        }
+
+        ______TS("session: deletion continues from the cursor");
+
+        String cursor = frDb.deleteFeedbackResponsesForSessionInChunks("fsTest1", "chunkDeletionCourse", null, 2, null);
+        assertNotNull(cursor);
+        assertEquals(3, frDb.getFeedbackResponsesForSession("fsTest1", "chunkDeletionCourse").size());
+
+        cursor = frDb.deleteFeedbackResponsesForSessionInChunks("fsTest1", "chunkDeletionCourse", cursor, 2, null);
+        assertNotNull(cursor);
+        assertEquals(1, frDb.getFeedbackResponsesForSession("fsTest1", "chunkDeletionCourse").size());
+
+        cursor = frDb.deleteFeedbackResponsesForSessionInChunks("fsTest1", "chunkDeletionCourse", cursor, 2, null);
+        assertNull(cursor);
+        assertTrue(frDb.getFeedbackResponsesForSession("fsTest1", "chunkDeletionCourse").isEmpty());
+        assertEquals(3, frDb.getFeedbackResponsesForCourse("chunkDeletionCourse").size());
+
+        ______TS("course: responses created after the deletion started are kept");
+
+        Date deletionStartedAt = new Date();
+        fra.giver = "giver.later@email.tmt";
+        frDb.createEntity(fra);
+        String createdLaterId = frDb.getFeedbackResponse(fra.feedbackQuestionId, fra.giver, fra.recipient).getId();
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        Entity createdLater = datastore.get(KeyFactory.createKey("FeedbackResponse", createdLaterId));
+        createdLater.setProperty("createdAt", new Date(deletionStartedAt.getTime() + 1000));
+        datastore.put(createdLater);
+
+        assertNull(frDb.deleteFeedbackResponsesForCourseInChunks("chunkDeletionCourse", null, 10, deletionStartedAt));
+        List<FeedbackResponseAttributes> remaining = frDb.getFeedbackResponsesForCourse("chunkDeletionCourse");
+        assertEquals(1, remaining.size());
+        assertEquals("giver.later@email.tmt", remaining.get(0).giver);
+
+        ______TS("course: all responses deleted within the limit");
+
+        assertNull(frDb.deleteFeedbackResponsesForCourseInChunks("chunkDeletionCourse", null, 10, null));
+        assertTrue(frDb.getFeedbackResponsesForCourse("chunkDeletionCourse").isEmpty());
+
+        ______TS("null params");
+
+        try {
+            frDb.deleteFeedbackResponsesForCourseInChunks(null, null, 10, null);
+            signalFailureToDetectException();
+        } catch (AssertionError e) {
+            AssertHelper.assertContains(Const.StatusCodes.DBLEVEL_NULL_INPUT, e.getLocalizedMessage());
+        }
+    }
+
+    private static Set<String> getIds(List<FeedbackResponseAttributes> responses) {
+        Set<String> ids = new HashSet<String>();
+        for (FeedbackResponseAttributes response : responses) {
+            ids.add(response.getId());
+        }
+        return ids;
+    }
+
     private FeedbackResponseAttributes getNewFeedbackResponseAttributes() {
         FeedbackResponseAttributes fra = new FeedbackResponseAttributes();
         
@@ -4,8 +4,11 @@ import static teammates.common.util.FieldValidator.SESSION_END_TIME_FIELD_NAME;
 import static teammates.common.util.FieldValidator.SESSION_START_TIME_FIELD_NAME;
 import static teammates.common.util.FieldValidator.TIME_FRAME_ERROR_MESSAGE;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -25,11 +28,17 @@ import teammates.storage.api.FeedbackSessionsDb;
 import teammates.test.cases.BaseComponentTestCase;
 import teammates.test.driver.AssertHelper;
 
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
 import com.google.appengine.api.datastore.Text;
 
 public class FeedbackSessionsDbTest extends BaseComponentTestCase {
     
     private static final FeedbackSessionsDb fsDb = new FeedbackSessionsDb();
+    private static final FeedbackSessionsDb fsDbQueryingScheduleEntries = new FeedbackSessionsDb(true);
     private static DataBundle dataBundle = getTypicalDataBundle();
     
     @BeforeClass
@@ -282,6 +291,171 @@ public class FeedbackSessionsDbTest extends BaseComponentTestCase {
         verifyPresentInDatastore(modifiedSession);
     }
     
+    @Test
+    public void testRespondents() throws Exception {
+        
+        FeedbackSessionAttributes fsa = getNewFeedbackSession();
+        fsa.setFeedbackSessionName("fsRespondentsTest");
+        fsa.setRespondingStudentList(new HashSet<String>(Arrays.asList("legacy.student@email.tmt")));
+        fsDb.deleteEntity(fsa);
+        fsDb.createEntity(fsa);
+        
+        ______TS("respondents added are merged with those in the session entity");
+        
+        List<String> studentEmails = new ArrayList<String>();
+        for (int i = 0; i < 30; i++) {
+            studentEmails.add("student" + i + "@email.tmt");
+        }
+        fsDb.addStudentRespondents(studentEmails, fsa);
+        fsDb.addInstructorRespondent("instructor@email.tmt", fsa);
+        
+        FeedbackSessionAttributes retrieved = fsDb.getFeedbackSession(fsa.getCourseId(), fsa.getFeedbackSessionName());
+        assertEquals(31, retrieved.getRespondingStudentList().size());
+        assertTrue(retrieved.getRespondingStudentList().containsAll(studentEmails));
+        assertTrue(retrieved.getRespondingStudentList().contains("legacy.student@email.tmt"));
+        assertEquals(1, retrieved.getRespondingInstructorList().size());
+        
+        for (FeedbackSessionAttributes session : fsDb.getFeedbackSessionsForCourse(fsa.getCourseId())) {
+            if (session.getFeedbackSessionName().equals(fsa.getFeedbackSessionName())) {
+                assertEquals(retrieved.getRespondingStudentList(), session.getRespondingStudentList());
+            }
+        }
+        
+        ______TS("respondents updated and deleted");
+        
+        fsDb.updateStudentRespondent("student0@email.tmt", "student0.new@email.tmt", fsa);
+        fsDb.updateStudentRespondent("legacy.student@email.tmt", "legacy.new@email.tmt", fsa);
+        fsDb.deleteStudentRespondent("student1@email.tmt", fsa);
+        fsDb.clearInstructorRespondents(fsa);
+        
+        retrieved = fsDb.getFeedbackSession(fsa.getCourseId(), fsa.getFeedbackSessionName());
+        assertEquals(30, retrieved.getRespondingStudentList().size());
+        assertTrue(retrieved.getRespondingStudentList().contains("student0.new@email.tmt"));
+        assertTrue(retrieved.getRespondingStudentList().contains("legacy.new@email.tmt"));
+        assertFalse(retrieved.getRespondingStudentList().contains("student0@email.tmt"));
+        assertFalse(retrieved.getRespondingStudentList().contains("legacy.student@email.tmt"));
+        assertFalse(retrieved.getRespondingStudentList().contains("student1@email.tmt"));
+        assertTrue(retrieved.getRespondingInstructorList().isEmpty());
+        
+        ______TS("respondents deleted with the session");
+        
+        fsDb.deleteEntity(fsa);
+        fsa.setRespondingStudentList(new HashSet<String>());
+        fsDb.createEntity(fsa);
+        retrieved = fsDb.getFeedbackSession(fsa.getCourseId(), fsa.getFeedbackSessionName());
+        assertTrue(retrieved.getRespondingStudentList().isEmpty());
+        
+        ______TS("respondents deleted with the sessions of the course");
+        
+        fsa.setCourseId("fsRespondentsTest.course");
+        fsDb.createEntity(fsa);
+        fsDb.addStudentRespondents(studentEmails, fsa);
+        fsDb.deleteFeedbackSessionsForCourse(fsa.getCourseId());
+        fsDb.createEntity(fsa);
+        retrieved = fsDb.getFeedbackSession(fsa.getCourseId(), fsa.getFeedbackSessionName());
+        assertTrue(retrieved.getRespondingStudentList().isEmpty());
+        fsDb.deleteFeedbackSessionsForCourse(fsa.getCourseId());
+        
+        fsa.setCourseId("testCourse");
+        fsDb.deleteEntity(fsa);
+    }
+    
+    @Test
+    public void testScheduleEntries() throws Exception {
+        
+        ______TS("session needing emails is found through its schedule entries");
+        
+        FeedbackSessionAttributes fsa = getNewFeedbackSession();
+        fsa.setCourseId("fsScheduleEntriesTest.course");
+        fsa.setTimeZone(0);
+        fsa.setSessionVisibleFromTime(TimeHelper.getHoursOffsetToCurrentTime(-2));
+        fsa.setStartTime(TimeHelper.getHoursOffsetToCurrentTime(-1));
+        fsa.setEndTime(TimeHelper.getHoursOffsetToCurrentTime(23));
+        fsa.setResultsVisibleFromTime(TimeHelper.getHoursOffsetToCurrentTime(-1));
+        fsa.setSentOpenEmail(false);
+        fsa.setSentPublishedEmail(false);
+        fsDb.createEntity(fsa);
+        
+        assertTrue(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingOpenEmail()));
+        assertTrue(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingClosingEmail()));
+        assertTrue(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingPublishedEmail()));
+        
+        ______TS("session is no longer found once its emails are sent");
+        
+        fsa.setSentOpenEmail(true);
+        fsa.setSentPublishedEmail(true);
+        fsDb.updateFeedbackSession(fsa);
+        
+        assertFalse(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingOpenEmail()));
+        assertFalse(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingPublishedEmail()));
+        
+        ______TS("session is found at its new time after it is edited");
+        
+        fsa.setEndTime(TimeHelper.getHoursOffsetToCurrentTime(-1));
+        fsa.setGracePeriod(0);
+        fsDb.updateFeedbackSession(fsa);
+        
+        assertTrue(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingClosedEmail()));
+        
+        ______TS("private session does not need emails");
+        
+        fsa.setFeedbackSessionType(FeedbackSessionType.PRIVATE);
+        fsDb.updateFeedbackSession(fsa);
+        
+        assertFalse(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingClosedEmail()));
+        
+        ______TS("session is no longer found after it is deleted");
+        
+        fsa.setFeedbackSessionType(FeedbackSessionType.STANDARD);
+        fsDb.updateFeedbackSession(fsa);
+        assertTrue(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingClosedEmail()));
+        
+        fsDb.deleteEntity(fsa);
+        
+        assertFalse(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingClosedEmail()));
+        assertEquals(0, countScheduleEntries(fsa));
+        
+        ______TS("schedule entries are deleted with the sessions of the course");
+        
+        fsDb.createEntity(fsa);
+        assertTrue(countScheduleEntries(fsa) > 0);
+        
+        fsDb.deleteFeedbackSessionsForCourse(fsa.getCourseId());
+        
+        assertEquals(0, countScheduleEntries(fsa));
+        
+        ______TS("session without schedule entries is found by its times until the entries are migrated");
+        
+        fsa.setEndTime(TimeHelper.getHoursOffsetToCurrentTime(23));
+        fsa.setSentOpenEmail(false);
+        fsDb.createEntity(fsa);
+        deleteEntitiesWithoutInvalidatingCaches("FeedbackSessionScheduleEntry", "courseId", fsa.getCourseId());
+        
+        assertTrue(isSessionInList(fsa, fsDb.getFeedbackSessionsPossiblyNeedingOpenEmail()));
+        assertTrue(isSessionInList(fsa, fsDb.getFeedbackSessionsPossiblyNeedingClosingEmail()));
+        assertFalse(isSessionInList(fsa, fsDbQueryingScheduleEntries.getFeedbackSessionsPossiblyNeedingOpenEmail()));
+        
+        fsDb.deleteEntity(fsa);
+    }
+    
+    private int countScheduleEntries(FeedbackSessionAttributes session) {
+        Query query = new Query("FeedbackSessionScheduleEntry")
+                .setFilter(new FilterPredicate("courseId", FilterOperator.EQUAL, session.getCourseId()))
+                .setKeysOnly();
+        return DatastoreServiceFactory.getDatastoreService().prepare(query)
+                                      .countEntities(FetchOptions.Builder.withDefaults());
+    }
+    
+    private boolean isSessionInList(FeedbackSessionAttributes session, List<FeedbackSessionAttributes> sessions) {
+        for (FeedbackSessionAttributes fsa : sessions) {
+            if (fsa.getFeedbackSessionName().equals(session.getFeedbackSessionName())
+                    && fsa.getCourseId().equals(session.getCourseId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     private FeedbackSessionAttributes getNewFeedbackSession() {
         FeedbackSessionAttributes fsa = new FeedbackSessionAttributes();
         fsa.setFeedbackSessionType(FeedbackSessionType.STANDARD);
@@ -0,0 +1,136 @@
+package teammates.test.cases.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.storage.search.IndexWriter;
+import teammates.storage.search.IndexWriterFilter;
+import teammates.storage.search.SearchManager;
+import teammates.test.cases.BaseComponentTestCase;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Field;
+
+public class IndexWriterTest extends BaseComponentTestCase {
+
+    private static final String INDEX_NAME = "indexwritertest";
+    // index names may not start with an exclamation mark
+    private static final String INVALID_INDEX_NAME = "!indexwritertest";
+
+    @BeforeClass
+    public static void setupClass() {
+        printTestClassHeader();
+    }
+
+    @AfterMethod
+    public void stopBuffering() {
+        IndexWriter.flush();
+    }
+
+    @Test
+    public void testPutWithoutBuffering() {
+        SearchManager.putDocument(INDEX_NAME, createDocument("unbuffered", "text"));
+        assertNotNull(SearchManager.getDocument(INDEX_NAME, "unbuffered"));
+    }
+
+    @Test
+    public void testPutWithBuffering() {
+
+        ______TS("documents are put when flushed");
+
+        IndexWriter.startBuffering();
+        SearchManager.putDocument(INDEX_NAME, createDocument("buffered", "old text"));
+        SearchManager.putDocument(INDEX_NAME, createDocument("buffered", "new text"));
+        assertNull(SearchManager.getDocument(INDEX_NAME, "buffered"));
+
+        IndexWriter.flush();
+        Document document = SearchManager.getDocument(INDEX_NAME, "buffered");
+        assertEquals("new text", document.getOnlyField("text").getText());
+
+        ______TS("documents deleted before being flushed are not put");
+
+        IndexWriter.startBuffering();
+        SearchManager.putDocument(INDEX_NAME, createDocument("deleted", "text"));
+        SearchManager.deleteDocument(INDEX_NAME, "deleted");
+        IndexWriter.flush();
+        assertNull(SearchManager.getDocument(INDEX_NAME, "deleted"));
+
+        ______TS("more than one batch, with a delete after the first batch is sent");
+
+        IndexWriter.startBuffering();
+        List<Document> documents = new ArrayList<Document>();
+        for (int i = 0; i < 250; i++) {
+            documents.add(createDocument("batch" + i, "text"));
+        }
+        SearchManager.putDocuments(INDEX_NAME, documents);
+        SearchManager.deleteDocuments(INDEX_NAME, new String[] { "batch0" });
+        IndexWriter.flush();
+        for (String id : Arrays.asList("batch1", "batch199", "batch249")) {
+            assertNotNull(SearchManager.getDocument(INDEX_NAME, id));
+        }
+        assertNull(SearchManager.getDocument(INDEX_NAME, "batch0"));
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        IndexWriterFilter filter = new IndexWriterFilter();
+
+        ______TS("documents of a request are put when it ends");
+
+        filter.doFilter(null, null, new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) {
+                SearchManager.putDocument(INDEX_NAME, createDocument("filtered", "text"));
+                assertNull(SearchManager.getDocument(INDEX_NAME, "filtered"));
+            }
+        });
+        assertNotNull(SearchManager.getDocument(INDEX_NAME, "filtered"));
+
+        ______TS("failure to put documents of a failed request does not hide its exception");
+
+        try {
+            filter.doFilter(null, null, new FilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) throws ServletException {
+                    SearchManager.putDocument(INVALID_INDEX_NAME, createDocument("failed", "text"));
+                    throw new ServletException("request failed");
+                }
+            });
+            signalFailureToDetectException();
+        } catch (ServletException e) {
+            assertEquals("request failed", e.getMessage());
+        }
+
+        ______TS("failure to put documents of a successful request is thrown");
+
+        try {
+            filter.doFilter(null, null, new FilterChain() {
+                @Override
+                public void doFilter(ServletRequest request, ServletResponse response) {
+                    SearchManager.putDocument(INVALID_INDEX_NAME, createDocument("failed", "text"));
+                }
+            });
+            signalFailureToDetectException();
+        } catch (IllegalArgumentException e) {
+            ignoreExpectedException();
+        }
+    }
+
+    private Document createDocument(String id, String text) {
+        return Document.newBuilder()
+                       .setId(id)
+                       .addField(Field.newBuilder().setName("text").setText(text))
+                       .build();
+    }
+
+}
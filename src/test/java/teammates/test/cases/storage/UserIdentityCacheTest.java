@@ -0,0 +1,122 @@
+package teammates.test.cases.storage;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.common.datatransfer.AccountAttributes;
+import teammates.common.datatransfer.StudentAttributes;
+import teammates.common.datatransfer.StudentProfileAttributes;
+import teammates.storage.api.AccountsDb;
+import teammates.storage.api.CacheVersions;
+import teammates.storage.api.StudentsDb;
+import teammates.storage.api.UserIdentityCache;
+import teammates.storage.api.UserIdentityCache.UserIdentity;
+import teammates.test.cases.BaseComponentTestCase;
+import teammates.test.util.MovableClock;
+
+public class UserIdentityCacheTest extends BaseComponentTestCase {
+
+    private static final String GOOGLE_ID = "UICacheT.user";
+    private static final String COURSE_ID = "UICacheT.course";
+    private static final String CACHED_GOOGLE_ID = "UICacheT.cachedUser";
+
+    private static MovableClock clock = new MovableClock();
+
+    private AccountsDb accountsDb = new AccountsDb();
+    private StudentsDb studentsDb = new StudentsDb();
+
+    @BeforeClass
+    public static void setupClass() {
+        printTestClassHeader();
+        CacheVersions.setClock(clock);
+    }
+
+    @Test
+    public void testGetUserIdentity() throws Exception {
+
+        ______TS("user without account or students");
+
+        UserIdentity identity = UserIdentityCache.getUserIdentity(GOOGLE_ID);
+        assertNull(identity.getAccount());
+        assertFalse(identity.isInstructor());
+        assertFalse(identity.isStudent());
+
+        ______TS("instructor account created");
+
+        AccountAttributes account = new AccountAttributes(GOOGLE_ID, "User 1", true, "user1@uicachet.tmt",
+                                                          "TEAMMATES Test Institute 1",
+                                                          new StudentProfileAttributes());
+        account.studentProfile.googleId = GOOGLE_ID;
+        accountsDb.createAccount(account);
+
+        identity = UserIdentityCache.getUserIdentity(GOOGLE_ID);
+        assertEquals("User 1", identity.getAccount().name);
+        assertTrue(identity.isInstructor());
+        assertFalse(identity.isStudent());
+
+        ______TS("account updated");
+
+        account.isInstructor = false;
+        accountsDb.updateAccount(account);
+
+        identity = UserIdentityCache.getUserIdentity(GOOGLE_ID);
+        assertFalse(identity.isInstructor());
+
+        ______TS("student joined");
+
+        StudentAttributes student = new StudentAttributes("Section 1", "Team 1", "User 1",
+                                                          "user1@uicachet.tmt", "", COURSE_ID);
+        studentsDb.createStudentWithoutDocument(student);
+        assertFalse(UserIdentityCache.getUserIdentity(GOOGLE_ID).isStudent());
+
+        studentsDb.updateStudentWithoutSearchability(COURSE_ID, student.email, student.name, student.team,
+                                                     student.section, student.email, GOOGLE_ID,
+                                                     student.comments);
+        assertTrue(UserIdentityCache.getUserIdentity(GOOGLE_ID).isStudent());
+
+        ______TS("student and account deleted");
+
+        studentsDb.deleteStudentsForGoogleIdWithoutDocument(GOOGLE_ID);
+        accountsDb.deleteAccount(GOOGLE_ID);
+
+        identity = UserIdentityCache.getUserIdentity(GOOGLE_ID);
+        assertNull(identity.getAccount());
+        assertFalse(identity.isStudent());
+    }
+
+    @Test
+    public void testCaching() throws Exception {
+        StudentAttributes student = new StudentAttributes("Section 1", "Team 1", "User 2",
+                                                          "user2@uicachet.tmt", "", COURSE_ID);
+        student.googleId = CACHED_GOOGLE_ID;
+        studentsDb.createStudentWithoutDocument(student);
+
+        ______TS("identity loaded soon after a change is not cached");
+
+        assertTrue(UserIdentityCache.getUserIdentity(CACHED_GOOGLE_ID).isStudent());
+        clock.moveForward(2000);
+        deleteEntitiesWithoutInvalidatingCaches("CourseStudent", "googleId", CACHED_GOOGLE_ID);
+        assertFalse(UserIdentityCache.getUserIdentity(CACHED_GOOGLE_ID).isStudent());
+
+        ______TS("identity loaded later is cached");
+
+        studentsDb.createStudentWithoutDocument(student);
+        clock.movePastConsistencyWindow();
+        assertTrue(UserIdentityCache.getUserIdentity(CACHED_GOOGLE_ID).isStudent());
+        clock.moveForward(2000);
+        deleteEntitiesWithoutInvalidatingCaches("CourseStudent", "googleId", CACHED_GOOGLE_ID);
+        assertTrue(UserIdentityCache.getUserIdentity(CACHED_GOOGLE_ID).isStudent());
+
+        ______TS("cached identity is invalidated");
+
+        UserIdentityCache.invalidate(CACHED_GOOGLE_ID);
+        assertFalse(UserIdentityCache.getUserIdentity(CACHED_GOOGLE_ID).isStudent());
+    }
+
+    @AfterClass
+    public static void classTearDown() {
+        CacheVersions.setClock(null);
+    }
+
+}
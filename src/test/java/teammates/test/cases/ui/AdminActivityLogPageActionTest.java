@@ -1,25 +1,120 @@
 package teammates.test.cases.ui;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import teammates.common.datatransfer.AccountAttributes;
+import teammates.common.util.ActivityLogEntry;
 import teammates.common.util.Const;
+import teammates.storage.api.ActivityLogsDb;
+import teammates.ui.controller.AdminActivityLogPageAction;
+import teammates.ui.controller.AdminActivityLogPageData;
+import teammates.ui.controller.AjaxResult;
 
 public class AdminActivityLogPageActionTest extends BaseActionTest {
 
-    // private final DataBundle dataBundle = getTypicalDataBundle();
+    private static final long START_TIME = System.currentTimeMillis() - 60 * 60 * 1000;
+
+    private static ActivityLogsDb activityLogsDb = new ActivityLogsDb();
 
     @BeforeClass
-    public static void classSetUp() {
+    public static void classSetUp() throws Exception {
         printTestClassHeader();
         uri = Const.ActionURIs.ADMIN_ACTIVITY_LOG_PAGE;
-        // removeAndRestoreTypicalDataInDatastore();
+
+        // the emails do not end with .tmt, as the logs of testing data are not shown
+        AccountAttributes alice = new AccountAttributes("AALPAT.alice", "Alice Tan", true,
+                                                        "alice@aalpat.example.com", "TEAMMATES Test Institute 1");
+        AccountAttributes alicia = new AccountAttributes("AALPAT.alicia", "Alicia Tan", true,
+                                                         "alicia@aalpat.example.com", "TEAMMATES Test Institute 1");
+        for (int i = 0; i < 120; i++) {
+            createActivityLog(START_TIME + i * 1000, "instructorHomePage", alice, null);
+        }
+        createActivityLog(START_TIME + 120 * 1000, "instructorCourseDetailsPage", alice, "AALPAT.CS1101");
+        createActivityLog(START_TIME + 121 * 1000, "instructorCourseDetailsPage", alicia, "AALPAT.CS1101");
+        createActivityLog(START_TIME + 122 * 1000, "adminActivityLogPage", alice, null);
     }
-    
+
+    private static void createActivityLog(long time, String servletName, AccountAttributes account, String courseId)
+            throws Exception {
+        ActivityLogEntry entry = new ActivityLogEntry(servletName, "Pageload", account, "Message of " + servletName,
+                                                      "/page/" + servletName);
+        activityLogsDb.createActivityLog(time, entry.generateLogMessage() + "|||100", courseId).get();
+    }
+
     @Test
     public void testExecuteAndPostProcess() {
-        
-        //TODO: implement this
+        gaeSimulation.loginAsAdmin("admin.user");
+
+        ______TS("logs of a person from the activity log store, filtered by the whole person");
+
+        AdminActivityLogPageData data = getPageData("person: alice tan and request: instructorCourseDetailsPage",
+                                                    null);
+        List<ActivityLogEntry> logs = data.getLogs();
+        assertEquals(1, logs.size());
+        assertEquals("alice@aalpat.example.com", logs.get(0).getEmail());
+        assertEquals(START_TIME + 120 * 1000, logs.get(0).getTime());
+        assertTrue(data.getStatusForAjax().contains("Logs are from the activity log store."));
+        assertTrue(data.getStatusForAjax().contains("No more logs found."));
+
+        ______TS("logs of a course");
+
+        data = getPageData("course: aalpat.cs1101", null);
+        assertEquals(2, data.getLogs().size());
+        assertEquals("alicia@aalpat.example.com", data.getLogs().get(0).getEmail());
+        assertEquals("alice@aalpat.example.com", data.getLogs().get(1).getEmail());
+
+        ______TS("logs of the admin activity log page are not shown");
+
+        data = getPageData("person: aalpat.alice and request: adminActivityLogPage", null);
+        assertTrue(data.getLogs().isEmpty());
+
+        ______TS("search stops after the batch in which enough relevant logs are found, continued from the cursor");
+
+        // the first batch of logs read has 48 relevant logs, as the log of the admin activity log page
+        // is not shown and the log of alicia is filtered out
+        data = getPageData("person: aalpat.alice", null);
+        assertEquals(98, data.getLogs().size());
+        assertEquals(START_TIME + 120 * 1000, data.getLogs().get(0).getTime());
+        assertEquals(START_TIME + 23 * 1000, data.getLogs().get(97).getTime());
+        String cursor = getCursorOfSearchMore(data.getStatusForAjax());
+        assertNotNull(cursor);
+
+        data = getPageData("person: aalpat.alice", cursor);
+        assertEquals(23, data.getLogs().size());
+        assertEquals(START_TIME + 22 * 1000, data.getLogs().get(0).getTime());
+        assertEquals(START_TIME, data.getLogs().get(22).getTime());
+        assertTrue(data.getStatusForAjax().contains("No more logs found."));
+    }
+
+    private AdminActivityLogPageData getPageData(String filterQuery, String cursor) {
+        List<String> params = new ArrayList<String>();
+        params.add("filterQuery");
+        params.add(filterQuery);
+        // the logs are loaded with ajax from a search time offset, as in "Search More"
+        params.add("searchTimeOffset");
+        params.add(String.valueOf(System.currentTimeMillis()));
+        if (cursor != null) {
+            params.add("searchCursor");
+            params.add(cursor);
+        }
+        AdminActivityLogPageAction action = getAction(params.toArray(new String[params.size()]));
+        AjaxResult result = getAjaxResult(action);
+        return (AdminActivityLogPageData) result.data;
+    }
+
+    private static String getCursorOfSearchMore(String status) {
+        Matcher matcher = Pattern.compile("submitFormAjax\\(\\d+, '([^']*)'\\)").matcher(status);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private AdminActivityLogPageAction getAction(String... parameters) {
+        return (AdminActivityLogPageAction) gaeSimulation.getActionObject(uri, parameters);
     }
 
 }
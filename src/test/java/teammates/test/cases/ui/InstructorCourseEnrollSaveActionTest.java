@@ -212,38 +212,42 @@ public class InstructorCourseEnrollSaveActionTest extends BaseActionTest {
         
         ______TS("Boundary test for size limit per enrollment");
         
-        //TODO: sync this var with SIZE_LIMIT_PER_ENROLLMENT defined in StudentsLogic, by putting it in config or Const class
-        int sizeLimitBoundary = 150;
-        
-        //can enroll, if within the size limit
-        StringBuilder enrollStringBuilder = new StringBuilder(200);
-        enrollStringBuilder.append("Section\tTeam\tName\tEmail");
-        for (int i = 0; i < sizeLimitBoundary; i++) {
-            enrollStringBuilder.append(Const.EOL).append("section" + i + "\tteam" + i + "\tname" + i
-                                                         + "\temail" + i + "@nonexistemail.nonexist");
+        // the limit is lowered so that the boundary can be tested without enrolling thousands of students
+        int sizeLimitBoundary = 20;
+        StudentsLogic.setSizeLimitPerEnrollment(sizeLimitBoundary);
+        try {
+            //can enroll, if within the size limit
+            StringBuilder enrollStringBuilder = new StringBuilder(200);
+            enrollStringBuilder.append("Section\tTeam\tName\tEmail");
+            for (int i = 0; i < sizeLimitBoundary; i++) {
+                enrollStringBuilder.append(Const.EOL).append("section" + i + "\tteam" + i + "\tname" + i
+                                                             + "\temail" + i + "@nonexistemail.nonexist");
+            }
+            submissionParams = new String[]{
+                    Const.ParamsNames.COURSE_ID, courseId,
+                    Const.ParamsNames.STUDENTS_ENROLLMENT_INFO, enrollStringBuilder.toString()
+            };
+            enrollAction = getAction(submissionParams);
+            pageResult = getShowPageResult(enrollAction);
+            assertFalse(pageResult.isError);
+            assertEquals("", pageResult.getStatusMessage());
+            
+            //fail to enroll, if exceed the range
+            enrollStringBuilder.append(Const.EOL).append("section" + sizeLimitBoundary + "\tteam" + sizeLimitBoundary
+                                                         + "\tname" + sizeLimitBoundary + "\temail" + sizeLimitBoundary
+                                                         + "@nonexistemail.nonexist");
+            submissionParams = new String[]{
+                    Const.ParamsNames.COURSE_ID, courseId,
+                    Const.ParamsNames.STUDENTS_ENROLLMENT_INFO, enrollStringBuilder.toString()
+            };
+            enrollAction = getAction(submissionParams);
+            pageResult = getShowPageResult(enrollAction);
+            assertEquals(Const.ViewURIs.INSTRUCTOR_COURSE_ENROLL, pageResult.destination);
+            assertTrue(pageResult.isError);
+            assertEquals(Const.StatusMessages.QUOTA_PER_ENROLLMENT_EXCEED, pageResult.getStatusMessage());
+        } finally {
+            StudentsLogic.setSizeLimitPerEnrollment(0);
         }
-        submissionParams = new String[]{
-                Const.ParamsNames.COURSE_ID, courseId,
-                Const.ParamsNames.STUDENTS_ENROLLMENT_INFO, enrollStringBuilder.toString()
-        };
-        enrollAction = getAction(submissionParams);
-        pageResult = getShowPageResult(enrollAction);
-        assertFalse(pageResult.isError);
-        assertEquals("", pageResult.getStatusMessage());
-        
-        //fail to enroll, if exceed the range
-        enrollStringBuilder.append(Const.EOL).append("section" + sizeLimitBoundary + "\tteam" + sizeLimitBoundary
-                                                     + "\tname" + sizeLimitBoundary + "\temail" + sizeLimitBoundary
-                                                     + "@nonexistemail.nonexist");
-        submissionParams = new String[]{
-                Const.ParamsNames.COURSE_ID, courseId,
-                Const.ParamsNames.STUDENTS_ENROLLMENT_INFO, enrollStringBuilder.toString()
-        };
-        enrollAction = getAction(submissionParams);
-        pageResult = getShowPageResult(enrollAction);
-        assertEquals(Const.ViewURIs.INSTRUCTOR_COURSE_ENROLL, pageResult.destination);
-        assertTrue(pageResult.isError);
-        assertEquals(Const.StatusMessages.QUOTA_PER_ENROLLMENT_EXCEED, pageResult.getStatusMessage());
         
         ______TS("Failure case: empty input");
 
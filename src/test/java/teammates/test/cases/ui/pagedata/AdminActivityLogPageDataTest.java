@@ -0,0 +1,112 @@
+package teammates.test.cases.ui.pagedata;
+
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import teammates.common.datatransfer.AccountAttributes;
+import teammates.common.util.ActivityLogEntry;
+import teammates.common.util.ActivityLogQuery;
+import teammates.test.cases.BaseTestCase;
+import teammates.ui.controller.AdminActivityLogPageData;
+
+public class AdminActivityLogPageDataTest extends BaseTestCase {
+
+    private static final long START_TIME = 1000000L;
+    private static final long END_TIME = 2000000L;
+
+    private static AccountAttributes admin = new AccountAttributes("AALPDT.admin", "Admin", false,
+                                                                   "admin@aalpdt.tmt", "TEAMMATES Test Institute 1");
+
+    @BeforeClass
+    public static void classSetUp() {
+        printTestClassHeader();
+    }
+
+    @Test
+    public void testToActivityLogQuery() {
+
+        ______TS("no query: only the time period is searched by");
+
+        ActivityLogQuery query = getActivityLogQuery("");
+        assertEquals(START_TIME, query.getStartTime());
+        assertEquals(END_TIME, query.getEndTime());
+        assertNull(query.getPerson());
+        assertNull(query.getCourseId());
+        assertNull(query.getAction());
+        assertNull(query.getRole());
+        assertNull(query.getCursor());
+
+        ______TS("person is searched by before the other labels");
+
+        query = getActivityLogQuery("person: Alice Tan and course: CS1101 and request: instructorHomePage");
+        assertEquals("alice tan", query.getPerson());
+        assertNull(query.getCourseId());
+        assertNull(query.getAction());
+
+        ______TS("course is searched by before request and role");
+
+        query = getActivityLogQuery("course: CS1101 and request: instructorHomePage and role: Instructor");
+        assertEquals("cs1101", query.getCourseId());
+        assertNull(query.getAction());
+        assertNull(query.getRole());
+
+        ______TS("labels with several values are not searched by");
+
+        query = getActivityLogQuery("course: CS1101, CS2103 and request: instructorHomePage, studentHomePage"
+                                    + " and role: Instructor");
+        assertNull(query.getCourseId());
+        assertNull(query.getAction());
+        assertEquals("instructor", query.getRole());
+
+        query = getActivityLogQuery("role: Instructor, Student");
+        assertNull(query.getRole());
+
+        ______TS("labels not kept in the activity log store are not searched by");
+
+        query = getActivityLogQuery("response: Pageload and info: course and time: 100 and id: abc");
+        assertNull(query.getPerson());
+        assertNull(query.getCourseId());
+        assertNull(query.getAction());
+        assertNull(query.getRole());
+
+        ______TS("query which cannot be parsed: only the time period is searched by");
+
+        query = getActivityLogQuery("course CS1101");
+        assertNull(query.getCourseId());
+        assertEquals(START_TIME, query.getStartTime());
+    }
+
+    @Test
+    public void testFilterLogsByCourse() {
+        AdminActivityLogPageData data = new AdminActivityLogPageData(admin);
+
+        ______TS("no course label: logs of all courses and of no course are shown");
+
+        data.generateQueryParameters("request: instructorCourseDetailsPage");
+        assertTrue(data.filterLogs(createActivityLogEntry("cs1101")).toShow());
+        assertTrue(data.filterLogs(createActivityLogEntry(null)).toShow());
+
+        ______TS("course label: only the logs of the courses in the query are shown, ignoring case");
+
+        data.generateQueryParameters("course: CS1101, CS2103");
+        assertTrue(data.filterLogs(createActivityLogEntry("cs1101")).toShow());
+        assertTrue(data.filterLogs(createActivityLogEntry("CS2103")).toShow());
+        assertFalse(data.filterLogs(createActivityLogEntry("cs1101-2")).toShow());
+
+        ______TS("course label: logs of no course, e.g. from the application logs, are not shown");
+
+        assertFalse(data.filterLogs(createActivityLogEntry(null)).toShow());
+    }
+
+    private static ActivityLogQuery getActivityLogQuery(String filterQuery) {
+        AdminActivityLogPageData data = new AdminActivityLogPageData(admin);
+        data.generateQueryParameters(filterQuery);
+        return data.toActivityLogQuery(START_TIME, END_TIME);
+    }
+
+    private static ActivityLogEntry createActivityLogEntry(String courseId) {
+        ActivityLogEntry entry = new ActivityLogEntry("instructorCourseDetailsPage", "Pageload", admin,
+                                                      "Viewing course details", "/page/instructorCourseDetailsPage");
+        return new ActivityLogEntry(START_TIME, entry.generateLogMessage() + "|||100", courseId);
+    }
+}
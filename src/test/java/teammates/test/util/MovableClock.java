@@ -0,0 +1,26 @@
+package teammates.test.util;
+
+import teammates.storage.api.CacheVersions;
+
+/**
+ * A clock for the caches that follows the system clock but can be moved forward,
+ * e.g. past the time after a change in which loaded data is not cached.
+ */
+public class MovableClock implements CacheVersions.Clock {
+
+    private long offset;
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis() + offset;
+    }
+
+    public void moveForward(long millis) {
+        offset += millis;
+    }
+
+    public void movePastConsistencyWindow() {
+        moveForward(CacheVersions.CONSISTENCY_WINDOW_MILLIS);
+    }
+
+}